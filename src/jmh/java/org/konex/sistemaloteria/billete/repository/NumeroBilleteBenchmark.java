@@ -0,0 +1,210 @@
+package org.konex.sistemaloteria.billete.repository;
+
+import org.konex.sistemaloteria.compartido.NumeroBillete;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark JMH del índice {@code (sorteo_id, numero)} con el número guardado como texto con
+ * ceros a la izquierda ({@code VARCHAR}, antes) o como entero ({@code INT}, ahora), sobre H2.
+ *
+ * <p>
+ * Cada variante usa su propia base H2 en archivo, con una tabla de la misma forma que
+ * {@code billetes} reducida a las columnas del índice. Se mide:
+ * </p>
+ * <ul>
+ *   <li>{@code buscarNumero}: búsqueda de un billete por sorteo y número (la verificación de un número).</li>
+ *   <li>{@code contarRango}: conteo de un rango de {@value #ANCHO_RANGO} números
+ *       (los filtros {@code desde}/{@code hasta} del listado paginado).</li>
+ * </ul>
+ *
+ * <p>
+ * Al preparar cada variante se imprime el tamaño del índice único: la diferencia del archivo
+ * compactado antes y después de crearlo.
+ * </p>
+ *
+ * Ejemplo:
+ * <pre>
+ *     ./gradlew jmh                          # resultados en build/reports/jmh/resultados.json
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class NumeroBilleteBenchmark {
+
+    /** Números por consulta de rango. */
+    static final int ANCHO_RANGO = 1000;
+
+    /** Forma de guardar el número del billete. */
+    public enum Almacenamiento {
+        /** {@code VARCHAR(16)} con ceros a la izquierda, como se guardaba antes. */
+        TEXTO("VARCHAR(16)"),
+        /** {@code INT}, con las cifras en el sorteo. */
+        ENTERO("INT");
+
+        private final String tipo;
+
+        Almacenamiento(String tipo) {
+            this.tipo = tipo;
+        }
+    }
+
+    @Param({"TEXTO", "ENTERO"})
+    public Almacenamiento almacenamiento;
+
+    /** Sorteos cargados. */
+    @Param("20")
+    public int sorteos;
+
+    /** Billetes por sorteo. */
+    @Param("100000")
+    public int billetesPorSorteo;
+
+    private Path directorio;
+    private String url;
+    private Connection conexion;
+    private PreparedStatement buscar;
+    private PreparedStatement contar;
+    private int cifras;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException, SQLException {
+        directorio = Files.createTempDirectory("jmh-numeros");
+        url = "jdbc:h2:file:" + directorio.resolve("numeros") + ";MODE=MySQL;DATABASE_TO_UPPER=false";
+        cifras = NumeroBillete.cifras(billetesPorSorteo);
+
+        // --- 1️⃣ Tabla sin índice, cargada y compactada ---
+        try (Connection con = DriverManager.getConnection(url)) {
+            try (Statement st = con.createStatement()) {
+                st.execute("CREATE TABLE billetes (id BIGINT AUTO_INCREMENT PRIMARY KEY, sorteo_id BIGINT NOT NULL, "
+                        + "numero " + almacenamiento.tipo + " NOT NULL)");
+            }
+            cargar(con);
+            compactar(con);
+        }
+        long sinIndice = tamanoArchivos();
+
+        // --- 2️⃣ Índice único (sorteo_id, numero), compactado ---
+        try (Connection con = DriverManager.getConnection(url)) {
+            try (Statement st = con.createStatement()) {
+                st.execute("CREATE UNIQUE INDEX ux_billetes_sorteo_numero ON billetes (sorteo_id, numero)");
+            }
+            compactar(con);
+        }
+        System.out.printf("%n[%s] índice ux_billetes_sorteo_numero: %,d KiB para %,d billetes%n",
+                almacenamiento, (tamanoArchivos() - sinIndice) / 1024, (long) sorteos * billetesPorSorteo);
+
+        // --- 3️⃣ Conexión y sentencias de las mediciones ---
+        conexion = DriverManager.getConnection(url);
+        buscar = conexion.prepareStatement("SELECT id FROM billetes WHERE sorteo_id = ? AND numero = ?");
+        contar = conexion.prepareStatement(
+                "SELECT COUNT(*) FROM billetes WHERE sorteo_id = ? AND numero BETWEEN ? AND ?");
+    }
+
+    @TearDown(Level.Trial)
+    public void detener() throws IOException, SQLException {
+        conexion.close();
+        try (Stream<Path> archivos = Files.walk(directorio)) {
+            for (Path p : archivos.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(p);
+            }
+        }
+    }
+
+    @Benchmark
+    public long buscarNumero() throws SQLException {
+        ThreadLocalRandom azar = ThreadLocalRandom.current();
+        buscar.setLong(1, azar.nextInt(sorteos) + 1);
+        asignarNumero(buscar, 2, azar.nextInt(billetesPorSorteo) + 1);
+        try (ResultSet rs = buscar.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : -1;
+        }
+    }
+
+    @Benchmark
+    public long contarRango() throws SQLException {
+        ThreadLocalRandom azar = ThreadLocalRandom.current();
+        int desde = azar.nextInt(billetesPorSorteo - ANCHO_RANGO) + 1;
+        contar.setLong(1, azar.nextInt(sorteos) + 1);
+        asignarNumero(contar, 2, desde);
+        asignarNumero(contar, 3, desde + ANCHO_RANGO - 1);
+        try (ResultSet rs = contar.executeQuery()) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private void asignarNumero(PreparedStatement ps, int posicion, int numero) throws SQLException {
+        if (almacenamiento == Almacenamiento.TEXTO) {
+            ps.setString(posicion, NumeroBillete.formatear(numero, cifras));
+        } else {
+            ps.setInt(posicion, numero);
+        }
+    }
+
+    /** Inserta los billetes de todos los sorteos con lotes JDBC. */
+    private void cargar(Connection con) throws SQLException {
+        con.setAutoCommit(false);
+        try (PreparedStatement ps = con.prepareStatement("INSERT INTO billetes (sorteo_id, numero) VALUES (?, ?)")) {
+            for (int s = 1; s <= sorteos; s++) {
+                for (int n = 1; n <= billetesPorSorteo; n++) {
+                    ps.setLong(1, s);
+                    asignarNumero(ps, 2, n);
+                    ps.addBatch();
+                    if (n % 10_000 == 0) {
+                        ps.executeBatch();
+                    }
+                }
+                ps.executeBatch();
+                con.commit();
+            }
+        }
+        con.setAutoCommit(true);
+    }
+
+    /** Cierra la base reescribiendo el archivo sin espacio libre, para que su tamaño sea comparable. */
+    private static void compactar(Connection con) throws SQLException {
+        try (Statement st = con.createStatement()) {
+            st.execute("SHUTDOWN COMPACT");
+        }
+    }
+
+    private long tamanoArchivos() throws IOException {
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            long total = 0;
+            for (Path p : archivos.toList()) {
+                total += Files.size(p);
+            }
+            return total;
+        }
+    }
+}
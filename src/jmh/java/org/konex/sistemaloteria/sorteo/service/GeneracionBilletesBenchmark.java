@@ -0,0 +1,106 @@
+package org.konex.sistemaloteria.sorteo.service;
+
+import org.konex.sistemaloteria.SistemaLoteriaApplication;
+import org.konex.sistemaloteria.sorteo.dto.GeneracionBilletesDto;
+import org.konex.sistemaloteria.sorteo.model.Sorteo;
+import org.konex.sistemaloteria.sorteo.repository.SorteoRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark JMH de la generación masiva de billetes ({@link SorteoService#generarBilletes})
+ * contra H2 en memoria.
+ *
+ * <p>
+ * Cada invocación genera un sorteo completo de {@code cantidad} billetes (10k, 100k y 1M)
+ * y se mide el tiempo total; el rendimiento en billetes/seg es {@code cantidad / tiempo}.
+ * El sorteo se crea antes de cada invocación y sus billetes se borran después, fuera de la medición.
+ * </p>
+ *
+ * Ejemplo:
+ * <pre>
+ *     ./gradlew jmh                          # resultados en build/reports/jmh/resultados.json
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class GeneracionBilletesBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int cantidad;
+
+    /** Filas por lote JDBC. */
+    @Param("1000")
+    public int tamanoLote;
+
+    private ConfigurableApplicationContext contexto;
+    private SorteoService sorteoService;
+    private SorteoRepository sorteoRepo;
+    private JdbcTemplate jdbc;
+
+    private Long sorteoId;
+
+    @Setup(Level.Trial)
+    public void arrancar() {
+        contexto = new SpringApplicationBuilder(SistemaLoteriaApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:jmh-generacion;MODE=MySQL;DATABASE_TO_UPPER=false;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.sql.init.mode=never",
+                        "spring.jpa.show-sql=false",
+                        "loteria.billetes.generacion.tamano-lote=" + tamanoLote,
+                        "logging.level.root=WARN",
+                        "logging.level.org.hibernate.SQL=WARN",
+                        "logging.level.org.hibernate.orm.jdbc.bind=WARN")
+                .run();
+        sorteoService = contexto.getBean(SorteoService.class);
+        sorteoRepo = contexto.getBean(SorteoRepository.class);
+        jdbc = contexto.getBean(JdbcTemplate.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void crearSorteo() {
+        sorteoId = sorteoRepo.save(Sorteo.builder()
+                .nombre("Sorteo JMH " + System.nanoTime())
+                .fechaSorteo(LocalDate.now().plusDays(30))
+                .build()).getId();
+    }
+
+    @TearDown(Level.Invocation)
+    public void borrarBilletes() {
+        jdbc.update("DELETE FROM billetes WHERE sorteo_id = ?", sorteoId);
+    }
+
+    @TearDown(Level.Trial)
+    public void detener() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public GeneracionBilletesDto generar() {
+        return sorteoService.generarBilletes(sorteoId, cantidad, 10000);
+    }
+}
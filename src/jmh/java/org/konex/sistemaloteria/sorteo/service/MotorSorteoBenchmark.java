@@ -0,0 +1,138 @@
+package org.konex.sistemaloteria.sorteo.service;
+
+import org.konex.sistemaloteria.SistemaLoteriaApplication;
+import org.konex.sistemaloteria.compartido.EstadoBillete;
+import org.konex.sistemaloteria.sorteo.dto.ResultadoSorteoDto;
+import org.konex.sistemaloteria.sorteo.model.Sorteo;
+import org.konex.sistemaloteria.sorteo.repository.SorteoRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark JMH de la ejecución de un sorteo ({@link SorteoService#ejecutar}) contra H2 en memoria.
+ *
+ * <p>
+ * Se carga un sorteo con {@code vendidos} billetes vendidos (1M por defecto) y se mide:
+ * </p>
+ * <ul>
+ *   <li>{@code ejecutar}: la ejecución completa (carga del índice, pasada paralela y lote de premios).
+ *       Antes de cada invocación se borran los premios y el número ganador, fuera de la medición.</li>
+ *   <li>{@code clasificar}: solo la pasada paralela en memoria sobre el mismo volumen. Para comparar
+ *       con una pasada de un solo hilo, agregue
+ *       {@code -Djava.util.concurrent.ForkJoinPool.common.parallelism=1} a los {@code jvmArgs}.</li>
+ * </ul>
+ *
+ * Ejemplo:
+ * <pre>
+ *     ./gradlew jmh                          # resultados en build/reports/jmh/resultados.json
+ * </pre>
+ */
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+public class MotorSorteoBenchmark {
+
+    /** Número ganador fijo: cada ejecución produce los mismos premios. */
+    private static final String GANADOR = "004217";
+
+    /** Aplicación sobre H2 con un sorteo de {@code vendidos} billetes vendidos. */
+    @State(Scope.Benchmark)
+    public static class BaseDeDatos {
+
+        @Param("1000000")
+        public int vendidos;
+
+        private ConfigurableApplicationContext contexto;
+        private SorteoService sorteoService;
+        private JdbcTemplate jdbc;
+        private Long sorteoId;
+
+        @Setup(Level.Trial)
+        public void arrancar() {
+            contexto = new SpringApplicationBuilder(SistemaLoteriaApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .properties(
+                            "spring.datasource.url=jdbc:h2:mem:jmh-sorteo;MODE=MySQL;DATABASE_TO_UPPER=false;DB_CLOSE_DELAY=-1",
+                            "spring.jpa.hibernate.ddl-auto=create-drop",
+                            "spring.sql.init.mode=never",
+                            "spring.jpa.show-sql=false",
+                            "logging.level.root=WARN",
+                            "logging.level.org.hibernate.SQL=WARN",
+                            "logging.level.org.hibernate.orm.jdbc.bind=WARN")
+                    .run();
+            sorteoService = contexto.getBean(SorteoService.class);
+            jdbc = contexto.getBean(JdbcTemplate.class);
+
+            // Sorteo con todos sus billetes vendidos a un mismo cliente
+            sorteoId = contexto.getBean(SorteoRepository.class).save(Sorteo.builder()
+                    .nombre("Sorteo JMH")
+                    .fechaSorteo(LocalDate.now().plusDays(30))
+                    .build()).getId();
+            sorteoService.generarBilletes(sorteoId, vendidos, 10000);
+            jdbc.update("INSERT INTO clientes (nombre, correo) VALUES ('Cliente JMH', 'jmh@example.com')");
+            Long clienteId = jdbc.queryForObject("SELECT MAX(id) FROM clientes", Long.class);
+            jdbc.update("UPDATE billetes SET estado = ?, cliente_id = ? WHERE sorteo_id = ?",
+                    EstadoBillete.VENDIDO.name(), clienteId, sorteoId);
+        }
+
+        @Setup(Level.Invocation)
+        public void reiniciarSorteo() {
+            jdbc.update("DELETE FROM premios WHERE sorteo_id = ?", sorteoId);
+            jdbc.update("UPDATE sorteos SET numero_ganador = NULL, fecha_ejecucion = NULL WHERE id = ?", sorteoId);
+        }
+
+        @TearDown(Level.Trial)
+        public void detener() {
+            contexto.close();
+        }
+    }
+
+    /** Números aleatorios de {@code vendidos} billetes, para la pasada en memoria. */
+    @State(Scope.Benchmark)
+    public static class Numeros {
+
+        @Param("1000000")
+        public int vendidos;
+
+        private long[] numeros;
+
+        @Setup(Level.Trial)
+        public void generar() {
+            numeros = ThreadLocalRandom.current().longs(vendidos, 0, 1_000_000).toArray();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public ResultadoSorteoDto ejecutar(BaseDeDatos bd) {
+        return bd.sorteoService.ejecutar(bd.sorteoId, GANADOR);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @Warmup(iterations = 2, time = 5)
+    @Measurement(iterations = 3, time = 5)
+    public byte[] clasificar(Numeros n) {
+        return MotorSorteo.clasificar(n.numeros, n.numeros.length, Long.parseLong(GANADOR));
+    }
+}
@@ -0,0 +1,220 @@
+package org.konex.sistemaloteria.venta.service;
+
+import org.konex.sistemaloteria.SistemaLoteriaApplication;
+import org.konex.sistemaloteria.billete.service.DisponibilidadBilletes;
+import org.konex.sistemaloteria.compartido.EstadoBillete;
+import org.konex.sistemaloteria.sorteo.service.ContadoresSorteo;
+import org.konex.sistemaloteria.venta.dto.VentaRequestDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Benchmark JMH de {@link VentaServiceImpl#vender} contra H2 en memoria.
+ *
+ * <p>
+ * Arranca la capa JPA completa (sin servidor web) sobre una base H2 propia, carga un
+ * conjunto de datos configurable y mide rendimiento (ops/ms) y distribución de latencia
+ * (ms/op, con percentiles) a 1, 8 y 64 hilos.
+ * </p>
+ *
+ * <h4>Contención:</h4>
+ * <ul>
+ *   <li>{@code UNIFORME}: cada intento compra un billete distinto; mide el camino de venta exitosa.</li>
+ *   <li>{@code CONCENTRADA}: {@value #INTENTOS_POR_BILLETE_CONCENTRADA} intentos consecutivos
+ *       compiten por el mismo billete; uno gana y el resto se rechaza como conflicto
+ *       (en base de datos o en memoria).</li>
+ * </ul>
+ *
+ * <p>
+ * Antes de cada iteración todos los billetes vuelven a {@code DISPONIBLE} y se borran las ventas.
+ * Si una iteración consume más billetes de los cargados, los intentos restantes se rechazan en
+ * memoria y el resultado deja de ser representativo: se avisa por consola y hay que aumentar
+ * {@code billetes}.
+ * </p>
+ *
+ * Ejemplo:
+ * <pre>
+ *     ./gradlew jmh                          # resultados en build/reports/jmh/resultados.json
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class VentaServiceBenchmark {
+
+    static final int INTENTOS_POR_BILLETE_CONCENTRADA = 16;
+
+    /** Forma en que los intentos de compra se reparten entre los billetes. */
+    public enum Contencion {
+        UNIFORME(1),
+        CONCENTRADA(INTENTOS_POR_BILLETE_CONCENTRADA);
+
+        private final int intentosPorBillete;
+
+        Contencion(int intentosPorBillete) {
+            this.intentosPorBillete = intentosPorBillete;
+        }
+    }
+
+    /** Billetes cargados en el sorteo del benchmark. */
+    @Param("200000")
+    public int billetes;
+
+    /** Clientes compradores (se alternan en orden). */
+    @Param("1000")
+    public int clientes;
+
+    @Param({"UNIFORME", "CONCENTRADA"})
+    public Contencion contencion;
+
+    private ConfigurableApplicationContext contexto;
+    private VentaServiceImpl ventaService;
+    private DisponibilidadBilletes disponibilidad;
+    private ContadoresSorteo contadores;
+    private JdbcTemplate jdbc;
+
+    private long sorteoId;
+    private Long[] billeteIds;
+    private Long[] clienteIds;
+
+    /** Número de intento global; determina billete y cliente de cada compra. */
+    private final AtomicLong cursor = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void arrancar() {
+        contexto = new SpringApplicationBuilder(SistemaLoteriaApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:jmh;MODE=MySQL;DATABASE_TO_UPPER=false;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.sql.init.mode=never",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN",
+                        "logging.level.org.hibernate.SQL=WARN",
+                        "logging.level.org.hibernate.orm.jdbc.bind=WARN")
+                .run();
+        ventaService = contexto.getBean(VentaServiceImpl.class);
+        disponibilidad = contexto.getBean(DisponibilidadBilletes.class);
+        contadores = contexto.getBean(ContadoresSorteo.class);
+        jdbc = contexto.getBean(JdbcTemplate.class);
+
+        cargarDatos();
+    }
+
+    @Setup(Level.Iteration)
+    public void reiniciarVentas() {
+        jdbc.update("DELETE FROM ventas");
+        jdbc.update("UPDATE billetes SET estado = ?, cliente_id = NULL WHERE sorteo_id = ?",
+                EstadoBillete.DISPONIBLE.name(), sorteoId);
+        disponibilidad.reconciliar();
+        contadores.cargar();
+        cursor.set(0);
+    }
+
+    @TearDown(Level.Iteration)
+    public void verificarDataset() {
+        long usados = (cursor.get() + contencion.intentosPorBillete - 1) / contencion.intentosPorBillete;
+        if (usados > billeteIds.length) {
+            System.out.printf("%n[AVISO] La iteración necesitó %d billetes y solo hay %d: aumente -p billetes=...%n",
+                    usados, billeteIds.length);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void detener() {
+        contexto.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object vender_1hilo() {
+        return vender();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object vender_8hilos() {
+        return vender();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public Object vender_64hilos() {
+        return vender();
+    }
+
+    private Object vender() {
+        long n = cursor.getAndIncrement();
+        Long billeteId = billeteIds[(int) ((n / contencion.intentosPorBillete) % billeteIds.length)];
+        Long clienteId = clienteIds[(int) (n % clienteIds.length)];
+        try {
+            return ventaService.vender(new VentaRequestDto(billeteId, clienteId));
+        } catch (IllegalStateException e) {
+            // Conflicto esperado: otra venta ganó el billete
+            return e;
+        }
+    }
+
+    /** Inserta el sorteo, los billetes y los clientes del benchmark con JDBC por lotes. */
+    private void cargarDatos() {
+        KeyHolder clave = new GeneratedKeyHolder();
+        jdbc.update(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "INSERT INTO sorteos (nombre, fecha_sorteo) VALUES (?, ?)", Statement.RETURN_GENERATED_KEYS);
+            ps.setString(1, "Sorteo JMH");
+            ps.setDate(2, Date.valueOf(LocalDate.now().plusDays(30)));
+            return ps;
+        }, clave);
+        sorteoId = clave.getKey().longValue();
+
+        List<Object[]> filasBilletes = new ArrayList<>(billetes);
+        for (int i = 1; i <= billetes; i++) {
+            filasBilletes.add(new Object[]{i, new BigDecimal("10000"),
+                    EstadoBillete.DISPONIBLE.name(), sorteoId});
+        }
+        jdbc.batchUpdate("INSERT INTO billetes (numero, precio, estado, sorteo_id) VALUES (?, ?, ?, ?)",
+                filasBilletes);
+
+        List<Object[]> filasClientes = new ArrayList<>(clientes);
+        for (int i = 0; i < clientes; i++) {
+            filasClientes.add(new Object[]{"Cliente JMH " + i, "jmh." + i + "@example.com"});
+        }
+        jdbc.batchUpdate("INSERT INTO clientes (nombre, correo) VALUES (?, ?)", filasClientes);
+
+        billeteIds = jdbc.queryForList("SELECT id FROM billetes WHERE sorteo_id = ? ORDER BY id", Long.class, sorteoId)
+                .toArray(Long[]::new);
+        clienteIds = jdbc.queryForList("SELECT id FROM clientes ORDER BY id", Long.class)
+                .toArray(Long[]::new);
+    }
+}
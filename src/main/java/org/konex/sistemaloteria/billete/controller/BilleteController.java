@@ -3,7 +3,9 @@ package org.konex.sistemaloteria.billete.controller;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.konex.sistemaloteria.billete.dto.BilleteDto;
+import org.konex.sistemaloteria.billete.dto.PaginaBilletesDto;
 import org.konex.sistemaloteria.billete.service.BilleteService;
+import org.konex.sistemaloteria.compartido.EstadoBillete;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -25,7 +27,7 @@ import java.util.List;
  * <h3>Endpoints:</h3>
  * <ul>
  *   <li><b>POST /api/billetes</b> — Crear un billete.</li>
- *   <li><b>GET  /api/billetes/sorteo/{sorteoId}</b> — Listar billetes de un sorteo.</li>
+ *   <li><b>GET  /api/billetes/sorteo/{sorteoId}</b> — Listar billetes de un sorteo por páginas.</li>
  * </ul>
  *
  * <p>Validaciones esperadas (definidas en {@link BilleteDto}):
@@ -41,6 +43,9 @@ import java.util.List;
 @RequiredArgsConstructor
 public class BilleteController {
 
+    /** Cabecera con el cursor de la página siguiente. */
+    static final String CURSOR_SIGUIENTE = "X-Cursor-Siguiente";
+
     /** Servicio con la lógica de billetes. */
     private final BilleteService service;
 
@@ -67,16 +72,41 @@ public class BilleteController {
     }
 
     /**
-     * Lista los billetes de un sorteo específico.
+     * Lista los billetes de un sorteo específico, por páginas ordenadas por número.
+     *
+     * <p>
+     * Paginación por cursor: si hay más billetes, la respuesta incluye la cabecera
+     * {@value #CURSOR_SIGUIENTE}, cuyo valor se envía como {@code despues} para pedir
+     * la página siguiente. Cada página cuesta lo mismo sin importar cuántas se hayan
+     * recorrido antes.
+     * </p>
      *
      * <h4>Ejemplo</h4>
-     * <pre>GET /api/billetes/sorteo/3</pre>
+     * <pre>
+     * GET /api/billetes/sorteo/3?estado=DISPONIBLE&amp;desde=0100&amp;hasta=0499&amp;limite=100
+     * GET /api/billetes/sorteo/3?estado=DISPONIBLE&amp;desde=0100&amp;hasta=0499&amp;limite=100&amp;despues=0199
+     * </pre>
      *
      * @param sorteoId ID del sorteo.
-     * @return lista de billetes (HTTP 200).
+     * @param estado filtra por estado (opcional).
+     * @param desde número mínimo, inclusive (opcional).
+     * @param hasta número máximo, inclusive (opcional).
+     * @param despues cursor recibido en la página anterior (opcional).
+     * @param limite billetes por página (1 a 1000, por defecto 100).
+     * @return lista de billetes (HTTP 200); 400 si el límite está fuera de rango.
      */
     @GetMapping("/sorteo/{sorteoId}")
-    public ResponseEntity<List<BilleteDto>> listarPorSorteo(@PathVariable Long sorteoId) {
-        return ResponseEntity.ok(service.listarPorSorteo(sorteoId));
+    public ResponseEntity<List<BilleteDto>> listarPorSorteo(@PathVariable Long sorteoId,
+                                                            @RequestParam(required = false) EstadoBillete estado,
+                                                            @RequestParam(required = false) String desde,
+                                                            @RequestParam(required = false) String hasta,
+                                                            @RequestParam(required = false) String despues,
+                                                            @RequestParam(defaultValue = "100") int limite) {
+        PaginaBilletesDto pagina = service.listarPorSorteo(sorteoId, estado, desde, hasta, despues, limite);
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok();
+        if (pagina.getSiguiente() != null) {
+            respuesta.header(CURSOR_SIGUIENTE, pagina.getSiguiente());
+        }
+        return respuesta.body(pagina.getBilletes());
     }
 }
@@ -3,6 +3,7 @@ package org.konex.sistemaloteria.billete.dto;
 import jakarta.validation.constraints.*;
 import lombok.*;
 import org.konex.sistemaloteria.compartido.EstadoBillete;
+import org.konex.sistemaloteria.compartido.NumeroBillete;
 
 import java.math.BigDecimal;
 
@@ -26,4 +27,13 @@ public class BilleteDto {
 
     @NotNull(message = "sorteoId es obligatorio")
     private Long sorteoId;
+
+    /**
+     * Constructor de las proyecciones JPQL: recibe el número guardado (entero) y las
+     * cifras del sorteo, y lo expone con ceros a la izquierda.
+     */
+    public BilleteDto(Long id, Integer numero, Integer cifras, BigDecimal precio, EstadoBillete estado,
+                      Long sorteoId) {
+        this(id, NumeroBillete.formatear(numero, cifras), precio, estado, sorteoId);
+    }
 }
@@ -0,0 +1,28 @@
+package org.konex.sistemaloteria.billete.dto;
+
+import java.util.List;
+
+/**
+ * Página de billetes de un sorteo obtenida con paginación por cursor (keyset).
+ *
+ * <p>
+ * {@code siguiente} es el número del último billete de la página; se envía como
+ * {@code despues} para pedir la página siguiente. Es {@code null} en la última página.
+ * </p>
+ */
+public class PaginaBilletesDto {
+
+    /** Billetes de la página, ordenados por número. */
+    private List<BilleteDto> billetes;
+
+    /** Cursor de la página siguiente, o {@code null} si no hay más billetes. */
+    private String siguiente;
+
+    public PaginaBilletesDto(List<BilleteDto> billetes, String siguiente) {
+        this.billetes = billetes;
+        this.siguiente = siguiente;
+    }
+
+    public List<BilleteDto> getBilletes() { return billetes; }
+    public String getSiguiente() { return siguiente; }
+}
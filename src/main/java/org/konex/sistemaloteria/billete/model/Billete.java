@@ -1,11 +1,14 @@
 package org.konex.sistemaloteria.billete.model;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.*;
 import org.konex.sistemaloteria.cliente.model.Cliente;
 import org.konex.sistemaloteria.compartido.EstadoBillete;
+import org.konex.sistemaloteria.compartido.NumeroBillete;
 import org.konex.sistemaloteria.sorteo.model.Sorteo;
 
 import java.math.BigDecimal;
@@ -16,7 +19,7 @@ import java.math.BigDecimal;
  * <p>
  * Cada billete pertenece a un sorteo y puede estar asociado opcionalmente
  * a un cliente cuando ha sido vendido. Su estado se define por la enumeración
- * {@link EstadoBillete}, con valores posibles {@code DISPONIBLE} y {@code VENDIDO}.
+ * {@link EstadoBillete}, con valores posibles {@code DISPONIBLE}, {@code RESERVADO} y {@code VENDIDO}.
  * </p>
  *
  * <p>
@@ -63,9 +66,15 @@ public class Billete {
      * No se usa {@code unique=true} a nivel de columna porque la restricción
      * se aplica a nivel de tabla mediante {@link UniqueConstraint}.
      * </p>
+     *
+     * <p>
+     * Se guarda como entero; el texto con ceros a la izquierda lo arma
+     * {@link #getNumeroFormateado()} con las cifras del sorteo.
+     * </p>
      */
-    @Column(name = "numero", nullable = false, length = 16)
-    private String numero;
+    @Column(name = "numero", nullable = false)
+    @JsonIgnore
+    private Integer numero;
 
     /** Precio del billete (valor de venta). */
     @Column(name = "precio", nullable = false, precision = 12, scale = 2)
@@ -75,6 +84,7 @@ public class Billete {
      * Estado actual del billete.
      * <ul>
      *   <li>{@link EstadoBillete#DISPONIBLE}: billete libre para venta.</li>
+     *   <li>{@link EstadoBillete#RESERVADO}: billete apartado temporalmente para un cliente.</li>
      *   <li>{@link EstadoBillete#VENDIDO}: billete ya asignado a un cliente.</li>
      * </ul>
      */
@@ -103,7 +113,8 @@ public class Billete {
      *
      * <p>
      * La relación es opcional: un billete puede no estar asignado a ningún cliente
-     * mientras se encuentra en estado {@code DISPONIBLE}.
+     * mientras se encuentra en estado {@code DISPONIBLE}. Durante una reserva
+     * referencia al cliente que la hizo.
      * </p>
      */
     @ManyToOne(fetch = FetchType.LAZY)
@@ -111,4 +122,16 @@ public class Billete {
     @ToString.Exclude
     @JsonIgnoreProperties({"billetes", "hibernateLazyInitializer", "handler"})
     private Cliente cliente;
+
+    /**
+     * Número con ceros a la izquierda hasta las cifras del sorteo (p. ej. {@code 0007}).
+     * Es el valor que se expone como {@code numero} en JSON; necesita el sorteo cargado.
+     */
+    @JsonProperty("numero")
+    public String getNumeroFormateado() {
+        if (numero == null) {
+            return null;
+        }
+        return NumeroBillete.formatear(numero, sorteo != null ? sorteo.getCifras() : NumeroBillete.CIFRAS_MINIMAS);
+    }
 }
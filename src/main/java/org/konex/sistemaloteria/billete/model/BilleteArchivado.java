@@ -0,0 +1,89 @@
+package org.konex.sistemaloteria.billete.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.konex.sistemaloteria.cliente.model.Cliente;
+import org.konex.sistemaloteria.compartido.EstadoBillete;
+import org.konex.sistemaloteria.sorteo.model.Sorteo;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Billete de un sorteo archivado, junto con los datos de su venta.
+ *
+ * <p>
+ * Al archivar un sorteo (ver {@link org.konex.sistemaloteria.sorteo.service.ArchivadorSorteos})
+ * cada fila de {@code billetes} y su fila de {@code ventas} se copian en una sola fila de
+ * {@code billetes_archivados} y se borran de las tablas activas. Se guardan los IDs originales
+ * y no hay relaciones ni claves foráneas: la tabla es de solo lectura y sus índices no crecen
+ * con los sorteos en curso, ni los de {@code billetes} con los sorteos pasados.
+ * </p>
+ */
+@Entity
+@Table(
+        name = "billetes_archivados",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "ux_billetes_archivados_sorteo_numero", columnNames = {"sorteo_id", "numero"})
+        },
+        indexes = {
+                @Index(name = "ix_billetes_archivados_cliente", columnList = "cliente_id")
+        }
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BilleteArchivado {
+
+    /** ID que tenía el billete en {@code billetes}. */
+    @Id
+    private Long id;
+
+    /** Sorteo al que pertenece el billete. */
+    @Column(name = "sorteo_id", nullable = false)
+    private Long sorteoId;
+
+    /** Número del billete; se muestra con las cifras de su sorteo. */
+    @Column(nullable = false)
+    private Integer numero;
+
+    /** Precio del billete. */
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal precio;
+
+    /** Estado del billete al archivarlo ({@code DISPONIBLE} o {@code VENDIDO}). */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private EstadoBillete estado;
+
+    /** Cliente comprador, si el billete se vendió. */
+    @Column(name = "cliente_id")
+    private Long clienteId;
+
+    /** ID que tenía la venta en {@code ventas}, si el billete se vendió. */
+    @Column(name = "venta_id")
+    private Long ventaId;
+
+    /** Fecha de la venta, si el billete se vendió. */
+    @Column(name = "fecha_venta")
+    private LocalDateTime fechaVenta;
+
+    /**
+     * Reconstruye el billete con la forma del listado de billetes de un sorteo.
+     * El resultado no está asociado a la sesión y no debe guardarse.
+     *
+     * @param sorteo sorteo del billete.
+     * @param cliente comprador, o {@code null}.
+     */
+    public Billete aBillete(Sorteo sorteo, Cliente cliente) {
+        return Billete.builder()
+                .id(id)
+                .numero(numero)
+                .precio(precio)
+                .estado(estado)
+                .sorteo(sorteo)
+                .cliente(cliente)
+                .build();
+    }
+}
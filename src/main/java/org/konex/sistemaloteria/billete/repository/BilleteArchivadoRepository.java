@@ -0,0 +1,85 @@
+package org.konex.sistemaloteria.billete.repository;
+
+import org.konex.sistemaloteria.billete.dto.BilleteDto;
+import org.konex.sistemaloteria.billete.model.BilleteArchivado;
+import org.konex.sistemaloteria.cliente.dto.HistorialClienteDto;
+import org.konex.sistemaloteria.compartido.EstadoBillete;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+/**
+ * Repositorio de solo lectura de los billetes de sorteos archivados.
+ *
+ * <p>
+ * Las filas se escriben únicamente al archivar un sorteo, con un {@code INSERT ... SELECT}
+ * (ver {@link org.konex.sistemaloteria.sorteo.service.ArchivadorSorteos}); aquí solo se
+ * consultan, con la misma forma que las consultas equivalentes sobre {@code billetes}.
+ * </p>
+ */
+public interface BilleteArchivadoRepository extends JpaRepository<BilleteArchivado, Long> {
+
+    /**
+     * Página de billetes archivados de un sorteo, con los mismos filtros y cursor que
+     * {@link BilleteRepository#buscarPagina}.
+     */
+    @Query("""
+           SELECT new org.konex.sistemaloteria.billete.dto.BilleteDto(
+                  a.id, a.numero, s.cifras, a.precio, a.estado, a.sorteoId)
+           FROM BilleteArchivado a JOIN Sorteo s ON s.id = a.sorteoId
+           WHERE a.sorteoId = :sorteoId
+             AND a.numero > :despues
+             AND a.numero >= :desde
+             AND (:hasta IS NULL OR a.numero <= :hasta)
+             AND (:estado IS NULL OR a.estado = :estado)
+           ORDER BY a.numero
+           """)
+    List<BilleteDto> buscarPagina(Long sorteoId, Integer despues, Integer desde, Integer hasta,
+                                  EstadoBillete estado, Limit limite);
+
+    /**
+     * Billetes archivados comprados por un cliente, con el número en las cifras de su sorteo.
+     *
+     * @param clienteId identificador del cliente.
+     * @return billetes en orden de ID.
+     */
+    @Query("""
+           SELECT new org.konex.sistemaloteria.billete.dto.BilleteDto(
+                  a.id, a.numero, s.cifras, a.precio, a.estado, a.sorteoId)
+           FROM BilleteArchivado a JOIN Sorteo s ON s.id = a.sorteoId
+           WHERE a.clienteId = :clienteId
+           ORDER BY a.id
+           """)
+    List<BilleteDto> buscarPorCliente(Long clienteId);
+
+    /**
+     * Billetes archivados de un sorteo con su comprador, en orden de ID.
+     *
+     * @param sorteoId identificador del sorteo.
+     * @return pares {@code [BilleteArchivado, Cliente]}; el cliente es {@code null} si no se vendió.
+     */
+    @Query("""
+           SELECT a, c
+           FROM BilleteArchivado a LEFT JOIN Cliente c ON c.id = a.clienteId
+           WHERE a.sorteoId = :sorteoId
+           ORDER BY a.id
+           """)
+    List<Object[]> listarConCliente(Long sorteoId);
+
+    /**
+     * Billetes archivados de un cliente, con el nombre de su sorteo, para su historial.
+     *
+     * @param clienteId identificador del cliente.
+     * @return resúmenes de los billetes en orden de ID.
+     */
+    @Query("""
+           SELECT new org.konex.sistemaloteria.cliente.dto.HistorialClienteDto$BilleteResumen(
+                  a.id, a.numero, s.cifras, a.precio, a.estado, s.id, s.nombre)
+           FROM BilleteArchivado a JOIN Sorteo s ON s.id = a.sorteoId
+           WHERE a.clienteId = :clienteId
+           ORDER BY a.id
+           """)
+    List<HistorialClienteDto.BilleteResumen> resumirPorCliente(Long clienteId);
+}
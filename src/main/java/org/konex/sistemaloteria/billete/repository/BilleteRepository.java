@@ -1,9 +1,18 @@
 package org.konex.sistemaloteria.billete.repository;
 
+import jakarta.persistence.LockModeType;
+import org.konex.sistemaloteria.billete.dto.BilleteDto;
 import org.konex.sistemaloteria.billete.model.Billete;
+import org.konex.sistemaloteria.cliente.dto.HistorialClienteDto;
+import org.konex.sistemaloteria.cliente.model.Cliente;
 import org.konex.sistemaloteria.compartido.EstadoBillete;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -24,8 +33,12 @@ import java.util.List;
  * <h4>Consultas personalizadas incluidas:</h4>
  * <ul>
  *   <li>{@link #findBySorteoId(Long)} — obtiene todos los billetes de un sorteo.</li>
+ *   <li>{@link #buscarPagina(Long, Integer, Integer, Integer, EstadoBillete, Limit)} — página de billetes de un sorteo por cursor (keyset).</li>
  *   <li>{@link #findBySorteoIdAndEstado(Long, EstadoBillete)} — filtra billetes por sorteo y estado (ej. DISPONIBLE o VENDIDO).</li>
  *   <li>{@link #findByClienteId(Long)} — lista billetes asociados a un cliente específico.</li>
+ *   <li>{@link #cambiarEstadoSi(Long, EstadoBillete, EstadoBillete, Cliente)} — transición de estado condicional (atómica).</li>
+ *   <li>{@link #reclamarSi(Long, EstadoBillete, EstadoBillete, Cliente)} — la misma transición, solo si el sorteo no se ejecutó (ventas y reservas).</li>
+ *   <li>{@link #bloquearPorIds(Collection)} — bloquea un conjunto de billetes en orden de ID.</li>
  * </ul>
  *
  * <h4>Ejemplo de uso:</h4>
@@ -44,6 +57,45 @@ public interface BilleteRepository extends JpaRepository<Billete, Long> {
      */
     List<Billete> findBySorteoId(Long sorteoId);
 
+    /**
+     * Obtiene una página de billetes de un sorteo, ordenados por número, a partir de un cursor.
+     *
+     * <p>
+     * Paginación por cursor (<i>keyset</i>): en lugar de {@code OFFSET}, la página empieza
+     * después del último número ya entregado. Las condiciones sobre {@code sorteo_id} y
+     * {@code numero} forman un rango del índice único {@code ux_billetes_sorteo_numero},
+     * que además entrega las filas ya ordenadas; la base de datos salta directo al inicio
+     * de la página, de modo que la página N cuesta lo mismo que la primera.
+     * </p>
+     *
+     * <p>
+     * Los números son enteros y se comparan por valor, igual que en el índice; el texto con
+     * ceros a la izquierda se arma en el DTO con las cifras del sorteo.
+     * Se devuelven DTOs directamente, sin cargar entidades en el contexto de persistencia.
+     * </p>
+     *
+     * @param sorteoId identificador del sorteo.
+     * @param despues cursor: se devuelven números estrictamente mayores ({@code -1} para la primera página).
+     * @param desde número mínimo, inclusive ({@code 0} sin límite).
+     * @param hasta número máximo, inclusive ({@code null} sin límite).
+     * @param estado estado de los billetes ({@code null} para todos).
+     * @param limite cantidad máxima de billetes.
+     * @return billetes de la página, ordenados por número.
+     */
+    @Query("""
+           SELECT new org.konex.sistemaloteria.billete.dto.BilleteDto(
+                  b.id, b.numero, s.cifras, b.precio, b.estado, s.id)
+           FROM Billete b JOIN b.sorteo s
+           WHERE b.sorteo.id = :sorteoId
+             AND b.numero > :despues
+             AND b.numero >= :desde
+             AND (:hasta IS NULL OR b.numero <= :hasta)
+             AND (:estado IS NULL OR b.estado = :estado)
+           ORDER BY b.numero
+           """)
+    List<BilleteDto> buscarPagina(Long sorteoId, Integer despues, Integer desde, Integer hasta,
+                                  EstadoBillete estado, Limit limite);
+
     /**
      * Obtiene todos los billetes de un sorteo filtrados por su estado.
      *
@@ -69,4 +121,155 @@ public interface BilleteRepository extends JpaRepository<Billete, Long> {
      * @return lista de billetes comprados por ese cliente.
      */
     List<Billete> findByClienteId(Long clienteId);
+
+    /**
+     * Obtiene únicamente los identificadores de los billetes que están en un estado dado.
+     *
+     * <p>
+     * Se usa para cargar y reconciliar estructuras en memoria sin materializar entidades.
+     * </p>
+     *
+     * @param estado estado buscado.
+     * @return identificadores de los billetes en ese estado.
+     */
+    @Query("SELECT b.id FROM Billete b WHERE b.estado = :estado")
+    List<Long> findIdsByEstado(EstadoBillete estado);
+
+    /**
+     * Cambia el estado de un billete solo si su estado actual coincide con el esperado,
+     * asignándole en la misma sentencia el cliente indicado.
+     *
+     * <p>
+     * Es una operación de tipo <i>compare-and-set</i> resuelta por la base de datos
+     * con un único {@code UPDATE ... WHERE estado = :esperado}: si dos ventas compiten
+     * por el mismo billete, solo una de ellas obtiene {@code 1} como resultado.
+     * La otra recibe {@code 0} y puede informar el conflicto de inmediato, sin llegar
+     * a insertar la venta ni depender de la restricción única de {@code ventas.billete_id}.
+     * </p>
+     *
+     * <p>
+     * El contexto de persistencia se sincroniza antes y se limpia después de la
+     * actualización, de modo que ninguna entidad en memoria sobrescriba el nuevo estado.
+     * </p>
+     *
+     * @param billeteId identificador del billete.
+     * @param esperado estado que debe tener el billete para aplicar el cambio.
+     * @param nuevo estado que se asigna al billete.
+     * @param cliente cliente que queda asociado al billete (puede ser {@code null}).
+     * @return número de filas actualizadas: {@code 1} si se aplicó el cambio, {@code 0} en caso contrario.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+           UPDATE Billete b
+           SET b.estado = :nuevo, b.cliente = :cliente
+           WHERE b.id = :billeteId AND b.estado = :esperado
+           """)
+    int cambiarEstadoSi(Long billeteId, EstadoBillete esperado, EstadoBillete nuevo, Cliente cliente);
+
+    /**
+     * Variante por conjunto de {@link #cambiarEstadoSi(Long, EstadoBillete, EstadoBillete, Cliente)}:
+     * aplica la transición a todos los billetes indicados con una única sentencia.
+     *
+     * <p>
+     * Solo se actualizan los billetes que siguen en el estado esperado; comparar el
+     * resultado con el tamaño del conjunto permite detectar si alguno no lo estaba.
+     * </p>
+     *
+     * @param billeteIds identificadores de los billetes.
+     * @param esperado estado que deben tener los billetes para aplicar el cambio.
+     * @param nuevo estado que se asigna a los billetes.
+     * @param cliente cliente que queda asociado a los billetes (puede ser {@code null}).
+     * @return número de billetes actualizados.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+           UPDATE Billete b
+           SET b.estado = :nuevo, b.cliente = :cliente
+           WHERE b.id IN :billeteIds AND b.estado = :esperado
+           """)
+    int cambiarEstadoSi(Collection<Long> billeteIds, EstadoBillete esperado, EstadoBillete nuevo, Cliente cliente);
+
+    /**
+     * Igual que {@link #cambiarEstadoSi(Long, EstadoBillete, EstadoBillete, Cliente)}, pero solo si
+     * el sorteo del billete todavía no tiene número ganador ni fue archivado. Es la transición de
+     * las ventas y las reservas: una vez ejecutado o archivado el sorteo devuelve {@code 0}.
+     *
+     * <p>
+     * La condición va en la misma sentencia que el cambio de estado, así que no hay ventana
+     * entre comprobar el sorteo y reclamar el billete. Liberar una reserva sigue usando
+     * {@link #cambiarEstadoSi}, que no depende del sorteo.
+     * </p>
+     *
+     * @param billeteId identificador del billete.
+     * @param esperado estado que debe tener el billete para aplicar el cambio.
+     * @param nuevo estado que se asigna al billete.
+     * @param cliente cliente que queda asociado al billete.
+     * @return {@code 1} si se aplicó el cambio, {@code 0} en caso contrario.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+           UPDATE Billete b
+           SET b.estado = :nuevo, b.cliente = :cliente
+           WHERE b.id = :billeteId AND b.estado = :esperado
+             AND EXISTS (SELECT 1 FROM Sorteo s
+                         WHERE s.id = b.sorteo.id AND s.numeroGanador IS NULL AND s.fechaArchivo IS NULL)
+           """)
+    int reclamarSi(Long billeteId, EstadoBillete esperado, EstadoBillete nuevo, Cliente cliente);
+
+    /**
+     * Variante por conjunto de {@link #reclamarSi(Long, EstadoBillete, EstadoBillete, Cliente)}.
+     *
+     * @param billeteIds identificadores de los billetes.
+     * @param esperado estado que deben tener los billetes para aplicar el cambio.
+     * @param nuevo estado que se asigna a los billetes.
+     * @param cliente cliente que queda asociado a los billetes.
+     * @return número de billetes actualizados.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+           UPDATE Billete b
+           SET b.estado = :nuevo, b.cliente = :cliente
+           WHERE b.id IN :billeteIds AND b.estado = :esperado
+             AND EXISTS (SELECT 1 FROM Sorteo s
+                         WHERE s.id = b.sorteo.id AND s.numeroGanador IS NULL AND s.fechaArchivo IS NULL)
+           """)
+    int reclamarSi(Collection<Long> billeteIds, EstadoBillete esperado, EstadoBillete nuevo, Cliente cliente);
+
+    /**
+     * Carga y bloquea para escritura ({@code SELECT ... FOR UPDATE}) los billetes indicados.
+     *
+     * <p>
+     * Los bloqueos se adquieren siempre en orden ascendente de ID, de modo que dos
+     * operaciones concurrentes sobre conjuntos que se solapan esperan una a la otra
+     * en lugar de bloquearse mutuamente (sin interbloqueos).
+     * Debe invocarse dentro de una transacción.
+     * </p>
+     *
+     * @param billeteIds identificadores de los billetes.
+     * @return billetes encontrados, ordenados por ID.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Billete b WHERE b.id IN :billeteIds ORDER BY b.id")
+    List<Billete> bloquearPorIds(Collection<Long> billeteIds);
+
+    /**
+     * Billetes de un cliente con el nombre de su sorteo, para su historial.
+     *
+     * <p>
+     * Una sola consulta con {@code JOIN} al sorteo y proyección directa al DTO: no se crean
+     * entidades ni se inicializan proxies, así que la cantidad de sentencias no depende de
+     * cuántos billetes tenga el cliente.
+     * </p>
+     *
+     * @param clienteId identificador del cliente.
+     * @return resúmenes de los billetes en orden de ID.
+     */
+    @Query("""
+           SELECT new org.konex.sistemaloteria.cliente.dto.HistorialClienteDto$BilleteResumen(
+                  b.id, b.numero, s.cifras, b.precio, b.estado, s.id, s.nombre)
+           FROM Billete b JOIN b.sorteo s
+           WHERE b.cliente.id = :clienteId
+           ORDER BY b.id
+           """)
+    List<HistorialClienteDto.BilleteResumen> resumirPorCliente(Long clienteId);
 }
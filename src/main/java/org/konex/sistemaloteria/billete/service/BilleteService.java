@@ -1,7 +1,8 @@
 package org.konex.sistemaloteria.billete.service;
 
-import java.util.List;
 import org.konex.sistemaloteria.billete.dto.BilleteDto;
+import org.konex.sistemaloteria.billete.dto.PaginaBilletesDto;
+import org.konex.sistemaloteria.compartido.EstadoBillete;
 
 /**
  * Interfaz que define el contrato del servicio para la gestión de billetes.
@@ -19,7 +20,7 @@ import org.konex.sistemaloteria.billete.dto.BilleteDto;
  * <h4>Responsabilidades:</h4>
  * <ul>
  *   <li>Crear nuevos billetes asociados a un sorteo.</li>
- *   <li>Listar billetes filtrados por identificador de sorteo.</li>
+ *   <li>Listar billetes de un sorteo por páginas, con filtros de estado y rango de números.</li>
  * </ul>
  *
  * <h4>Ejemplo de uso:</h4>
@@ -28,7 +29,8 @@ import org.konex.sistemaloteria.billete.dto.BilleteDto;
  *     new BilleteDto(null, "0008", new BigDecimal("10000"), EstadoBillete.DISPONIBLE, 1L)
  * );
  *
- * List&lt;BilleteDto&gt; billetes = billeteService.listarPorSorteo(1L);
+ * PaginaBilletesDto pagina = billeteService.listarPorSorteo(1L, null, null, null, null, 100);
+ * PaginaBilletesDto otra = billeteService.listarPorSorteo(1L, null, null, null, pagina.getSiguiente(), 100);
  * </pre>
  */
 public interface BilleteService {
@@ -48,14 +50,22 @@ public interface BilleteService {
     BilleteDto crearBillete(BilleteDto dto);
 
     /**
-     * Lista todos los billetes correspondientes a un sorteo específico.
+     * Lista una página de los billetes de un sorteo, ordenados por número.
      *
      * <p>
      * Devuelve información básica de cada billete: número, precio, estado y sorteoId.
+     * La página siguiente se pide pasando como {@code despues} el cursor devuelto.
      * </p>
      *
      * @param sorteoId identificador único del sorteo.
-     * @return lista de objetos {@link BilleteDto}.
+     * @param estado estado de los billetes ({@code null} para todos).
+     * @param desde número mínimo, inclusive (opcional).
+     * @param hasta número máximo, inclusive (opcional).
+     * @param despues cursor de la página anterior (opcional).
+     * @param limite cantidad máxima de billetes por página.
+     * @return billetes de la página y cursor de la siguiente.
+     * @throws IllegalArgumentException si el límite está fuera de rango.
      */
-    List<BilleteDto> listarPorSorteo(Long sorteoId);
+    PaginaBilletesDto listarPorSorteo(Long sorteoId, EstadoBillete estado, String desde, String hasta,
+                                      String despues, int limite);
 }
@@ -3,14 +3,23 @@ package org.konex.sistemaloteria.billete.service;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.konex.sistemaloteria.billete.dto.BilleteDto;
+import org.konex.sistemaloteria.billete.dto.PaginaBilletesDto;
 import org.konex.sistemaloteria.billete.model.Billete;
+import org.konex.sistemaloteria.billete.repository.BilleteArchivadoRepository;
 import org.konex.sistemaloteria.billete.repository.BilleteRepository;
 import org.konex.sistemaloteria.compartido.EstadoBillete;
+import org.konex.sistemaloteria.compartido.NumeroBillete;
 import org.konex.sistemaloteria.sorteo.model.Sorteo;
 import org.konex.sistemaloteria.sorteo.repository.SorteoRepository;
+import org.konex.sistemaloteria.sorteo.service.ContadoresSorteo;
+import org.konex.sistemaloteria.sorteo.service.GeneradorBilletes;
 
+import org.springframework.data.domain.Limit;
+
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 /**
  * Servicio que gestiona las operaciones relacionadas con los billetes.
@@ -30,7 +39,8 @@ import java.util.stream.Collectors;
  * <h4>Responsabilidades principales:</h4>
  * <ul>
  *   <li>Crear nuevos billetes asociados a un sorteo existente.</li>
- *   <li>Listar billetes filtrados por sorteo.</li>
+ *   <li>Listar billetes de un sorteo por páginas (cursor sobre el número), incluidos los
+ *       billetes sin fila de los sorteos virtuales.</li>
  *   <li>Inicializar billetes con estado {@code DISPONIBLE} por defecto.</li>
  * </ul>
  *
@@ -42,12 +52,27 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class BilleteServiceImpl implements BilleteService {
 
+    /** Máximo de billetes por página. */
+    static final int LIMITE_MAXIMO = 1000;
+
     /** Repositorio para operaciones de persistencia de billetes. */
     private final BilleteRepository billeteRepo;
 
     /** Repositorio de sorteos, usado para validar la existencia de sorteos asociados. */
     private final SorteoRepository sorteoRepo;
 
+    /** Contadores por sorteo, actualizados con cada billete creado. */
+    private final ContadoresSorteo contadores;
+
+    /** Billetes libres en memoria; el conjunto del sorteo se recarga con el billete nuevo. */
+    private final BilletesLibres libres;
+
+    /** Billetes de los sorteos archivados, consultados en lugar de {@code billetes}. */
+    private final BilleteArchivadoRepository archivoRepo;
+
+    /** Amplía las cifras del sorteo cuando el número trae más (y descarta las cifras en memoria). */
+    private final GeneradorBilletes generador;
+
     /**
      * Crea un nuevo billete asociado a un sorteo existente.
      *
@@ -67,6 +92,11 @@ public class BilleteServiceImpl implements BilleteService {
      * </pre>
      *
      * <p>
+     * El número se guarda como entero; si trae más cifras que las del sorteo
+     * (p. ej. {@code 000123} en un sorteo de 4), el sorteo pasa a mostrarse con ese ancho.
+     * </p>
+     *
+     * <p>
      * Si el sorteo asociado no existe, se lanza una excepción con mensaje claro.
      * </p>
      *
@@ -78,10 +108,17 @@ public class BilleteServiceImpl implements BilleteService {
         // Buscar el sorteo asociado al billete
         Sorteo sorteo = sorteoRepo.findById(dto.getSorteoId())
                 .orElseThrow(() -> new RuntimeException("El sorteo con ID " + dto.getSorteoId() + " no existe."));
+        if (sorteo.isVirtual()) {
+            throw new IllegalStateException("El sorteo " + sorteo.getId() + " tiene billetes virtuales");
+        }
+        int numero = NumeroBillete.leer(dto.getNumero());
+        if (dto.getNumero().length() > sorteo.getCifras()) {
+            generador.ampliarCifras(sorteo.getId(), dto.getNumero().length());
+        }
 
         // Crear el billete usando el patrón Builder de Lombok
         Billete billete = Billete.builder()
-                .numero(dto.getNumero())
+                .numero(numero)
                 .precio(dto.getPrecio())
                 .estado(dto.getEstado() != null ? dto.getEstado() : EstadoBillete.DISPONIBLE)
                 .sorteo(sorteo)
@@ -89,6 +126,11 @@ public class BilleteServiceImpl implements BilleteService {
 
         // Guardar en base de datos
         Billete guardado = billeteRepo.save(billete);
+        contadores.registrarBilletes(sorteo.getId(), 1);
+        if (guardado.getEstado() == EstadoBillete.VENDIDO) {
+            contadores.registrarVenta(sorteo.getId(), guardado.getPrecio());
+        }
+        libres.invalidar(sorteo.getId());
 
         // Devolver el DTO actualizado con el ID y estado persistidos
         dto.setId(guardado.getId());
@@ -97,32 +139,98 @@ public class BilleteServiceImpl implements BilleteService {
     }
 
     /**
-     * Lista todos los billetes pertenecientes a un sorteo específico.
+     * Lista una página de los billetes de un sorteo, ordenados por número.
+     *
+     * <p>
+     * Se pide un billete más que el límite: si llega, hay otra página y el cursor
+     * es el número del último billete devuelto. Así la última página no necesita
+     * una consulta adicional vacía para saber que terminó.
+     * </p>
+     *
+     * <p>
+     * Si el sorteo está archivado, la misma consulta se hace sobre {@code billetes_archivados}.
+     * </p>
      *
      * <p>
-     * Devuelve únicamente los billetes vinculados al {@code sorteoId} indicado,
-     * incluyendo número, precio, estado y referencia al sorteo.
+     * En un sorteo virtual los billetes {@code VENDIDO} y {@code RESERVADO} son exactamente sus
+     * filas; el resto de la página se arma con {@link #paginaVirtual}.
      * </p>
      *
      * <h4>Ejemplo de uso:</h4>
-     * <pre>GET /api/sorteos/3/billetes</pre>
+     * <pre>GET /api/billetes/sorteo/3?estado=DISPONIBLE&amp;limite=100&amp;despues=0100</pre>
      *
-     * @param sorteoId identificador del sorteo.
-     * @return lista de billetes en formato {@link BilleteDto}.
+     * @return billetes de la página y cursor de la siguiente ({@code null} si es la última).
      */
     @Override
-    public List<BilleteDto> listarPorSorteo(Long sorteoId) {
-        return billeteRepo.findBySorteoId(sorteoId)
-                .stream()
-                .map(b -> {
-                    BilleteDto dto = new BilleteDto();
-                    dto.setId(b.getId());
-                    dto.setNumero(b.getNumero());
-                    dto.setPrecio(b.getPrecio());
-                    dto.setEstado(b.getEstado());
-                    dto.setSorteoId(b.getSorteo().getId());
-                    return dto;
-                })
-                .collect(Collectors.toList());
+    public PaginaBilletesDto listarPorSorteo(Long sorteoId, EstadoBillete estado, String desde, String hasta,
+                                             String despues, int limite) {
+        if (limite <= 0 || limite > LIMITE_MAXIMO) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + LIMITE_MAXIMO);
+        }
+
+        // Los números llegan como texto (con o sin ceros) y se comparan como enteros
+        int numeroDespues = despues != null ? NumeroBillete.leer(despues) : -1;
+        int numeroDesde = desde != null ? NumeroBillete.leer(desde) : 0;
+        Integer numeroHasta = hasta != null ? NumeroBillete.leer(hasta) : null;
+
+        Sorteo sorteo = sorteoRepo.findById(sorteoId).orElse(null);
+        boolean archivado = sorteo != null && sorteo.isArchivado();
+        List<BilleteDto> billetes = sorteo != null && sorteo.isVirtual()
+                && estado != EstadoBillete.VENDIDO && estado != EstadoBillete.RESERVADO
+                ? paginaVirtual(sorteo, estado, Math.max(Math.max(numeroDespues + 1, numeroDesde), 1),
+                        numeroHasta, limite + 1)
+                : buscarPagina(archivado, sorteoId, numeroDespues, numeroDesde, numeroHasta, estado, limite + 1);
+
+        if (billetes.size() <= limite) {
+            return new PaginaBilletesDto(billetes, null);
+        }
+        List<BilleteDto> pagina = billetes.subList(0, limite);
+        return new PaginaBilletesDto(pagina, pagina.get(limite - 1).getNumero());
+    }
+
+    /**
+     * Hasta {@code cantidad} billetes de un sorteo virtual desde el número {@code inicio}.
+     *
+     * <p>
+     * Se recorre el rango en ventanas de {@code cantidad} números: las filas de cada ventana se
+     * leen con una consulta y los números sin fila se completan como {@code DISPONIBLE} (sin ID,
+     * con el precio del sorteo). Si el filtro es {@code DISPONIBLE} se descartan las filas
+     * vendidas o reservadas y se sigue con la ventana siguiente hasta llenar la página.
+     * </p>
+     */
+    private List<BilleteDto> paginaVirtual(Sorteo sorteo, EstadoBillete estado, int inicio, Integer hasta,
+                                           int cantidad) {
+        int fin = hasta != null ? Math.min(hasta, sorteo.getNumerosVirtuales()) : sorteo.getNumerosVirtuales();
+        List<BilleteDto> billetes = new ArrayList<>(cantidad);
+
+        for (int desde = inicio; desde <= fin && billetes.size() < cantidad; desde += cantidad) {
+            int tope = (int) Math.min((long) desde + cantidad - 1, fin);
+
+            // --- 1️⃣ Filas existentes de la ventana, por número ---
+            Map<Integer, BilleteDto> filas = new HashMap<>();
+            for (BilleteDto b : buscarPagina(sorteo.isArchivado(), sorteo.getId(), desde - 1, desde, tope,
+                    null, cantidad)) {
+                filas.put(Integer.parseInt(b.getNumero()), b);
+            }
+
+            // --- 2️⃣ Números de la ventana en orden: la fila si existe, si no el billete virtual ---
+            for (int n = desde; n <= tope && billetes.size() < cantidad; n++) {
+                BilleteDto b = filas.get(n);
+                if (b == null) {
+                    billetes.add(new BilleteDto(null, n, sorteo.getCifras(), sorteo.getPrecioVirtual(),
+                            EstadoBillete.DISPONIBLE, sorteo.getId()));
+                } else if (estado == null || b.getEstado() == estado) {
+                    billetes.add(b);
+                }
+            }
+        }
+        return billetes;
+    }
+
+    private List<BilleteDto> buscarPagina(boolean archivado, Long sorteoId, int despues, int desde,
+                                          Integer hasta, EstadoBillete estado, int cantidad) {
+        return archivado
+                ? archivoRepo.buscarPagina(sorteoId, despues, desde, hasta, estado, Limit.of(cantidad))
+                : billeteRepo.buscarPagina(sorteoId, despues, desde, hasta, estado, Limit.of(cantidad));
     }
 }
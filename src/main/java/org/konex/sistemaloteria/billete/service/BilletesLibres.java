@@ -0,0 +1,279 @@
+package org.konex.sistemaloteria.billete.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.konex.sistemaloteria.compartido.EstadoBillete;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Conjuntos en memoria de los billetes libres de cada sorteo, para entregar
+ * "cualquier billete disponible" o "el siguiente disponible" en O(1).
+ *
+ * <p>
+ * Cada sorteo tiene un {@link Conjunto} con sus billetes en orden de número y, aparte,
+ * un arreglo denso con las posiciones libres: tomar uno al azar es elegir una casilla
+ * del arreglo y quitarla intercambiándola con la última. Cada conjunto tiene su propio
+ * {@link ReentrantLock}, de modo que dos solicitudes nunca reciben el mismo billete y
+ * los sorteos no compiten entre sí.
+ * </p>
+ *
+ * <p>
+ * El conjunto es una guía, no la fuente de verdad: quien toma un billete debe reservarlo
+ * con la transición condicional de la base de datos y, si ya no estaba disponible
+ * (p. ej. se vendió por ID), descartarlo y tomar otro.
+ * </p>
+ *
+ * <h4>Ciclo de vida:</h4>
+ * <ul>
+ *   <li>Se carga al primer uso de cada sorteo, con sus billetes no vendidos.</li>
+ *   <li>Los billetes cuya reserva vence vuelven con {@link #devolver}.</li>
+ *   <li>Al crear billetes el conjunto del sorteo se descarta ({@link #invalidar}) y se recarga
+ *       en el siguiente uso.</li>
+ *   <li>Si se vacía, se recarga desde la base de datos, como máximo una vez cada
+ *       {@code loteria.billetes.libres.recarga-minima-ms}.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class BilletesLibres {
+
+    /** Billetes que pueden volver a estar libres (todos menos los vendidos), en orden de número. */
+    private static final String NO_VENDIDOS =
+            "SELECT id, estado FROM billetes WHERE sorteo_id = ? AND estado <> ? ORDER BY numero";
+
+    private final JdbcTemplate jdbc;
+
+    /** Tiempo mínimo entre dos cargas del mismo sorteo cuando su conjunto se vacía. */
+    private final long recargaMinimaNanos;
+
+    /** Conjuntos indexados por ID de sorteo. */
+    private final Map<Long, Conjunto> conjuntos = new ConcurrentHashMap<>();
+
+    public BilletesLibres(JdbcTemplate jdbc,
+                          @Value("${loteria.billetes.libres.recarga-minima-ms:5000}") long recargaMinimaMs) {
+        this.jdbc = jdbc;
+        this.recargaMinimaNanos = recargaMinimaMs * 1_000_000L;
+    }
+
+    /**
+     * Toma un billete libre al azar del sorteo.
+     *
+     * @param sorteoId identificador del sorteo.
+     * @return ID del billete, o {@code null} si no queda ninguno libre.
+     */
+    public Long tomarAleatorio(Long sorteoId) {
+        return tomar(sorteoId, false);
+    }
+
+    /**
+     * Toma el billete libre de menor número del sorteo.
+     *
+     * @param sorteoId identificador del sorteo.
+     * @return ID del billete, o {@code null} si no queda ninguno libre.
+     */
+    public Long tomarSiguiente(Long sorteoId) {
+        return tomar(sorteoId, true);
+    }
+
+    /**
+     * Vuelve a marcar como libre un billete tomado o liberado (p. ej. al vencer su reserva).
+     * No hace nada si su sorteo no está cargado.
+     *
+     * @param billeteId identificador del billete.
+     * @return {@code true} si el billete es de un sorteo cargado.
+     */
+    public boolean devolver(Long billeteId) {
+        for (Conjunto conjunto : conjuntos.values()) {
+            if (conjunto.devolver(billeteId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Descarta el conjunto de un sorteo cuyos billetes cambiaron (p. ej. se generaron nuevos).
+     * Dentro de una transacción se descarta después del commit, para que la recarga los vea.
+     *
+     * @param sorteoId identificador del sorteo.
+     */
+    public void invalidar(Long sorteoId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    conjuntos.remove(sorteoId);
+                }
+            });
+        } else {
+            conjuntos.remove(sorteoId);
+        }
+    }
+
+    private Long tomar(Long sorteoId, boolean siguiente) {
+        Conjunto conjunto = conjuntos.computeIfAbsent(sorteoId, this::cargar);
+        long billeteId = conjunto.tomar(siguiente);
+        if (billeteId < 0 && System.nanoTime() - conjunto.cargadoEn >= recargaMinimaNanos) {
+            // Vacío: puede haber billetes nuevos o liberados por otra vía
+            conjuntos.remove(sorteoId, conjunto);
+            billeteId = conjuntos.computeIfAbsent(sorteoId, this::cargar).tomar(siguiente);
+        }
+        return billeteId >= 0 ? billeteId : null;
+    }
+
+    /** Carga los billetes no vendidos de un sorteo; solo los {@code DISPONIBLE} quedan libres. */
+    private Conjunto cargar(Long sorteoId) {
+        Conjunto.Carga carga = new Conjunto.Carga();
+        jdbc.query(NO_VENDIDOS, (RowCallbackHandler) rs -> carga.agregar(rs.getLong(1),
+                EstadoBillete.DISPONIBLE.name().equals(rs.getString(2))), sorteoId, EstadoBillete.VENDIDO.name());
+        Conjunto conjunto = carga.construir();
+        log.debug("Billetes libres del sorteo {} cargados: {}", sorteoId, conjunto.libres());
+        return conjunto;
+    }
+
+    /**
+     * Billetes de un sorteo, por posición en orden de número, con sus posiciones libres.
+     */
+    static final class Conjunto {
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        /** ID del billete en cada posición. */
+        private final long[] ids;
+
+        /** IDs ordenados y la posición de cada uno, para ubicar un billete por su ID. */
+        private final long[] idsOrdenados;
+        private final int[] posicionDeId;
+
+        /** Posiciones libres, sin huecos, en las primeras {@code cantidad} casillas. */
+        private final int[] libres;
+
+        /** Casilla de cada posición en {@code libres}, o {@code -1} si no está libre. */
+        private final int[] casilla;
+
+        private int cantidad;
+
+        /** Ninguna posición anterior a esta está libre. */
+        private int primeraCandidata;
+
+        private final long cargadoEn = System.nanoTime();
+
+        private Conjunto(long[] ids, boolean[] disponibles) {
+            int n = ids.length;
+            this.ids = ids;
+            this.libres = new int[n];
+            this.casilla = new int[n];
+            Arrays.fill(casilla, -1);
+            for (int p = 0; p < n; p++) {
+                if (disponibles[p]) {
+                    libres[cantidad] = p;
+                    casilla[p] = cantidad++;
+                }
+            }
+
+            Integer[] orden = new Integer[n];
+            for (int p = 0; p < n; p++) {
+                orden[p] = p;
+            }
+            Arrays.sort(orden, (a, b) -> Long.compare(ids[a], ids[b]));
+            this.idsOrdenados = new long[n];
+            this.posicionDeId = new int[n];
+            for (int i = 0; i < n; i++) {
+                idsOrdenados[i] = ids[orden[i]];
+                posicionDeId[i] = orden[i];
+            }
+        }
+
+        /** @return ID del billete tomado, o {@code -1} si no hay libres. */
+        long tomar(boolean siguiente) {
+            lock.lock();
+            try {
+                if (cantidad == 0) {
+                    return -1;
+                }
+                int p;
+                if (siguiente) {
+                    while (casilla[primeraCandidata] < 0) {
+                        primeraCandidata++;
+                    }
+                    p = primeraCandidata;
+                } else {
+                    p = libres[ThreadLocalRandom.current().nextInt(cantidad)];
+                }
+                quitar(p);
+                return ids[p];
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /** @return {@code true} si el billete pertenece a este conjunto. */
+        boolean devolver(long billeteId) {
+            int i = Arrays.binarySearch(idsOrdenados, billeteId);
+            if (i < 0) {
+                return false;
+            }
+            int p = posicionDeId[i];
+            lock.lock();
+            try {
+                if (casilla[p] < 0) {
+                    libres[cantidad] = p;
+                    casilla[p] = cantidad++;
+                    primeraCandidata = Math.min(primeraCandidata, p);
+                }
+            } finally {
+                lock.unlock();
+            }
+            return true;
+        }
+
+        int libres() {
+            lock.lock();
+            try {
+                return cantidad;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /** Quita una posición libre intercambiándola con la última casilla. */
+        private void quitar(int p) {
+            int c = casilla[p];
+            int ultima = libres[--cantidad];
+            libres[c] = ultima;
+            casilla[ultima] = c;
+            casilla[p] = -1;
+        }
+
+        /** Acumula las filas de la carga en arreglos que crecen. */
+        static final class Carga {
+            private long[] ids = new long[1024];
+            private boolean[] disponibles = new boolean[1024];
+            private int tamano;
+
+            void agregar(long id, boolean disponible) {
+                if (tamano == ids.length) {
+                    ids = Arrays.copyOf(ids, tamano * 2);
+                    disponibles = Arrays.copyOf(disponibles, tamano * 2);
+                }
+                ids[tamano] = id;
+                disponibles[tamano] = disponible;
+                tamano++;
+            }
+
+            Conjunto construir() {
+                return new Conjunto(Arrays.copyOf(ids, tamano), Arrays.copyOf(disponibles, tamano));
+            }
+        }
+    }
+}
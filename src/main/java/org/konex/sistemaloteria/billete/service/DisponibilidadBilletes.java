@@ -0,0 +1,172 @@
+package org.konex.sistemaloteria.billete.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.konex.sistemaloteria.billete.repository.BilleteRepository;
+import org.konex.sistemaloteria.compartido.EstadoBillete;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Mapa en memoria de billetes vendidos, usado para rechazar al instante
+ * las ventas de billetes que ya no están disponibles.
+ *
+ * <p>
+ * Se implementa como un conjunto de bits atómico indexado por el ID del billete
+ * (que es denso por ser autogenerado), dividido en páginas de
+ * {@value #BITS_POR_PAGINA} bits que se crean bajo demanda. Las lecturas y
+ * escrituras no usan bloqueos: cada bit se modifica con operaciones CAS sobre
+ * un {@link AtomicLongArray}.
+ * </p>
+ *
+ * <p>
+ * El mapa solo puede equivocarse "hacia el lado seguro": un bit en {@code 0}
+ * significa "no se sabe que esté vendido" y la venta continúa hacia la base de
+ * datos, donde la transición condicional del billete decide. Un bit en {@code 1}
+ * se marca únicamente después de confirmar la venta.
+ * </p>
+ *
+ * <h4>Ciclo de vida:</h4>
+ * <ul>
+ *   <li>Se carga al iniciar la aplicación con los billetes {@code VENDIDO}.</li>
+ *   <li>Se actualiza cada vez que una venta se confirma.</li>
+ *   <li>Se reconcilia periódicamente con la columna {@code billetes.estado}.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DisponibilidadBilletes {
+
+    /** Cantidad de billetes cubiertos por cada página del mapa. */
+    static final int BITS_POR_PAGINA = 1 << 16;
+
+    private static final int PALABRAS_POR_PAGINA = BITS_POR_PAGINA / Long.SIZE;
+
+    /** Repositorio usado para cargar y reconciliar el mapa con la base de datos. */
+    private final BilleteRepository billeteRepo;
+
+    /** Páginas del mapa, indexadas por {@code billeteId / BITS_POR_PAGINA}. */
+    private volatile Map<Long, AtomicLongArray> paginas = new ConcurrentHashMap<>();
+
+    /**
+     * Indica si se sabe que el billete ya fue vendido.
+     *
+     * @param billeteId identificador del billete.
+     * @return {@code true} si el billete figura como vendido.
+     */
+    public boolean estaVendido(Long billeteId) {
+        if (billeteId == null || billeteId < 0) {
+            return false;
+        }
+        AtomicLongArray pagina = paginas.get(billeteId / BITS_POR_PAGINA);
+        if (pagina == null) {
+            return false;
+        }
+        int bit = (int) (billeteId % BITS_POR_PAGINA);
+        return (pagina.get(bit >>> 6) & (1L << (bit & 63))) != 0;
+    }
+
+    /**
+     * Rechaza de inmediato la venta de un billete que ya figura como vendido.
+     *
+     * @param billeteId identificador del billete.
+     * @throws BilleteNoDisponibleException si el billete ya fue vendido.
+     */
+    public void verificarDisponible(Long billeteId) {
+        if (estaVendido(billeteId)) {
+            throw new BilleteNoDisponibleException();
+        }
+    }
+
+    /**
+     * Marca un billete como vendido. Debe invocarse después de confirmar la venta.
+     *
+     * @param billeteId identificador del billete.
+     */
+    public void marcarVendido(Long billeteId) {
+        marcar(paginas, billeteId);
+    }
+
+    /**
+     * Carga el mapa al iniciar la aplicación (después de ejecutar {@code data.sql}).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        reconciliar();
+    }
+
+    /**
+     * Reconstruye el mapa a partir de {@code billetes.estado} y lo reemplaza de forma atómica.
+     *
+     * <p>
+     * Una venta confirmada mientras se reconstruye puede quedar fuera del mapa nuevo;
+     * eso solo provoca una consulta extra a la base de datos hasta la siguiente reconciliación.
+     * </p>
+     *
+     * @return cantidad de billetes cuyo estado en memoria no coincidía con la base de datos.
+     */
+    @Scheduled(initialDelayString = "${loteria.disponibilidad.reconciliacion-ms:60000}",
+            fixedDelayString = "${loteria.disponibilidad.reconciliacion-ms:60000}")
+    public int reconciliar() {
+        Map<Long, AtomicLongArray> nuevas = new ConcurrentHashMap<>();
+        for (Long id : billeteRepo.findIdsByEstado(EstadoBillete.VENDIDO)) {
+            marcar(nuevas, id);
+        }
+
+        int diferencias = contarDiferencias(paginas, nuevas);
+        paginas = nuevas;
+
+        if (diferencias > 0) {
+            log.warn("Reconciliación de disponibilidad: {} billetes corregidos", diferencias);
+        }
+        return diferencias;
+    }
+
+    private static void marcar(Map<Long, AtomicLongArray> destino, Long billeteId) {
+        if (billeteId == null || billeteId < 0) {
+            return;
+        }
+        AtomicLongArray pagina = destino.computeIfAbsent(
+                billeteId / BITS_POR_PAGINA, k -> new AtomicLongArray(PALABRAS_POR_PAGINA));
+        int bit = (int) (billeteId % BITS_POR_PAGINA);
+        long mascara = 1L << (bit & 63);
+        int palabra = bit >>> 6;
+        long actual;
+        do {
+            actual = pagina.get(palabra);
+            if ((actual & mascara) != 0) {
+                return;
+            }
+        } while (!pagina.compareAndSet(palabra, actual, actual | mascara));
+    }
+
+    private static int contarDiferencias(Map<Long, AtomicLongArray> antes, Map<Long, AtomicLongArray> despues) {
+        int diferencias = 0;
+        for (Map.Entry<Long, AtomicLongArray> e : antes.entrySet()) {
+            diferencias += diferencias(e.getValue(), despues.get(e.getKey()));
+        }
+        for (Map.Entry<Long, AtomicLongArray> e : despues.entrySet()) {
+            if (!antes.containsKey(e.getKey())) {
+                diferencias += diferencias(e.getValue(), null);
+            }
+        }
+        return diferencias;
+    }
+
+    private static int diferencias(AtomicLongArray a, AtomicLongArray b) {
+        int total = 0;
+        for (int i = 0; i < PALABRAS_POR_PAGINA; i++) {
+            long x = a.get(i);
+            long y = b != null ? b.get(i) : 0L;
+            total += Long.bitCount(x ^ y);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,313 @@
+package org.konex.sistemaloteria.billete.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.konex.sistemaloteria.compartido.EstadoBillete;
+import org.konex.sistemaloteria.sorteo.service.DatosVentaSorteos;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Billetes de los sorteos virtuales: se crean como filas recién al reservarlos o venderlos.
+ *
+ * <p>
+ * Un sorteo virtual solo declara su rango de números ({@code 1..numeros_virtuales}) y el precio.
+ * Un número sin fila está disponible; un número con fila tiene el estado de esa fila. Así la
+ * tabla {@code billetes} crece con las ventas y no con el rango, y declarar un sorteo de un
+ * millón de números es una sola sentencia.
+ * </p>
+ *
+ * <h4>Materialización:</h4>
+ * <ul>
+ *   <li>{@link #billeteId} crea la fila {@code DISPONIBLE} con {@code INSERT IGNORE}: si dos
+ *       solicitudes piden el mismo número a la vez, la restricción única
+ *       {@code ux_billetes_sorteo_numero} deja una sola fila y ambas obtienen su ID.</li>
+ *   <li>La reserva o la venta siguen luego el camino de siempre (transición condicional sobre
+ *       la fila), así que solo una de las dos gana el billete.</li>
+ *   <li>Una fila creada cuya venta falla queda {@code DISPONIBLE}, igual que si no existiera.</li>
+ *   <li>En un sorteo ejecutado o archivado no se crea ninguna fila.</li>
+ * </ul>
+ *
+ * <p>
+ * {@link #tomarAleatorio} y {@link #tomarSiguiente} eligen el número en memoria, igual que
+ * {@link BilletesLibres}: cada sorteo tiene un {@link Rango} con un bit por número (reservado,
+ * vendido o ya entregado a otra solicitud) y su propio {@link ReentrantLock}, así que dos
+ * solicitudes concurrentes nunca reciben el mismo número y solo después se toca la base de
+ * datos. El rango se carga al primer uso con los números ocupados; un número entregado cuya
+ * reserva falla o vence vuelve con {@link #devolver}. Si el rango se agota, se recarga como
+ * máximo una vez cada {@code loteria.billetes.libres.recarga-minima-ms}.
+ * El rango y el precio de un sorteo no cambian una vez declarados y se guardan en memoria; al
+ * archivar el sorteo se descartan con {@link #invalidar}.
+ * </p>
+ */
+@Slf4j
+@Component
+public class NumerosVirtuales {
+
+    private static final String DEFINICION =
+            "SELECT numeros_virtuales, precio_virtual FROM sorteos WHERE id = ?";
+
+    private static final String MATERIALIZAR =
+            "INSERT IGNORE INTO billetes (numero, precio, estado, sorteo_id) VALUES (?, ?, ?, ?)";
+
+    private static final String ID_POR_NUMERO = "SELECT id FROM billetes WHERE sorteo_id = ? AND numero = ?";
+
+    /** Números con fila reservada o vendida: los que no se pueden entregar. */
+    private static final String OCUPADOS =
+            "SELECT numero FROM billetes WHERE sorteo_id = ? AND estado <> ?";
+
+    private static final String NUMERO_POR_ID = "SELECT sorteo_id, numero FROM billetes WHERE id = ?";
+
+    private final JdbcTemplate jdbc;
+    private final DatosVentaSorteos datos;
+
+    /** Tiempo mínimo entre dos cargas del mismo sorteo cuando su rango se agota. */
+    private final long recargaMinimaNanos;
+
+    /** Definiciones de los sorteos virtuales ya consultados. */
+    private final Map<Long, Definicion> definiciones = new ConcurrentHashMap<>();
+
+    /** Rangos en memoria indexados por ID de sorteo. */
+    private final Map<Long, Rango> rangos = new ConcurrentHashMap<>();
+
+    public NumerosVirtuales(JdbcTemplate jdbc,
+                            DatosVentaSorteos datos,
+                            @Value("${loteria.billetes.libres.recarga-minima-ms:5000}") long recargaMinimaMs) {
+        this.jdbc = jdbc;
+        this.datos = datos;
+        this.recargaMinimaNanos = recargaMinimaMs * 1_000_000L;
+    }
+
+    /**
+     * Indica si el sorteo tiene billetes virtuales.
+     *
+     * @param sorteoId identificador del sorteo.
+     * @return {@code false} también si el sorteo no existe.
+     */
+    public boolean esVirtual(Long sorteoId) {
+        return definicion(sorteoId) != null;
+    }
+
+    /**
+     * ID del billete con ese número; en un sorteo virtual, crea su fila si todavía no existe.
+     *
+     * @param sorteoId identificador del sorteo.
+     * @param numero número del billete.
+     * @return ID del billete.
+     * @throws IllegalArgumentException si el número está fuera del rango del sorteo virtual.
+     * @throws IllegalStateException si el sorteo virtual ya fue ejecutado o archivado.
+     * @throws NoSuchElementException si el sorteo no es virtual y no tiene un billete con ese número.
+     */
+    public Long billeteId(Long sorteoId, int numero) {
+        Definicion d = definicion(sorteoId);
+        if (d != null) {
+            if (numero < 1 || numero > d.cantidad) {
+                throw new IllegalArgumentException(
+                        "El número debe estar entre 1 y " + d.cantidad + " en el sorteo " + sorteoId);
+            }
+            if (datos.cerrado(sorteoId)) {
+                throw new IllegalStateException("El sorteo ya fue ejecutado o archivado: no admite ventas ni reservas");
+            }
+            jdbc.update(MATERIALIZAR, numero, d.precio, EstadoBillete.DISPONIBLE.name(), sorteoId);
+        }
+        List<Long> ids = jdbc.queryForList(ID_POR_NUMERO, Long.class, sorteoId, numero);
+        if (ids.isEmpty()) {
+            throw new NoSuchElementException("El sorteo " + sorteoId + " no tiene el billete " + numero);
+        }
+        return ids.get(0);
+    }
+
+    /**
+     * Toma un número libre del sorteo virtual a partir de uno elegido al azar y crea su fila.
+     *
+     * @param sorteoId identificador del sorteo.
+     * @return ID del billete, o {@code null} si no queda ningún número libre.
+     */
+    public Long tomarAleatorio(Long sorteoId) {
+        return tomar(sorteoId, false);
+    }
+
+    /**
+     * Toma el número libre más bajo del sorteo virtual y crea su fila.
+     *
+     * @param sorteoId identificador del sorteo.
+     * @return ID del billete, o {@code null} si no queda ningún número libre.
+     */
+    public Long tomarSiguiente(Long sorteoId) {
+        return tomar(sorteoId, true);
+    }
+
+    /**
+     * Vuelve a ofrecer el número de un billete virtual tomado o liberado (p. ej. su reserva
+     * falló o venció). No hace nada si el billete no es de un sorteo virtual cargado.
+     *
+     * @param billeteId identificador del billete.
+     */
+    public void devolver(Long billeteId) {
+        if (rangos.isEmpty()) {
+            return;
+        }
+        jdbc.query(NUMERO_POR_ID, (RowCallbackHandler) rs -> {
+            Rango rango = rangos.get(rs.getLong(1));
+            if (rango != null) {
+                rango.devolver(rs.getInt(2));
+            }
+        }, billeteId);
+    }
+
+    /**
+     * Descarta la definición y el rango en memoria de un sorteo (p. ej. al archivarlo). Dentro de
+     * una transacción se descartan después del commit.
+     *
+     * @param sorteoId identificador del sorteo.
+     */
+    public void invalidar(Long sorteoId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    descartar(sorteoId);
+                }
+            });
+        } else {
+            descartar(sorteoId);
+        }
+    }
+
+    private void descartar(Long sorteoId) {
+        definiciones.remove(sorteoId);
+        rangos.remove(sorteoId);
+    }
+
+    private Long tomar(Long sorteoId, boolean siguiente) {
+        Definicion d = definicion(sorteoId);
+        if (d == null) {
+            return null;
+        }
+        Rango rango = rangos.computeIfAbsent(sorteoId, id -> cargar(id, d));
+        int numero = rango.tomar(siguiente);
+        if (numero < 0 && System.nanoTime() - rango.cargadoEn >= recargaMinimaNanos) {
+            // Agotado: puede haber números liberados por otra vía
+            rangos.remove(sorteoId, rango);
+            rango = rangos.computeIfAbsent(sorteoId, id -> cargar(id, d));
+            numero = rango.tomar(siguiente);
+        }
+        if (numero < 0) {
+            return null;
+        }
+        try {
+            return billeteId(sorteoId, numero);
+        } catch (RuntimeException e) {
+            rango.devolver(numero);
+            throw e;
+        }
+    }
+
+    /** Carga los números reservados o vendidos del sorteo. */
+    private Rango cargar(Long sorteoId, Definicion d) {
+        Rango rango = new Rango(d.cantidad);
+        jdbc.query(OCUPADOS, (RowCallbackHandler) rs -> rango.ocupados.set(rs.getInt(1)),
+                sorteoId, EstadoBillete.DISPONIBLE.name());
+        log.debug("Números virtuales del sorteo {} cargados: {} ocupados de {}",
+                sorteoId, rango.ocupados.cardinality(), d.cantidad);
+        return rango;
+    }
+
+    /** Definición del sorteo si es virtual; {@code null} si no lo es o no existe. */
+    private Definicion definicion(Long sorteoId) {
+        Definicion d = definiciones.get(sorteoId);
+        if (d != null) {
+            return d;
+        }
+        List<Definicion> filas = jdbc.query(DEFINICION, (rs, i) -> {
+            int cantidad = rs.getInt(1);
+            return rs.wasNull() ? null : new Definicion(cantidad, rs.getBigDecimal(2));
+        }, sorteoId);
+        d = filas.isEmpty() ? null : filas.get(0);
+        if (d != null) {
+            definiciones.put(sorteoId, d);
+        }
+        return d;
+    }
+
+    /**
+     * Números {@code 1..cantidad} de un sorteo virtual con un bit por número no disponible.
+     */
+    static final class Rango {
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private final int cantidad;
+
+        /** Números reservados, vendidos o entregados; el bit {@code 0} no se usa. */
+        private final BitSet ocupados;
+
+        /** Ningún número anterior a este está libre. */
+        private int primeraCandidata = 1;
+
+        private final long cargadoEn = System.nanoTime();
+
+        private Rango(int cantidad) {
+            this.cantidad = cantidad;
+            this.ocupados = new BitSet(cantidad + 1);
+        }
+
+        /** @return número tomado, o {@code -1} si no queda ninguno libre. */
+        int tomar(boolean siguiente) {
+            lock.lock();
+            try {
+                int numero = ocupados.nextClearBit(siguiente
+                        ? primeraCandidata
+                        : ThreadLocalRandom.current().nextInt(cantidad) + 1);
+                if (numero > cantidad && !siguiente) {
+                    // Desde el número elegido hasta el final todo está ocupado: se busca desde el principio
+                    numero = ocupados.nextClearBit(primeraCandidata);
+                }
+                if (numero > cantidad) {
+                    primeraCandidata = numero;
+                    return -1;
+                }
+                ocupados.set(numero);
+                if (numero == primeraCandidata) {
+                    primeraCandidata = ocupados.nextClearBit(numero);
+                }
+                return numero;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void devolver(int numero) {
+            lock.lock();
+            try {
+                ocupados.clear(numero);
+                primeraCandidata = Math.min(primeraCandidata, numero);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /** Rango y precio de un sorteo virtual. */
+    private static final class Definicion {
+        private final int cantidad;
+        private final BigDecimal precio;
+
+        private Definicion(int cantidad, BigDecimal precio) {
+            this.cantidad = cantidad;
+            this.precio = precio;
+        }
+    }
+}
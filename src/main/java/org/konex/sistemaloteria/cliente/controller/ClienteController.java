@@ -2,17 +2,28 @@ package org.konex.sistemaloteria.cliente.controller;
 
 import lombok.RequiredArgsConstructor;
 import org.konex.sistemaloteria.billete.dto.BilleteDto;
+import org.konex.sistemaloteria.billete.repository.BilleteArchivadoRepository;
 import org.konex.sistemaloteria.billete.repository.BilleteRepository;
 import org.konex.sistemaloteria.cliente.dto.ClienteDto;
 import org.konex.sistemaloteria.cliente.dto.HistorialClienteDto;
+import org.konex.sistemaloteria.cliente.dto.PaginaClientesDto;
+import org.konex.sistemaloteria.cliente.dto.ReconstruccionComprasDto;
+import org.konex.sistemaloteria.cliente.dto.ResumenComprasDto;
+import org.konex.sistemaloteria.cliente.dto.ResumenImportacionDto;
 import org.konex.sistemaloteria.cliente.service.ClienteService;
+import org.konex.sistemaloteria.cliente.service.ImportadorClientes;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -20,9 +31,11 @@ import java.util.stream.Collectors;
  * Controlador REST que gestiona las operaciones relacionadas con clientes.
  *
  * Endpoints principales:
- * - CRUD de clientes.
+ * - CRUD de clientes (el listado, por páginas o en streaming NDJSON).
+ * - Importación masiva desde CSV o NDJSON.
  * - Billetes por cliente.
  * - Historial de compras por correo (valida formato de correo).
+ * - Resumen de compras por cliente (total gastado, billetes, última compra).
  */
 @RestController
 @RequestMapping("/api/clientes")
@@ -30,8 +43,12 @@ import java.util.stream.Collectors;
 @Validated // Habilita la validación en parámetros de request (Query/Path)
 public class ClienteController {
 
+    /** Cabecera con el cursor de la página siguiente. */
+    static final String CURSOR_SIGUIENTE = "X-Cursor-Siguiente";
+
     private final ClienteService service;
     private final BilleteRepository billeteRepo;
+    private final BilleteArchivadoRepository archivoRepo;
 
     // ======================================================
     // 🔹 CRUD DE CLIENTES
@@ -50,10 +67,82 @@ public class ClienteController {
         return ResponseEntity.status(201).body(service.crearCliente(dto));
     }
 
-    /** Lista todos los clientes registrados. */
+    /**
+     * Lista los clientes por páginas, en orden de ID.
+     *
+     * <p>
+     * Si hay más clientes, la respuesta incluye la cabecera {@code X-Cursor-Siguiente} con
+     * el valor que se envía como {@code despues} para pedir la página siguiente.
+     * </p>
+     *
+     * <h4>Ejemplo</h4>
+     * <pre>
+     * GET /api/clientes?limite=100
+     * GET /api/clientes?limite=100&amp;despues=100
+     * </pre>
+     *
+     * @param despues cursor recibido en la página anterior (opcional).
+     * @param limite clientes por página (1 a 1000, por defecto 100).
+     * @return clientes de la página (HTTP 200); 400 si el límite está fuera de rango.
+     */
     @GetMapping
-    public ResponseEntity<List<ClienteDto>> listar() {
-        return ResponseEntity.ok(service.listar());
+    public ResponseEntity<List<ClienteDto>> listar(@RequestParam(required = false) Long despues,
+                                                   @RequestParam(defaultValue = "100") int limite) {
+        PaginaClientesDto pagina = service.listar(despues, limite);
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok();
+        if (pagina.getSiguiente() != null) {
+            respuesta.header(CURSOR_SIGUIENTE, pagina.getSiguiente().toString());
+        }
+        return respuesta.body(pagina.getClientes());
+    }
+
+    /**
+     * Exporta todos los clientes como NDJSON (un cliente por línea), en streaming.
+     *
+     * <p>
+     * Se selecciona con {@code Accept: application/x-ndjson}. Los clientes se escriben a medida
+     * que se recorre el cursor de la base de datos, con memoria constante; pensado para
+     * procesos de back-office que necesitan la cartera completa.
+     * </p>
+     *
+     * <h4>Ejemplo de petición:</h4>
+     * <pre>
+     * curl -H "Accept: application/x-ndjson" http://localhost:8080/api/clientes
+     * </pre>
+     *
+     * @return cuerpo que se escribe a medida que se recorre el cursor.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportar() {
+        StreamingResponseBody cuerpo = service::exportar;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(cuerpo);
+    }
+
+    /**
+     * Importa clientes en bloque desde un cuerpo CSV o NDJSON, leído en streaming.
+     *
+     * <p>
+     * Los correos nuevos se crean y los existentes actualizan su nombre; las filas inválidas
+     * o con un correo repetido en el mismo cuerpo se rechazan sin detener la importación.
+     * </p>
+     *
+     * <h4>Ejemplo de petición:</h4>
+     * <pre>
+     * curl -X POST -H "Content-Type: text/csv" --data-binary @clientes.csv \
+     *      http://localhost:8080/api/clientes/import
+     * </pre>
+     *
+     * @param tipo tipo de contenido del cuerpo ({@code text/csv} o {@code application/x-ndjson}).
+     * @param cuerpo cuerpo de la petición.
+     * @return resumen de la importación (HTTP 200); 400 si el CSV no tiene cabecera válida.
+     */
+    @PostMapping(path = "/import", consumes = {ImportadorClientes.CSV, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ResumenImportacionDto> importar(@RequestHeader(HttpHeaders.CONTENT_TYPE) String tipo,
+                                                          InputStream cuerpo) throws IOException {
+        ImportadorClientes.Formato formato = ImportadorClientes.Formato.de(MediaType.parseMediaType(tipo));
+        return ResponseEntity.ok(service.importar(cuerpo, formato));
     }
 
     /** Obtiene los datos de un cliente por su ID. */
@@ -79,21 +168,48 @@ public class ClienteController {
     // 🔹 CONSULTAS DE BILLETES E HISTORIAL
     // ======================================================
 
-    /** Obtiene los billetes asociados a un cliente. */
+    /** Obtiene los billetes asociados a un cliente, incluidos los de sorteos archivados. */
     @GetMapping("/{clienteId}/billetes")
     public ResponseEntity<List<BilleteDto>> billetesDeCliente(@PathVariable Long clienteId) {
         var out = billeteRepo.findByClienteId(clienteId).stream().map(b -> {
             BilleteDto dto = new BilleteDto();
             dto.setId(b.getId());
-            dto.setNumero(b.getNumero());
+            dto.setNumero(b.getNumeroFormateado());
             dto.setPrecio(b.getPrecio());
             dto.setEstado(b.getEstado());
             dto.setSorteoId(b.getSorteo().getId());
             return dto;
         }).collect(Collectors.toList());
+        out.addAll(archivoRepo.buscarPorCliente(clienteId));
         return ResponseEntity.ok(out);
     }
 
+    /**
+     * Totales de compras de un cliente: billetes comprados, total gastado y última compra.
+     *
+     * <p>
+     * Se lee del resumen que cada venta mantiene al día (una búsqueda por clave primaria),
+     * sin recorrer las ventas del cliente.
+     * </p>
+     *
+     * Ejemplo: GET /api/clientes/1/compras
+     */
+    @GetMapping("/{id}/compras")
+    public ResponseEntity<ResumenComprasDto> compras(@PathVariable Long id) {
+        return ResponseEntity.ok(service.resumenCompras(id));
+    }
+
+    /**
+     * Recalcula los resúmenes de compras de todos los clientes desde las ventas, incluidas
+     * las de sorteos archivados. Para cargar las ventas anteriores al resumen o corregirlo.
+     *
+     * Ejemplo: POST /api/clientes/compras/reconstruccion
+     */
+    @PostMapping("/compras/reconstruccion")
+    public ResponseEntity<ReconstruccionComprasDto> reconstruirCompras() {
+        return ResponseEntity.ok(service.reconstruirResumenCompras());
+    }
+
     /**
      * Historial completo de billetes de un cliente por correo.
      * Valida que el correo no sea vacío y tenga formato válido.
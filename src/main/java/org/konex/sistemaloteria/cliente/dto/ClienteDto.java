@@ -1,8 +1,11 @@
 package org.konex.sistemaloteria.cliente.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 /**
  * DTO que representa los datos de un cliente.
@@ -39,6 +42,7 @@ import lombok.Data;
  * </p>
  */
 @Data
+@NoArgsConstructor
 public class ClienteDto {
 
     /** Identificador único del cliente (autogenerado por la base de datos). */
@@ -52,4 +56,19 @@ public class ClienteDto {
     @NotBlank(message = "El correo es obligatorio")
     @Email(message = "El correo no tiene un formato válido")
     private String correo;
+
+    /**
+     * Resumen de compras del cliente. Solo se incluye al consultar un cliente por ID
+     * ({@code GET /api/clientes/{id}}); se ignora si llega en una petición.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private ResumenComprasDto compras;
+
+    /** Constructor para proyecciones JPQL del listado, sin resumen de compras. */
+    public ClienteDto(Long id, String nombre, String correo) {
+        this.id = id;
+        this.nombre = nombre;
+        this.correo = correo;
+    }
 }
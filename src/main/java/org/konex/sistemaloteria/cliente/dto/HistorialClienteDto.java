@@ -1,6 +1,9 @@
 package org.konex.sistemaloteria.cliente.dto;
 
 import lombok.*;
+import org.konex.sistemaloteria.compartido.EstadoBillete;
+import org.konex.sistemaloteria.compartido.NumeroBillete;
+
 import java.math.BigDecimal;
 import java.util.List;
 
@@ -74,6 +77,9 @@ public class HistorialClienteDto {
     /** Lista de billetes asociados a las ventas del cliente. */
     private List<BilleteResumen> billetes;
 
+    /** Totales de compras del cliente (billetes, total gastado y última compra). */
+    private ResumenComprasDto compras;
+
     /**
      * Subclase estática que representa un resumen de un billete
      * dentro del historial de un cliente.
@@ -98,7 +104,7 @@ public class HistorialClienteDto {
         /** Precio de venta del billete. */
         private BigDecimal precio;
 
-        /** Estado actual del billete (DISPONIBLE o VENDIDO). */
+        /** Estado actual del billete (RESERVADO o VENDIDO). */
         private String estado;
 
         /** Identificador del sorteo al que pertenece el billete. */
@@ -106,5 +112,14 @@ public class HistorialClienteDto {
 
         /** Nombre descriptivo del sorteo asociado al billete. */
         private String sorteoNombre;
+
+        /**
+         * Constructor para proyecciones JPQL, que entregan el número como entero junto con
+         * las cifras de su sorteo y el estado como enumeración.
+         */
+        public BilleteResumen(Long id, Integer numero, Integer cifras, BigDecimal precio, EstadoBillete estado,
+                              Long sorteoId, String sorteoNombre) {
+            this(id, NumeroBillete.formatear(numero, cifras), precio, estado.name(), sorteoId, sorteoNombre);
+        }
     }
 }
@@ -0,0 +1,28 @@
+package org.konex.sistemaloteria.cliente.dto;
+
+import java.util.List;
+
+/**
+ * Página de clientes obtenida con paginación por cursor (keyset) sobre el ID.
+ *
+ * <p>
+ * {@code siguiente} es el ID del último cliente de la página; se envía como
+ * {@code despues} para pedir la página siguiente. Es {@code null} en la última página.
+ * </p>
+ */
+public class PaginaClientesDto {
+
+    /** Clientes de la página, ordenados por ID. */
+    private List<ClienteDto> clientes;
+
+    /** Cursor de la página siguiente, o {@code null} si no hay más clientes. */
+    private Long siguiente;
+
+    public PaginaClientesDto(List<ClienteDto> clientes, Long siguiente) {
+        this.clientes = clientes;
+        this.siguiente = siguiente;
+    }
+
+    public List<ClienteDto> getClientes() { return clientes; }
+    public Long getSiguiente() { return siguiente; }
+}
@@ -0,0 +1,27 @@
+package org.konex.sistemaloteria.cliente.dto;
+
+/**
+ * Resultado de recalcular los resúmenes de compras de todos los clientes.
+ *
+ * Ejemplo JSON:
+ * {
+ *   "clientes": 5120,
+ *   "duracionMs": 340
+ * }
+ */
+public class ReconstruccionComprasDto {
+
+    /** Clientes con compras, es decir, resúmenes escritos. */
+    private int clientes;
+
+    /** Tiempo que tomó la reconstrucción, en milisegundos. */
+    private long duracionMs;
+
+    public ReconstruccionComprasDto(int clientes, long duracionMs) {
+        this.clientes = clientes;
+        this.duracionMs = duracionMs;
+    }
+
+    public int getClientes() { return clientes; }
+    public long getDuracionMs() { return duracionMs; }
+}
@@ -0,0 +1,47 @@
+package org.konex.sistemaloteria.cliente.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Totales de compras de un cliente: billetes comprados, total gastado y última compra.
+ *
+ * <p>
+ * Incluye las compras de sorteos archivados. Un cliente sin compras tiene
+ * {@code billetes = 0}, {@code totalGastado = 0} y {@code ultimaCompra = null}.
+ * </p>
+ *
+ * Ejemplo JSON:
+ * {
+ *   "clienteId": 1,
+ *   "billetes": 12,
+ *   "totalGastado": 120000,
+ *   "ultimaCompra": "2025-11-09T10:00:00"
+ * }
+ */
+public class ResumenComprasDto {
+
+    /** Identificador del cliente. */
+    private Long clienteId;
+
+    /** Cantidad de billetes comprados. */
+    private long billetes;
+
+    /** Suma de los precios de venta. */
+    private BigDecimal totalGastado;
+
+    /** Fecha de la compra más reciente, o {@code null} si no compró. */
+    private LocalDateTime ultimaCompra;
+
+    public ResumenComprasDto(Long clienteId, long billetes, BigDecimal totalGastado, LocalDateTime ultimaCompra) {
+        this.clienteId = clienteId;
+        this.billetes = billetes;
+        this.totalGastado = totalGastado;
+        this.ultimaCompra = ultimaCompra;
+    }
+
+    public Long getClienteId() { return clienteId; }
+    public long getBilletes() { return billetes; }
+    public BigDecimal getTotalGastado() { return totalGastado; }
+    public LocalDateTime getUltimaCompra() { return ultimaCompra; }
+}
@@ -0,0 +1,75 @@
+package org.konex.sistemaloteria.cliente.dto;
+
+import java.util.List;
+
+/**
+ * Resumen de una importación masiva de clientes ({@code POST /api/clientes/import}).
+ *
+ * <p>
+ * Las filas válidas se guardan aunque otras tengan errores; cada fila rechazada aparece en
+ * {@code errores} con su número de línea (hasta un máximo configurable; {@code rechazados}
+ * siempre tiene el total).
+ * </p>
+ *
+ * Ejemplo JSON:
+ * {
+ *   "lineas": 100000,
+ *   "creados": 99120,
+ *   "actualizados": 870,
+ *   "rechazados": 10,
+ *   "errores": [ { "linea": 42, "mensaje": "El correo no tiene un formato válido" } ],
+ *   "duracionMs": 2300
+ * }
+ */
+public class ResumenImportacionDto {
+
+    /** Líneas de datos leídas (sin contar la cabecera ni las líneas vacías). */
+    private long lineas;
+
+    /** Clientes nuevos insertados. */
+    private long creados;
+
+    /** Clientes existentes (por correo) cuyo nombre se actualizó. */
+    private long actualizados;
+
+    /** Filas rechazadas por datos inválidos o correo repetido en el mismo cuerpo. */
+    private long rechazados;
+
+    /** Detalle de las primeras filas rechazadas. */
+    private List<ErrorLinea> errores;
+
+    /** Tiempo que tomó la importación, en milisegundos. */
+    private long duracionMs;
+
+    public ResumenImportacionDto(long lineas, long creados, long actualizados, long rechazados,
+                                 List<ErrorLinea> errores, long duracionMs) {
+        this.lineas = lineas;
+        this.creados = creados;
+        this.actualizados = actualizados;
+        this.rechazados = rechazados;
+        this.errores = errores;
+        this.duracionMs = duracionMs;
+    }
+
+    public long getLineas() { return lineas; }
+    public long getCreados() { return creados; }
+    public long getActualizados() { return actualizados; }
+    public long getRechazados() { return rechazados; }
+    public List<ErrorLinea> getErrores() { return errores; }
+    public long getDuracionMs() { return duracionMs; }
+
+    /** Fila rechazada: número de línea en el cuerpo (desde 1) y motivo. */
+    public static class ErrorLinea {
+
+        private long linea;
+        private String mensaje;
+
+        public ErrorLinea(long linea, String mensaje) {
+            this.linea = linea;
+            this.mensaje = mensaje;
+        }
+
+        public long getLinea() { return linea; }
+        public String getMensaje() { return mensaje; }
+    }
+}
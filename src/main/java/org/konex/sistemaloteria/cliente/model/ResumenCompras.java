@@ -0,0 +1,49 @@
+package org.konex.sistemaloteria.cliente.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Totales de compras de un cliente, mantenidos con cada venta.
+ *
+ * <p>
+ * En lugar de recorrer todas las ventas del cliente para saber cuánto gastó, cuántos billetes
+ * compró y cuándo fue su última compra, cada venta suma a esta fila dentro de su misma
+ * transacción (ver {@link org.konex.sistemaloteria.cliente.service.ResumenComprasClientes}).
+ * Leer el resumen cuesta una búsqueda por clave primaria.
+ * </p>
+ *
+ * <p>
+ * Cuenta todas las compras del cliente, también las de sorteos ya archivados. Un cliente sin
+ * compras no tiene fila. No hay clave foránea hacia {@code clientes}, igual que en
+ * {@code billetes_archivados}.
+ * </p>
+ */
+@Entity
+@Table(name = "clientes_resumen_compras")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ResumenCompras {
+
+    /** ID del cliente. */
+    @Id
+    @Column(name = "cliente_id")
+    private Long clienteId;
+
+    /** Cantidad de billetes comprados. */
+    @Column(nullable = false)
+    private long billetes;
+
+    /** Suma de los precios de venta. */
+    @Column(name = "total_gastado", nullable = false)
+    private BigDecimal totalGastado;
+
+    /** Fecha de la compra más reciente. */
+    @Column(name = "ultima_compra", nullable = false)
+    private LocalDateTime ultimaCompra;
+}
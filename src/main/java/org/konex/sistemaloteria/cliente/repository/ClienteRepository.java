@@ -1,8 +1,12 @@
 package org.konex.sistemaloteria.cliente.repository;
 
+import org.konex.sistemaloteria.cliente.dto.ClienteDto;
 import org.konex.sistemaloteria.cliente.model.Cliente;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -23,6 +27,7 @@ import java.util.Optional;
  * <ul>
  *   <li>{@link #findByCorreo(String)} — busca un cliente por su correo electrónico.</li>
  *   <li>{@link #existsByCorreo(String)} — verifica si ya existe un cliente registrado con ese correo.</li>
+ *   <li>{@link #buscarPagina(Long, Limit)} — página de clientes por cursor sobre el ID.</li>
  * </ul>
  *
  * <h4>Ejemplo de uso:</h4>
@@ -48,4 +53,25 @@ public interface ClienteRepository extends JpaRepository<Cliente, Long> {
      * @return {@code true} si existe un cliente con ese correo; de lo contrario {@code false}.
      */
     boolean existsByCorreo(String correo);
+
+    /**
+     * Página de clientes con ID mayor que {@code despues}, en orden de ID (paginación por cursor).
+     *
+     * <p>
+     * Recorre la clave primaria desde el cursor, así que el costo de cada página no crece
+     * con su posición (a diferencia de {@code OFFSET}); los clientes se proyectan directamente
+     * al DTO, sin cargar entidades.
+     * </p>
+     *
+     * @param despues ID del último cliente de la página anterior ({@code 0} para la primera).
+     * @param limite cantidad máxima de clientes.
+     * @return clientes de la página.
+     */
+    @Query("""
+           SELECT new org.konex.sistemaloteria.cliente.dto.ClienteDto(c.id, c.nombre, c.correo)
+           FROM Cliente c
+           WHERE c.id > :despues
+           ORDER BY c.id
+           """)
+    List<ClienteDto> buscarPagina(Long despues, Limit limite);
 }
@@ -0,0 +1,71 @@
+package org.konex.sistemaloteria.cliente.repository;
+
+import org.konex.sistemaloteria.cliente.model.ResumenCompras;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Repositorio JPA de {@link ResumenCompras}.
+ *
+ * <h4>Consultas personalizadas incluidas:</h4>
+ * <ul>
+ *   <li>{@link #sumar} — suma compras al resumen de un cliente, creándolo si no existe.</li>
+ *   <li>{@link #vaciar} y {@link #reconstruir} — recalculan todos los resúmenes desde las ventas.</li>
+ * </ul>
+ */
+public interface ResumenComprasRepository extends JpaRepository<ResumenCompras, Long> {
+
+    /**
+     * Suma compras al resumen del cliente con una sola sentencia.
+     *
+     * <p>
+     * {@code ON DUPLICATE KEY UPDATE} crea la fila en la primera compra y la incrementa en las
+     * siguientes sin leerla antes: dos ventas concurrentes del mismo cliente no pueden perder una
+     * suma ni fallar por la clave primaria. La fila queda bloqueada hasta el fin de la transacción.
+     * </p>
+     *
+     * @param clienteId ID del cliente.
+     * @param billetes cantidad de billetes comprados.
+     * @param total suma de sus precios.
+     * @param fecha fecha de la compra.
+     * @return filas afectadas.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+           INSERT INTO clientes_resumen_compras (cliente_id, billetes, total_gastado, ultima_compra)
+           VALUES (:clienteId, :billetes, :total, :fecha)
+           ON DUPLICATE KEY UPDATE
+               billetes = billetes + VALUES(billetes),
+               total_gastado = total_gastado + VALUES(total_gastado),
+               ultima_compra = GREATEST(ultima_compra, VALUES(ultima_compra))
+           """)
+    int sumar(Long clienteId, long billetes, BigDecimal total, LocalDateTime fecha);
+
+    /** Borra todos los resúmenes (primer paso de la reconstrucción). */
+    @Modifying
+    @Query(nativeQuery = true, value = "DELETE FROM clientes_resumen_compras")
+    int vaciar();
+
+    /**
+     * Calcula los resúmenes de todos los clientes desde {@code ventas} y las ventas de los
+     * sorteos archivados, con un único {@code INSERT ... SELECT}.
+     *
+     * @return cantidad de clientes con compras.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+           INSERT INTO clientes_resumen_compras (cliente_id, billetes, total_gastado, ultima_compra)
+           SELECT cliente_id, COUNT(*), SUM(precio), MAX(fecha_venta)
+           FROM (
+               SELECT cliente_id, precio, fecha_venta FROM ventas
+               UNION ALL
+               SELECT cliente_id, precio, fecha_venta FROM billetes_archivados WHERE venta_id IS NOT NULL
+           ) compras
+           GROUP BY cliente_id
+           """)
+    int reconstruir();
+}
@@ -2,8 +2,14 @@ package org.konex.sistemaloteria.cliente.service;
 
 import org.konex.sistemaloteria.cliente.dto.ClienteDto;
 import org.konex.sistemaloteria.cliente.dto.HistorialClienteDto;
+import org.konex.sistemaloteria.cliente.dto.PaginaClientesDto;
+import org.konex.sistemaloteria.cliente.dto.ReconstruccionComprasDto;
+import org.konex.sistemaloteria.cliente.dto.ResumenComprasDto;
+import org.konex.sistemaloteria.cliente.dto.ResumenImportacionDto;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 
 /**
  * Interfaz que define las operaciones de negocio relacionadas con clientes.
@@ -13,12 +19,57 @@ public interface ClienteService {
     /** Crea un nuevo cliente validando obligatoriedad y duplicados. */
     ClienteDto crearCliente(ClienteDto dto);
 
-    /** Lista todos los clientes registrados. */
-    List<ClienteDto> listar();
+    /**
+     * Lista una página de clientes en orden de ID.
+     *
+     * @param despues cursor recibido en la página anterior ({@code null} para la primera).
+     * @param limite clientes por página.
+     * @return clientes de la página y cursor de la siguiente.
+     * @throws IllegalArgumentException si el límite está fuera de rango.
+     */
+    PaginaClientesDto listar(Long despues, int limite);
 
-    /** Obtiene un cliente por su identificador. */
+    /**
+     * Escribe todos los clientes como NDJSON a medida que se leen, sin cargarlos en memoria.
+     *
+     * @param salida flujo donde se escriben los clientes (no se cierra).
+     * @return cantidad de clientes escritos.
+     * @throws IOException si falla la escritura (p. ej. el cliente HTTP cerró la conexión).
+     */
+    long exportar(OutputStream salida) throws IOException;
+
+    /**
+     * Importa clientes desde un cuerpo CSV o NDJSON leído en streaming, en lotes JDBC:
+     * crea los correos nuevos y actualiza el nombre de los existentes.
+     *
+     * @param cuerpo cuerpo de la petición (no se cierra).
+     * @param formato formato del cuerpo.
+     * @return resumen con los clientes creados y actualizados y las líneas rechazadas.
+     * @throws IllegalArgumentException si el CSV no tiene las columnas {@code nombre} y {@code correo}.
+     * @throws IOException si falla la lectura del cuerpo.
+     */
+    ResumenImportacionDto importar(InputStream cuerpo, ImportadorClientes.Formato formato) throws IOException;
+
+    /** Obtiene un cliente por su identificador, con su resumen de compras. */
     ClienteDto obtenerPorId(Long id);
 
+    /**
+     * Totales de compras del cliente, leídos del resumen mantenido con cada venta.
+     *
+     * @param id identificador del cliente.
+     * @return billetes comprados, total gastado y última compra.
+     * @throws IllegalArgumentException si el cliente no existe.
+     */
+    ResumenComprasDto resumenCompras(Long id);
+
+    /**
+     * Recalcula los resúmenes de compras de todos los clientes desde las ventas
+     * (activas y archivadas).
+     *
+     * @return cantidad de clientes con compras y duración.
+     */
+    ReconstruccionComprasDto reconstruirResumenCompras();
+
     /** Actualiza los datos de un cliente existente. */
     ClienteDto actualizar(Long id, ClienteDto dto);
 
@@ -2,47 +2,121 @@ package org.konex.sistemaloteria.cliente.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-import org.konex.sistemaloteria.billete.model.Billete;
+import org.konex.sistemaloteria.billete.repository.BilleteArchivadoRepository;
+import org.konex.sistemaloteria.billete.repository.BilleteRepository;
 import org.konex.sistemaloteria.cliente.dto.ClienteDto;
 import org.konex.sistemaloteria.cliente.dto.HistorialClienteDto;
+import org.konex.sistemaloteria.cliente.dto.PaginaClientesDto;
+import org.konex.sistemaloteria.cliente.dto.ReconstruccionComprasDto;
+import org.konex.sistemaloteria.cliente.dto.ResumenComprasDto;
+import org.konex.sistemaloteria.cliente.dto.ResumenImportacionDto;
 import org.konex.sistemaloteria.cliente.model.Cliente;
 import org.konex.sistemaloteria.cliente.repository.ClienteRepository;
+import org.springframework.data.domain.Limit;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 public class ClienteServiceImpl implements ClienteService {
 
-    private final ClienteRepository repo;
+    /** Máximo de clientes por página. */
+    static final int LIMITE_MAXIMO = 1000;
 
+    private final ClienteRepository repo;
+    private final BilleteArchivadoRepository archivoRepo;
+    private final BilleteRepository billeteRepo;
+    private final ExportadorClientes exportador;
+    private final IndiceCorreos correos;
+    private final ImportadorClientes importador;
+    private final ResumenComprasClientes compras;
+
+    /**
+     * Crea un cliente con el correo normalizado.
+     *
+     * <p>
+     * La verificación de duplicados consulta primero el {@link IndiceCorreos}: un correo que el
+     * filtro descarta se inserta sin buscarlo antes. Si dos solicitudes crean el mismo correo a
+     * la vez, la restricción única de {@code clientes.correo} rechaza la segunda (409).
+     * </p>
+     */
     @Override
     public ClienteDto crearCliente(ClienteDto dto) {
         validar(dto);
-        if (repo.findByCorreo(dto.getCorreo()).isPresent()) {
+        String correo = IndiceCorreos.normalizar(dto.getCorreo());
+        if (existeCorreo(correo)) {
             throw new IllegalArgumentException("Ya existe un cliente con ese correo.");
         }
 
         Cliente entity = Cliente.builder()
                 .nombre(dto.getNombre())
-                .correo(dto.getCorreo())
+                .correo(correo)
                 .build();
 
+        correos.anticipar(correo);
         entity = repo.save(entity);
+        correos.registrar(correo, entity.getId());
         return toDto(entity);
     }
 
+    /**
+     * Lista una página de clientes por cursor sobre el ID.
+     *
+     * <p>
+     * Se pide un cliente más que el límite: si llega, hay otra página y el cursor es el ID
+     * del último cliente devuelto. El límite lo acota el servidor ({@value #LIMITE_MAXIMO}).
+     * </p>
+     */
     @Override
-    public List<ClienteDto> listar() {
-        return repo.findAll().stream().map(this::toDto).collect(Collectors.toList());
+    public PaginaClientesDto listar(Long despues, int limite) {
+        if (limite <= 0 || limite > LIMITE_MAXIMO) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + LIMITE_MAXIMO);
+        }
+        List<ClienteDto> clientes = repo.buscarPagina(despues != null ? despues : 0L, Limit.of(limite + 1));
+        if (clientes.size() <= limite) {
+            return new PaginaClientesDto(clientes, null);
+        }
+        List<ClienteDto> pagina = clientes.subList(0, limite);
+        return new PaginaClientesDto(pagina, pagina.get(limite - 1).getId());
+    }
+
+    @Override
+    public long exportar(OutputStream salida) throws IOException {
+        return exportador.escribir(salida);
+    }
+
+    @Override
+    public ResumenImportacionDto importar(InputStream cuerpo, ImportadorClientes.Formato formato) throws IOException {
+        return importador.importar(cuerpo, formato);
     }
 
     @Override
     public ClienteDto obtenerPorId(Long id) {
         Cliente c = repo.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Cliente no encontrado."));
-        return toDto(c);
+        ClienteDto dto = toDto(c);
+        dto.setCompras(compras.obtener(id));
+        return dto;
+    }
+
+    @Override
+    public ResumenComprasDto resumenCompras(Long id) {
+        ResumenComprasDto resumen = compras.obtener(id);
+        // Sin compras no hay fila de resumen: se distingue un cliente nuevo de uno inexistente
+        if (resumen.getBilletes() == 0 && !repo.existsById(id)) {
+            throw new IllegalArgumentException("Cliente no encontrado.");
+        }
+        return resumen;
+    }
+
+    @Override
+    public ReconstruccionComprasDto reconstruirResumenCompras() {
+        return compras.reconstruir();
     }
 
     @Override
@@ -50,40 +124,81 @@ public class ClienteServiceImpl implements ClienteService {
         validar(dto);
         Cliente c = repo.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Cliente no encontrado."));
-        if (!c.getCorreo().equals(dto.getCorreo()) && repo.findByCorreo(dto.getCorreo()).isPresent()) {
+        String anterior = c.getCorreo();
+        String correo = IndiceCorreos.normalizar(dto.getCorreo());
+        boolean cambiaCorreo = !correo.equals(anterior);
+        if (cambiaCorreo && existeCorreo(correo)) {
             throw new IllegalArgumentException("El correo ya está registrado por otro cliente.");
         }
         c.setNombre(dto.getNombre());
-        c.setCorreo(dto.getCorreo());
+        c.setCorreo(correo);
+        if (cambiaCorreo) {
+            correos.anticipar(correo);
+        }
         repo.save(c);
+        if (cambiaCorreo) {
+            correos.olvidar(IndiceCorreos.normalizar(anterior));
+            correos.registrar(correo, c.getId());
+        }
         return toDto(c);
     }
 
     @Override
     public void eliminar(Long id) {
-        if (!repo.existsById(id)) {
-            throw new IllegalArgumentException("El cliente no existe.");
-        }
-        repo.deleteById(id);
+        Cliente c = repo.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("El cliente no existe."));
+        repo.delete(c);
+        correos.olvidar(IndiceCorreos.normalizar(c.getCorreo()));
     }
 
     @Override
     public HistorialClienteDto historialPorCorreo(String correo) {
-        Cliente cliente = repo.findByCorreo(correo)
+        Cliente cliente = buscarPorCorreo(IndiceCorreos.normalizar(correo))
                 .orElseThrow(() -> new IllegalArgumentException("Cliente no encontrado."));
 
-        List<HistorialClienteDto.BilleteResumen> billetes = cliente.getBilletes().stream()
-                .map(this::toResumen)
-                .collect(Collectors.toList());
+        // Primero los billetes de sorteos archivados (los más antiguos), luego los activos;
+        // cada grupo sale de una sola consulta con el nombre del sorteo ya resuelto
+        List<HistorialClienteDto.BilleteResumen> billetes = new ArrayList<>(archivoRepo.resumirPorCliente(cliente.getId()));
+        billetes.addAll(billeteRepo.resumirPorCliente(cliente.getId()));
 
         return HistorialClienteDto.builder()
                 .id(cliente.getId())
                 .nombre(cliente.getNombre())
                 .correo(cliente.getCorreo())
                 .billetes(billetes)
+                .compras(compras.obtener(cliente.getId()))
                 .build();
     }
 
+    /** Indica si el correo (normalizado) ya pertenece a un cliente, evitando la consulta cuando se puede. */
+    private boolean existeCorreo(String correo) {
+        if (!correos.puedeExistir(correo)) {
+            return false;
+        }
+        return correos.id(correo) != null || buscarPorCorreo(correo).isPresent();
+    }
+
+    /**
+     * Cliente con ese correo (normalizado): sin consulta si el filtro lo descarta, por ID si
+     * está en la caché y, si no, por correo, registrando el resultado en la caché.
+     */
+    private Optional<Cliente> buscarPorCorreo(String correo) {
+        if (correo == null || !correos.puedeExistir(correo)) {
+            return Optional.empty();
+        }
+        Long id = correos.id(correo);
+        if (id != null) {
+            Optional<Cliente> cliente = repo.findById(id).filter(c -> correo.equals(c.getCorreo()));
+            if (cliente.isPresent()) {
+                return cliente;
+            }
+            correos.olvidar(correo);
+        }
+        Optional<Cliente> cliente = repo.findByCorreo(correo);
+        cliente.ifPresent(c -> correos.registrar(correo, c.getId()));
+        return cliente;
+    }
+
     private void validar(ClienteDto dto) {
         if (dto == null) throw new IllegalArgumentException("El cuerpo de la petición es obligatorio.");
         if (dto.getNombre() == null || dto.getNombre().isBlank()) throw new IllegalArgumentException("El nombre es obligatorio.");
@@ -97,15 +212,4 @@ public class ClienteServiceImpl implements ClienteService {
         dto.setCorreo(c.getCorreo());
         return dto;
     }
-
-    private HistorialClienteDto.BilleteResumen toResumen(Billete b) {
-        return HistorialClienteDto.BilleteResumen.builder()
-                .id(b.getId())
-                .numero(b.getNumero())
-                .precio(b.getPrecio())
-                .estado(b.getEstado().name()) // 🔹 convertido a String
-                .sorteoId(b.getSorteo() != null ? b.getSorteo().getId() : null)
-                .sorteoNombre(b.getSorteo() != null ? b.getSorteo().getNombre() : null)
-                .build();
-    }
 }
@@ -0,0 +1,108 @@
+package org.konex.sistemaloteria.cliente.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Escribe todos los clientes como NDJSON (un objeto JSON por línea) a medida que se leen
+ * de la base de datos.
+ *
+ * <p>
+ * Pensado para procesos de back-office que recorren la cartera completa: en lugar de
+ * {@code findAll()} y una lista en memoria, una única consulta se recorre con un cursor de
+ * {@code loteria.clientes.exportacion.fetch-size} filas y cada fila se escribe directamente
+ * en la respuesta. La memoria usada no depende de la cantidad de clientes.
+ * </p>
+ *
+ * <p>
+ * Cada línea tiene la misma forma que un elemento del listado JSON:
+ * </p>
+ * <pre>
+ * {"id":1,"nombre":"Ana Gómez","correo":"ana.gomez@example.com"}
+ * {"id":2,"nombre":"Luis Pérez","correo":"luis.perez@example.com"}
+ * </pre>
+ */
+@Component
+public class ExportadorClientes {
+
+    private static final String CONSULTA = "SELECT id, nombre, correo FROM clientes ORDER BY id";
+
+    private final JdbcTemplate jdbc;
+    private final ObjectMapper objectMapper;
+
+    /** Filas que el driver trae por viaje a la base de datos (y cada cuántas se vacía la salida). */
+    private final int fetchSize;
+
+    public ExportadorClientes(JdbcTemplate jdbc,
+                              ObjectMapper objectMapper,
+                              @Value("${loteria.clientes.exportacion.fetch-size:500}") int fetchSize) {
+        this.jdbc = jdbc;
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Escribe los clientes en la salida, uno por línea y en orden de ID.
+     *
+     * @param salida flujo de la respuesta; no se cierra.
+     * @return cantidad de clientes escritos.
+     * @throws IOException si el cliente HTTP cierra la conexión o falla la escritura.
+     */
+    public long escribir(OutputStream salida) throws IOException {
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(salida)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.setRootValueSeparator(null);
+            EscritorFilas escritor = new EscritorFilas(json);
+            jdbc.query(con -> {
+                PreparedStatement ps = con.prepareStatement(CONSULTA,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(fetchSize);
+                return ps;
+            }, escritor);
+            json.flush();
+            return escritor.escritos;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /** Escribe cada fila del cursor como una línea JSON. */
+    private final class EscritorFilas implements RowCallbackHandler {
+        private final JsonGenerator json;
+        private long escritos;
+
+        private EscritorFilas(JsonGenerator json) {
+            this.json = json;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            try {
+                json.writeStartObject();
+                json.writeNumberField("id", rs.getLong("id"));
+                json.writeStringField("nombre", rs.getString("nombre"));
+                json.writeStringField("correo", rs.getString("correo"));
+                json.writeEndObject();
+                json.writeRaw('\n');
+
+                // El primer cliente sale de inmediato; luego se vacía una vez por cada tanda del cursor
+                if (++escritos == 1 || escritos % fetchSize == 0) {
+                    json.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
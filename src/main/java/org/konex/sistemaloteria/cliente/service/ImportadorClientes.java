@@ -0,0 +1,375 @@
+package org.konex.sistemaloteria.cliente.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.konex.sistemaloteria.cliente.dto.ClienteDto;
+import org.konex.sistemaloteria.cliente.dto.ResumenImportacionDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Importación masiva de clientes desde un cuerpo CSV o NDJSON, leído en streaming.
+ *
+ * <p>
+ * Crear clientes uno por uno con {@code POST /api/clientes} cuesta, por fila, la verificación
+ * del correo y un {@code INSERT} con {@code IDENTITY}. Este importador lee el cuerpo línea por
+ * línea (sin cargarlo en memoria) y escribe con {@link JdbcTemplate} en lotes de
+ * {@code loteria.clientes.importacion.tamano-lote} filas:
+ * </p>
+ * <ul>
+ *   <li>Cada fila se valida con las mismas reglas que el alta individual ({@link ClienteDto}) y
+ *       el correo se normaliza ({@link IndiceCorreos#normalizar}). Un correo repetido dentro del
+ *       mismo cuerpo se rechaza desde su segunda aparición.</li>
+ *   <li>Por lote, los correos que el {@link IndiceCorreos} no descarta se buscan con una sola
+ *       consulta {@code IN}; los existentes se actualizan (nombre) y los demás se insertan.</li>
+ *   <li>Las inserciones usan {@code INSERT IGNORE}: si otro proceso creó el mismo correo entre la
+ *       consulta y la inserción, la fila ignorada pasa a actualización.</li>
+ *   <li>Cada lote es una transacción: la importación no es todo o nada; el resumen indica qué
+ *       líneas se rechazaron.</li>
+ * </ul>
+ *
+ * <h4>Formatos</h4>
+ * <pre>
+ * text/csv                      application/x-ndjson
+ * nombre,correo                 {"nombre":"Ana Gómez","correo":"ana.gomez@example.com"}
+ * Ana Gómez,ana.gomez@example.com
+ * "Pérez, Luis",luis@example.com
+ * </pre>
+ * <p>
+ * El CSV lleva cabecera con las columnas {@code nombre} y {@code correo} (en cualquier orden; las
+ * demás se ignoran) y admite campos entre comillas dobles, sin saltos de línea dentro.
+ * </p>
+ */
+@Component
+public class ImportadorClientes {
+
+    /** Tipo de contenido CSV. */
+    public static final String CSV = "text/csv";
+
+    /** Longitud de las columnas {@code nombre} y {@code correo}. */
+    static final int LONGITUD_MAXIMA = 255;
+
+    private static final String INSERTAR = "INSERT IGNORE INTO clientes (nombre, correo) VALUES (?, ?)";
+
+    private static final String ACTUALIZAR = "UPDATE clientes SET nombre = ? WHERE correo = ?";
+
+    private static final String EXISTENTES = "SELECT correo FROM clientes WHERE correo IN (";
+
+    /** Formato del cuerpo, según su tipo de contenido. */
+    public enum Formato {
+        CSV, NDJSON;
+
+        /**
+         * @param tipo tipo de contenido de la petición.
+         * @throws IllegalArgumentException si no es CSV ni NDJSON.
+         */
+        public static Formato de(MediaType tipo) {
+            if (tipo != null && tipo.isCompatibleWith(MediaType.parseMediaType(ImportadorClientes.CSV))) {
+                return CSV;
+            }
+            if (tipo != null && tipo.isCompatibleWith(MediaType.APPLICATION_NDJSON)) {
+                return NDJSON;
+            }
+            throw new IllegalArgumentException("El cuerpo debe ser text/csv o application/x-ndjson");
+        }
+    }
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final IndiceCorreos correos;
+
+    /** Filas por lote JDBC (y por consulta de correos existentes). */
+    private final int tamanoLote;
+
+    /** Filas rechazadas que se detallan en el resumen. */
+    private final int erroresMaximos;
+
+    public ImportadorClientes(JdbcTemplate jdbc,
+                              TransactionTemplate transactionTemplate,
+                              ObjectMapper objectMapper,
+                              Validator validator,
+                              IndiceCorreos correos,
+                              @Value("${loteria.clientes.importacion.tamano-lote:1000}") int tamanoLote,
+                              @Value("${loteria.clientes.importacion.errores-maximos:1000}") int erroresMaximos) {
+        if (tamanoLote <= 0) {
+            throw new IllegalArgumentException("El tamaño de lote debe ser positivo");
+        }
+        this.jdbc = jdbc;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.correos = correos;
+        this.tamanoLote = tamanoLote;
+        this.erroresMaximos = erroresMaximos;
+    }
+
+    /**
+     * Importa los clientes del cuerpo, guardando cada lote a medida que se completa.
+     *
+     * @param cuerpo cuerpo de la petición en UTF-8; no se cierra.
+     * @param formato formato del cuerpo.
+     * @return resumen de la importación.
+     * @throws IllegalArgumentException si el CSV no tiene las columnas {@code nombre} y {@code correo}.
+     * @throws IOException si falla la lectura del cuerpo.
+     */
+    public ResumenImportacionDto importar(InputStream cuerpo, Formato formato) throws IOException {
+        long inicio = System.nanoTime();
+        Importacion imp = new Importacion();
+        BufferedReader lector = new BufferedReader(new InputStreamReader(cuerpo, StandardCharsets.UTF_8));
+
+        int[] columnas = null;
+        String texto;
+        long linea = 0;
+        while ((texto = lector.readLine()) != null) {
+            linea++;
+            if (linea == 1 && texto.startsWith("\uFEFF")) {
+                texto = texto.substring(1);
+            }
+            if (texto.isBlank()) {
+                continue;
+            }
+            // --- 1️⃣ Cabecera del CSV ---
+            if (formato == Formato.CSV && columnas == null) {
+                columnas = cabecera(texto);
+                continue;
+            }
+            // --- 2️⃣ Fila: lectura, validación y duplicados dentro del cuerpo ---
+            imp.lineas++;
+            try {
+                ClienteDto dto = formato == Formato.CSV ? filaCsv(texto, columnas) : filaNdjson(texto);
+                String correo = validar(dto);
+                Long primera = imp.vistos.putIfAbsent(correo, linea);
+                if (primera != null) {
+                    throw new IllegalArgumentException("Correo repetido (línea " + primera + ")");
+                }
+                imp.lote.add(new Fila(dto.getNombre().strip(), correo));
+            } catch (IllegalArgumentException e) {
+                imp.rechazar(linea, e.getMessage());
+            }
+            // --- 3️⃣ Lote completo: se guarda ---
+            if (imp.lote.size() == tamanoLote) {
+                guardar(imp);
+            }
+        }
+        if (formato == Formato.CSV && columnas == null) {
+            throw new IllegalArgumentException("El CSV debe tener una cabecera con las columnas nombre y correo");
+        }
+        guardar(imp);
+
+        return new ResumenImportacionDto(imp.lineas, imp.creados, imp.actualizados, imp.rechazados,
+                imp.errores, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+    }
+
+    /**
+     * Guarda el lote en curso en una transacción: consulta qué correos ya existen, inserta los
+     * nuevos y actualiza el nombre de los existentes.
+     */
+    private void guardar(Importacion imp) {
+        if (imp.lote.isEmpty()) {
+            return;
+        }
+        List<Fila> lote = imp.lote;
+        imp.lote = new ArrayList<>(tamanoLote);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Set<String> existentes = existentes(lote);
+            List<Object[]> nuevos = new ArrayList<>();
+            List<Object[]> actualizar = new ArrayList<>();
+            for (Fila f : lote) {
+                (existentes.contains(f.correo) ? actualizar : nuevos).add(new Object[]{f.nombre, f.correo});
+            }
+
+            if (!nuevos.isEmpty()) {
+                // El correo entra al filtro antes de la inserción, como en el alta individual
+                nuevos.forEach(n -> correos.anticipar((String) n[1]));
+                int[] insertados = jdbc.batchUpdate(INSERTAR, nuevos);
+                for (int i = 0; i < insertados.length; i++) {
+                    if (insertados[i] == 0) {
+                        actualizar.add(nuevos.get(i));
+                    } else if (insertados[i] > 0 || insertados[i] == Statement.SUCCESS_NO_INFO) {
+                        imp.creados++;
+                    }
+                }
+            }
+            if (!actualizar.isEmpty()) {
+                jdbc.batchUpdate(ACTUALIZAR, actualizar);
+                imp.actualizados += actualizar.size();
+            }
+        });
+    }
+
+    /** Correos del lote que ya tienen cliente, con una sola consulta para los que el índice no descarta. */
+    private Set<String> existentes(List<Fila> lote) {
+        List<String> candidatos = new ArrayList<>();
+        for (Fila f : lote) {
+            if (correos.puedeExistir(f.correo)) {
+                candidatos.add(f.correo);
+            }
+        }
+        if (candidatos.isEmpty()) {
+            return Collections.emptySet();
+        }
+        String sql = EXISTENTES + String.join(",", Collections.nCopies(candidatos.size(), "?")) + ")";
+        return new HashSet<>(jdbc.queryForList(sql, String.class, candidatos.toArray()));
+    }
+
+    /**
+     * Valida la fila con las reglas de {@link ClienteDto} y el largo de las columnas.
+     *
+     * @return correo normalizado.
+     * @throws IllegalArgumentException con el primer motivo de rechazo.
+     */
+    private String validar(ClienteDto dto) {
+        Set<ConstraintViolation<ClienteDto>> violaciones = validator.validate(dto);
+        if (!violaciones.isEmpty()) {
+            String mensaje = violaciones.stream()
+                    .sorted(Comparator.comparing((ConstraintViolation<ClienteDto> v) -> v.getPropertyPath().toString())
+                            .thenComparing(ConstraintViolation::getMessage))
+                    .findFirst().orElseThrow().getMessage();
+            throw new IllegalArgumentException(mensaje);
+        }
+        if (dto.getNombre().strip().length() > LONGITUD_MAXIMA) {
+            throw new IllegalArgumentException("El nombre supera los " + LONGITUD_MAXIMA + " caracteres");
+        }
+        String correo = IndiceCorreos.normalizar(dto.getCorreo());
+        if (correo.length() > LONGITUD_MAXIMA) {
+            throw new IllegalArgumentException("El correo supera los " + LONGITUD_MAXIMA + " caracteres");
+        }
+        return correo;
+    }
+
+    /** Posiciones de las columnas {@code nombre} y {@code correo} en la cabecera. */
+    private static int[] cabecera(String texto) {
+        List<String> nombres = campos(texto);
+        int nombre = -1;
+        int correo = -1;
+        for (int i = 0; i < nombres.size(); i++) {
+            String columna = nombres.get(i).strip().toLowerCase(Locale.ROOT);
+            if (columna.equals("nombre")) {
+                nombre = i;
+            } else if (columna.equals("correo")) {
+                correo = i;
+            }
+        }
+        if (nombre < 0 || correo < 0) {
+            throw new IllegalArgumentException("El CSV debe tener una cabecera con las columnas nombre y correo");
+        }
+        return new int[]{nombre, correo};
+    }
+
+    private static ClienteDto filaCsv(String texto, int[] columnas) {
+        List<String> valores = campos(texto);
+        if (valores.size() <= Math.max(columnas[0], columnas[1])) {
+            throw new IllegalArgumentException("La fila no tiene todas las columnas de la cabecera");
+        }
+        return new ClienteDto(null, valores.get(columnas[0]), valores.get(columnas[1]));
+    }
+
+    private ClienteDto filaNdjson(String texto) {
+        JsonNode nodo;
+        try {
+            nodo = objectMapper.readTree(texto);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("JSON inválido");
+        }
+        if (!nodo.isObject()) {
+            throw new IllegalArgumentException("Cada línea debe ser un objeto JSON");
+        }
+        return new ClienteDto(null, texto(nodo, "nombre"), texto(nodo, "correo"));
+    }
+
+    private static String texto(JsonNode nodo, String campo) {
+        JsonNode valor = nodo.get(campo);
+        return valor == null || valor.isNull() ? null : valor.asText();
+    }
+
+    /**
+     * Separa una línea CSV en campos. Un campo entre comillas dobles puede contener comas y
+     * comillas escritas como {@code ""}.
+     */
+    static List<String> campos(String linea) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder actual = new StringBuilder();
+        boolean entreComillas = false;
+        for (int i = 0; i < linea.length(); i++) {
+            char c = linea.charAt(i);
+            if (entreComillas) {
+                if (c == '"' && i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
+                    actual.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreComillas = false;
+                } else {
+                    actual.append(c);
+                }
+            } else if (c == '"') {
+                entreComillas = true;
+            } else if (c == ',') {
+                campos.add(actual.toString());
+                actual.setLength(0);
+            } else {
+                actual.append(c);
+            }
+        }
+        if (entreComillas) {
+            throw new IllegalArgumentException("Comillas sin cerrar");
+        }
+        campos.add(actual.toString());
+        return campos;
+    }
+
+    /** Fila válida pendiente de guardar. */
+    private static final class Fila {
+        private final String nombre;
+        private final String correo;
+
+        private Fila(String nombre, String correo) {
+            this.nombre = nombre;
+            this.correo = correo;
+        }
+    }
+
+    /** Estado de una importación en curso. */
+    private final class Importacion {
+        private long lineas;
+        private long creados;
+        private long actualizados;
+        private long rechazados;
+        private final List<ResumenImportacionDto.ErrorLinea> errores = new ArrayList<>();
+        /** Correos ya leídos y su primera línea, para rechazar repetidos dentro del cuerpo. */
+        private final Map<String, Long> vistos = new HashMap<>();
+        private List<Fila> lote = new ArrayList<>(tamanoLote);
+
+        private void rechazar(long linea, String mensaje) {
+            rechazados++;
+            if (errores.size() < erroresMaximos) {
+                errores.add(new ResumenImportacionDto.ErrorLinea(linea, mensaje));
+            }
+        }
+    }
+}
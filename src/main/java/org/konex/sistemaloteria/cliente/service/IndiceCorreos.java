@@ -0,0 +1,251 @@
+package org.konex.sistemaloteria.cliente.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Índice en memoria de los correos de los clientes, para no consultar la base de datos
+ * por correos que no existen.
+ *
+ * <p>
+ * Los correos se comparan normalizados ({@link #normalizar}: sin espacios alrededor y en
+ * minúsculas). El índice tiene dos partes:
+ * </p>
+ * <ul>
+ *   <li><b>Filtro de Bloom</b> con todos los correos registrados: si responde "no está",
+ *       el correo seguro no existe y se contesta sin consulta (los bots que prueban correos
+ *       al azar en el historial). Si responde "puede estar", se sigue a la base de datos.
+ *       Con {@code loteria.clientes.correos.esperados} correos se equivoca en ~1&nbsp;% de
+ *       los correos inexistentes, con unos 10 bits por correo.</li>
+ *   <li><b>Caché acotada correo → ID</b> de los correos ya consultados o registrados, con
+ *       como máximo {@code loteria.clientes.correos.cache-maxima} entradas; al llenarse se
+ *       descarta una entrada cualquiera.</li>
+ * </ul>
+ *
+ * <p>
+ * El índice solo puede equivocarse "hacia el lado seguro": un correo se agrega al filtro
+ * <b>antes</b> de insertar el cliente ({@link #anticipar}), así que un cliente recién creado
+ * nunca se da por inexistente, y un correo eliminado o cambiado queda en el filtro (un falso
+ * positivo más, que cuesta una consulta). Hasta terminar la carga inicial el filtro responde
+ * siempre "puede estar". La unicidad la sigue garantizando la restricción única de
+ * {@code clientes.correo}.
+ * </p>
+ *
+ * <p>
+ * Las búsquedas por correo comparan con igualdad exacta (sobre el índice único), así que
+ * antes de la carga inicial los correos guardados se migran a su forma normalizada: un
+ * correo con mayúsculas guardado antes de la normalización no se encontraría y admitiría
+ * un duplicado.
+ * </p>
+ */
+@Slf4j
+@Component
+public class IndiceCorreos {
+
+    private static final String CORREOS = "SELECT correo FROM clientes";
+
+    /** Correos guardados que coinciden una vez normalizados. */
+    private static final String DUPLICADOS = """
+            SELECT LOWER(TRIM(correo)) FROM clientes
+            GROUP BY LOWER(TRIM(correo))
+            HAVING COUNT(*) > 1
+            """;
+
+    private static final String NORMALIZAR =
+            "UPDATE clientes SET correo = LOWER(TRIM(correo)) WHERE correo <> LOWER(TRIM(correo))";
+
+    /** Duplicados que se informan como máximo en el error de la migración. */
+    private static final int DUPLICADOS_INFORMADOS = 10;
+
+    /** Funciones hash por correo: el óptimo para ~1 % de falsos positivos. */
+    static final int HASHES = 7;
+
+    /** Bits del filtro por correo esperado: {@code -ln(0.01) / ln(2)²}. */
+    private static final double BITS_POR_CORREO = 9.6;
+
+    private final JdbcTemplate jdbc;
+
+    /** Bits del filtro de Bloom. */
+    private final AtomicLongArray bits;
+    private final long cantidadBits;
+
+    /** Correo normalizado → ID del cliente. */
+    private final Map<String, Long> ids = new ConcurrentHashMap<>();
+    private final int cacheMaxima;
+
+    /** Hasta cargar los correos existentes, el filtro no puede descartar ninguno. */
+    private volatile boolean cargado;
+
+    public IndiceCorreos(JdbcTemplate jdbc,
+                         @Value("${loteria.clientes.correos.esperados:1000000}") int esperados,
+                         @Value("${loteria.clientes.correos.cache-maxima:100000}") int cacheMaxima) {
+        this.jdbc = jdbc;
+        int palabras = (int) Math.max(1, Math.ceil(Math.max(1, esperados) * BITS_POR_CORREO / Long.SIZE));
+        this.bits = new AtomicLongArray(palabras);
+        this.cantidadBits = (long) palabras * Long.SIZE;
+        this.cacheMaxima = cacheMaxima;
+    }
+
+    /**
+     * Forma en que se guardan y comparan los correos.
+     *
+     * @param correo correo tal como llega.
+     * @return correo sin espacios alrededor y en minúsculas; {@code null} si es {@code null}.
+     */
+    public static String normalizar(String correo) {
+        return correo == null ? null : correo.strip().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Carga en el filtro los correos existentes al iniciar la aplicación (después de ejecutar
+     * {@code data.sql}), una vez normalizados los guardados ({@link #normalizarGuardados}).
+     * Los bits se agregan a los que ya tenga el filtro, así que un cliente creado durante la
+     * carga no se pierde.
+     *
+     * @return cantidad de correos cargados.
+     * @throws IllegalStateException si dos clientes quedarían con el mismo correo al normalizar.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public long cargar() {
+        normalizarGuardados();
+        long[] cargados = new long[1];
+        jdbc.query(CORREOS, rs -> {
+            agregar(normalizar(rs.getString(1)));
+            cargados[0]++;
+        });
+        cargado = true;
+        log.info("Índice de correos cargado: {} clientes", cargados[0]);
+        return cargados[0];
+    }
+
+    /**
+     * Migra a su forma normalizada los correos guardados con mayúsculas o espacios alrededor.
+     *
+     * <p>
+     * Si dos clientes quedarían con el mismo correo no se modifica nada y la aplicación no
+     * arranca: hay que unificar esos clientes a mano antes de migrar.
+     * </p>
+     *
+     * @throws IllegalStateException si normalizar crearía correos duplicados.
+     */
+    void normalizarGuardados() {
+        List<String> duplicados = jdbc.queryForList(DUPLICADOS, String.class);
+        if (!duplicados.isEmpty()) {
+            throw new IllegalStateException("Hay " + duplicados.size() + " correos compartidos por varios clientes"
+                    + " al ignorar mayúsculas y espacios; unifíquelos antes de iniciar: "
+                    + duplicados.subList(0, Math.min(DUPLICADOS_INFORMADOS, duplicados.size())));
+        }
+        int normalizados = jdbc.update(NORMALIZAR);
+        if (normalizados > 0) {
+            log.info("Correos de clientes normalizados: {}", normalizados);
+        }
+    }
+
+    /**
+     * Indica si el correo puede estar registrado.
+     *
+     * @param correo correo normalizado.
+     * @return {@code false} solo si seguro no está registrado.
+     */
+    public boolean puedeExistir(String correo) {
+        if (!cargado) {
+            return true;
+        }
+        long h1 = hash(correo);
+        long h2 = mezclar(h1);
+        for (int i = 0; i < HASHES; i++) {
+            long bit = Math.floorMod(h1 + i * h2, cantidadBits);
+            if ((bits.get((int) (bit >>> 6)) & (1L << (bit & 63))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * ID del cliente con ese correo, si está en la caché.
+     *
+     * @param correo correo normalizado.
+     * @return ID del cliente, o {@code null} si no se conoce.
+     */
+    public Long id(String correo) {
+        return ids.get(correo);
+    }
+
+    /**
+     * Agrega un correo al filtro antes de insertarlo, para que nunca se dé por inexistente
+     * un cliente ya confirmado. Si la inserción falla solo queda un falso positivo.
+     *
+     * @param correo correo normalizado.
+     */
+    public void anticipar(String correo) {
+        agregar(correo);
+    }
+
+    /**
+     * Registra el ID de un correo existente (recién creado o encontrado en la base de datos).
+     *
+     * @param correo correo normalizado.
+     * @param id identificador del cliente.
+     */
+    public void registrar(String correo, Long id) {
+        agregar(correo);
+        if (ids.size() >= cacheMaxima && !ids.containsKey(correo)) {
+            Iterator<String> it = ids.keySet().iterator();
+            if (it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        }
+        ids.put(correo, id);
+    }
+
+    /**
+     * Quita de la caché un correo que dejó de pertenecer a un cliente (cambio de correo o
+     * eliminación). En el filtro queda como falso positivo.
+     *
+     * @param correo correo normalizado.
+     */
+    public void olvidar(String correo) {
+        ids.remove(correo);
+    }
+
+    private void agregar(String correo) {
+        long h1 = hash(correo);
+        long h2 = mezclar(h1);
+        for (int i = 0; i < HASHES; i++) {
+            long bit = Math.floorMod(h1 + i * h2, cantidadBits);
+            long mascara = 1L << (bit & 63);
+            bits.getAndAccumulate((int) (bit >>> 6), mascara, (actual, m) -> actual | m);
+        }
+    }
+
+    /** FNV-1a de 64 bits sobre los bytes UTF-8 del correo. */
+    private static long hash(String correo) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : correo.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    /** Segundo hash derivado del primero (finalizador de SplitMix64); impar para recorrer todos los bits. */
+    private static long mezclar(long h) {
+        h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+        h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+        return (h ^ (h >>> 31)) | 1;
+    }
+}
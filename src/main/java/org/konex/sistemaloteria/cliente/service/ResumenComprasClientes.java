@@ -0,0 +1,84 @@
+package org.konex.sistemaloteria.cliente.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.konex.sistemaloteria.cliente.dto.ReconstruccionComprasDto;
+import org.konex.sistemaloteria.cliente.dto.ResumenComprasDto;
+import org.konex.sistemaloteria.cliente.repository.ResumenComprasRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resumen de compras por cliente (billetes, total gastado y última compra) mantenido de forma
+ * incremental en {@code clientes_resumen_compras}.
+ *
+ * <p>
+ * Cada venta llama a {@link #sumar} dentro de su propia transacción, así que el resumen se
+ * confirma o se descarta junto con la venta: la venta individual, con reserva, por lote, del
+ * pipeline y asíncrona pasan todas por {@code VentaServiceImpl}. Leer el resumen
+ * ({@link #obtener}) es una búsqueda por clave primaria, sin importar cuántas compras tenga
+ * el cliente. Archivar un sorteo no cambia los resúmenes.
+ * </p>
+ *
+ * <p>
+ * {@link #reconstruir} recalcula todos los resúmenes desde las ventas (activas y archivadas)
+ * en una transacción; sirve para cargar los datos anteriores a esta tabla o para corregirla.
+ * Las ventas que se confirman mientras tanto esperan el bloqueo de la fila de su cliente y se
+ * suman después sobre el valor recalculado.
+ * </p>
+ */
+@Slf4j
+@Component
+public class ResumenComprasClientes {
+
+    private final ResumenComprasRepository repo;
+    private final TransactionTemplate transactionTemplate;
+
+    public ResumenComprasClientes(ResumenComprasRepository repo, TransactionTemplate transactionTemplate) {
+        this.repo = repo;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Suma compras al resumen del cliente, dentro de la transacción de la venta.
+     *
+     * @param clienteId ID del cliente.
+     * @param billetes cantidad de billetes vendidos.
+     * @param total suma de sus precios.
+     * @param fecha fecha de la venta.
+     */
+    public void sumar(Long clienteId, int billetes, BigDecimal total, LocalDateTime fecha) {
+        repo.sumar(clienteId, billetes, total, fecha);
+    }
+
+    /**
+     * Resumen de compras del cliente; en cero si todavía no compró.
+     *
+     * @param clienteId ID del cliente (no se verifica que exista).
+     * @return resumen de compras.
+     */
+    public ResumenComprasDto obtener(Long clienteId) {
+        return repo.findById(clienteId)
+                .map(r -> new ResumenComprasDto(clienteId, r.getBilletes(), r.getTotalGastado(), r.getUltimaCompra()))
+                .orElseGet(() -> new ResumenComprasDto(clienteId, 0, BigDecimal.ZERO, null));
+    }
+
+    /**
+     * Recalcula los resúmenes de todos los clientes desde las ventas.
+     *
+     * @return cantidad de clientes con compras y duración.
+     */
+    public ReconstruccionComprasDto reconstruir() {
+        long inicio = System.nanoTime();
+        Integer clientes = transactionTemplate.execute(status -> {
+            repo.vaciar();
+            return repo.reconstruir();
+        });
+        long duracionMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+        log.info("Resúmenes de compras reconstruidos: {} clientes en {} ms", clientes, duracionMs);
+        return new ReconstruccionComprasDto(clientes != null ? clientes : 0, duracionMs);
+    }
+}
@@ -0,0 +1,171 @@
+package org.konex.sistemaloteria.compartido;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Caché en memoria para operaciones idempotentes identificadas por una clave
+ * ({@code Idempotency-Key}) enviada por el cliente.
+ *
+ * <p>
+ * La primera solicitud con una clave ejecuta la operación y guarda su resultado;
+ * los reintentos con la misma clave reciben ese mismo resultado sin volver a ejecutarla.
+ * Si llegan duplicados mientras la primera sigue en curso, esperan su resultado
+ * en lugar de ejecutarse en paralelo.
+ * </p>
+ *
+ * <h4>Qué se guarda:</h4>
+ * <ul>
+ *   <li>Los resultados exitosos.</li>
+ *   <li>Los rechazos de negocio ({@link IllegalArgumentException}, {@link IllegalStateException},
+ *       {@link NoSuchElementException}): un reintento obtendría el mismo error.</li>
+ *   <li>Los demás errores (p. ej. servicio saturado) <b>no</b> se guardan, para que el
+ *       reintento pueda completarse.</li>
+ * </ul>
+ *
+ * <p>
+ * La caché está acotada en tamaño ({@code loteria.idempotencia.max-entradas}) y en tiempo
+ * ({@code loteria.idempotencia.ttl-segundos}). Como todas las entradas viven lo mismo,
+ * el orden de inserción es también el orden de vencimiento: se descartan siempre las más antiguas.
+ * </p>
+ */
+@Component
+public class CacheIdempotencia {
+
+    /** Longitud máxima aceptada para una clave de idempotencia. */
+    static final int LONGITUD_MAXIMA_CLAVE = 255;
+
+    private final int maxEntradas;
+    private final long ttlNanos;
+    private final LongSupplier reloj;
+
+    private final ConcurrentHashMap<String, Entrada> entradas = new ConcurrentHashMap<>();
+
+    /** Entradas en orden de inserción (y por lo tanto de vencimiento). */
+    private final Queue<Entrada> orden = new ConcurrentLinkedQueue<>();
+
+    @Autowired
+    public CacheIdempotencia(@Value("${loteria.idempotencia.max-entradas:10000}") int maxEntradas,
+                             @Value("${loteria.idempotencia.ttl-segundos:3600}") long ttlSegundos) {
+        this(maxEntradas, TimeUnit.SECONDS.toNanos(ttlSegundos), System::nanoTime);
+    }
+
+    CacheIdempotencia(int maxEntradas, long ttlNanos, LongSupplier reloj) {
+        this.maxEntradas = maxEntradas;
+        this.ttlNanos = ttlNanos;
+        this.reloj = reloj;
+    }
+
+    /**
+     * Ejecuta la operación una sola vez por clave y devuelve (o relanza) su primer resultado.
+     *
+     * @param ambito operación a la que pertenece la clave (p. ej. {@code "POST /api/ventas"}).
+     * @param clave clave de idempotencia enviada por el cliente.
+     * @param huella representación del contenido de la solicitud; una misma clave no
+     *               puede reutilizarse con otro contenido.
+     * @param operacion operación a ejecutar.
+     * @return el resultado de la primera ejecución.
+     * @throws IllegalArgumentException si la clave es inválida o ya se usó con otra solicitud.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T ejecutar(String ambito, String clave, String huella, Supplier<T> operacion) {
+        if (clave.isBlank() || clave.length() > LONGITUD_MAXIMA_CLAVE) {
+            throw new IllegalArgumentException(
+                    "La Idempotency-Key debe tener entre 1 y " + LONGITUD_MAXIMA_CLAVE + " caracteres");
+        }
+
+        long ahora = reloj.getAsLong();
+        purgar(ahora);
+
+        String id = ambito + ' ' + clave;
+        Entrada nueva = new Entrada(id, huella, ahora);
+        while (true) {
+            Entrada existente = entradas.putIfAbsent(id, nueva);
+            if (existente == null) {
+                break;
+            }
+            if (existente.vencida(ahora, ttlNanos)) {
+                entradas.remove(id, existente);
+                continue;
+            }
+            // --- Duplicado: se reutiliza el resultado de la primera solicitud ---
+            if (!Objects.equals(existente.huella, huella)) {
+                throw new IllegalArgumentException("La Idempotency-Key ya se usó con otra solicitud");
+            }
+            return (T) existente.esperar();
+        }
+        orden.add(nueva);
+
+        // --- Primera solicitud con esta clave: se ejecuta la operación ---
+        try {
+            T resultado = operacion.get();
+            nueva.resultado.complete(resultado);
+            return resultado;
+        } catch (IllegalArgumentException | IllegalStateException | NoSuchElementException e) {
+            nueva.resultado.completeExceptionally(e);
+            throw e;
+        } catch (RuntimeException e) {
+            // Error transitorio: no se guarda, el siguiente reintento vuelve a ejecutar
+            entradas.remove(id, nueva);
+            nueva.resultado.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /** Cantidad de claves guardadas. */
+    public int tamano() {
+        return entradas.size();
+    }
+
+    /** Descarta las entradas vencidas y, si se supera el tamaño máximo, las más antiguas. */
+    private void purgar(long ahora) {
+        Entrada primera;
+        while ((primera = orden.peek()) != null
+                && (primera.vencida(ahora, ttlNanos) || entradas.size() >= maxEntradas)) {
+            if (orden.remove(primera)) {
+                entradas.remove(primera.id, primera);
+            }
+        }
+    }
+
+    /** Resultado (en curso o terminado) de la primera solicitud con una clave. */
+    private static final class Entrada {
+        private final String id;
+        private final String huella;
+        private final long creadaNanos;
+        private final CompletableFuture<Object> resultado = new CompletableFuture<>();
+
+        private Entrada(String id, String huella, long creadaNanos) {
+            this.id = id;
+            this.huella = huella;
+            this.creadaNanos = creadaNanos;
+        }
+
+        private boolean vencida(long ahora, long ttlNanos) {
+            return ahora - creadaNanos >= ttlNanos;
+        }
+
+        private Object esperar() {
+            try {
+                return resultado.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException causa) {
+                    throw causa;
+                }
+                throw e;
+            }
+        }
+    }
+}
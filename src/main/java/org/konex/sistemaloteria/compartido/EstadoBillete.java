@@ -17,6 +17,8 @@ package org.konex.sistemaloteria.compartido;
  * <h3>Valores posibles:</h3>
  * <ul>
  *   <li><b>DISPONIBLE</b>: el billete está libre y puede ser vendido.</li>
+ *   <li><b>RESERVADO</b>: el billete está apartado temporalmente para un cliente;
+ *       solo puede venderse con el token de la reserva y vuelve a {@code DISPONIBLE} al vencer.</li>
  *   <li><b>VENDIDO</b>: el billete ya fue asignado a un cliente.</li>
  * </ul>
  *
@@ -34,6 +36,9 @@ public enum EstadoBillete {
     /** Billete disponible para la venta. */
     DISPONIBLE,
 
+    /** Billete apartado temporalmente para un cliente, a la espera del pago. */
+    RESERVADO,
+
     /** Billete ya vendido a un cliente. */
     VENDIDO
 }
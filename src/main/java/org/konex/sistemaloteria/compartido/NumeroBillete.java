@@ -0,0 +1,56 @@
+package org.konex.sistemaloteria.compartido;
+
+/**
+ * Conversión entre el número de un billete tal como se guarda (un entero) y como se
+ * muestra (texto con ceros a la izquierda).
+ *
+ * <p>
+ * La columna {@code numero} es {@code INT}: la clave {@code (sorteo_id, numero)} del índice
+ * único ocupa 12 bytes fijos en lugar de un texto de longitud variable, y los rangos
+ * ({@code numero BETWEEN ? AND ?}) se comparan por valor, sin depender de que todos los
+ * números tengan el mismo ancho. El ancho con el que se muestran es un dato del sorteo
+ * ({@code sorteos.cifras}), así que {@code 7} se muestra como {@code 0007} en un sorteo de
+ * 4 cifras y como {@code 000007} en uno de 6.
+ * </p>
+ */
+public final class NumeroBillete {
+
+    /** Cifras con las que se muestran los números cuando el sorteo no requiere más. */
+    public static final int CIFRAS_MINIMAS = 4;
+
+    /** Cifras máximas de un número de billete (caben en un {@code INT}). */
+    public static final int CIFRAS_MAXIMAS = 9;
+
+    private NumeroBillete() {
+    }
+
+    /**
+     * Texto del número completado con ceros a la izquierda hasta {@code cifras}.
+     * Si el número tiene más cifras, se devuelve completo.
+     */
+    public static String formatear(long numero, int cifras) {
+        String s = Long.toString(numero);
+        return s.length() >= cifras ? s : "0".repeat(cifras - s.length()) + s;
+    }
+
+    /** Cifras necesarias para mostrar números de {@code 1} a {@code maximo}. */
+    public static int cifras(long maximo) {
+        return Math.max(CIFRAS_MINIMAS, Long.toString(maximo).length());
+    }
+
+    /**
+     * Interpreta el texto de un número de billete ({@code "0007"} → {@code 7}).
+     *
+     * @param texto número con o sin ceros a la izquierda.
+     * @return valor del número.
+     * @throws IllegalArgumentException si no son entre 1 y {@value #CIFRAS_MAXIMAS} dígitos.
+     */
+    public static int leer(String texto) {
+        if (texto == null || texto.isEmpty() || texto.length() > CIFRAS_MAXIMAS
+                || !texto.chars().allMatch(c -> c >= '0' && c <= '9')) {
+            throw new IllegalArgumentException(
+                    "El número de billete debe tener entre 1 y " + CIFRAS_MAXIMAS + " dígitos: " + texto);
+        }
+        return Integer.parseInt(texto);
+    }
+}
@@ -0,0 +1,208 @@
+package org.konex.sistemaloteria.compartido;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Rueda temporizadora con hash (<i>hashed timing wheel</i>) para programar
+ * miles de vencimientos en memoria con costo constante.
+ *
+ * <p>
+ * El tiempo se divide en <i>ticks</i> de duración fija y cada tarea se guarda en la
+ * ranura {@code tickVencimiento % ranuras}. En cada tick solo se recorre una ranura,
+ * de modo que programar, cancelar y vencer cuestan O(1) sin importar cuántas tareas
+ * haya pendientes, y no se consulta ninguna tabla para saber qué venció.
+ * Las tareas que vencen en vueltas posteriores permanecen en su ranura hasta que
+ * llega su tick.
+ * </p>
+ *
+ * <h4>Concurrencia:</h4>
+ * <ul>
+ *   <li>{@link #programar} y {@link Temporizador#cancelar()} pueden invocarse desde cualquier hilo:
+ *       las altas pasan por una cola sin bloqueos y se reparten en las ranuras en el siguiente tick.</li>
+ *   <li>Las ranuras solo las toca el hilo que avanza la rueda; las tareas se ejecutan en ese hilo
+ *       y deben ser breves.</li>
+ *   <li>Cada tarea se ejecuta o se cancela exactamente una vez.</li>
+ * </ul>
+ *
+ * <p>
+ * La precisión es de un tick: una tarea vence entre su plazo y el tick siguiente.
+ * </p>
+ */
+@Slf4j
+public class RuedaTemporizadora {
+
+    private final long duracionTickNanos;
+    private final ArrayDeque<Temporizador>[] ranuras;
+    private final int mascara;
+
+    /** Altas pendientes de asignar a una ranura. */
+    private final Queue<Temporizador> pendientes = new ConcurrentLinkedQueue<>();
+
+    /** Tick que se procesará a continuación. Solo lo modifica el hilo que avanza la rueda. */
+    private volatile long tick;
+
+    private volatile boolean activa;
+    private Thread hilo;
+
+    /**
+     * @param duracionTick duración de cada tick (resolución de la rueda).
+     * @param ranuras cantidad de ranuras; se redondea a la siguiente potencia de dos.
+     */
+    @SuppressWarnings("unchecked")
+    public RuedaTemporizadora(Duration duracionTick, int ranuras) {
+        if (duracionTick.isNegative() || duracionTick.isZero()) {
+            throw new IllegalArgumentException("La duración del tick debe ser positiva");
+        }
+        if (ranuras <= 0) {
+            throw new IllegalArgumentException("La cantidad de ranuras debe ser positiva");
+        }
+        int tamano = Integer.highestOneBit(ranuras) == ranuras ? ranuras : Integer.highestOneBit(ranuras) << 1;
+        this.duracionTickNanos = duracionTick.toNanos();
+        this.ranuras = new ArrayDeque[tamano];
+        for (int i = 0; i < tamano; i++) {
+            this.ranuras[i] = new ArrayDeque<>();
+        }
+        this.mascara = tamano - 1;
+    }
+
+    /**
+     * Programa una tarea para ejecutarse después del retraso indicado.
+     *
+     * @param retraso tiempo hasta el vencimiento.
+     * @param tarea acción a ejecutar al vencer.
+     * @return temporizador que permite cancelar la tarea.
+     */
+    public Temporizador programar(Duration retraso, Runnable tarea) {
+        long ticks = Math.max(1, (retraso.toNanos() + duracionTickNanos - 1) / duracionTickNanos);
+        Temporizador t = new Temporizador(tick + ticks, tarea);
+        pendientes.add(t);
+        return t;
+    }
+
+    /**
+     * Procesa un tick: reparte las altas pendientes y ejecuta las tareas vencidas de la ranura actual.
+     *
+     * <p>
+     * Lo invoca el hilo de la rueda; solo debe llamarse directamente cuando la rueda
+     * no fue iniciada (por ejemplo, en pruebas).
+     * </p>
+     *
+     * @return cantidad de tareas ejecutadas en este tick.
+     */
+    public int avanzar() {
+        long actual = tick;
+
+        // --- 1️⃣ Repartir las altas en su ranura (las atrasadas van a la ranura actual) ---
+        Temporizador nuevo;
+        while ((nuevo = pendientes.poll()) != null) {
+            if (!nuevo.isCancelado()) {
+                long destino = Math.max(nuevo.tickVencimiento, actual);
+                ranuras[(int) (destino & mascara)].add(nuevo);
+            }
+        }
+
+        // --- 2️⃣ Ejecutar las tareas vencidas de la ranura actual ---
+        int ejecutadas = 0;
+        Iterator<Temporizador> it = ranuras[(int) (actual & mascara)].iterator();
+        while (it.hasNext()) {
+            Temporizador t = it.next();
+            if (t.isCancelado()) {
+                it.remove();
+            } else if (t.tickVencimiento <= actual) {
+                it.remove();
+                if (t.terminado.compareAndSet(false, true)) {
+                    ejecutar(t);
+                    ejecutadas++;
+                }
+            }
+        }
+
+        tick = actual + 1;
+        return ejecutadas;
+    }
+
+    /**
+     * Inicia el hilo que avanza la rueda a intervalos regulares.
+     *
+     * @param nombreHilo nombre del hilo (para diagnóstico).
+     */
+    public void iniciar(String nombreHilo) {
+        activa = true;
+        hilo = new Thread(this::ejecutarHilo, nombreHilo);
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    /** Detiene el hilo de la rueda; las tareas pendientes no se ejecutan. */
+    public void detener() throws InterruptedException {
+        activa = false;
+        if (hilo != null) {
+            hilo.interrupt();
+            hilo.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    private void ejecutarHilo() {
+        long inicio = System.nanoTime();
+        while (activa) {
+            long espera = inicio + (tick + 1) * duracionTickNanos - System.nanoTime();
+            if (espera > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(espera);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            } else {
+                avanzar();
+            }
+        }
+    }
+
+    private static void ejecutar(Temporizador t) {
+        try {
+            t.tarea.run();
+        } catch (RuntimeException e) {
+            log.error("Error al ejecutar una tarea de la rueda temporizadora", e);
+        }
+    }
+
+    /** Tarea programada en la rueda. */
+    public static final class Temporizador {
+        private final long tickVencimiento;
+        private final Runnable tarea;
+        private final AtomicBoolean terminado = new AtomicBoolean();
+        private volatile boolean cancelado;
+
+        private Temporizador(long tickVencimiento, Runnable tarea) {
+            this.tickVencimiento = tickVencimiento;
+            this.tarea = tarea;
+        }
+
+        /**
+         * Cancela la tarea si todavía no se ejecutó.
+         *
+         * @return {@code true} si se canceló; {@code false} si ya se había ejecutado o cancelado.
+         */
+        public boolean cancelar() {
+            if (terminado.compareAndSet(false, true)) {
+                cancelado = true;
+                return true;
+            }
+            return false;
+        }
+
+        /** Indica si la tarea fue cancelada. */
+        public boolean isCancelado() {
+            return cancelado;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package org.konex.sistemaloteria.configuracion;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita la ejecución de tareas programadas ({@code @Scheduled}).
+ *
+ * <p>
+ * Se usa, por ejemplo, para reconciliar periódicamente las estructuras en memoria
+ * (como el mapa de disponibilidad de billetes) con el estado de la base de datos.
+ * </p>
+ */
+@Configuration
+@EnableScheduling
+public class ProgramacionConfig {
+}
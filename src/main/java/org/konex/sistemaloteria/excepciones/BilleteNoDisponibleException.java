@@ -0,0 +1,18 @@
+package org.konex.sistemaloteria.excepciones;
+
+/**
+ * El billete ya fue vendido o reservado por otra operación.
+ *
+ * <p>
+ * Es un {@link IllegalStateException} (409 en {@link GlobalExceptionHandler}), pero con tipo
+ * propio para distinguir el conflicto por un billete concreto de otros rechazos de estado
+ * (p. ej. un sorteo ya ejecutado): quien elige billetes de un sorteo puede descartar ese
+ * billete y probar con otro solo en este caso.
+ * </p>
+ */
+public class BilleteNoDisponibleException extends IllegalStateException {
+
+    public BilleteNoDisponibleException() {
+        super("El billete ya fue vendido o no está disponible");
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
 import org.springframework.web.HttpRequestMethodNotSupportedException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -17,6 +18,7 @@ import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Manejador global de excepciones para toda la aplicación.
@@ -174,6 +176,19 @@ public class GlobalExceptionHandler {
                 req);
     }
 
+    /* ============ Capacidad / Sobrecarga ============ */
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Map<String, Object>> handleRejectedExecution(
+            RejectedExecutionException ex,
+            HttpServletRequest req) {
+
+        return build(HttpStatus.SERVICE_UNAVAILABLE,
+                "Servicio saturado",
+                ex.getMessage(),
+                req);
+    }
+
     /* ============ Persistencia ============ */
 
     @ExceptionHandler(DataIntegrityViolationException.class)
@@ -201,6 +216,17 @@ public class GlobalExceptionHandler {
                 req);
     }
 
+    @ExceptionHandler(HttpMediaTypeNotSupportedException.class)
+    public ResponseEntity<Map<String, Object>> handleMediaTypeNotSupported(
+            HttpMediaTypeNotSupportedException ex,
+            HttpServletRequest req) {
+
+        return build(HttpStatus.UNSUPPORTED_MEDIA_TYPE,
+                "Tipo de contenido no soportado",
+                "Tipo de contenido no soportado: " + ex.getContentType(),
+                req);
+    }
+
     /* ============ Fallback genérico ============ */
 
     @ExceptionHandler(Exception.class)
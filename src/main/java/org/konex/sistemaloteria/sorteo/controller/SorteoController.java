@@ -2,13 +2,28 @@ package org.konex.sistemaloteria.sorteo.controller;
 
 import lombok.RequiredArgsConstructor;
 import org.konex.sistemaloteria.billete.model.Billete;
+import org.konex.sistemaloteria.sorteo.dto.ArchivoSorteoDto;
+import org.konex.sistemaloteria.sorteo.dto.GeneracionBilletesDto;
+import org.konex.sistemaloteria.sorteo.dto.ResultadoSorteoDto;
+import org.konex.sistemaloteria.sorteo.dto.ResumenSorteoDto;
 import org.konex.sistemaloteria.sorteo.dto.SorteoDto;
+import org.konex.sistemaloteria.sorteo.dto.TrabajoGeneracionDto;
+import org.konex.sistemaloteria.sorteo.dto.VerificacionPremioDto;
+import org.konex.sistemaloteria.sorteo.model.Premio;
+import org.konex.sistemaloteria.sorteo.service.ExportadorBilletes;
 import org.konex.sistemaloteria.sorteo.service.SorteoService;
+import org.konex.sistemaloteria.sorteo.service.TrabajosGeneracionService;
+import org.konex.sistemaloteria.venta.dto.ReservaResponseDto;
+import org.konex.sistemaloteria.venta.dto.ReservaSorteoRequestDto;
+import org.konex.sistemaloteria.venta.service.VentaService;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
+import java.net.URI;
 import java.util.List;
 
 /**
@@ -29,7 +44,20 @@ import java.util.List;
  *   <li><b>POST /api/sorteos</b> — Crear un nuevo sorteo.</li>
  *   <li><b>GET /api/sorteos</b> — Listar todos los sorteos registrados.</li>
  *   <li><b>POST /api/sorteos/{id}/billetes</b> — Generar billetes para un sorteo existente.</li>
- *   <li><b>GET /api/sorteos/{id}/billetes</b> — Consultar los billetes de un sorteo.</li>
+ *   <li><b>GET /api/sorteos/{id}/billetes</b> — Consultar los billetes de un sorteo
+ *       (con {@code Accept: application/x-ndjson} se envían en streaming, uno por línea).</li>
+ *   <li><b>POST /api/sorteos/{id}/billetes/aleatorio</b> — Reservar un billete disponible al azar.</li>
+ *   <li><b>POST /api/sorteos/{id}/billetes/siguiente</b> — Reservar el billete disponible de menor número.</li>
+ *   <li><b>POST /api/sorteos/{id}/numeros/{numero}/reserva</b> — Reservar un número concreto
+ *       (en los sorteos virtuales, crea el billete).</li>
+ *   <li><b>POST /api/sorteos/{id}/generaciones</b> — Generar billetes en segundo plano (202 + ID del trabajo).</li>
+ *   <li><b>GET /api/sorteos/{id}/generaciones/{trabajoId}</b> — Consultar el avance de una generación.</li>
+ *   <li><b>DELETE /api/sorteos/{id}/generaciones/{trabajoId}</b> — Cancelar una generación.</li>
+ *   <li><b>GET /api/sorteos/{id}/resumen</b> — Consultar vendidos, disponibles e ingresos de un sorteo.</li>
+ *   <li><b>POST /api/sorteos/{id}/ejecucion</b> — Ejecutar el sorteo y registrar los premios.</li>
+ *   <li><b>GET /api/sorteos/{id}/premios</b> — Consultar los premios de un sorteo ejecutado.</li>
+ *   <li><b>GET /api/sorteos/{id}/verificar/{numero}</b> — Verificar si un número tiene premio.</li>
+ *   <li><b>POST /api/sorteos/{id}/archivo</b> — Archivar los billetes y ventas de un sorteo pasado.</li>
  * </ul>
  *
  * <p>
@@ -45,6 +73,12 @@ public class SorteoController {
     /** Servicio que contiene la lógica de negocio de los sorteos. */
     private final SorteoService service;
 
+    /** Servicio de generación de billetes en segundo plano. */
+    private final TrabajosGeneracionService generaciones;
+
+    /** Servicio de ventas, que reserva los billetes elegidos por el sorteo. */
+    private final VentaService ventas;
+
     /**
      * Crea un nuevo sorteo.
      *
@@ -104,6 +138,13 @@ public class SorteoController {
      * y se marca como {@code DISPONIBLE}.
      * </p>
      *
+     * <p>
+     * Con {@code virtual=true} solo se declaran el rango y el precio: cada billete se crea al
+     * reservarlo (por número con {@code POST .../numeros/{numero}/reserva}, o con
+     * {@code .../billetes/aleatorio} y {@code .../billetes/siguiente}) y se vende con el token de
+     * esa reserva en {@code POST /api/ventas}. El sorteo no admite después billetes generados (409).
+     * </p>
+     *
      * <h4>Ejemplo de petición:</h4>
      * <pre>
      * POST /api/sorteos/1/billetes?cantidad=10&precio=10000
@@ -111,25 +152,80 @@ public class SorteoController {
      *
      * <h4>Ejemplo de respuesta:</h4>
      * <pre>
-     * [
-     *   { "id": 1, "numero": "0001", "precio": 10000, "estado": "DISPONIBLE" },
-     *   { "id": 2, "numero": "0002", "precio": 10000, "estado": "DISPONIBLE" }
-     * ]
+     * {
+     *   "sorteoId": 1, "cantidad": 10, "numeroInicial": "0001", "numeroFinal": "0010",
+     *   "precio": 10000, "duracionMs": 12
+     * }
      * </pre>
      *
      * @param id identificador del sorteo.
      * @param cantidad número de billetes a generar.
      * @param precio precio unitario de cada billete.
-     * @return lista de billetes generados para el sorteo.
+     * @param virtual si los billetes se crean solo al reservarlos.
+     * @return resumen de la generación (cantidad y rango de números).
      */
     @PostMapping("/{id}/billetes")
-    public ResponseEntity<List<Billete>> generarBilletes(
+    public ResponseEntity<GeneracionBilletesDto> generarBilletes(
+            @PathVariable Long id,
+            @RequestParam int cantidad,
+            @RequestParam double precio,
+            @RequestParam(defaultValue = "false") boolean virtual
+    ) {
+        return ResponseEntity.ok(virtual
+                ? service.generarVirtuales(id, cantidad, precio)
+                : service.generarBilletes(id, cantidad, precio));
+    }
+
+    /**
+     * Acepta la generación de billetes de un sorteo y la ejecuta en segundo plano.
+     *
+     * <p>
+     * Pensado para sorteos grandes: los billetes se confirman por tramos, el avance se
+     * consulta con {@code GET .../generaciones/{trabajoId}} y sobrevive a reinicios.
+     * Devuelve 202 Accepted con la URL de consulta en {@code Location}, 404 si el sorteo
+     * no existe y 503 si hay demasiadas generaciones en espera.
+     * </p>
+     *
+     * <h4>Ejemplo de petición:</h4>
+     * <pre>
+     * POST /api/sorteos/1/generaciones?cantidad=1000000&precio=10000
+     * </pre>
+     *
+     * @param id identificador del sorteo.
+     * @param cantidad número de billetes a generar.
+     * @param precio precio unitario de cada billete.
+     * @return el trabajo creado, en estado {@code PENDIENTE}.
+     */
+    @PostMapping("/{id}/generaciones")
+    public ResponseEntity<TrabajoGeneracionDto> iniciarGeneracion(
             @PathVariable Long id,
             @RequestParam int cantidad,
             @RequestParam double precio
     ) {
-        List<Billete> billetes = service.generarBilletes(id, cantidad, precio);
-        return ResponseEntity.ok(billetes);
+        TrabajoGeneracionDto trabajo = generaciones.iniciar(id, cantidad, precio);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/sorteos/" + id + "/generaciones/" + trabajo.getId()))
+                .body(trabajo);
+    }
+
+    /**
+     * Consulta el estado, el avance y el ritmo de una generación de billetes.
+     * Devuelve 404 si el trabajo no existe en ese sorteo.
+     */
+    @GetMapping("/{id}/generaciones/{trabajoId}")
+    public ResponseEntity<TrabajoGeneracionDto> consultarGeneracion(@PathVariable Long id,
+                                                                    @PathVariable String trabajoId) {
+        return ResponseEntity.ok(generaciones.consultar(id, trabajoId));
+    }
+
+    /**
+     * Cancela una generación de billetes. Los billetes ya confirmados se conservan.
+     * Devuelve 404 si el trabajo no existe y 409 si ya terminó.
+     */
+    @DeleteMapping("/{id}/generaciones/{trabajoId}")
+    public ResponseEntity<TrabajoGeneracionDto> cancelarGeneracion(@PathVariable Long id,
+                                                                   @PathVariable String trabajoId) {
+        return ResponseEntity.ok(generaciones.cancelar(id, trabajoId));
     }
 
     /**
@@ -137,7 +233,8 @@ public class SorteoController {
      *
      * <p>
      * Permite visualizar tanto billetes disponibles como vendidos,
-     * dependiendo del estado actual de cada uno.
+     * dependiendo del estado actual de cada uno. Un sorteo virtual responde 409: sus
+     * billetes se piden por páginas en {@code GET /api/billetes/sorteo/{id}} o en NDJSON.
      * </p>
      *
      * <h4>Ejemplo de petición:</h4>
@@ -153,4 +250,196 @@ public class SorteoController {
         List<Billete> billetes = service.listarBilletesPorSorteo(id);
         return ResponseEntity.ok(billetes);
     }
+
+    /**
+     * Envía los billetes de un sorteo en streaming, un objeto JSON por línea (NDJSON).
+     *
+     * <p>
+     * Se selecciona con {@code Accept: application/x-ndjson}. Cada billete se escribe en
+     * cuanto se lee de la base de datos, así que el primer byte llega de inmediato y la
+     * memoria del servidor no crece con el tamaño del sorteo. Sin esa cabecera se mantiene
+     * la respuesta JSON de {@link #listarBilletesPorSorteo}.
+     * </p>
+     *
+     * <h4>Ejemplo de petición:</h4>
+     * <pre>
+     * curl -H "Accept: application/x-ndjson" http://localhost:8080/api/sorteos/1/billetes
+     * </pre>
+     *
+     * @param id identificador del sorteo.
+     * @return cuerpo que se escribe a medida que se recorre el cursor.
+     */
+    @GetMapping(path = "/{id}/billetes", produces = ExportadorBilletes.NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportarBilletesPorSorteo(@PathVariable Long id) {
+        StreamingResponseBody cuerpo = salida -> service.exportarBilletesPorSorteo(id, salida);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(ExportadorBilletes.NDJSON))
+                .body(cuerpo);
+    }
+
+    /**
+     * Devuelve el resumen de ventas de un sorteo.
+     *
+     * <p>
+     * Se responde desde contadores en memoria, sin consultar la base de datos.
+     * Los billetes reservados se cuentan como disponibles.
+     * </p>
+     *
+     * <h4>Ejemplo de respuesta:</h4>
+     * <pre>
+     * { "sorteoId": 1, "billetes": 20, "vendidos": 5, "disponibles": 15, "ingresos": 50000.00 }
+     * </pre>
+     *
+     * @param id identificador del sorteo.
+     * @return el resumen del sorteo, o {@code 404} si no existe.
+     */
+    @GetMapping("/{id}/resumen")
+    public ResponseEntity<ResumenSorteoDto> resumen(@PathVariable Long id) {
+        return ResponseEntity.ok(service.resumen(id));
+    }
+
+    /**
+     * Ejecuta un sorteo: fija el número ganador y registra los premios de los billetes vendidos.
+     *
+     * <p>
+     * Si no se indica {@code numero}, se sortea uno con el ancho de los billetes del sorteo.
+     * Un sorteo solo puede ejecutarse una vez (409 en los intentos siguientes).
+     * </p>
+     *
+     * <h4>Ejemplo de petición:</h4>
+     * <pre>
+     * POST /api/sorteos/1/ejecucion?numero=004217
+     * </pre>
+     *
+     * <h4>Ejemplo de respuesta:</h4>
+     * <pre>
+     * { "sorteoId": 1, "numeroGanador": "004217", "vendidos": 1000000,
+     *   "ganadores": { "EXACTO": 1, "ULTIMAS_3": 999, "ULTIMAS_2": 9000 }, "duracionMs": 640 }
+     * </pre>
+     *
+     * @param id identificador del sorteo.
+     * @param numero número ganador (opcional).
+     * @return resultado del sorteo; 404 si no existe, 400 si el número no es válido, 409 si ya se ejecutó.
+     */
+    @PostMapping("/{id}/ejecucion")
+    public ResponseEntity<ResultadoSorteoDto> ejecutar(@PathVariable Long id,
+                                                       @RequestParam(required = false) String numero) {
+        return ResponseEntity.ok(service.ejecutar(id, numero));
+    }
+
+    /**
+     * Reserva un billete disponible del sorteo elegido al azar.
+     *
+     * <p>
+     * Dos solicitudes simultáneas nunca reciben el mismo billete. El billete se compra
+     * con {@code POST /api/ventas} enviando el token de la reserva.
+     * </p>
+     *
+     * <h4>Ejemplo de solicitud JSON:</h4>
+     * <pre>
+     * { "clienteId": 5, "segundos": 120 }
+     * </pre>
+     *
+     * @param id identificador del sorteo.
+     * @param request cliente y duración opcional de la reserva.
+     * @return 201 con la reserva; 409 si no quedan billetes disponibles, 400 si el cliente no existe.
+     */
+    @PostMapping(path = "/{id}/billetes/aleatorio",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ReservaResponseDto> reservarAleatorio(@PathVariable Long id,
+                                                                @Valid @RequestBody ReservaSorteoRequestDto request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(ventas.reservarAleatorio(id, request));
+    }
+
+    /**
+     * Reserva el billete disponible de menor número del sorteo.
+     *
+     * @param id identificador del sorteo.
+     * @param request cliente y duración opcional de la reserva.
+     * @return 201 con la reserva; 409 si no quedan billetes disponibles, 400 si el cliente no existe.
+     */
+    @PostMapping(path = "/{id}/billetes/siguiente",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ReservaResponseDto> reservarSiguiente(@PathVariable Long id,
+                                                                @Valid @RequestBody ReservaSorteoRequestDto request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(ventas.reservarSiguiente(id, request));
+    }
+
+    /**
+     * Reserva un número concreto del sorteo.
+     *
+     * <p>
+     * En un sorteo virtual el billete se crea en este momento; luego se compra con
+     * {@code POST /api/ventas} y el token, como cualquier reserva.
+     * </p>
+     *
+     * @param id identificador del sorteo.
+     * @param numero número del billete ({@code 0007} o {@code 7}).
+     * @param request cliente y duración opcional de la reserva.
+     * @return 201 con la reserva; 409 si el billete no está disponible, 404 si el sorteo no
+     *         tiene ese número, 400 si el número está fuera de rango o el cliente no existe.
+     */
+    @PostMapping(path = "/{id}/numeros/{numero}/reserva",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ReservaResponseDto> reservarNumero(@PathVariable Long id,
+                                                             @PathVariable String numero,
+                                                             @Valid @RequestBody ReservaSorteoRequestDto request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(ventas.reservarNumero(id, numero, request));
+    }
+
+    /**
+     * Lista los premios de un sorteo ejecutado, agrupados por categoría.
+     *
+     * @param id identificador del sorteo.
+     * @return premios del sorteo (vacío si no se ha ejecutado), o {@code 404} si no existe.
+     */
+    @GetMapping("/{id}/premios")
+    public ResponseEntity<List<Premio>> listarPremios(@PathVariable Long id) {
+        return ResponseEntity.ok(service.listarPremios(id));
+    }
+
+    /**
+     * Verifica si un número tiene premio en un sorteo ejecutado.
+     *
+     * <p>
+     * Se responde desde un índice en memoria, sin consultar la base de datos, para soportar
+     * las consultas masivas que llegan al publicarse un resultado.
+     * </p>
+     *
+     * <h4>Ejemplo de respuesta:</h4>
+     * <pre>
+     * { "sorteoId": 1, "numero": "001217", "numeroGanador": "004217", "premiado": true,
+     *   "categoria": "ULTIMAS_3", "billeteId": 1217, "clienteId": 42 }
+     * </pre>
+     *
+     * @param id identificador del sorteo.
+     * @param numero número del billete.
+     * @return resultado de la verificación; 404 si el sorteo no existe, 409 si aún no se ejecutó,
+     *         400 si el número no es numérico.
+     */
+    @GetMapping("/{id}/verificar/{numero}")
+    public ResponseEntity<VerificacionPremioDto> verificar(@PathVariable Long id, @PathVariable String numero) {
+        return ResponseEntity.ok(service.verificar(id, numero));
+    }
+
+    /**
+     * Archiva un sorteo pasado: sus billetes y ventas se mueven a {@code billetes_archivados}
+     * y dejan de ocupar las tablas activas. Los listados y el historial siguen mostrándolos.
+     *
+     * <h4>Ejemplo de respuesta:</h4>
+     * <pre>
+     * { "sorteoId": 1, "billetes": 100000, "ventas": 64210, "duracionMs": 1830 }
+     * </pre>
+     *
+     * @param id identificador del sorteo.
+     * @return cantidad de billetes y ventas archivados; 404 si no existe, 409 si ya está
+     *         archivado, todavía no pasó o tiene billetes reservados.
+     */
+    @PostMapping("/{id}/archivo")
+    public ResponseEntity<ArchivoSorteoDto> archivar(@PathVariable Long id) {
+        return ResponseEntity.ok(service.archivar(id));
+    }
 }
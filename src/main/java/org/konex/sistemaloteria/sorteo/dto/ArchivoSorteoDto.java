@@ -0,0 +1,39 @@
+package org.konex.sistemaloteria.sorteo.dto;
+
+/**
+ * DTO de salida con el resultado de archivar un sorteo.
+ *
+ * Ejemplo JSON:
+ * {
+ *   "sorteoId": 1,
+ *   "billetes": 100000,
+ *   "ventas": 64210,
+ *   "duracionMs": 1830
+ * }
+ */
+public class ArchivoSorteoDto {
+
+    /** Identificador del sorteo. */
+    private Long sorteoId;
+
+    /** Billetes movidos a {@code billetes_archivados}. */
+    private int billetes;
+
+    /** Ventas borradas de {@code ventas} (sus datos quedan en los billetes archivados). */
+    private int ventas;
+
+    /** Tiempo que tomó el archivo, en milisegundos. */
+    private long duracionMs;
+
+    public ArchivoSorteoDto(Long sorteoId, int billetes, int ventas, long duracionMs) {
+        this.sorteoId = sorteoId;
+        this.billetes = billetes;
+        this.ventas = ventas;
+        this.duracionMs = duracionMs;
+    }
+
+    public Long getSorteoId() { return sorteoId; }
+    public int getBilletes() { return billetes; }
+    public int getVentas() { return ventas; }
+    public long getDuracionMs() { return duracionMs; }
+}
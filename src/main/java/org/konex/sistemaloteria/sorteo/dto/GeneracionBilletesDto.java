@@ -0,0 +1,59 @@
+package org.konex.sistemaloteria.sorteo.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO de salida con el resumen de una generación de billetes.
+ *
+ * <p>
+ * En lugar de devolver cada billete creado, informa cuántos se generaron
+ * y el rango de números asignado.
+ * </p>
+ *
+ * Ejemplo JSON:
+ * {
+ *   "sorteoId": 1,
+ *   "cantidad": 100000,
+ *   "numeroInicial": "000001",
+ *   "numeroFinal": "100000",
+ *   "precio": 10000,
+ *   "duracionMs": 850
+ * }
+ */
+public class GeneracionBilletesDto {
+
+    /** Identificador del sorteo. */
+    private Long sorteoId;
+
+    /** Cantidad de billetes generados. */
+    private int cantidad;
+
+    /** Número del primer billete generado. */
+    private String numeroInicial;
+
+    /** Número del último billete generado. */
+    private String numeroFinal;
+
+    /** Precio unitario de los billetes. */
+    private BigDecimal precio;
+
+    /** Tiempo que tomó la generación, en milisegundos. */
+    private long duracionMs;
+
+    public GeneracionBilletesDto(Long sorteoId, int cantidad, String numeroInicial, String numeroFinal,
+                                 BigDecimal precio, long duracionMs) {
+        this.sorteoId = sorteoId;
+        this.cantidad = cantidad;
+        this.numeroInicial = numeroInicial;
+        this.numeroFinal = numeroFinal;
+        this.precio = precio;
+        this.duracionMs = duracionMs;
+    }
+
+    public Long getSorteoId() { return sorteoId; }
+    public int getCantidad() { return cantidad; }
+    public String getNumeroInicial() { return numeroInicial; }
+    public String getNumeroFinal() { return numeroFinal; }
+    public BigDecimal getPrecio() { return precio; }
+    public long getDuracionMs() { return duracionMs; }
+}
@@ -0,0 +1,50 @@
+package org.konex.sistemaloteria.sorteo.dto;
+
+import org.konex.sistemaloteria.sorteo.model.CategoriaPremio;
+
+import java.util.Map;
+
+/**
+ * DTO de salida con el resultado de la ejecución de un sorteo.
+ *
+ * Ejemplo JSON:
+ * {
+ *   "sorteoId": 1,
+ *   "numeroGanador": "004217",
+ *   "vendidos": 1000000,
+ *   "ganadores": { "EXACTO": 1, "ULTIMAS_3": 999, "ULTIMAS_2": 9000 },
+ *   "duracionMs": 640
+ * }
+ */
+public class ResultadoSorteoDto {
+
+    /** Identificador del sorteo. */
+    private Long sorteoId;
+
+    /** Número ganador. */
+    private String numeroGanador;
+
+    /** Billetes vendidos que participaron. */
+    private int vendidos;
+
+    /** Cantidad de premios por categoría (todas las categorías, aunque sea con 0). */
+    private Map<CategoriaPremio, Integer> ganadores;
+
+    /** Tiempo que tomó la ejecución, en milisegundos. */
+    private long duracionMs;
+
+    public ResultadoSorteoDto(Long sorteoId, String numeroGanador, int vendidos,
+                              Map<CategoriaPremio, Integer> ganadores, long duracionMs) {
+        this.sorteoId = sorteoId;
+        this.numeroGanador = numeroGanador;
+        this.vendidos = vendidos;
+        this.ganadores = ganadores;
+        this.duracionMs = duracionMs;
+    }
+
+    public Long getSorteoId() { return sorteoId; }
+    public String getNumeroGanador() { return numeroGanador; }
+    public int getVendidos() { return vendidos; }
+    public Map<CategoriaPremio, Integer> getGanadores() { return ganadores; }
+    public long getDuracionMs() { return duracionMs; }
+}
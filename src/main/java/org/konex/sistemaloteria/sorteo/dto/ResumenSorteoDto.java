@@ -0,0 +1,51 @@
+package org.konex.sistemaloteria.sorteo.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO de salida con el resumen de ventas de un sorteo.
+ *
+ * <p>
+ * {@code disponibles} incluye los billetes reservados temporalmente, ya que aún no se han vendido.
+ * </p>
+ *
+ * Ejemplo JSON:
+ * {
+ *   "sorteoId": 1,
+ *   "billetes": 20,
+ *   "vendidos": 5,
+ *   "disponibles": 15,
+ *   "ingresos": 50000.00
+ * }
+ */
+public class ResumenSorteoDto {
+
+    /** Identificador del sorteo. */
+    private Long sorteoId;
+
+    /** Total de billetes del sorteo. */
+    private long billetes;
+
+    /** Billetes vendidos. */
+    private long vendidos;
+
+    /** Billetes aún no vendidos. */
+    private long disponibles;
+
+    /** Suma de los precios de los billetes vendidos. */
+    private BigDecimal ingresos;
+
+    public ResumenSorteoDto(Long sorteoId, long billetes, long vendidos, BigDecimal ingresos) {
+        this.sorteoId = sorteoId;
+        this.billetes = billetes;
+        this.vendidos = vendidos;
+        this.disponibles = billetes - vendidos;
+        this.ingresos = ingresos;
+    }
+
+    public Long getSorteoId() { return sorteoId; }
+    public long getBilletes() { return billetes; }
+    public long getVendidos() { return vendidos; }
+    public long getDisponibles() { return disponibles; }
+    public BigDecimal getIngresos() { return ingresos; }
+}
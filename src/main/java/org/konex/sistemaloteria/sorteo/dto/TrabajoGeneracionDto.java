@@ -0,0 +1,114 @@
+package org.konex.sistemaloteria.sorteo.dto;
+
+import org.konex.sistemaloteria.sorteo.model.EstadoTrabajoGeneracion;
+import org.konex.sistemaloteria.sorteo.model.TrabajoGeneracion;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * DTO de salida con el estado y el avance de un trabajo de generación de billetes.
+ *
+ * <p>
+ * {@code billetesPorSegundo} es el ritmo promedio desde que el trabajo empezó
+ * hasta su último avance confirmado.
+ * </p>
+ *
+ * Ejemplo JSON:
+ * {
+ *   "id": "5d0f3c1e-8a8b-4c1e-9f44-0d8a7b6c5e21",
+ *   "sorteoId": 1,
+ *   "estado": "EN_CURSO",
+ *   "cantidad": 1000000,
+ *   "generados": 250000,
+ *   "porcentaje": 25.0,
+ *   "billetesPorSegundo": 125000.0,
+ *   "precio": 10000,
+ *   "mensaje": null,
+ *   "fechaCreacion": "2025-11-09T10:00:00.123",
+ *   "fechaInicio": "2025-11-09T10:00:00.200",
+ *   "fechaActualizacion": "2025-11-09T10:00:02.200"
+ * }
+ */
+public class TrabajoGeneracionDto {
+
+    /** Identificador del trabajo. */
+    private String id;
+
+    /** Sorteo al que se agregan los billetes. */
+    private Long sorteoId;
+
+    /** PENDIENTE, EN_CURSO, COMPLETADA, CANCELADA o FALLIDA. */
+    private EstadoTrabajoGeneracion estado;
+
+    /** Cantidad total de billetes a generar. */
+    private int cantidad;
+
+    /** Billetes ya generados y confirmados. */
+    private int generados;
+
+    /** Avance en porcentaje (0 a 100). */
+    private double porcentaje;
+
+    /** Ritmo promedio de generación. */
+    private double billetesPorSegundo;
+
+    /** Precio unitario de los billetes. */
+    private BigDecimal precio;
+
+    /** Motivo del error (solo si está FALLIDA). */
+    private String mensaje;
+
+    /** Fecha y hora en la que se aceptó el trabajo. */
+    private LocalDateTime fechaCreacion;
+
+    /** Fecha y hora en la que empezó a generar. */
+    private LocalDateTime fechaInicio;
+
+    /** Fecha y hora del último avance o cambio de estado. */
+    private LocalDateTime fechaActualizacion;
+
+    public TrabajoGeneracionDto(String id, Long sorteoId, EstadoTrabajoGeneracion estado, int cantidad,
+                                int generados, double billetesPorSegundo, BigDecimal precio, String mensaje,
+                                LocalDateTime fechaCreacion, LocalDateTime fechaInicio,
+                                LocalDateTime fechaActualizacion) {
+        this.id = id;
+        this.sorteoId = sorteoId;
+        this.estado = estado;
+        this.cantidad = cantidad;
+        this.generados = generados;
+        this.porcentaje = cantidad > 0 ? generados * 100.0 / cantidad : 0;
+        this.billetesPorSegundo = billetesPorSegundo;
+        this.precio = precio;
+        this.mensaje = mensaje;
+        this.fechaCreacion = fechaCreacion;
+        this.fechaInicio = fechaInicio;
+        this.fechaActualizacion = fechaActualizacion;
+    }
+
+    /** Construye el DTO a partir de la entidad. */
+    public static TrabajoGeneracionDto de(TrabajoGeneracion t) {
+        double ritmo = 0;
+        if (t.getFechaInicio() != null && t.getGenerados() > 0) {
+            long ms = Duration.between(t.getFechaInicio(), t.getFechaActualizacion()).toMillis();
+            ritmo = ms > 0 ? t.getGenerados() * 1000.0 / ms : 0;
+        }
+        return new TrabajoGeneracionDto(t.getId(), t.getSorteoId(), t.getEstado(), t.getCantidad(),
+                t.getGenerados(), ritmo, t.getPrecio(), t.getMensaje(),
+                t.getFechaCreacion(), t.getFechaInicio(), t.getFechaActualizacion());
+    }
+
+    public String getId() { return id; }
+    public Long getSorteoId() { return sorteoId; }
+    public EstadoTrabajoGeneracion getEstado() { return estado; }
+    public int getCantidad() { return cantidad; }
+    public int getGenerados() { return generados; }
+    public double getPorcentaje() { return porcentaje; }
+    public double getBilletesPorSegundo() { return billetesPorSegundo; }
+    public BigDecimal getPrecio() { return precio; }
+    public String getMensaje() { return mensaje; }
+    public LocalDateTime getFechaCreacion() { return fechaCreacion; }
+    public LocalDateTime getFechaInicio() { return fechaInicio; }
+    public LocalDateTime getFechaActualizacion() { return fechaActualizacion; }
+}
@@ -0,0 +1,60 @@
+package org.konex.sistemaloteria.sorteo.dto;
+
+import org.konex.sistemaloteria.sorteo.model.CategoriaPremio;
+
+/**
+ * DTO de salida con el resultado de verificar un número en un sorteo ejecutado.
+ *
+ * Ejemplo JSON:
+ * {
+ *   "sorteoId": 1,
+ *   "numero": "001217",
+ *   "numeroGanador": "004217",
+ *   "premiado": true,
+ *   "categoria": "ULTIMAS_3",
+ *   "billeteId": 1217,
+ *   "clienteId": 42
+ * }
+ */
+public class VerificacionPremioDto {
+
+    /** Identificador del sorteo. */
+    private Long sorteoId;
+
+    /** Número consultado. */
+    private String numero;
+
+    /** Número ganador del sorteo. */
+    private String numeroGanador;
+
+    /** Indica si el número tiene premio. */
+    private boolean premiado;
+
+    /** Categoría del premio, o {@code null} si no tiene. */
+    private CategoriaPremio categoria;
+
+    /** Billete premiado, o {@code null} si no tiene premio. */
+    private Long billeteId;
+
+    /** Cliente que compró el billete premiado, si lo hay. */
+    private Long clienteId;
+
+    public VerificacionPremioDto(Long sorteoId, String numero, String numeroGanador, CategoriaPremio categoria,
+                                 Long billeteId, Long clienteId) {
+        this.sorteoId = sorteoId;
+        this.numero = numero;
+        this.numeroGanador = numeroGanador;
+        this.premiado = categoria != null;
+        this.categoria = categoria;
+        this.billeteId = billeteId;
+        this.clienteId = clienteId;
+    }
+
+    public Long getSorteoId() { return sorteoId; }
+    public String getNumero() { return numero; }
+    public String getNumeroGanador() { return numeroGanador; }
+    public boolean isPremiado() { return premiado; }
+    public CategoriaPremio getCategoria() { return categoria; }
+    public Long getBilleteId() { return billeteId; }
+    public Long getClienteId() { return clienteId; }
+}
@@ -0,0 +1,48 @@
+package org.konex.sistemaloteria.sorteo.model;
+
+/**
+ * Categorías de premio de un sorteo, de mayor a menor.
+ *
+ * <p>
+ * Un billete gana con la primera categoría que cumpla: el número completo o
+ * sus últimas {@link #getCifras()} cifras iguales a las del número ganador.
+ * Cada billete recibe como máximo un premio.
+ * </p>
+ */
+public enum CategoriaPremio {
+
+    /** Número completo igual al ganador. */
+    EXACTO(0),
+
+    /** Últimas tres cifras iguales a las del ganador. */
+    ULTIMAS_3(3),
+
+    /** Últimas dos cifras iguales a las del ganador. */
+    ULTIMAS_2(2);
+
+    /** Cifras finales que se comparan; {@code 0} compara el número completo. */
+    private final int cifras;
+
+    /** {@code 10^cifras}, para comparar con el resto de la división. */
+    private final long modulo;
+
+    CategoriaPremio(int cifras) {
+        this.cifras = cifras;
+        this.modulo = cifras == 0 ? 0 : (long) Math.pow(10, cifras);
+    }
+
+    public int getCifras() {
+        return cifras;
+    }
+
+    /**
+     * Indica si un número de billete gana en esta categoría.
+     *
+     * @param numero número del billete.
+     * @param ganador número ganador del sorteo.
+     * @return {@code true} si coinciden en las cifras de la categoría.
+     */
+    public boolean gana(long numero, long ganador) {
+        return modulo == 0 ? numero == ganador : numero % modulo == ganador % modulo;
+    }
+}
@@ -0,0 +1,34 @@
+package org.konex.sistemaloteria.sorteo.model;
+
+/**
+ * Estados de un trabajo de generación de billetes en segundo plano ({@link TrabajoGeneracion}).
+ *
+ * <ul>
+ *   <li><b>PENDIENTE</b>: aceptado y a la espera de un hilo libre.</li>
+ *   <li><b>EN_CURSO</b>: generando billetes por tramos.</li>
+ *   <li><b>COMPLETADA</b>: se generaron todos los billetes.</li>
+ *   <li><b>CANCELADA</b>: se detuvo a pedido; los tramos ya confirmados se conservan.</li>
+ *   <li><b>FALLIDA</b>: se detuvo por un error; el motivo queda en {@code mensaje}.</li>
+ * </ul>
+ */
+public enum EstadoTrabajoGeneracion {
+    /** Aceptado, pendiente de ejecutar. */
+    PENDIENTE,
+
+    /** Generando billetes. */
+    EN_CURSO,
+
+    /** Todos los billetes generados. */
+    COMPLETADA,
+
+    /** Detenido a pedido del usuario. */
+    CANCELADA,
+
+    /** Detenido por un error. */
+    FALLIDA;
+
+    /** Indica si el trabajo ya no avanzará. */
+    public boolean isTerminal() {
+        return this == COMPLETADA || this == CANCELADA || this == FALLIDA;
+    }
+}
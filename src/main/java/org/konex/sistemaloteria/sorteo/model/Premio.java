@@ -0,0 +1,55 @@
+package org.konex.sistemaloteria.sorteo.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Billete vendido que resultó ganador en la ejecución de un sorteo.
+ *
+ * <p>
+ * Se guardan copias del número y del cliente en lugar de relaciones: el registro
+ * del premio no cambia aunque después se modifique el billete, y listar los
+ * premios no requiere cargar billetes ni clientes. Todos los premios de un sorteo
+ * se insertan en un único lote JDBC (ver
+ * {@link org.konex.sistemaloteria.sorteo.service.MotorSorteo}).
+ * </p>
+ */
+@Entity
+@Table(
+        name = "premios",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "ux_premios_sorteo_billete", columnNames = {"sorteo_id", "billete_id"})
+        }
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Premio {
+
+    /** Identificador del premio. */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** Sorteo en el que se obtuvo el premio. */
+    @Column(name = "sorteo_id", nullable = false)
+    private Long sorteoId;
+
+    /** Billete ganador. */
+    @Column(name = "billete_id", nullable = false)
+    private Long billeteId;
+
+    /** Número del billete ganador. */
+    @Column(nullable = false, length = 16)
+    private String numero;
+
+    /** Cliente que compró el billete. */
+    @Column(name = "cliente_id")
+    private Long clienteId;
+
+    /** Categoría del premio. */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private CategoriaPremio categoria;
+}
@@ -1,12 +1,17 @@
 package org.konex.sistemaloteria.sorteo.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.konex.sistemaloteria.billete.model.Billete;
+import org.konex.sistemaloteria.compartido.NumeroBillete;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -50,6 +55,63 @@ public class Sorteo {
     @Column(name = "fecha_sorteo", nullable = false)
     private LocalDate fechaSorteo;
 
+    /**
+     * Cifras con las que se muestran los números de sus billetes.
+     *
+     * <p>
+     * Los números se guardan como enteros; este ancho solo decide cuántos ceros a la
+     * izquierda se agregan al mostrarlos (ver {@link NumeroBillete}). Empieza en
+     * {@value NumeroBillete#CIFRAS_MINIMAS} y solo crece, cuando se crean billetes más largos.
+     * </p>
+     */
+    @Column(nullable = false)
+    @ColumnDefault("4")
+    @Builder.Default
+    private Integer cifras = NumeroBillete.CIFRAS_MINIMAS;
+
+    /**
+     * Cantidad de números de un sorteo con billetes virtuales ({@code 1..numerosVirtuales}).
+     *
+     * <p>
+     * Es {@code null} en los sorteos cuyos billetes se generan como filas. En un sorteo virtual
+     * solo se declaran el rango y el precio: los números sin vender no existen en {@code billetes}
+     * y la fila de cada uno se crea recién al reservarlo o venderlo
+     * (ver {@link org.konex.sistemaloteria.billete.service.NumerosVirtuales}).
+     * </p>
+     */
+    @Column(name = "numeros_virtuales")
+    private Integer numerosVirtuales;
+
+    /** Precio de los billetes de un sorteo virtual. */
+    @Column(name = "precio_virtual", precision = 12, scale = 2)
+    private BigDecimal precioVirtual;
+
+    /**
+     * Número ganador, asignado al ejecutar el sorteo.
+     *
+     * <p>
+     * Es {@code null} mientras el sorteo no se haya ejecutado; se asigna una sola vez
+     * (ver {@link org.konex.sistemaloteria.sorteo.repository.SorteoRepository#registrarEjecucion}).
+     * </p>
+     */
+    @Column(name = "numero_ganador", length = 16)
+    private String numeroGanador;
+
+    /** Momento en que se ejecutó el sorteo. */
+    @Column(name = "fecha_ejecucion")
+    private LocalDateTime fechaEjecucion;
+
+    /**
+     * Momento en que se archivó el sorteo.
+     *
+     * <p>
+     * Mientras es {@code null} sus billetes están en {@code billetes}; después, en
+     * {@code billetes_archivados} (ver {@link org.konex.sistemaloteria.sorteo.service.ArchivadorSorteos}).
+     * </p>
+     */
+    @Column(name = "fecha_archivo")
+    private LocalDateTime fechaArchivo;
+
     /**
      * Lista de billetes asociados a este sorteo.
      *
@@ -70,4 +132,16 @@ public class Sorteo {
     @OneToMany(mappedBy = "sorteo", cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonManagedReference("sorteo-billetes")
     private List<Billete> billetes = new ArrayList<>();
+
+    /** Indica si los billetes sin vender del sorteo son virtuales (no tienen fila). */
+    @JsonIgnore
+    public boolean isVirtual() {
+        return numerosVirtuales != null;
+    }
+
+    /** Indica si los billetes del sorteo ya se movieron al archivo. */
+    @JsonIgnore
+    public boolean isArchivado() {
+        return fechaArchivo != null;
+    }
 }
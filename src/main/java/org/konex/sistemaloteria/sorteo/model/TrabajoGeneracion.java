@@ -0,0 +1,83 @@
+package org.konex.sistemaloteria.sorteo.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Entidad que representa la generación de los billetes de un sorteo en segundo plano.
+ *
+ * <p>
+ * Los billetes se insertan por tramos y cada tramo se confirma en la misma transacción
+ * que actualiza {@code generados}: el avance guardado coincide siempre con los billetes
+ * que existen, y tras un reinicio el trabajo continúa desde el siguiente número.
+ * </p>
+ *
+ * <p>
+ * El avance y los cambios de estado se escriben con sentencias {@code UPDATE} puntuales
+ * (ver {@link org.konex.sistemaloteria.sorteo.repository.TrabajoGeneracionRepository}),
+ * para que el hilo que genera y la solicitud de cancelación no se pisen entre sí.
+ * </p>
+ */
+@Entity
+@Table(
+        name = "trabajos_generacion",
+        indexes = {
+                @Index(name = "ix_trabajos_generacion_estado", columnList = "estado, fecha_creacion")
+        }
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TrabajoGeneracion {
+
+    /** Identificador del trabajo (UUID) que se entrega al cliente. */
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    /** Sorteo al que se agregan los billetes. */
+    @Column(name = "sorteo_id", nullable = false)
+    private Long sorteoId;
+
+    /** Cantidad total de billetes a generar. */
+    @Column(nullable = false)
+    private int cantidad;
+
+    /** Precio unitario de los billetes. */
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal precio;
+
+    /** Billetes ya generados y confirmados (numerados de 1 a {@code generados}). */
+    @Column(nullable = false)
+    private int generados;
+
+    /** Estado actual del trabajo. */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    @Builder.Default
+    private EstadoTrabajoGeneracion estado = EstadoTrabajoGeneracion.PENDIENTE;
+
+    /** Indica que se pidió cancelar el trabajo; se atiende antes del siguiente tramo. */
+    @Column(name = "cancelacion_solicitada", nullable = false)
+    private boolean cancelacionSolicitada;
+
+    /** Motivo del error, cuando el trabajo está {@code FALLIDA}. */
+    @Column(length = 255)
+    private String mensaje;
+
+    /** Fecha y hora en la que se aceptó el trabajo. */
+    @Column(name = "fecha_creacion", nullable = false)
+    private LocalDateTime fechaCreacion;
+
+    /** Fecha y hora en la que empezó a generar billetes. */
+    @Column(name = "fecha_inicio")
+    private LocalDateTime fechaInicio;
+
+    /** Fecha y hora del último avance o cambio de estado. */
+    @Column(name = "fecha_actualizacion", nullable = false)
+    private LocalDateTime fechaActualizacion;
+}
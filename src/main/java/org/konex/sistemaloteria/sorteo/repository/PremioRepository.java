@@ -0,0 +1,26 @@
+package org.konex.sistemaloteria.sorteo.repository;
+
+import org.konex.sistemaloteria.sorteo.model.Premio;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+/**
+ * Repositorio JPA para los {@link Premio} de los sorteos ejecutados.
+ *
+ * <p>
+ * Los premios se insertan por lotes JDBC al ejecutar el sorteo; este repositorio
+ * solo se usa para consultarlos.
+ * </p>
+ */
+public interface PremioRepository extends JpaRepository<Premio, Long> {
+
+    /**
+     * Obtiene los premios de un sorteo en el orden en que se registraron
+     * (agrupados por categoría, de mayor a menor).
+     *
+     * @param sorteoId identificador del sorteo.
+     * @return premios del sorteo; vacío si no se ha ejecutado o no hubo ganadores.
+     */
+    List<Premio> findBySorteoIdOrderById(Long sorteoId);
+}
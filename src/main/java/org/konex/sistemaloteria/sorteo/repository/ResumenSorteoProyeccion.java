@@ -0,0 +1,18 @@
+package org.konex.sistemaloteria.sorteo.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Proyección con los totales de billetes, ventas e ingresos de un sorteo,
+ * calculados por {@link SorteoRepository#resumirTodos}.
+ */
+public interface ResumenSorteoProyeccion {
+
+    Long getSorteoId();
+
+    Long getBilletes();
+
+    Long getVendidos();
+
+    BigDecimal getIngresos();
+}
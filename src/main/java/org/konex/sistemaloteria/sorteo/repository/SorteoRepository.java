@@ -1,8 +1,16 @@
 package org.konex.sistemaloteria.sorteo.repository;
 
+import org.konex.sistemaloteria.compartido.EstadoBillete;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.konex.sistemaloteria.sorteo.model.Sorteo;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
 /**
  * Repositorio JPA para la entidad {@link Sorteo}.
  *
@@ -28,4 +36,96 @@ import org.konex.sistemaloteria.sorteo.model.Sorteo;
  * </pre>
  */
 public interface SorteoRepository extends JpaRepository<Sorteo, Long> {
+
+    /**
+     * Calcula en una sola consulta, para cada sorteo, la cantidad de billetes,
+     * cuántos están vendidos y la suma de sus precios.
+     *
+     * @param vendido estado que se considera venta (normalmente {@code VENDIDO}).
+     * @return un resumen por sorteo, incluidos los que no tienen billetes.
+     */
+    @Query("SELECT s.id AS sorteoId, COUNT(b.id) AS billetes, "
+            + "COALESCE(SUM(CASE WHEN b.estado = :vendido THEN 1 ELSE 0 END), 0) AS vendidos, "
+            + "COALESCE(SUM(CASE WHEN b.estado = :vendido THEN b.precio ELSE 0 END), 0) AS ingresos "
+            + "FROM Sorteo s LEFT JOIN s.billetes b GROUP BY s.id")
+    List<ResumenSorteoProyeccion> resumirTodos(@Param("vendido") EstadoBillete vendido);
+
+    /**
+     * Calcula el mismo resumen que {@link #resumirTodos} para los sorteos archivados,
+     * a partir de {@code billetes_archivados}.
+     *
+     * @param vendido estado que se considera venta (normalmente {@code VENDIDO}).
+     * @return un resumen por cada sorteo con billetes archivados.
+     */
+    @Query("SELECT a.sorteoId AS sorteoId, COUNT(a.id) AS billetes, "
+            + "COALESCE(SUM(CASE WHEN a.estado = :vendido THEN 1 ELSE 0 END), 0) AS vendidos, "
+            + "COALESCE(SUM(CASE WHEN a.estado = :vendido THEN a.precio ELSE 0 END), 0) AS ingresos "
+            + "FROM BilleteArchivado a GROUP BY a.sorteoId")
+    List<ResumenSorteoProyeccion> resumirArchivados(@Param("vendido") EstadoBillete vendido);
+
+    /**
+     * Rango de los sorteos virtuales, cuyos billetes sin vender no tienen fila.
+     *
+     * @return pares {@code [sorteoId, numerosVirtuales]}.
+     */
+    @Query("SELECT s.id, s.numerosVirtuales FROM Sorteo s WHERE s.numerosVirtuales IS NOT NULL")
+    List<Object[]> listarVirtuales();
+
+    /**
+     * Indica si el sorteo existe y tiene billetes virtuales; en ese caso no admite billetes generados como filas.
+     *
+     * @param id identificador del sorteo.
+     * @return {@code true} si el sorteo es virtual.
+     */
+    boolean existsByIdAndNumerosVirtualesIsNotNull(Long id);
+
+    /**
+     * IDs de los sorteos sin archivar cuya fecha es anterior a la indicada, del más antiguo al más reciente.
+     *
+     * @param limite fecha límite (exclusiva).
+     * @return IDs de los sorteos que pueden archivarse.
+     */
+    @Query("SELECT s.id FROM Sorteo s WHERE s.fechaArchivo IS NULL AND s.fechaSorteo < :limite ORDER BY s.fechaSorteo, s.id")
+    List<Long> findIdsParaArchivar(@Param("limite") LocalDate limite);
+
+    /**
+     * Registra el número ganador de un sorteo solo si todavía no se ha ejecutado.
+     *
+     * <p>
+     * Si dos ejecuciones compiten por el mismo sorteo, solo una obtiene {@code 1};
+     * la otra recibe {@code 0} y no debe registrar premios.
+     * </p>
+     *
+     * @param id identificador del sorteo.
+     * @param numeroGanador número ganador.
+     * @param ahora momento de la ejecución.
+     * @return {@code 1} si se registró, {@code 0} si el sorteo no existe o ya se ejecutó.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+           UPDATE Sorteo s
+           SET s.numeroGanador = :numeroGanador, s.fechaEjecucion = :ahora
+           WHERE s.id = :id AND s.numeroGanador IS NULL
+           """)
+    int registrarEjecucion(@Param("id") Long id,
+                           @Param("numeroGanador") String numeroGanador,
+                           @Param("ahora") LocalDateTime ahora);
+
+    /**
+     * Marca un sorteo como archivado solo si no lo estaba y su fecha ya pasó.
+     *
+     * @param id identificador del sorteo.
+     * @param hoy fecha actual; el sorteo debe ser anterior.
+     * @param ahora momento del archivo.
+     * @return {@code 1} si se marcó, {@code 0} si no existe, ya estaba archivado o aún no ha pasado.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+           UPDATE Sorteo s
+           SET s.fechaArchivo = :ahora
+           WHERE s.id = :id AND s.fechaArchivo IS NULL AND s.fechaSorteo < :hoy
+           """)
+    int marcarArchivado(@Param("id") Long id,
+                        @Param("hoy") LocalDate hoy,
+                        @Param("ahora") LocalDateTime ahora);
 }
@@ -0,0 +1,84 @@
+package org.konex.sistemaloteria.sorteo.repository;
+
+import org.konex.sistemaloteria.sorteo.model.EstadoTrabajoGeneracion;
+import org.konex.sistemaloteria.sorteo.model.TrabajoGeneracion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repositorio JPA para los trabajos de generación de billetes ({@link TrabajoGeneracion}).
+ *
+ * <p>
+ * Los cambios se hacen con {@code UPDATE} condicionales sobre columnas puntuales: el hilo
+ * que genera solo escribe el avance y el estado final, y la cancelación solo escribe su
+ * bandera, de modo que ninguno sobrescribe lo que guardó el otro.
+ * </p>
+ */
+public interface TrabajoGeneracionRepository extends JpaRepository<TrabajoGeneracion, String> {
+
+    /**
+     * Obtiene los IDs de los trabajos en alguno de los estados indicados, del más antiguo al más reciente.
+     *
+     * <p>
+     * Se usa al iniciar la aplicación para retomar los trabajos interrumpidos.
+     * </p>
+     */
+    @Query("SELECT t.id FROM TrabajoGeneracion t WHERE t.estado IN :estados ORDER BY t.fechaCreacion")
+    List<String> findIdsByEstadoIn(Collection<EstadoTrabajoGeneracion> estados);
+
+    /** Indica si se pidió cancelar el trabajo. */
+    @Query("SELECT t.cancelacionSolicitada FROM TrabajoGeneracion t WHERE t.id = :id")
+    boolean isCancelacionSolicitada(String id);
+
+    /**
+     * Cambia el estado de un trabajo solo si su estado actual coincide con el esperado.
+     *
+     * @return {@code 1} si se aplicó el cambio, {@code 0} en caso contrario.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+           UPDATE TrabajoGeneracion t
+           SET t.estado = :nuevo, t.mensaje = :mensaje, t.fechaActualizacion = :ahora
+           WHERE t.id = :id AND t.estado = :esperado
+           """)
+    int cambiarEstadoSi(String id, EstadoTrabajoGeneracion esperado, EstadoTrabajoGeneracion nuevo,
+                        String mensaje, LocalDateTime ahora);
+
+    /**
+     * Pasa un trabajo de {@code PENDIENTE} a {@code EN_CURSO} y registra su inicio.
+     *
+     * @return {@code 1} si el trabajo seguía pendiente, {@code 0} si ya lo tomó otro hilo o se canceló.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+           UPDATE TrabajoGeneracion t
+           SET t.estado = org.konex.sistemaloteria.sorteo.model.EstadoTrabajoGeneracion.EN_CURSO,
+               t.fechaInicio = :ahora, t.fechaActualizacion = :ahora
+           WHERE t.id = :id
+             AND t.estado = org.konex.sistemaloteria.sorteo.model.EstadoTrabajoGeneracion.PENDIENTE
+           """)
+    int iniciar(String id, LocalDateTime ahora);
+
+    /** Registra los billetes generados hasta ahora (en la misma transacción que los inserta). */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE TrabajoGeneracion t SET t.generados = :generados, t.fechaActualizacion = :ahora WHERE t.id = :id")
+    int registrarAvance(String id, int generados, LocalDateTime ahora);
+
+    /**
+     * Marca el pedido de cancelación de un trabajo que todavía no terminó.
+     *
+     * @return {@code 1} si se marcó, {@code 0} si el trabajo ya había terminado.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+           UPDATE TrabajoGeneracion t
+           SET t.cancelacionSolicitada = true
+           WHERE t.id = :id AND t.estado IN :activos
+           """)
+    int solicitarCancelacion(String id, Collection<EstadoTrabajoGeneracion> activos);
+}
@@ -0,0 +1,171 @@
+package org.konex.sistemaloteria.sorteo.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.konex.sistemaloteria.billete.service.BilletesLibres;
+import org.konex.sistemaloteria.billete.service.NumerosVirtuales;
+import org.konex.sistemaloteria.compartido.EstadoBillete;
+import org.konex.sistemaloteria.sorteo.dto.ArchivoSorteoDto;
+import org.konex.sistemaloteria.sorteo.model.Sorteo;
+import org.konex.sistemaloteria.sorteo.repository.SorteoRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mueve los billetes y las ventas de los sorteos pasados a {@code billetes_archivados}.
+ *
+ * <p>
+ * Las tablas {@code billetes} y {@code ventas} (y sus índices) crecen con cada sorteo,
+ * aunque las ventas y las reservas solo tocan los sorteos en curso. Al archivar un sorteo
+ * cada billete se copia, junto con su venta, en una sola fila compacta y sin claves
+ * foráneas, y se borra de las tablas activas.
+ * </p>
+ *
+ * <p>
+ * Estrategia (una transacción por sorteo):
+ * 1️⃣ Se marca el sorteo como archivado con un {@code UPDATE} condicional: solo una
+ *     ejecución gana y el sorteo debe haber pasado. Desde ese momento
+ *     {@code BilleteRepository#reclamarSi} ya no vende ni reserva sus billetes.<br>
+ * 2️⃣ Se bloquean sus billetes ({@code SELECT ... FOR UPDATE}): una venta que ya había
+ *     reclamado uno termina antes de copiarlo, así que su venta se archiva con él. Si quedan
+ *     billetes reservados se cancela: su reserva todavía puede venderse.<br>
+ * 3️⃣ Billetes y ventas se copian con un único {@code INSERT ... SELECT} y se borran con
+ *     dos {@code DELETE}, sin pasar filas por la aplicación.
+ * </p>
+ *
+ * <p>
+ * Las lecturas siguen funcionando igual: el historial de clientes, los listados y la
+ * exportación de billetes, el resumen y la ejecución del sorteo consultan el archivo cuando
+ * el sorteo está archivado. Además de {@link #archivar}, una tarea diaria
+ * ({@code loteria.archivo.cron}) archiva los sorteos con más de {@code loteria.archivo.dias-gracia}
+ * días de antigüedad.
+ * </p>
+ */
+@Slf4j
+@Component
+public class ArchivadorSorteos {
+
+    static final String COPIAR = """
+            INSERT INTO billetes_archivados (id, sorteo_id, numero, precio, estado, cliente_id, venta_id, fecha_venta)
+            SELECT b.id, b.sorteo_id, b.numero, b.precio, b.estado, b.cliente_id, v.id, v.fecha_venta
+            FROM billetes b LEFT JOIN ventas v ON v.billete_id = b.id
+            WHERE b.sorteo_id = ?
+            """;
+
+    static final String BORRAR_VENTAS =
+            "DELETE FROM ventas WHERE billete_id IN (SELECT id FROM billetes WHERE sorteo_id = ?)";
+
+    static final String BORRAR_BILLETES = "DELETE FROM billetes WHERE sorteo_id = ?";
+
+    static final String BLOQUEAR = "SELECT estado FROM billetes WHERE sorteo_id = ? FOR UPDATE";
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transactionTemplate;
+    private final SorteoRepository sorteoRepo;
+    private final BilletesLibres libres;
+    private final NumerosVirtuales numeros;
+    private final DatosVentaSorteos datos;
+
+    /** Días que se esperan después de la fecha del sorteo antes de archivarlo automáticamente. */
+    private final int diasGracia;
+
+    public ArchivadorSorteos(JdbcTemplate jdbc,
+                             TransactionTemplate transactionTemplate,
+                             SorteoRepository sorteoRepo,
+                             BilletesLibres libres,
+                             NumerosVirtuales numeros,
+                             DatosVentaSorteos datos,
+                             @Value("${loteria.archivo.dias-gracia:30}") int diasGracia) {
+        if (diasGracia < 0) {
+            throw new IllegalArgumentException("Los días de gracia no pueden ser negativos");
+        }
+        this.jdbc = jdbc;
+        this.transactionTemplate = transactionTemplate;
+        this.sorteoRepo = sorteoRepo;
+        this.libres = libres;
+        this.numeros = numeros;
+        this.datos = datos;
+        this.diasGracia = diasGracia;
+    }
+
+    /**
+     * Archiva un sorteo cuya fecha ya pasó.
+     *
+     * @param sorteoId identificador del sorteo.
+     * @return cantidad de billetes y ventas movidos.
+     * @throws NoSuchElementException si el sorteo no existe.
+     * @throws IllegalStateException si ya está archivado, todavía no pasó o tiene billetes reservados.
+     */
+    public ArchivoSorteoDto archivar(Long sorteoId) {
+        Sorteo sorteo = sorteoRepo.findById(sorteoId)
+                .orElseThrow(() -> new NoSuchElementException("Sorteo no encontrado con ID: " + sorteoId));
+        if (sorteo.isArchivado()) {
+            throw new IllegalStateException("El sorteo ya está archivado");
+        }
+        LocalDate hoy = LocalDate.now();
+        if (!sorteo.getFechaSorteo().isBefore(hoy)) {
+            throw new IllegalStateException("Solo se pueden archivar sorteos cuya fecha ya pasó");
+        }
+        long inicio = System.nanoTime();
+
+        int[] movidos = transactionTemplate.execute(status -> {
+            // --- 1️⃣ Marca condicional ---
+            if (sorteoRepo.marcarArchivado(sorteoId, hoy, LocalDateTime.now()) == 0) {
+                throw new IllegalStateException("El sorteo ya está archivado");
+            }
+            // --- 2️⃣ Bloquear los billetes y contar las reservas pendientes ---
+            int[] reservados = new int[1];
+            jdbc.query(BLOQUEAR, (RowCallbackHandler) rs -> {
+                if (EstadoBillete.RESERVADO.name().equals(rs.getString(1))) {
+                    reservados[0]++;
+                }
+            }, sorteoId);
+            if (reservados[0] > 0) {
+                throw new IllegalStateException("El sorteo tiene " + reservados[0] + " billetes reservados");
+            }
+            // --- 3️⃣ Copiar y borrar ---
+            int billetes = jdbc.update(COPIAR, sorteoId);
+            int ventas = jdbc.update(BORRAR_VENTAS, sorteoId);
+            jdbc.update(BORRAR_BILLETES, sorteoId);
+            // Después del commit: los billetes en memoria y los datos de venta ya no valen
+            libres.invalidar(sorteoId);
+            numeros.invalidar(sorteoId);
+            datos.invalidar(sorteoId);
+            return new int[]{billetes, ventas};
+        });
+
+        long duracionMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+        log.info("Sorteo {} archivado: {} billetes, {} ventas en {} ms", sorteoId, movidos[0], movidos[1], duracionMs);
+        return new ArchivoSorteoDto(sorteoId, movidos[0], movidos[1], duracionMs);
+    }
+
+    /**
+     * Archiva los sorteos que pasaron hace más de {@code loteria.archivo.dias-gracia} días.
+     * Un sorteo que no puede archivarse (p. ej. con reservas) se reintenta en la siguiente ejecución.
+     *
+     * @return cantidad de sorteos archivados.
+     */
+    @Scheduled(cron = "${loteria.archivo.cron:0 30 3 * * *}")
+    public int archivarVencidos() {
+        List<Long> vencidos = sorteoRepo.findIdsParaArchivar(LocalDate.now().minusDays(diasGracia));
+        int archivados = 0;
+        for (Long sorteoId : vencidos) {
+            try {
+                archivar(sorteoId);
+                archivados++;
+            } catch (RuntimeException e) {
+                log.warn("No se pudo archivar el sorteo {}: {}", sorteoId, e.getMessage());
+            }
+        }
+        return archivados;
+    }
+}
@@ -0,0 +1,170 @@
+package org.konex.sistemaloteria.sorteo.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.konex.sistemaloteria.compartido.EstadoBillete;
+import org.konex.sistemaloteria.sorteo.dto.ResumenSorteoDto;
+import org.konex.sistemaloteria.sorteo.repository.ResumenSorteoProyeccion;
+import org.konex.sistemaloteria.sorteo.repository.SorteoRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores en memoria de billetes, ventas e ingresos de cada sorteo.
+ *
+ * <p>
+ * Permiten responder el resumen de un sorteo en O(1) y sin consultar la base de datos.
+ * Cada contador es un {@link LongAdder}, que reparte los incrementos concurrentes en
+ * celdas separadas: las ventas de un mismo sorteo no compiten por una sola variable.
+ * Los ingresos se acumulan en centavos para sumar enteros en lugar de {@link BigDecimal}.
+ * </p>
+ *
+ * <h4>Ciclo de vida:</h4>
+ * <ul>
+ *   <li>Se cargan al iniciar la aplicación con una consulta agregada sobre {@code billetes}
+ *       ({@link SorteoRepository#resumirTodos}) y otra sobre los sorteos archivados
+ *       ({@link SorteoRepository#resumirArchivados}). En los sorteos virtuales la cantidad de
+ *       billetes es su rango ({@link SorteoRepository#listarVirtuales}), no sus filas.</li>
+ *   <li>Se incrementan al crear sorteos, generar billetes y confirmar ventas.
+ *       Dentro de una transacción, el incremento se aplica recién después del commit,
+ *       de modo que una venta revertida nunca se cuenta.</li>
+ * </ul>
+ *
+ * <p>
+ * Los billetes reservados cuentan como disponibles: todavía no se han vendido.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ContadoresSorteo {
+
+    /** Repositorio usado para cargar los contadores desde la base de datos. */
+    private final SorteoRepository sorteoRepo;
+
+    /** Contadores indexados por ID de sorteo. */
+    private volatile Map<Long, Contadores> contadores = new ConcurrentHashMap<>();
+
+    /**
+     * Carga los contadores al iniciar la aplicación (después de ejecutar {@code data.sql}).
+     *
+     * @return cantidad de sorteos cargados.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public int cargar() {
+        Map<Long, Contadores> nuevos = new ConcurrentHashMap<>();
+        for (ResumenSorteoProyeccion r : sorteoRepo.resumirTodos(EstadoBillete.VENDIDO)) {
+            Contadores c = new Contadores();
+            c.billetes.add(valor(r.getBilletes()));
+            c.vendidos.add(valor(r.getVendidos()));
+            c.ingresosCentavos.add(centavos(r.getIngresos()));
+            nuevos.put(r.getSorteoId(), c);
+        }
+        for (ResumenSorteoProyeccion r : sorteoRepo.resumirArchivados(EstadoBillete.VENDIDO)) {
+            Contadores c = nuevos.computeIfAbsent(r.getSorteoId(), id -> new Contadores());
+            c.billetes.add(valor(r.getBilletes()));
+            c.vendidos.add(valor(r.getVendidos()));
+            c.ingresosCentavos.add(centavos(r.getIngresos()));
+        }
+        for (Object[] v : sorteoRepo.listarVirtuales()) {
+            Contadores c = nuevos.computeIfAbsent((Long) v[0], id -> new Contadores());
+            c.billetes.reset();
+            c.billetes.add(((Number) v[1]).longValue());
+        }
+        contadores = nuevos;
+        log.info("Contadores de sorteos cargados: {} sorteos", nuevos.size());
+        return nuevos.size();
+    }
+
+    /**
+     * Registra un sorteo recién creado, sin billetes.
+     *
+     * @param sorteoId identificador del sorteo.
+     */
+    public void registrarSorteo(Long sorteoId) {
+        despuesDelCommit(() -> obtener(sorteoId));
+    }
+
+    /**
+     * Suma billetes nuevos a un sorteo.
+     *
+     * @param sorteoId identificador del sorteo.
+     * @param cantidad cantidad de billetes creados.
+     */
+    public void registrarBilletes(Long sorteoId, long cantidad) {
+        despuesDelCommit(() -> obtener(sorteoId).billetes.add(cantidad));
+    }
+
+    /**
+     * Suma una venta (y su precio) a un sorteo.
+     *
+     * @param sorteoId identificador del sorteo.
+     * @param precio precio del billete vendido.
+     */
+    public void registrarVenta(Long sorteoId, BigDecimal precio) {
+        long centavos = centavos(precio);
+        despuesDelCommit(() -> {
+            Contadores c = obtener(sorteoId);
+            c.vendidos.increment();
+            c.ingresosCentavos.add(centavos);
+        });
+    }
+
+    /**
+     * Devuelve el resumen actual de un sorteo.
+     *
+     * @param sorteoId identificador del sorteo.
+     * @return el resumen, o vacío si el sorteo no se conoce.
+     */
+    public Optional<ResumenSorteoDto> resumen(Long sorteoId) {
+        Contadores c = contadores.get(sorteoId);
+        if (c == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new ResumenSorteoDto(sorteoId, c.billetes.sum(), c.vendidos.sum(),
+                BigDecimal.valueOf(c.ingresosCentavos.sum(), 2)));
+    }
+
+    private Contadores obtener(Long sorteoId) {
+        return contadores.computeIfAbsent(sorteoId, id -> new Contadores());
+    }
+
+    /** Ejecuta la acción tras el commit de la transacción en curso, o de inmediato si no hay ninguna. */
+    private static void despuesDelCommit(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+
+    private static long valor(Long n) {
+        return n != null ? n : 0L;
+    }
+
+    private static long centavos(BigDecimal monto) {
+        return monto != null ? monto.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact() : 0L;
+    }
+
+    /** Contadores de un sorteo. */
+    private static final class Contadores {
+        private final LongAdder billetes = new LongAdder();
+        private final LongAdder vendidos = new LongAdder();
+        private final LongAdder ingresosCentavos = new LongAdder();
+    }
+}
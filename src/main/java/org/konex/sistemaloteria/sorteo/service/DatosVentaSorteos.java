@@ -0,0 +1,115 @@
+package org.konex.sistemaloteria.sorteo.service;
+
+import org.konex.sistemaloteria.compartido.NumeroBillete;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Datos de cada sorteo que necesita una venta o una reserva, en memoria: las cifras con que
+ * se muestran sus números y si todavía admite ventas (no se ejecutó ni se archivó).
+ *
+ * <p>
+ * Así la venta no carga la entidad {@code Sorteo} de cada billete (una consulta más por
+ * venta) solo para armar el número con ceros a la izquierda. Cada sorteo se consulta una vez,
+ * con una sentencia de una fila, y queda en memoria hasta que cambia.
+ * </p>
+ *
+ * <h4>Invalidación:</h4>
+ * <ul>
+ *   <li>{@link GeneradorBilletes} amplía las cifras al generar o declarar billetes.</li>
+ *   <li>{@link MotorSorteo} registra el número ganador.</li>
+ *   <li>{@link ArchivadorSorteos} archiva el sorteo.</li>
+ * </ul>
+ * En todos los casos la entrada se descarta después del commit y se vuelve a leer en el siguiente
+ * uso. Saber que el sorteo está cerrado es solo un atajo para rechazar antes: la garantía la da
+ * la transición condicional {@code BilleteRepository#reclamarSi}.
+ */
+@Component
+public class DatosVentaSorteos {
+
+    private static final String DATOS =
+            "SELECT cifras, CASE WHEN numero_ganador IS NULL AND fecha_archivo IS NULL THEN 0 ELSE 1 END"
+            + " FROM sorteos WHERE id = ?";
+
+    private final JdbcTemplate jdbc;
+
+    /** Datos indexados por ID de sorteo. */
+    private final Map<Long, Datos> datos = new ConcurrentHashMap<>();
+
+    public DatosVentaSorteos(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Número de billete con las cifras de su sorteo.
+     *
+     * @param sorteoId identificador del sorteo.
+     * @param numero número del billete.
+     * @return el número con ceros a la izquierda (p. ej. {@code "0042"}).
+     */
+    public String formatear(Long sorteoId, Integer numero) {
+        return numero != null ? NumeroBillete.formatear(numero, obtener(sorteoId).cifras) : null;
+    }
+
+    /**
+     * Indica si el sorteo ya no admite ventas ni reservas: tiene número ganador o está archivado.
+     *
+     * @param sorteoId identificador del sorteo.
+     * @return {@code false} también si el sorteo no existe.
+     */
+    public boolean cerrado(Long sorteoId) {
+        return obtener(sorteoId).cerrado;
+    }
+
+    /**
+     * Descarta los datos de un sorteo que cambió. Dentro de una transacción se descartan
+     * después del commit, para que la siguiente lectura vea el cambio.
+     *
+     * @param sorteoId identificador del sorteo.
+     */
+    public void invalidar(Long sorteoId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    datos.remove(sorteoId);
+                }
+            });
+        } else {
+            datos.remove(sorteoId);
+        }
+    }
+
+    private Datos obtener(Long sorteoId) {
+        Datos d = datos.get(sorteoId);
+        if (d != null) {
+            return d;
+        }
+        List<Datos> filas = jdbc.query(DATOS, (rs, i) -> new Datos(rs.getInt(1), rs.getInt(2) == 1), sorteoId);
+        if (filas.isEmpty()) {
+            return Datos.DESCONOCIDO;
+        }
+        d = filas.get(0);
+        datos.put(sorteoId, d);
+        return d;
+    }
+
+    /** Cifras de un sorteo y si ya está cerrado. */
+    private static final class Datos {
+        private static final Datos DESCONOCIDO = new Datos(NumeroBillete.CIFRAS_MINIMAS, false);
+
+        private final int cifras;
+        private final boolean cerrado;
+
+        private Datos(int cifras, boolean cerrado) {
+            this.cifras = cifras;
+            this.cerrado = cerrado;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package org.konex.sistemaloteria.sorteo.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.konex.sistemaloteria.compartido.EstadoBillete;
+import org.konex.sistemaloteria.compartido.NumeroBillete;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Escribe los billetes de un sorteo como NDJSON (un objeto JSON por línea) a medida
+ * que se leen de la base de datos.
+ *
+ * <p>
+ * A diferencia del listado como {@code List<Billete>}, no se crean entidades ni se
+ * inicializan relaciones perezosas: una única consulta con {@code LEFT JOIN clientes}
+ * (sobre {@code billetes} o, si el sorteo está archivado, sobre {@code billetes_archivados}),
+ * ordenada por un índice de la tabla para que la primera fila salga sin ordenar el sorteo
+ * completo, se recorre con un cursor de {@code loteria.billetes.exportacion.fetch-size} filas y
+ * cada fila se escribe directamente en la respuesta. La memoria usada no depende de la
+ * cantidad de billetes del sorteo. Los números se leen como enteros y se escriben con las
+ * cifras del sorteo, consultadas una sola vez.
+ * </p>
+ *
+ * <p>
+ * En un sorteo virtual las filas se recorren en orden de número y los números sin fila se
+ * escriben entre ellas como billetes {@code DISPONIBLE} sin ID ({@code "id":null}), hasta
+ * completar el rango del sorteo.
+ * </p>
+ *
+ * <p>
+ * Cada línea tiene la misma forma que un elemento del listado JSON:
+ * </p>
+ * <pre>
+ * {"id":1,"numero":"0001","precio":10000.00,"estado":"VENDIDO","cliente":{"id":5,"nombre":"Ana","correo":"ana@example.com"}}
+ * {"id":2,"numero":"0002","precio":10000.00,"estado":"DISPONIBLE","cliente":null}
+ * </pre>
+ */
+@Component
+public class ExportadorBilletes {
+
+    /** Tipo de contenido de la respuesta. */
+    public static final String NDJSON = MediaType.APPLICATION_NDJSON_VALUE;
+
+    private static final String CONSULTA = """
+            SELECT b.id, b.numero, b.precio, b.estado, c.id AS cliente_id, c.nombre, c.correo
+            FROM billetes b LEFT JOIN clientes c ON c.id = b.cliente_id
+            WHERE b.sorteo_id = ?
+            """;
+
+    /** Billetes de un sorteo archivado, en el orden del índice {@code ux_billetes_archivados_sorteo_numero}. */
+    private static final String CONSULTA_ARCHIVO = """
+            SELECT a.id, a.numero, a.precio, a.estado, c.id AS cliente_id, c.nombre, c.correo
+            FROM billetes_archivados a LEFT JOIN clientes c ON c.id = a.cliente_id
+            WHERE a.sorteo_id = ?
+            ORDER BY a.numero
+            """;
+
+    private static final String DEFINICION = """
+            SELECT cifras, numeros_virtuales, precio_virtual, CASE WHEN fecha_archivo IS NULL THEN 0 ELSE 1 END
+            FROM sorteos WHERE id = ?
+            """;
+
+    private final JdbcTemplate jdbc;
+    private final ObjectMapper objectMapper;
+
+    /** Filas que el driver trae por viaje a la base de datos (y cada cuántas se vacía la salida). */
+    private final int fetchSize;
+
+    public ExportadorBilletes(JdbcTemplate jdbc,
+                              ObjectMapper objectMapper,
+                              @Value("${loteria.billetes.exportacion.fetch-size:500}") int fetchSize) {
+        this.jdbc = jdbc;
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Escribe los billetes del sorteo en la salida, uno por línea y en orden de ID
+     * (de número en los sorteos virtuales y en los archivados).
+     *
+     * @param sorteoId identificador del sorteo.
+     * @param salida flujo de la respuesta; no se cierra.
+     * @return cantidad de billetes escritos.
+     * @throws IOException si el cliente cierra la conexión o falla la escritura.
+     */
+    public long escribir(Long sorteoId, OutputStream salida) throws IOException {
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(salida)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.setRootValueSeparator(null);
+            List<EscritorFilas> definicion = jdbc.query(DEFINICION, (rs, i) -> {
+                int numerosVirtuales = rs.getInt(2);
+                return new EscritorFilas(json, rs.getInt(1),
+                        rs.wasNull() ? 0 : numerosVirtuales, rs.getBigDecimal(3), rs.getInt(4) == 1);
+            }, sorteoId);
+            EscritorFilas escritor = definicion.isEmpty()
+                    ? new EscritorFilas(json, NumeroBillete.CIFRAS_MINIMAS, 0, null, false)
+                    : definicion.get(0);
+            // Una sola tabla por sorteo: el orden lo da su índice, sin ordenar el resultado completo
+            String consulta = escritor.archivado ? CONSULTA_ARCHIVO
+                    : CONSULTA + (escritor.numerosVirtuales > 0 ? "ORDER BY b.numero" : "ORDER BY b.id");
+            jdbc.query(con -> {
+                PreparedStatement ps = con.prepareStatement(consulta,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(fetchSize);
+                ps.setLong(1, sorteoId);
+                return ps;
+            }, escritor);
+            escritor.escribirVirtuales(escritor.numerosVirtuales + 1);
+            json.flush();
+            return escritor.escritos;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Escribe cada fila del cursor como una línea JSON; en un sorteo virtual, escribe antes los
+     * números sin fila que la preceden.
+     */
+    private final class EscritorFilas implements RowCallbackHandler {
+        private final JsonGenerator json;
+        private final int cifras;
+        /** Rango del sorteo virtual; {@code 0} si no es virtual. */
+        private final int numerosVirtuales;
+        private final BigDecimal precioVirtual;
+        /** Si los billetes se leen de {@code billetes_archivados}. */
+        private final boolean archivado;
+        /** Siguiente número virtual por escribir. */
+        private long siguiente = 1;
+        private long escritos;
+
+        private EscritorFilas(JsonGenerator json, int cifras, int numerosVirtuales, BigDecimal precioVirtual,
+                              boolean archivado) {
+            this.json = json;
+            this.cifras = cifras;
+            this.numerosVirtuales = numerosVirtuales;
+            this.precioVirtual = precioVirtual;
+            this.archivado = archivado;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long numero = rs.getLong("numero");
+            escribirVirtuales(numero);
+            try {
+                json.writeStartObject();
+                json.writeNumberField("id", rs.getLong("id"));
+                json.writeStringField("numero", NumeroBillete.formatear(numero, cifras));
+                json.writeNumberField("precio", rs.getBigDecimal("precio"));
+                json.writeStringField("estado", rs.getString("estado"));
+                long clienteId = rs.getLong("cliente_id");
+                if (rs.wasNull()) {
+                    json.writeNullField("cliente");
+                } else {
+                    json.writeObjectFieldStart("cliente");
+                    json.writeNumberField("id", clienteId);
+                    json.writeStringField("nombre", rs.getString("nombre"));
+                    json.writeStringField("correo", rs.getString("correo"));
+                    json.writeEndObject();
+                }
+                json.writeEndObject();
+                terminarLinea();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            siguiente = numero + 1;
+        }
+
+        /** Escribe como disponibles los números virtuales anteriores a {@code hasta}; nada si el sorteo no es virtual. */
+        private void escribirVirtuales(long hasta) {
+            try {
+                for (; siguiente < hasta && siguiente <= numerosVirtuales; siguiente++) {
+                    json.writeStartObject();
+                    json.writeNullField("id");
+                    json.writeStringField("numero", NumeroBillete.formatear(siguiente, cifras));
+                    json.writeNumberField("precio", precioVirtual);
+                    json.writeStringField("estado", EstadoBillete.DISPONIBLE.name());
+                    json.writeNullField("cliente");
+                    json.writeEndObject();
+                    terminarLinea();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void terminarLinea() throws IOException {
+            json.writeRaw('\n');
+
+            // El primer billete sale de inmediato; luego se vacía una vez por cada tanda del cursor
+            if (++escritos == 1 || escritos % fetchSize == 0) {
+                json.flush();
+            }
+        }
+    }
+}
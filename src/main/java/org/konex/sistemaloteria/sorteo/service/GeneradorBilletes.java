@@ -0,0 +1,206 @@
+package org.konex.sistemaloteria.sorteo.service;
+
+import org.konex.sistemaloteria.billete.service.BilletesLibres;
+import org.konex.sistemaloteria.compartido.EstadoBillete;
+import org.konex.sistemaloteria.compartido.NumeroBillete;
+import org.konex.sistemaloteria.sorteo.dto.GeneracionBilletesDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Motor de generación masiva de billetes con inserciones JDBC por lotes.
+ *
+ * <p>
+ * Con {@code GenerationType.IDENTITY} Hibernate no puede agrupar los {@code INSERT}
+ * (necesita el ID de cada fila al persistirla), así que guardar billete por billete
+ * cuesta un viaje a la base de datos por cada uno y deja todas las entidades en el
+ * contexto de persistencia. Este generador escribe directamente con {@link JdbcTemplate}:
+ * </p>
+ * <ul>
+ *   <li>Los billetes se insertan en lotes JDBC de {@code loteria.billetes.generacion.tamano-lote} filas.</li>
+ *   <li>Cada lote se arma al vuelo desde su rango de números: no se crean entidades
+ *       ni listas, y la memoria usada no depende de la cantidad total.</li>
+ *   <li>Se devuelve un resumen (cantidad y rango de números) en lugar de los billetes.</li>
+ * </ul>
+ *
+ * <p>
+ * Los números se asignan desde {@code 1} y se guardan como enteros. Se muestran con ceros a la
+ * izquierda y un ancho mínimo de {@value #ANCHO_MINIMO} dígitos, que crece si la cantidad lo
+ * requiere (p. ej. {@code 000001..100000}); ese ancho se registra en {@code sorteos.cifras}.
+ * </p>
+ */
+@Component
+public class GeneradorBilletes {
+
+    /** Ancho mínimo de los números de billete (0001, 0002, ...). */
+    static final int ANCHO_MINIMO = NumeroBillete.CIFRAS_MINIMAS;
+
+    private static final String INSERTAR_BILLETE =
+            "INSERT INTO billetes (numero, precio, estado, sorteo_id) VALUES (?, ?, ?, ?)";
+
+    /** Declara el rango virtual de un sorteo que todavía no tiene billetes. */
+    private static final String DECLARAR_VIRTUALES = """
+            UPDATE sorteos SET numeros_virtuales = ?, precio_virtual = ?, cifras = ?
+            WHERE id = ? AND numeros_virtuales IS NULL
+              AND NOT EXISTS (SELECT 1 FROM billetes WHERE sorteo_id = ?)
+            """;
+
+    /** Amplía las cifras del sorteo; nunca las reduce. */
+    private static final String AMPLIAR_CIFRAS = "UPDATE sorteos SET cifras = ? WHERE id = ? AND cifras < ?";
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transactionTemplate;
+    private final ContadoresSorteo contadores;
+    private final BilletesLibres libres;
+    private final DatosVentaSorteos datos;
+
+    /** Filas por lote JDBC. */
+    private final int tamanoLote;
+
+    public GeneradorBilletes(JdbcTemplate jdbc,
+                             TransactionTemplate transactionTemplate,
+                             ContadoresSorteo contadores,
+                             BilletesLibres libres,
+                             DatosVentaSorteos datos,
+                             @Value("${loteria.billetes.generacion.tamano-lote:1000}") int tamanoLote) {
+        if (tamanoLote <= 0) {
+            throw new IllegalArgumentException("El tamaño de lote debe ser positivo");
+        }
+        this.jdbc = jdbc;
+        this.transactionTemplate = transactionTemplate;
+        this.contadores = contadores;
+        this.libres = libres;
+        this.datos = datos;
+        this.tamanoLote = tamanoLote;
+    }
+
+    /**
+     * Genera los billetes {@code 1..cantidad} de un sorteo en una sola transacción.
+     *
+     * @param sorteoId sorteo (ya validado) al que pertenecen los billetes.
+     * @param cantidad cantidad de billetes a generar.
+     * @param precio precio unitario.
+     * @return resumen de la generación.
+     * @throws IllegalArgumentException si la cantidad no es positiva.
+     */
+    public GeneracionBilletesDto generar(Long sorteoId, int cantidad, BigDecimal precio) {
+        if (cantidad <= 0) {
+            throw new IllegalArgumentException("La cantidad de billetes debe ser mayor que cero");
+        }
+        int ancho = ancho(cantidad);
+        long inicio = System.nanoTime();
+
+        transactionTemplate.executeWithoutResult(status -> generarTramo(sorteoId, 1, cantidad, ancho, precio));
+
+        return new GeneracionBilletesDto(sorteoId, cantidad, NumeroBillete.formatear(1, ancho),
+                NumeroBillete.formatear(cantidad, ancho), precio,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+    }
+
+    /**
+     * Declara los billetes {@code 1..cantidad} de un sorteo como virtuales, sin insertar filas
+     * (ver {@link org.konex.sistemaloteria.billete.service.NumerosVirtuales}).
+     *
+     * <p>
+     * Cuesta una sola sentencia sin importar la cantidad. Los billetes cuentan en el resumen
+     * del sorteo desde ahora; sus filas se crean al reservarlos o venderlos.
+     * </p>
+     *
+     * @param sorteoId sorteo (ya validado) al que pertenecen los billetes.
+     * @param cantidad cantidad de números del sorteo.
+     * @param precio precio unitario.
+     * @return resumen de la declaración, con la misma forma que una generación.
+     * @throws IllegalArgumentException si la cantidad no es positiva.
+     * @throws IllegalStateException si el sorteo ya tiene billetes (virtuales o en filas).
+     */
+    public GeneracionBilletesDto declararVirtuales(Long sorteoId, int cantidad, BigDecimal precio) {
+        if (cantidad <= 0) {
+            throw new IllegalArgumentException("La cantidad de billetes debe ser mayor que cero");
+        }
+        int ancho = ancho(cantidad);
+        long inicio = System.nanoTime();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (jdbc.update(DECLARAR_VIRTUALES, cantidad, precio, ancho, sorteoId, sorteoId) == 0) {
+                throw new IllegalStateException("El sorteo ya tiene billetes");
+            }
+            contadores.registrarBilletes(sorteoId, cantidad);
+            datos.invalidar(sorteoId);
+        });
+
+        return new GeneracionBilletesDto(sorteoId, cantidad, NumeroBillete.formatear(1, ancho),
+                NumeroBillete.formatear(cantidad, ancho), precio,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+    }
+
+    /**
+     * Inserta, en lotes JDBC dentro de la transacción en curso, los billetes numerados de
+     * {@code desde} a {@code hasta} (inclusive) y los suma a los contadores del sorteo al confirmar.
+     * En la misma transacción amplía las cifras del sorteo a {@code ancho} si tenía menos.
+     * Al confirmar también se descartan el conjunto de {@link BilletesLibres} y las cifras en
+     * memoria ({@link DatosVentaSorteos}) del sorteo.
+     *
+     * @param ancho ancho de los números; debe ser el mismo para todos los tramos de una generación.
+     * @return cantidad de billetes insertados.
+     */
+    int generarTramo(Long sorteoId, int desde, int hasta, int ancho, BigDecimal precio) {
+        for (int inicioLote = desde; inicioLote <= hasta; inicioLote += tamanoLote) {
+            insertarLote(sorteoId, inicioLote, Math.min(hasta, inicioLote + tamanoLote - 1), precio);
+        }
+        ampliarCifras(sorteoId, ancho);
+        int filas = hasta - desde + 1;
+        contadores.registrarBilletes(sorteoId, filas);
+        libres.invalidar(sorteoId);
+        return filas;
+    }
+
+    /**
+     * Amplía a {@code cifras} el ancho con que se muestran los números del sorteo, solo si tenía
+     * menos. Es un {@code UPDATE} condicional: dos ampliaciones concurrentes no se pisan y nunca
+     * se reduce el ancho. Al confirmar se descartan las cifras en memoria ({@link DatosVentaSorteos}).
+     *
+     * @param sorteoId identificador del sorteo.
+     * @param cifras ancho mínimo que debe tener el sorteo.
+     */
+    public void ampliarCifras(Long sorteoId, int cifras) {
+        jdbc.update(AMPLIAR_CIFRAS, cifras, sorteoId, cifras);
+        datos.invalidar(sorteoId);
+    }
+
+    /**
+     * Inserta con un único lote JDBC los billetes numerados de {@code desde} a {@code hasta} (inclusive).
+     *
+     * @return cantidad de billetes insertados.
+     */
+    int insertarLote(Long sorteoId, int desde, int hasta, BigDecimal precio) {
+        int filas = hasta - desde + 1;
+        jdbc.batchUpdate(INSERTAR_BILLETE, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setInt(1, desde + i);
+                ps.setBigDecimal(2, precio);
+                ps.setString(3, EstadoBillete.DISPONIBLE.name());
+                ps.setLong(4, sorteoId);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return filas;
+            }
+        });
+        return filas;
+    }
+
+    /** Ancho de los números para una generación de {@code cantidad} billetes. */
+    static int ancho(int cantidad) {
+        return NumeroBillete.cifras(cantidad);
+    }
+}
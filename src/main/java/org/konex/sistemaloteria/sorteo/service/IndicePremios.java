@@ -0,0 +1,179 @@
+package org.konex.sistemaloteria.sorteo.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.konex.sistemaloteria.compartido.NumeroBillete;
+import org.konex.sistemaloteria.sorteo.dto.VerificacionPremioDto;
+import org.konex.sistemaloteria.sorteo.model.CategoriaPremio;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice en memoria de los premios de cada sorteo ejecutado, para verificar números sin
+ * consultar la base de datos.
+ *
+ * <p>
+ * Por cada sorteo se guarda una tabla hash de direccionamiento abierto con claves
+ * {@code long} (el valor del número) y arreglos paralelos de billete, cliente y categoría:
+ * sin objetos por entrada ni conversión a {@link Long}, y con una ocupación máxima del 50 %,
+ * de modo que una verificación es un par de lecturas de arreglo.
+ * Solo se indexan los billetes premiados; un número que no está en la tabla no tiene premio.
+ * </p>
+ *
+ * <h4>Ciclo de vida:</h4>
+ * <ul>
+ *   <li>{@link MotorSorteo} publica la tabla al confirmar la ejecución del sorteo, con los
+ *       premios que acaba de calcular.</li>
+ *   <li>Si la tabla no está (p. ej. tras un reinicio), la primera verificación la carga desde
+ *       {@code premios}; las verificaciones simultáneas del mismo sorteo esperan esa única carga.</li>
+ *   <li>Las tablas no cambian una vez publicadas: un sorteo se ejecuta una sola vez.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class IndicePremios {
+
+    private static final String SORTEO = "SELECT numero_ganador FROM sorteos WHERE id = ?";
+
+    private static final String PREMIOS =
+            "SELECT billete_id, numero, cliente_id, categoria FROM premios WHERE sorteo_id = ?";
+
+    private final JdbcTemplate jdbc;
+
+    /** Tablas de premios indexadas por ID de sorteo. */
+    private final Map<Long, Tabla> tablas = new ConcurrentHashMap<>();
+
+    public IndicePremios(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Publica la tabla de premios de un sorteo recién ejecutado.
+     *
+     * @param sorteoId identificador del sorteo.
+     * @param tabla premios del sorteo.
+     */
+    void publicar(Long sorteoId, Tabla tabla) {
+        tablas.put(sorteoId, tabla);
+    }
+
+    /**
+     * Indica si un número tiene premio en un sorteo ejecutado.
+     *
+     * @param sorteoId identificador del sorteo.
+     * @param numero número a verificar.
+     * @return resultado de la verificación.
+     * @throws IllegalArgumentException si el número no es numérico.
+     * @throws NoSuchElementException si el sorteo no existe.
+     * @throws IllegalStateException si el sorteo todavía no se ha ejecutado.
+     */
+    public VerificacionPremioDto verificar(Long sorteoId, String numero) {
+        int valor = NumeroBillete.leer(numero);
+        Tabla tabla = tablas.get(sorteoId);
+        if (tabla == null) {
+            tabla = tablas.computeIfAbsent(sorteoId, this::cargar);
+        }
+
+        int i = tabla.buscar(valor);
+        if (i < 0) {
+            return new VerificacionPremioDto(sorteoId, numero, tabla.numeroGanador, null, null, null);
+        }
+        return new VerificacionPremioDto(sorteoId, numero, tabla.numeroGanador,
+                CategoriaPremio.values()[tabla.categorias[i]], tabla.billetes[i],
+                tabla.clientes[i] != 0 ? tabla.clientes[i] : null);
+    }
+
+    /** Carga la tabla de un sorteo desde la base de datos. */
+    private Tabla cargar(Long sorteoId) {
+        List<String> ganador = jdbc.queryForList(SORTEO, String.class, sorteoId);
+        if (ganador.isEmpty()) {
+            throw new NoSuchElementException("Sorteo no encontrado con ID: " + sorteoId);
+        }
+        if (ganador.get(0) == null) {
+            throw new IllegalStateException("El sorteo aún no se ha ejecutado");
+        }
+
+        List<Object[]> filas = new ArrayList<>();
+        jdbc.query(PREMIOS, rs -> {
+            filas.add(new Object[]{rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getString(4)});
+        }, sorteoId);
+
+        Tabla tabla = new Tabla(ganador.get(0), filas.size());
+        for (Object[] f : filas) {
+            tabla.agregar(Long.parseLong((String) f[1]), (Long) f[0], (Long) f[2],
+                    CategoriaPremio.valueOf((String) f[3]));
+        }
+        log.info("Índice de premios del sorteo {} cargado: {} premios", sorteoId, filas.size());
+        return tabla;
+    }
+
+    /**
+     * Tabla hash de direccionamiento abierto (sondeo lineal) de los premios de un sorteo.
+     *
+     * <p>
+     * Se llena una sola vez, antes de publicarse en el índice, y después solo se lee.
+     * Un cliente {@code 0} indica que el billete no tiene cliente.
+     * </p>
+     */
+    static final class Tabla {
+
+        private static final long VACIO = -1L;
+
+        private final String numeroGanador;
+        private final long[] claves;
+        private final long[] billetes;
+        private final long[] clientes;
+        private final byte[] categorias;
+        private final int mascara;
+
+        /**
+         * @param numeroGanador número ganador del sorteo.
+         * @param esperados cantidad de premios que se agregarán.
+         */
+        Tabla(String numeroGanador, int esperados) {
+            // Potencia de dos de al menos el doble de los premios: ocupación ≤ 50 %
+            int capacidad = Integer.highestOneBit(Math.max(1, esperados) * 2 - 1) << 1;
+            this.numeroGanador = numeroGanador;
+            this.claves = new long[capacidad];
+            this.billetes = new long[capacidad];
+            this.clientes = new long[capacidad];
+            this.categorias = new byte[capacidad];
+            this.mascara = capacidad - 1;
+            Arrays.fill(claves, VACIO);
+        }
+
+        void agregar(long numero, long billeteId, long clienteId, CategoriaPremio categoria) {
+            int i = posicion(numero);
+            while (claves[i] != VACIO && claves[i] != numero) {
+                i = (i + 1) & mascara;
+            }
+            claves[i] = numero;
+            billetes[i] = billeteId;
+            clientes[i] = clienteId;
+            categorias[i] = (byte) categoria.ordinal();
+        }
+
+        /** @return posición del número en la tabla, o {@code -1} si no tiene premio. */
+        int buscar(long numero) {
+            int i = posicion(numero);
+            while (claves[i] != VACIO) {
+                if (claves[i] == numero) {
+                    return i;
+                }
+                i = (i + 1) & mascara;
+            }
+            return -1;
+        }
+
+        private int posicion(long numero) {
+            long h = numero * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mascara;
+        }
+    }
+}
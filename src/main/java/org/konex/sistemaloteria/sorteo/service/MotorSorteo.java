@@ -0,0 +1,227 @@
+package org.konex.sistemaloteria.sorteo.service;
+
+import org.konex.sistemaloteria.compartido.EstadoBillete;
+import org.konex.sistemaloteria.compartido.NumeroBillete;
+import org.konex.sistemaloteria.sorteo.dto.ResultadoSorteoDto;
+import org.konex.sistemaloteria.sorteo.model.CategoriaPremio;
+import org.konex.sistemaloteria.sorteo.model.Sorteo;
+import org.konex.sistemaloteria.sorteo.repository.SorteoRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.SecureRandom;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Motor de ejecución de sorteos: fija el número ganador y calcula los billetes premiados.
+ *
+ * <p>
+ * Estrategia, en una sola transacción:
+ * 1️⃣ Se toma el número ganador indicado o se sortea uno con las cifras del sorteo, y se
+ *     registra con un {@code UPDATE} condicional.<br>
+ * 2️⃣ Los billetes vendidos se cargan en un índice compacto de arreglos primitivos
+ *     (ID, número, cliente), sin crear entidades.<br>
+ * 3️⃣ Una pasada paralela sobre el índice asigna a cada billete su mejor {@link CategoriaPremio}.<br>
+ * 4️⃣ Todos los premios se guardan con un único lote JDBC. Al confirmarse, se publican en
+ *     {@link IndicePremios} para verificar números sin consultar la base de datos.
+ * </p>
+ *
+ * <p>
+ * Los números se guardan y se comparan como enteros; los premios copian el número con las
+ * cifras del sorteo, tal como se muestra. Si dos ejecuciones compiten por el mismo sorteo,
+ * el {@code UPDATE} condicional deja pasar a una sola; la otra termina con
+ * {@link IllegalStateException} sin haber leído los billetes.
+ * </p>
+ *
+ * <p>
+ * Registrar el número ganador cierra las ventas: las transiciones de venta y reserva
+ * ({@code BilleteRepository#reclamarSi}) exigen que el sorteo no tenga número ganador.
+ * Los vendidos se leen después de registrarlo, en la misma transacción, así que una venta
+ * no puede confirmarse entre la lectura y el cierre y quedar fuera de los premios.
+ * Si el sorteo ya se archivó, se leen de {@code billetes_archivados}.
+ * </p>
+ */
+@Component
+public class MotorSorteo {
+
+    static final String VENDIDOS =
+            "SELECT id, numero, cliente_id FROM billetes WHERE sorteo_id = ? AND estado = ?";
+
+    /** {@link #VENDIDOS} para un sorteo archivado. */
+    static final String VENDIDOS_ARCHIVADOS =
+            "SELECT id, numero, cliente_id FROM billetes_archivados WHERE sorteo_id = ? AND estado = ?";
+
+    static final String INSERTAR_PREMIO =
+            "INSERT INTO premios (sorteo_id, billete_id, numero, cliente_id, categoria) VALUES (?, ?, ?, ?, ?)";
+
+    /** Valor de {@link #clasificar} para los billetes sin premio. */
+    static final byte SIN_PREMIO = -1;
+
+    private static final CategoriaPremio[] CATEGORIAS = CategoriaPremio.values();
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transactionTemplate;
+    private final SorteoRepository sorteoRepo;
+    private final IndicePremios indice;
+    private final DatosVentaSorteos datos;
+    private final SecureRandom azar = new SecureRandom();
+
+    public MotorSorteo(JdbcTemplate jdbc, TransactionTemplate transactionTemplate, SorteoRepository sorteoRepo,
+                       IndicePremios indice, DatosVentaSorteos datos) {
+        this.jdbc = jdbc;
+        this.transactionTemplate = transactionTemplate;
+        this.sorteoRepo = sorteoRepo;
+        this.indice = indice;
+        this.datos = datos;
+    }
+
+    /**
+     * Ejecuta un sorteo y registra sus premios.
+     *
+     * @param sorteoId identificador del sorteo.
+     * @param numeroGanador número ganador; si es {@code null} se sortea uno.
+     * @return número ganador, billetes vendidos y premios por categoría.
+     * @throws NoSuchElementException si el sorteo no existe.
+     * @throws IllegalArgumentException si el número ganador no es numérico.
+     * @throws IllegalStateException si el sorteo ya se ejecutó.
+     */
+    public ResultadoSorteoDto ejecutar(Long sorteoId, String numeroGanador) {
+        Sorteo sorteo = sorteoRepo.findById(sorteoId)
+                .orElseThrow(() -> new NoSuchElementException("Sorteo no encontrado con ID: " + sorteoId));
+        if (sorteo.getNumeroGanador() != null) {
+            throw new IllegalStateException("El sorteo ya fue ejecutado");
+        }
+        long inicio = System.nanoTime();
+
+        if (numeroGanador != null) {
+            // Mismo formato que los números de los billetes: si no cabe en la columna, no puede ganar ninguno
+            NumeroBillete.leer(numeroGanador);
+        }
+        String ganador = numeroGanador != null ? numeroGanador : sortear(sorteo.getCifras());
+        IndiceVendidos vendidos = new IndiceVendidos(sorteo.getCifras());
+        Map<CategoriaPremio, Integer> ganadores = new EnumMap<>(CategoriaPremio.class);
+
+        IndicePremios.Tabla tabla = transactionTemplate.execute(status -> {
+            // --- 1️⃣ Número ganador: desde aquí el sorteo no admite ventas ni reservas ---
+            if (sorteoRepo.registrarEjecucion(sorteoId, ganador, LocalDateTime.now()) == 0) {
+                throw new IllegalStateException("El sorteo ya fue ejecutado");
+            }
+
+            // --- 2️⃣ Índice compacto de billetes vendidos ---
+            RowCallbackHandler carga = vendidos::agregar;
+            jdbc.query(sorteo.isArchivado() ? VENDIDOS_ARCHIVADOS : VENDIDOS, carga,
+                    sorteoId, EstadoBillete.VENDIDO.name());
+
+            // --- 3️⃣ Pasada paralela ---
+            byte[] categorias = clasificar(vendidos.numeros, vendidos.tamano, Long.parseLong(ganador));
+
+            // Premios agrupados por categoría, de mayor a menor
+            List<Object[]> premios = new ArrayList<>();
+            for (CategoriaPremio categoria : CATEGORIAS) {
+                int cantidad = 0;
+                for (int i = 0; i < vendidos.tamano; i++) {
+                    if (categorias[i] == categoria.ordinal()) {
+                        premios.add(new Object[]{sorteoId, vendidos.ids[i], vendidos.numero(i),
+                                vendidos.clientes[i] != 0 ? vendidos.clientes[i] : null, categoria.name()});
+                        cantidad++;
+                    }
+                }
+                ganadores.put(categoria, cantidad);
+            }
+            IndicePremios.Tabla premiados = new IndicePremios.Tabla(ganador, premios.size());
+            for (int i = 0; i < vendidos.tamano; i++) {
+                if (categorias[i] != SIN_PREMIO) {
+                    premiados.agregar(vendidos.numeros[i], vendidos.ids[i], vendidos.clientes[i],
+                            CATEGORIAS[categorias[i]]);
+                }
+            }
+
+            // --- 4️⃣ Premios en un único lote ---
+            if (!premios.isEmpty()) {
+                jdbc.batchUpdate(INSERTAR_PREMIO, premios);
+            }
+            return premiados;
+        });
+        indice.publicar(sorteoId, tabla);
+        datos.invalidar(sorteoId);
+
+        return new ResultadoSorteoDto(sorteoId, ganador, vendidos.tamano, ganadores,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+    }
+
+    /**
+     * Asigna a cada número su mejor categoría de premio, repartiendo el trabajo entre los
+     * núcleos disponibles.
+     *
+     * @param numeros números de los billetes.
+     * @param tamano cantidad de posiciones válidas de {@code numeros}.
+     * @param ganador número ganador.
+     * @return por cada billete, el ordinal de su {@link CategoriaPremio} o {@link #SIN_PREMIO}.
+     */
+    static byte[] clasificar(long[] numeros, int tamano, long ganador) {
+        byte[] categorias = new byte[tamano];
+        IntStream.range(0, tamano).parallel().forEach(i -> categorias[i] = categoria(numeros[i], ganador));
+        return categorias;
+    }
+
+    private static byte categoria(long numero, long ganador) {
+        for (CategoriaPremio c : CATEGORIAS) {
+            if (c.gana(numero, ganador)) {
+                return (byte) c.ordinal();
+            }
+        }
+        return SIN_PREMIO;
+    }
+
+    /** Sortea un número con las cifras del sorteo. */
+    private String sortear(int cifras) {
+        long limite = (long) Math.pow(10, Math.min(cifras, NumeroBillete.CIFRAS_MAXIMAS));
+        return NumeroBillete.formatear(azar.nextLong(limite), cifras);
+    }
+
+    /**
+     * Billetes vendidos de un sorteo en arreglos paralelos que crecen al cargarse.
+     * Un cliente {@code 0} indica que el billete no tiene cliente.
+     */
+    private static final class IndiceVendidos {
+        /** Cifras del sorteo, para mostrar los números con ceros a la izquierda. */
+        private final int cifras;
+        private long[] ids = new long[1024];
+        private long[] numeros = new long[1024];
+        private long[] clientes = new long[1024];
+        private int tamano;
+
+        private IndiceVendidos(int cifras) {
+            this.cifras = cifras;
+        }
+
+        private void agregar(ResultSet rs) throws SQLException {
+            if (tamano == ids.length) {
+                int capacidad = ids.length * 2;
+                ids = Arrays.copyOf(ids, capacidad);
+                numeros = Arrays.copyOf(numeros, capacidad);
+                clientes = Arrays.copyOf(clientes, capacidad);
+            }
+            ids[tamano] = rs.getLong(1);
+            numeros[tamano] = rs.getLong(2);
+            clientes[tamano] = rs.getLong(3);
+            tamano++;
+        }
+
+        private String numero(int i) {
+            return NumeroBillete.formatear(numeros[i], cifras);
+        }
+    }
+}
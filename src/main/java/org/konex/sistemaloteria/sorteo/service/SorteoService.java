@@ -1,8 +1,16 @@
 package org.konex.sistemaloteria.sorteo.service;
 
 import org.konex.sistemaloteria.billete.model.Billete;
+import org.konex.sistemaloteria.sorteo.dto.ArchivoSorteoDto;
+import org.konex.sistemaloteria.sorteo.dto.GeneracionBilletesDto;
+import org.konex.sistemaloteria.sorteo.dto.ResultadoSorteoDto;
+import org.konex.sistemaloteria.sorteo.dto.ResumenSorteoDto;
 import org.konex.sistemaloteria.sorteo.dto.SorteoDto;
+import org.konex.sistemaloteria.sorteo.dto.VerificacionPremioDto;
+import org.konex.sistemaloteria.sorteo.model.Premio;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 /**
@@ -56,15 +64,93 @@ public interface SorteoService {
      * @param sorteoId identificador del sorteo al cual se agregan los billetes.
      * @param cantidad cantidad total de billetes a generar.
      * @param precio valor unitario de cada billete.
-     * @return lista de billetes generados.
+     * @return resumen con la cantidad y el rango de números generados.
      */
-    List<Billete> generarBilletes(Long sorteoId, int cantidad, double precio);
+    GeneracionBilletesDto generarBilletes(Long sorteoId, int cantidad, double precio);
+
+    /**
+     * Declara los billetes {@code 1..cantidad} de un sorteo sin crear sus filas: cada billete
+     * se crea al reservarlo o venderlo y, mientras tanto, se considera disponible.
+     *
+     * @param sorteoId identificador del sorteo, que todavía no debe tener billetes.
+     * @param cantidad cantidad de números del sorteo.
+     * @param precio valor unitario de cada billete.
+     * @return resumen con la cantidad y el rango de números declarados.
+     * @throws IllegalStateException si el sorteo ya tiene billetes.
+     */
+    GeneracionBilletesDto generarVirtuales(Long sorteoId, int cantidad, double precio);
 
     /**
      * Lista todos los billetes asociados a un sorteo determinado.
      *
      * @param sorteoId identificador del sorteo.
      * @return lista de billetes vinculados a ese sorteo.
+     * @throws IllegalStateException si el sorteo es virtual (se lista por páginas o en NDJSON).
      */
     List<Billete> listarBilletesPorSorteo(Long sorteoId);
+
+    /**
+     * Escribe los billetes de un sorteo como NDJSON a medida que se leen,
+     * sin cargarlos todos en memoria.
+     *
+     * @param sorteoId identificador del sorteo.
+     * @param salida flujo donde se escriben los billetes (no se cierra).
+     * @return cantidad de billetes escritos.
+     * @throws IOException si falla la escritura (p. ej. el cliente cerró la conexión).
+     */
+    long exportarBilletesPorSorteo(Long sorteoId, OutputStream salida) throws IOException;
+
+    /**
+     * Obtiene el resumen de ventas de un sorteo: total de billetes, vendidos,
+     * disponibles e ingresos acumulados.
+     *
+     * @param sorteoId identificador del sorteo.
+     * @return resumen del sorteo.
+     * @throws java.util.NoSuchElementException si el sorteo no existe.
+     */
+    ResumenSorteoDto resumen(Long sorteoId);
+
+    /**
+     * Ejecuta un sorteo: registra el número ganador y los premios de los billetes vendidos.
+     *
+     * @param sorteoId identificador del sorteo.
+     * @param numeroGanador número ganador; si es {@code null} se sortea uno.
+     * @return número ganador y cantidad de premios por categoría.
+     * @throws java.util.NoSuchElementException si el sorteo no existe.
+     * @throws IllegalArgumentException si el número ganador no es numérico.
+     * @throws IllegalStateException si el sorteo ya se ejecutó.
+     */
+    ResultadoSorteoDto ejecutar(Long sorteoId, String numeroGanador);
+
+    /**
+     * Lista los premios registrados al ejecutar un sorteo.
+     *
+     * @param sorteoId identificador del sorteo.
+     * @return premios del sorteo, agrupados por categoría; vacío si no se ha ejecutado.
+     * @throws java.util.NoSuchElementException si el sorteo no existe.
+     */
+    List<Premio> listarPremios(Long sorteoId);
+
+    /**
+     * Verifica si un número tiene premio en un sorteo ejecutado, sin consultar la base de datos.
+     *
+     * @param sorteoId identificador del sorteo.
+     * @param numero número del billete.
+     * @return categoría del premio, billete y cliente; o sin premio.
+     * @throws java.util.NoSuchElementException si el sorteo no existe.
+     * @throws IllegalArgumentException si el número no es numérico.
+     * @throws IllegalStateException si el sorteo todavía no se ha ejecutado.
+     */
+    VerificacionPremioDto verificar(Long sorteoId, String numero);
+
+    /**
+     * Archiva un sorteo pasado: mueve sus billetes y ventas a {@code billetes_archivados}.
+     * Las consultas de billetes, historial y resumen siguen funcionando igual.
+     *
+     * @param sorteoId identificador del sorteo.
+     * @return cantidad de billetes y ventas archivados.
+     * @throws java.util.NoSuchElementException si el sorteo no existe.
+     * @throws IllegalStateException si ya está archivado, todavía no pasó o tiene billetes reservados.
+     */
+    ArchivoSorteoDto archivar(Long sorteoId);
 }
@@ -2,18 +2,29 @@ package org.konex.sistemaloteria.sorteo.service;
 
 import lombok.RequiredArgsConstructor;
 import org.konex.sistemaloteria.billete.model.Billete;
+import org.konex.sistemaloteria.billete.model.BilleteArchivado;
+import org.konex.sistemaloteria.billete.repository.BilleteArchivadoRepository;
 import org.konex.sistemaloteria.billete.repository.BilleteRepository;
+import org.konex.sistemaloteria.cliente.model.Cliente;
 import org.konex.sistemaloteria.cliente.dto.ClienteDto;
-import org.konex.sistemaloteria.compartido.EstadoBillete;
+import org.konex.sistemaloteria.sorteo.dto.ArchivoSorteoDto;
+import org.konex.sistemaloteria.sorteo.dto.GeneracionBilletesDto;
+import org.konex.sistemaloteria.sorteo.dto.ResultadoSorteoDto;
+import org.konex.sistemaloteria.sorteo.dto.ResumenSorteoDto;
 import org.konex.sistemaloteria.sorteo.dto.SorteoDto;
+import org.konex.sistemaloteria.sorteo.dto.VerificacionPremioDto;
+import org.konex.sistemaloteria.sorteo.model.Premio;
 import org.konex.sistemaloteria.sorteo.model.Sorteo;
+import org.konex.sistemaloteria.sorteo.repository.PremioRepository;
 import org.konex.sistemaloteria.sorteo.repository.SorteoRepository;
 import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.stream.Collectors;
 
 /**
@@ -26,6 +37,11 @@ import java.util.stream.Collectors;
  *   <li>Listar sorteos existentes.</li>
  *   <li>Generar los billetes asociados a un sorteo.</li>
  *   <li>Consultar los billetes de un sorteo específico, incluyendo el cliente comprador.</li>
+ *   <li>Exportar los billetes de un sorteo como NDJSON en streaming ({@link ExportadorBilletes}).</li>
+ *   <li>Resumir las ventas de un sorteo desde los contadores en memoria ({@link ContadoresSorteo}).</li>
+ *   <li>Ejecutar el sorteo y registrar sus premios ({@link MotorSorteo}).</li>
+ *   <li>Verificar números premiados desde memoria ({@link IndicePremios}).</li>
+ *   <li>Archivar los sorteos pasados ({@link ArchivadorSorteos}).</li>
  * </ul>
  *
  * <p>
@@ -46,6 +62,30 @@ public class SorteoServiceImpl implements SorteoService {
     /** Mapper usado para convertir entre entidades y DTOs. */
     private final ModelMapper mapper;
 
+    /** Contadores en memoria de billetes, ventas e ingresos por sorteo. */
+    private final ContadoresSorteo contadores;
+
+    /** Motor de inserción masiva de billetes por lotes JDBC. */
+    private final GeneradorBilletes generador;
+
+    /** Escritor de billetes en streaming (NDJSON). */
+    private final ExportadorBilletes exportador;
+
+    /** Motor que ejecuta el sorteo y calcula los premios. */
+    private final MotorSorteo motor;
+
+    /** Repositorio de los premios registrados. */
+    private final PremioRepository premioRepository;
+
+    /** Índice en memoria de los premios de los sorteos ejecutados. */
+    private final IndicePremios indicePremios;
+
+    /** Repositorio de los billetes de sorteos archivados. */
+    private final BilleteArchivadoRepository archivoRepository;
+
+    /** Mueve los billetes de los sorteos pasados al archivo. */
+    private final ArchivadorSorteos archivador;
+
     /**
      * Crea un nuevo sorteo a partir de un DTO recibido.
      *
@@ -56,6 +96,7 @@ public class SorteoServiceImpl implements SorteoService {
     public SorteoDto crear(SorteoDto dto) {
         Sorteo sorteo = mapper.map(dto, Sorteo.class);
         sorteo = sorteoRepository.save(sorteo);
+        contadores.registrarSorteo(sorteo.getId());
         return mapper.map(sorteo, SorteoDto.class);
     }
 
@@ -77,42 +118,81 @@ public class SorteoServiceImpl implements SorteoService {
      * <p>
      * Cada billete se numera secuencialmente (por ejemplo, 0001, 0002...),
      * se marca como <b>DISPONIBLE</b> y se asocia al sorteo indicado.
+     * La inserción se hace por lotes JDBC con {@link GeneradorBilletes}, sin cargar
+     * las entidades en memoria.
      * </p>
      *
      * @param sorteoId identificador del sorteo al cual se agregarán los billetes.
      * @param cantidad cantidad total de billetes a generar.
      * @param precio valor unitario de cada billete.
-     * @return lista de {@link Billete} creados y persistidos.
+     * @return resumen con la cantidad y el rango de números generados.
      * @throws RuntimeException si el sorteo no existe.
+     * @throws IllegalArgumentException si la cantidad no es positiva.
      */
     @Override
-    public List<Billete> generarBilletes(Long sorteoId, int cantidad, double precio) {
-        Sorteo sorteo = sorteoRepository.findById(sorteoId)
-                .orElseThrow(() -> new RuntimeException("Sorteo no encontrado con ID: " + sorteoId));
-
-        List<Billete> billetes = new ArrayList<>();
-
-        for (int i = 1; i <= cantidad; i++) {
-            Billete billete = new Billete();
-            billete.setNumero(String.format("%04d", i));
-            billete.setPrecio(BigDecimal.valueOf(precio));
-            billete.setEstado(EstadoBillete.DISPONIBLE);
-            billete.setSorteo(sorteo);
-            billetes.add(billeteRepository.save(billete));
+    public GeneracionBilletesDto generarBilletes(Long sorteoId, int cantidad, double precio) {
+        if (!sorteoRepository.existsById(sorteoId)) {
+            throw new RuntimeException("Sorteo no encontrado con ID: " + sorteoId);
         }
+        if (sorteoRepository.existsByIdAndNumerosVirtualesIsNotNull(sorteoId)) {
+            throw new IllegalStateException("El sorteo " + sorteoId + " tiene billetes virtuales");
+        }
+        return generador.generar(sorteoId, cantidad, BigDecimal.valueOf(precio));
+    }
 
-        return billetes;
+    /**
+     * Declara los billetes de un sorteo como virtuales con {@link GeneradorBilletes#declararVirtuales}:
+     * se guarda solo el rango y el precio, en una sentencia, sin importar la cantidad.
+     *
+     * @param sorteoId identificador del sorteo.
+     * @param cantidad cantidad de números del sorteo.
+     * @param precio valor unitario de cada billete.
+     * @return resumen con la cantidad y el rango de números declarados.
+     * @throws RuntimeException si el sorteo no existe.
+     * @throws IllegalStateException si el sorteo ya tiene billetes.
+     */
+    @Override
+    public GeneracionBilletesDto generarVirtuales(Long sorteoId, int cantidad, double precio) {
+        if (!sorteoRepository.existsById(sorteoId)) {
+            throw new RuntimeException("Sorteo no encontrado con ID: " + sorteoId);
+        }
+        return generador.declararVirtuales(sorteoId, cantidad, BigDecimal.valueOf(precio));
     }
 
     /**
      * Obtiene todos los billetes registrados para un sorteo dado,
      * incluyendo la información básica del cliente comprador si existe.
      *
+     * <p>
+     * Si el sorteo está archivado, los billetes se reconstruyen desde {@code billetes_archivados}
+     * con la misma forma.
+     * </p>
+     *
+     * <p>
+     * Un sorteo virtual se rechaza: esta lista tendría un elemento por número del rango, aunque
+     * solo los vendidos o reservados tengan fila. Sus billetes se listan por páginas
+     * ({@code GET /api/billetes/sorteo/{id}}) o en streaming NDJSON, que recorren el rango sin
+     * armarlo en memoria.
+     * </p>
+     *
      * @param sorteoId identificador del sorteo.
      * @return lista de billetes asociados al sorteo, con cliente (si aplica).
+     * @throws IllegalStateException si el sorteo es virtual.
      */
     @Override
     public List<Billete> listarBilletesPorSorteo(Long sorteoId) {
+        Sorteo sorteo = sorteoRepository.findById(sorteoId).orElse(null);
+        if (sorteo != null && sorteo.isVirtual()) {
+            throw new IllegalStateException("El sorteo " + sorteoId + " es virtual: sus billetes se listan por "
+                    + "páginas en GET /api/billetes/sorteo/" + sorteoId
+                    + " o en streaming con Accept: application/x-ndjson");
+        }
+        if (sorteo != null && sorteo.isArchivado()) {
+            return archivoRepository.listarConCliente(sorteoId).stream()
+                    .map(fila -> ((BilleteArchivado) fila[0]).aBillete(sorteo, (Cliente) fila[1]))
+                    .collect(Collectors.toList());
+        }
+
         List<Billete> billetes = billeteRepository.findBySorteoId(sorteoId);
 
         // 🔹 Enriquecer manualmente con los datos del cliente (nombre y correo)
@@ -126,4 +206,87 @@ public class SorteoServiceImpl implements SorteoService {
 
         return billetes;
     }
+
+    /**
+     * Escribe los billetes de un sorteo como NDJSON leyendo la base de datos con un cursor.
+     *
+     * <p>
+     * Alternativa a {@link #listarBilletesPorSorteo} para sorteos grandes: no se crean
+     * entidades ni se cargan los clientes por separado, y la memoria usada es constante.
+     * </p>
+     *
+     * @param sorteoId identificador del sorteo.
+     * @param salida flujo de la respuesta.
+     * @return cantidad de billetes escritos.
+     * @throws IOException si falla la escritura.
+     */
+    @Override
+    public long exportarBilletesPorSorteo(Long sorteoId, OutputStream salida) throws IOException {
+        return exportador.escribir(sorteoId, salida);
+    }
+
+    /**
+     * Devuelve el resumen de ventas de un sorteo a partir de los contadores en memoria,
+     * sin consultar la base de datos.
+     *
+     * @param sorteoId identificador del sorteo.
+     * @return billetes, vendidos, disponibles e ingresos del sorteo.
+     * @throws NoSuchElementException si el sorteo no existe.
+     */
+    @Override
+    public ResumenSorteoDto resumen(Long sorteoId) {
+        return contadores.resumen(sorteoId)
+                .orElseThrow(() -> new NoSuchElementException("Sorteo no encontrado con ID: " + sorteoId));
+    }
+
+    /**
+     * Ejecuta un sorteo con {@link MotorSorteo}: fija el número ganador y registra
+     * en un solo lote los premios de los billetes vendidos.
+     *
+     * @param sorteoId identificador del sorteo.
+     * @param numeroGanador número ganador; si es {@code null} se sortea uno.
+     * @return número ganador y cantidad de premios por categoría.
+     */
+    @Override
+    public ResultadoSorteoDto ejecutar(Long sorteoId, String numeroGanador) {
+        return motor.ejecutar(sorteoId, numeroGanador);
+    }
+
+    /**
+     * Lista los premios de un sorteo.
+     *
+     * @param sorteoId identificador del sorteo.
+     * @return premios del sorteo; vacío si todavía no se ha ejecutado.
+     * @throws NoSuchElementException si el sorteo no existe.
+     */
+    @Override
+    public List<Premio> listarPremios(Long sorteoId) {
+        if (!sorteoRepository.existsById(sorteoId)) {
+            throw new NoSuchElementException("Sorteo no encontrado con ID: " + sorteoId);
+        }
+        return premioRepository.findBySorteoIdOrderById(sorteoId);
+    }
+
+    /**
+     * Verifica un número contra el índice de premios en memoria.
+     *
+     * @param sorteoId identificador del sorteo.
+     * @param numero número del billete.
+     * @return resultado de la verificación.
+     */
+    @Override
+    public VerificacionPremioDto verificar(Long sorteoId, String numero) {
+        return indicePremios.verificar(sorteoId, numero);
+    }
+
+    /**
+     * Mueve los billetes y ventas de un sorteo pasado a {@code billetes_archivados}.
+     *
+     * @param sorteoId identificador del sorteo.
+     * @return cantidad de billetes y ventas archivados.
+     */
+    @Override
+    public ArchivoSorteoDto archivar(Long sorteoId) {
+        return archivador.archivar(sorteoId);
+    }
 }
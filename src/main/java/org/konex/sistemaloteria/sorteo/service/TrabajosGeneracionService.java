@@ -0,0 +1,52 @@
+package org.konex.sistemaloteria.sorteo.service;
+
+import org.konex.sistemaloteria.sorteo.dto.TrabajoGeneracionDto;
+
+/**
+ * Contrato de la generación de billetes en segundo plano.
+ *
+ * <p>
+ * Separa la aceptación de la generación (respuesta 202 con el ID del trabajo) de la
+ * inserción de los billetes, que avanza por tramos confirmados. El cliente consulta el
+ * avance con el ID del trabajo y puede cancelarlo mientras no haya terminado.
+ * </p>
+ *
+ * Ejemplo de implementación: {@link TrabajosGeneracionServiceImpl}
+ */
+public interface TrabajosGeneracionService {
+
+    /**
+     * Acepta la generación de billetes de un sorteo para ejecutarla en segundo plano.
+     *
+     * @param sorteoId sorteo al que se agregan los billetes.
+     * @param cantidad cantidad de billetes a generar.
+     * @param precio precio unitario.
+     * @return el trabajo creado, en estado {@code PENDIENTE}.
+     * @throws java.util.NoSuchElementException si el sorteo no existe.
+     * @throws IllegalArgumentException si la cantidad o el precio no son positivos.
+     * @throws java.util.concurrent.RejectedExecutionException si hay demasiados trabajos en espera.
+     */
+    TrabajoGeneracionDto iniciar(Long sorteoId, int cantidad, double precio);
+
+    /**
+     * Consulta el estado y el avance de un trabajo.
+     *
+     * @param sorteoId sorteo del trabajo.
+     * @param trabajoId identificador del trabajo.
+     * @return estado actual del trabajo.
+     * @throws java.util.NoSuchElementException si el trabajo no existe en ese sorteo.
+     */
+    TrabajoGeneracionDto consultar(Long sorteoId, String trabajoId);
+
+    /**
+     * Pide cancelar un trabajo. Si aún no empezó se cancela de inmediato; si está en curso
+     * se detiene antes del siguiente tramo y conserva los billetes ya confirmados.
+     *
+     * @param sorteoId sorteo del trabajo.
+     * @param trabajoId identificador del trabajo.
+     * @return estado del trabajo tras registrar el pedido.
+     * @throws java.util.NoSuchElementException si el trabajo no existe en ese sorteo.
+     * @throws IllegalStateException si el trabajo ya terminó.
+     */
+    TrabajoGeneracionDto cancelar(Long sorteoId, String trabajoId);
+}
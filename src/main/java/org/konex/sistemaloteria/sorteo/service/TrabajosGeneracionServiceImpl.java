@@ -0,0 +1,260 @@
+package org.konex.sistemaloteria.sorteo.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.konex.sistemaloteria.sorteo.dto.TrabajoGeneracionDto;
+import org.konex.sistemaloteria.sorteo.model.EstadoTrabajoGeneracion;
+import org.konex.sistemaloteria.sorteo.model.TrabajoGeneracion;
+import org.konex.sistemaloteria.sorteo.repository.SorteoRepository;
+import org.konex.sistemaloteria.sorteo.repository.TrabajoGeneracionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generación de billetes en segundo plano, por tramos confirmados y cancelable.
+ *
+ * <p>
+ * Estrategia:
+ * 1️⃣ Al aceptar se guarda el trabajo como {@code PENDIENTE} y se entrega a un ejecutor
+ *     acotado; si su cola está llena la solicitud se rechaza (503).<br>
+ * 2️⃣ El trabajo genera los billetes en tramos de {@code loteria.billetes.generacion.filas-por-commit}.
+ *     Cada tramo se inserta con {@link GeneradorBilletes} y se confirma en la misma transacción
+ *     que actualiza el avance del trabajo.<br>
+ * 3️⃣ Antes de cada tramo se revisa si se pidió cancelar; los tramos ya confirmados se conservan.
+ * </p>
+ *
+ * <p>
+ * El ejecutor tiene pocos hilos ({@code loteria.billetes.generacion.trabajadores}) y cada tramo
+ * ocupa una sola conexión durante poco tiempo, de modo que una generación grande no acapara el
+ * pool de conexiones que usan las ventas. Al reiniciar la aplicación se retoman los trabajos
+ * {@code PENDIENTE} y {@code EN_CURSO}, estos últimos desde el siguiente número sin generar.
+ * </p>
+ */
+@Slf4j
+@Service
+public class TrabajosGeneracionServiceImpl implements TrabajosGeneracionService {
+
+    /** Estados en los que un trabajo todavía puede avanzar. */
+    private static final List<EstadoTrabajoGeneracion> ACTIVOS =
+            List.of(EstadoTrabajoGeneracion.PENDIENTE, EstadoTrabajoGeneracion.EN_CURSO);
+
+    /** Longitud máxima de la columna {@code mensaje}. */
+    private static final int LONGITUD_MENSAJE = 255;
+
+    private final TrabajoGeneracionRepository trabajoRepo;
+    private final SorteoRepository sorteoRepo;
+    private final GeneradorBilletes generador;
+    private final TransactionTemplate transactionTemplate;
+
+    /** Billetes por transacción. */
+    private final int filasPorCommit;
+
+    private final Executor ejecutor;
+
+    @Autowired
+    public TrabajosGeneracionServiceImpl(TrabajoGeneracionRepository trabajoRepo,
+                                         SorteoRepository sorteoRepo,
+                                         GeneradorBilletes generador,
+                                         TransactionTemplate transactionTemplate,
+                                         @Value("${loteria.billetes.generacion.filas-por-commit:10000}") int filasPorCommit,
+                                         @Value("${loteria.billetes.generacion.trabajadores:1}") int trabajadores,
+                                         @Value("${loteria.billetes.generacion.capacidad:100}") int capacidad) {
+        this(trabajoRepo, sorteoRepo, generador, transactionTemplate, filasPorCommit,
+                crearEjecutor(trabajadores, capacidad));
+    }
+
+    TrabajosGeneracionServiceImpl(TrabajoGeneracionRepository trabajoRepo,
+                                  SorteoRepository sorteoRepo,
+                                  GeneradorBilletes generador,
+                                  TransactionTemplate transactionTemplate,
+                                  int filasPorCommit,
+                                  Executor ejecutor) {
+        if (filasPorCommit <= 0) {
+            throw new IllegalArgumentException("Las filas por commit deben ser positivas");
+        }
+        this.trabajoRepo = trabajoRepo;
+        this.sorteoRepo = sorteoRepo;
+        this.generador = generador;
+        this.transactionTemplate = transactionTemplate;
+        this.filasPorCommit = filasPorCommit;
+        this.ejecutor = ejecutor;
+    }
+
+    /** Ejecutor con hilos y cola acotados; al llenarse rechaza con {@link RejectedExecutionException}. */
+    private static ExecutorService crearEjecutor(int trabajadores, int capacidad) {
+        AtomicInteger secuencia = new AtomicInteger();
+        return new ThreadPoolExecutor(trabajadores, trabajadores, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidad),
+                r -> {
+                    Thread t = new Thread(r, "generacion-billetes-" + secuencia.getAndIncrement());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /** Detiene los hilos; los trabajos sin terminar se retoman en el próximo arranque. */
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        if (ejecutor instanceof ExecutorService servicio) {
+            servicio.shutdownNow();
+            servicio.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Vuelve a programar los trabajos que quedaron sin terminar de una ejecución anterior.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void retomarPendientes() {
+        List<String> pendientes = trabajoRepo.findIdsByEstadoIn(ACTIVOS);
+        if (pendientes.isEmpty()) {
+            return;
+        }
+        log.info("Retomando {} generaciones de billetes sin terminar", pendientes.size());
+        for (String id : pendientes) {
+            try {
+                ejecutor.execute(() -> ejecutar(id));
+            } catch (RejectedExecutionException e) {
+                log.warn("Generación {} sin lugar en la cola; se retomará en el próximo arranque", id);
+            }
+        }
+    }
+
+    @Override
+    public TrabajoGeneracionDto iniciar(Long sorteoId, int cantidad, double precio) {
+        if (cantidad <= 0) {
+            throw new IllegalArgumentException("La cantidad de billetes debe ser mayor que cero");
+        }
+        if (precio <= 0) {
+            throw new IllegalArgumentException("El precio debe ser mayor que cero");
+        }
+        if (!sorteoRepo.existsById(sorteoId)) {
+            throw new NoSuchElementException("Sorteo no encontrado con ID: " + sorteoId);
+        }
+        if (sorteoRepo.existsByIdAndNumerosVirtualesIsNotNull(sorteoId)) {
+            throw new IllegalStateException("El sorteo " + sorteoId + " tiene billetes virtuales");
+        }
+
+        // --- 1️⃣ Guardar el trabajo y entregarlo al ejecutor ---
+        LocalDateTime ahora = LocalDateTime.now();
+        TrabajoGeneracion trabajo = trabajoRepo.save(TrabajoGeneracion.builder()
+                .id(UUID.randomUUID().toString())
+                .sorteoId(sorteoId)
+                .cantidad(cantidad)
+                .precio(BigDecimal.valueOf(precio))
+                .estado(EstadoTrabajoGeneracion.PENDIENTE)
+                .fechaCreacion(ahora)
+                .fechaActualizacion(ahora)
+                .build());
+
+        try {
+            ejecutor.execute(() -> ejecutar(trabajo.getId()));
+        } catch (RejectedExecutionException e) {
+            transactionTemplate.executeWithoutResult(status -> trabajoRepo.cambiarEstadoSi(trabajo.getId(),
+                    EstadoTrabajoGeneracion.PENDIENTE, EstadoTrabajoGeneracion.FALLIDA,
+                    "Servicio saturado", LocalDateTime.now()));
+            throw new RejectedExecutionException("Hay demasiadas generaciones en espera, intente más tarde");
+        }
+        return TrabajoGeneracionDto.de(trabajo);
+    }
+
+    @Override
+    public TrabajoGeneracionDto consultar(Long sorteoId, String trabajoId) {
+        return TrabajoGeneracionDto.de(buscar(sorteoId, trabajoId));
+    }
+
+    @Override
+    public TrabajoGeneracionDto cancelar(Long sorteoId, String trabajoId) {
+        buscar(sorteoId, trabajoId);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (trabajoRepo.solicitarCancelacion(trabajoId, ACTIVOS) == 0) {
+                throw new IllegalStateException("La generación ya terminó");
+            }
+            // Si todavía no empezó, se cancela sin esperar al hilo
+            trabajoRepo.cambiarEstadoSi(trabajoId, EstadoTrabajoGeneracion.PENDIENTE,
+                    EstadoTrabajoGeneracion.CANCELADA, null, LocalDateTime.now());
+        });
+        return TrabajoGeneracionDto.de(buscar(sorteoId, trabajoId));
+    }
+
+    private TrabajoGeneracion buscar(Long sorteoId, String trabajoId) {
+        return trabajoRepo.findById(trabajoId)
+                .filter(t -> t.getSorteoId().equals(sorteoId))
+                .orElseThrow(() -> new NoSuchElementException("Generación no encontrada: " + trabajoId));
+    }
+
+    /**
+     * Ejecuta (o continúa) un trabajo hasta completarlo, cancelarlo o fallar.
+     *
+     * @param id identificador del trabajo.
+     * @return estado del trabajo al salir; {@code EN_CURSO} si se interrumpió por apagado.
+     */
+    EstadoTrabajoGeneracion ejecutar(String id) {
+        TrabajoGeneracion trabajo = trabajoRepo.findById(id).orElse(null);
+        if (trabajo == null || trabajo.getEstado().isTerminal()) {
+            return trabajo != null ? trabajo.getEstado() : null;
+        }
+        if (trabajo.getEstado() == EstadoTrabajoGeneracion.PENDIENTE
+                && transactionTemplate.execute(status -> trabajoRepo.iniciar(id, LocalDateTime.now())) == 0) {
+            // Se canceló mientras esperaba
+            return trabajoRepo.findById(id).map(TrabajoGeneracion::getEstado).orElse(null);
+        }
+
+        int ancho = GeneradorBilletes.ancho(trabajo.getCantidad());
+        int generados = trabajo.getGenerados();
+        try {
+            // --- 2️⃣ Un tramo por transacción, junto con su avance ---
+            while (generados < trabajo.getCantidad()) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return EstadoTrabajoGeneracion.EN_CURSO;
+                }
+                int desde = generados + 1;
+                int hasta = Math.min(trabajo.getCantidad(), generados + filasPorCommit);
+                Boolean avanzo = transactionTemplate.execute(status -> {
+                    // --- 3️⃣ Cancelación pedida: se detiene antes de escribir el tramo ---
+                    if (trabajoRepo.isCancelacionSolicitada(id)) {
+                        return false;
+                    }
+                    generador.generarTramo(trabajo.getSorteoId(), desde, hasta, ancho, trabajo.getPrecio());
+                    trabajoRepo.registrarAvance(id, hasta, LocalDateTime.now());
+                    return true;
+                });
+                if (!Boolean.TRUE.equals(avanzo)) {
+                    return finalizar(id, EstadoTrabajoGeneracion.CANCELADA, null);
+                }
+                generados = hasta;
+            }
+            return finalizar(id, EstadoTrabajoGeneracion.COMPLETADA, null);
+        } catch (RuntimeException e) {
+            log.error("Falló la generación {} tras {} billetes", id, generados, e);
+            String mensaje = String.valueOf(e.getMessage());
+            return finalizar(id, EstadoTrabajoGeneracion.FALLIDA,
+                    mensaje.length() > LONGITUD_MENSAJE ? mensaje.substring(0, LONGITUD_MENSAJE) : mensaje);
+        }
+    }
+
+    private EstadoTrabajoGeneracion finalizar(String id, EstadoTrabajoGeneracion estado, String mensaje) {
+        transactionTemplate.executeWithoutResult(status -> trabajoRepo.cambiarEstadoSi(
+                id, EstadoTrabajoGeneracion.EN_CURSO, estado, mensaje, LocalDateTime.now()));
+        return estado;
+    }
+}
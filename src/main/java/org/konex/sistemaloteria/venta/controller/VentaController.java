@@ -2,14 +2,23 @@ package org.konex.sistemaloteria.venta.controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.konex.sistemaloteria.compartido.CacheIdempotencia;
+import org.konex.sistemaloteria.venta.dto.OperacionVentaDto;
+import org.konex.sistemaloteria.venta.dto.ReservaRequestDto;
+import org.konex.sistemaloteria.venta.dto.ReservaResponseDto;
+import org.konex.sistemaloteria.venta.dto.VentaLoteRequestDto;
+import org.konex.sistemaloteria.venta.dto.VentaLoteResponseDto;
 import org.konex.sistemaloteria.venta.dto.VentaRequestDto;
 import org.konex.sistemaloteria.venta.dto.VentaResponseDto;
+import org.konex.sistemaloteria.venta.service.VentaAsincronaService;
 import org.konex.sistemaloteria.venta.service.VentaService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
+
 /**
  * Controlador REST para gestionar ventas de billetes.
  * Ruta base: /api/ventas
@@ -19,16 +28,90 @@ import org.springframework.web.bind.annotation.*;
 @RequiredArgsConstructor
 public class VentaController {
 
+    /** Cabecera con la que el cliente identifica los reintentos de una misma venta. */
+    static final String CABECERA_IDEMPOTENCIA = "Idempotency-Key";
+
     private final VentaService service;
+    private final VentaAsincronaService asincrono;
+    private final CacheIdempotencia idempotencia;
 
     /**
      * Registra una nueva venta de billete.
+     * Si se envía {@code reservaToken}, vende el billete previamente reservado.
      * Devuelve 201 Created y JSON.
+     *
+     * <p>
+     * Si se envía la cabecera {@code Idempotency-Key}, los reintentos con la misma clave
+     * reciben la respuesta (o el error) de la primera solicitud sin volver a procesar la venta.
+     * </p>
      */
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE,
             produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<VentaResponseDto> vender(@Valid @RequestBody VentaRequestDto request) {
-        VentaResponseDto response = service.vender(request);
+    public ResponseEntity<VentaResponseDto> vender(
+            @Valid @RequestBody VentaRequestDto request,
+            @RequestHeader(name = CABECERA_IDEMPOTENCIA, required = false) String claveIdempotencia) {
+        VentaResponseDto response = claveIdempotencia == null
+                ? service.vender(request)
+                : idempotencia.ejecutar("POST /api/ventas", claveIdempotencia, huella(request),
+                        () -> service.vender(request));
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
+
+    /**
+     * Vende varios billetes a un mismo cliente en una sola operación (todo o nada).
+     * Devuelve 201 Created con el total y el detalle de cada venta.
+     */
+    @PostMapping(path = "/lote",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<VentaLoteResponseDto> venderLote(@Valid @RequestBody VentaLoteRequestDto request) {
+        VentaLoteResponseDto response = service.venderLote(request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    /**
+     * Reserva un billete para un cliente durante un tiempo limitado.
+     * Devuelve 201 Created con el token que debe usarse para comprarlo.
+     */
+    @PostMapping(path = "/reservas",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ReservaResponseDto> reservar(@Valid @RequestBody ReservaRequestDto request) {
+        ReservaResponseDto response = service.reservar(request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    /**
+     * Acepta una venta para registrarla en segundo plano (modo asíncrono).
+     * Devuelve 202 Accepted con el ID de la operación y su URL de consulta en {@code Location}.
+     * Admite {@code Idempotency-Key} igual que {@link #vender}.
+     */
+    @PostMapping(path = "/operaciones",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<OperacionVentaDto> venderAsincrono(
+            @Valid @RequestBody VentaRequestDto request,
+            @RequestHeader(name = CABECERA_IDEMPOTENCIA, required = false) String claveIdempotencia) {
+        OperacionVentaDto operacion = claveIdempotencia == null
+                ? asincrono.encolar(request)
+                : idempotencia.ejecutar("POST /api/ventas/operaciones", claveIdempotencia, huella(request),
+                        () -> asincrono.encolar(request));
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/ventas/operaciones/" + operacion.getId()))
+                .body(operacion);
+    }
+
+    /**
+     * Consulta el estado de una venta asíncrona: PENDIENTE, CONFIRMADA o RECHAZADA.
+     * Devuelve 404 si la operación no existe.
+     */
+    @GetMapping(path = "/operaciones/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<OperacionVentaDto> consultarOperacion(@PathVariable String id) {
+        return ResponseEntity.ok(asincrono.consultar(id));
+    }
+
+    /** Contenido de la venta que debe coincidir entre los reintentos de una misma clave. */
+    private static String huella(VentaRequestDto request) {
+        return request.getBilleteId() + "|" + request.getClienteId() + "|" + request.getReservaToken();
+    }
 }
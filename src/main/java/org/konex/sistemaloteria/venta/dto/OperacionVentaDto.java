@@ -0,0 +1,76 @@
+package org.konex.sistemaloteria.venta.dto;
+
+import org.konex.sistemaloteria.venta.model.EstadoOperacionVenta;
+import org.konex.sistemaloteria.venta.model.OperacionVenta;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO de salida con el estado de una venta enviada en modo asíncrono.
+ *
+ * Ejemplo JSON:
+ * {
+ *   "id": "0b6c1f9e-6f1e-4f59-9a55-3d1c2b7f1a20",
+ *   "estado": "CONFIRMADA",
+ *   "billeteId": 12,
+ *   "clienteId": 5,
+ *   "ventaId": 151,
+ *   "mensaje": null,
+ *   "fechaCreacion": "2025-11-09T10:00:00.123",
+ *   "fechaActualizacion": "2025-11-09T10:00:00.456"
+ * }
+ */
+public class OperacionVentaDto {
+
+    /** Identificador de la operación. */
+    private String id;
+
+    /** PENDIENTE, CONFIRMADA o RECHAZADA. */
+    private EstadoOperacionVenta estado;
+
+    /** Billete que se quiere comprar. */
+    private Long billeteId;
+
+    /** Cliente comprador. */
+    private Long clienteId;
+
+    /** Venta registrada (solo si está CONFIRMADA). */
+    private Long ventaId;
+
+    /** Motivo del rechazo (solo si está RECHAZADA). */
+    private String mensaje;
+
+    /** Fecha y hora en la que se aceptó la solicitud. */
+    private LocalDateTime fechaCreacion;
+
+    /** Fecha y hora del último cambio de estado. */
+    private LocalDateTime fechaActualizacion;
+
+    public OperacionVentaDto(String id, EstadoOperacionVenta estado, Long billeteId, Long clienteId,
+                             Long ventaId, String mensaje,
+                             LocalDateTime fechaCreacion, LocalDateTime fechaActualizacion) {
+        this.id = id;
+        this.estado = estado;
+        this.billeteId = billeteId;
+        this.clienteId = clienteId;
+        this.ventaId = ventaId;
+        this.mensaje = mensaje;
+        this.fechaCreacion = fechaCreacion;
+        this.fechaActualizacion = fechaActualizacion;
+    }
+
+    /** Construye el DTO a partir de la entidad. */
+    public static OperacionVentaDto de(OperacionVenta o) {
+        return new OperacionVentaDto(o.getId(), o.getEstado(), o.getBilleteId(), o.getClienteId(),
+                o.getVentaId(), o.getMensaje(), o.getFechaCreacion(), o.getFechaActualizacion());
+    }
+
+    public String getId() { return id; }
+    public EstadoOperacionVenta getEstado() { return estado; }
+    public Long getBilleteId() { return billeteId; }
+    public Long getClienteId() { return clienteId; }
+    public Long getVentaId() { return ventaId; }
+    public String getMensaje() { return mensaje; }
+    public LocalDateTime getFechaCreacion() { return fechaCreacion; }
+    public LocalDateTime getFechaActualizacion() { return fechaActualizacion; }
+}
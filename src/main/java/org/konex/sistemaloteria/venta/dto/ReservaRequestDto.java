@@ -0,0 +1,63 @@
+package org.konex.sistemaloteria.venta.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+/**
+ * DTO de entrada para reservar temporalmente un billete a nombre de un cliente.
+ *
+ * Mientras la reserva está vigente nadie más puede comprar el billete; el cliente
+ * lo compra enviando el token recibido en {@code POST /api/ventas}.
+ *
+ * Validaciones:
+ *  - billeteId y clienteId: obligatorios y positivos.
+ *  - segundos: opcional; entre 1 y 1800. Si se omite se usa la duración configurada.
+ *
+ * Ejemplo JSON:
+ * {
+ *   "billeteId": 12,
+ *   "clienteId": 5,
+ *   "segundos": 120
+ * }
+ */
+public class ReservaRequestDto {
+
+    /** Identificador del billete a reservar. No puede ser nulo y debe ser positivo. */
+    @NotNull(message = "El ID del billete es obligatorio")
+    @Positive(message = "billeteId debe ser positivo")
+    private Long billeteId;
+
+    /** Identificador del cliente que reserva. No puede ser nulo y debe ser positivo. */
+    @NotNull(message = "El ID del cliente es obligatorio")
+    @Positive(message = "clienteId debe ser positivo")
+    private Long clienteId;
+
+    /** Duración de la reserva en segundos (opcional). */
+    @Positive(message = "segundos debe ser positivo")
+    @Max(value = 1800, message = "Una reserva dura como máximo 1800 segundos")
+    private Integer segundos;
+
+    public ReservaRequestDto() { }
+
+    public ReservaRequestDto(Long billeteId, Long clienteId, Integer segundos) {
+        this.billeteId = billeteId;
+        this.clienteId = clienteId;
+        this.segundos = segundos;
+    }
+
+    public Long getBilleteId() { return billeteId; }
+    public void setBilleteId(Long billeteId) { this.billeteId = billeteId; }
+
+    public Long getClienteId() { return clienteId; }
+    public void setClienteId(Long clienteId) { this.clienteId = clienteId; }
+
+    public Integer getSegundos() { return segundos; }
+    public void setSegundos(Integer segundos) { this.segundos = segundos; }
+
+    @Override
+    public String toString() {
+        return "ReservaRequestDto{billeteId=" + billeteId + ", clienteId=" + clienteId
+                + ", segundos=" + segundos + '}';
+    }
+}
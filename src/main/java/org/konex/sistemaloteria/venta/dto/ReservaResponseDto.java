@@ -0,0 +1,44 @@
+package org.konex.sistemaloteria.venta.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO de salida con los datos de una reserva de billete.
+ *
+ * <p>
+ * El {@code token} debe enviarse en {@code POST /api/ventas} (campo {@code reservaToken})
+ * antes de {@code expiraEn} para comprar el billete reservado.
+ * </p>
+ */
+public class ReservaResponseDto {
+
+    /** Token que identifica la reserva. */
+    private String token;
+
+    /** Identificador del billete reservado. */
+    private Long billeteId;
+
+    /** Número del billete reservado. */
+    private String numeroBillete;
+
+    /** Identificador del cliente que hizo la reserva. */
+    private Long clienteId;
+
+    /** Fecha y hora en la que vence la reserva. */
+    private LocalDateTime expiraEn;
+
+    public ReservaResponseDto(String token, Long billeteId, String numeroBillete,
+                              Long clienteId, LocalDateTime expiraEn) {
+        this.token = token;
+        this.billeteId = billeteId;
+        this.numeroBillete = numeroBillete;
+        this.clienteId = clienteId;
+        this.expiraEn = expiraEn;
+    }
+
+    public String getToken() { return token; }
+    public Long getBilleteId() { return billeteId; }
+    public String getNumeroBillete() { return numeroBillete; }
+    public Long getClienteId() { return clienteId; }
+    public LocalDateTime getExpiraEn() { return expiraEn; }
+}
@@ -0,0 +1,53 @@
+package org.konex.sistemaloteria.venta.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+/**
+ * DTO de entrada para reservar un billete cualquiera (al azar o el siguiente disponible)
+ * de un sorteo, sin indicar cuál.
+ *
+ * El sorteo se indica en la ruta; el billete elegido y el token de la reserva se devuelven
+ * en un {@link ReservaResponseDto}, igual que en {@code POST /api/ventas/reservas}.
+ *
+ * Validaciones:
+ *  - clienteId: obligatorio y positivo.
+ *  - segundos: opcional; entre 1 y 1800. Si se omite se usa la duración configurada.
+ *
+ * Ejemplo JSON:
+ * {
+ *   "clienteId": 5,
+ *   "segundos": 120
+ * }
+ */
+public class ReservaSorteoRequestDto {
+
+    /** Identificador del cliente que reserva. No puede ser nulo y debe ser positivo. */
+    @NotNull(message = "El ID del cliente es obligatorio")
+    @Positive(message = "clienteId debe ser positivo")
+    private Long clienteId;
+
+    /** Duración de la reserva en segundos (opcional). */
+    @Positive(message = "segundos debe ser positivo")
+    @Max(value = 1800, message = "Una reserva dura como máximo 1800 segundos")
+    private Integer segundos;
+
+    public ReservaSorteoRequestDto() { }
+
+    public ReservaSorteoRequestDto(Long clienteId, Integer segundos) {
+        this.clienteId = clienteId;
+        this.segundos = segundos;
+    }
+
+    public Long getClienteId() { return clienteId; }
+    public void setClienteId(Long clienteId) { this.clienteId = clienteId; }
+
+    public Integer getSegundos() { return segundos; }
+    public void setSegundos(Integer segundos) { this.segundos = segundos; }
+
+    @Override
+    public String toString() {
+        return "ReservaSorteoRequestDto{clienteId=" + clienteId + ", segundos=" + segundos + '}';
+    }
+}
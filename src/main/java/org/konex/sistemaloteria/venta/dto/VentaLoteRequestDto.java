@@ -0,0 +1,56 @@
+package org.konex.sistemaloteria.venta.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * DTO de entrada para vender varios billetes a un mismo cliente en una sola operación.
+ *
+ * La venta es "todo o nada": si alguno de los billetes no existe o no está
+ * disponible, no se vende ninguno.
+ *
+ * Validaciones:
+ *  - clienteId: obligatorio y positivo.
+ *  - billeteIds: entre 1 y 50 IDs, todos positivos.
+ *
+ * Ejemplo JSON:
+ * {
+ *   "clienteId": 5,
+ *   "billeteIds": [12, 13, 27]
+ * }
+ */
+public class VentaLoteRequestDto {
+
+    /** Identificador del cliente comprador. No puede ser nulo y debe ser positivo. */
+    @NotNull(message = "El ID del cliente es obligatorio")
+    @Positive(message = "clienteId debe ser positivo")
+    private Long clienteId;
+
+    /** Identificadores de los billetes a vender. */
+    @NotEmpty(message = "Debe indicar al menos un billete")
+    @Size(max = 50, message = "Un lote admite como máximo 50 billetes")
+    private List<@NotNull(message = "Los IDs de billete no pueden ser nulos")
+                 @Positive(message = "Los IDs de billete deben ser positivos") Long> billeteIds;
+
+    public VentaLoteRequestDto() { }
+
+    public VentaLoteRequestDto(Long clienteId, List<Long> billeteIds) {
+        this.clienteId = clienteId;
+        this.billeteIds = billeteIds;
+    }
+
+    public Long getClienteId() { return clienteId; }
+    public void setClienteId(Long clienteId) { this.clienteId = clienteId; }
+
+    public List<Long> getBilleteIds() { return billeteIds; }
+    public void setBilleteIds(List<Long> billeteIds) { this.billeteIds = billeteIds; }
+
+    @Override
+    public String toString() {
+        return "VentaLoteRequestDto{clienteId=" + clienteId + ", billeteIds=" + billeteIds + '}';
+    }
+}
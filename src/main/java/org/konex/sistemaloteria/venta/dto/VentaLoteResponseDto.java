@@ -0,0 +1,54 @@
+package org.konex.sistemaloteria.venta.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * DTO de salida de una venta por lote.
+ *
+ * <p>
+ * Resume la operación (cliente, cantidad de billetes y valor total)
+ * e incluye el detalle de cada venta registrada, en el mismo formato
+ * que devuelve la venta individual ({@link VentaResponseDto}).
+ * </p>
+ */
+public class VentaLoteResponseDto {
+
+    /** Identificador del cliente que realizó la compra. */
+    private Long clienteId;
+
+    /** Nombre completo del cliente comprador. */
+    private String nombreCliente;
+
+    /** Cantidad de billetes vendidos en el lote. */
+    private int cantidad;
+
+    /** Suma de los precios de todos los billetes del lote. */
+    private BigDecimal total;
+
+    /** Detalle de cada venta registrada, ordenado por ID de billete. */
+    private List<VentaResponseDto> ventas;
+
+    /**
+     * Constructor completo.
+     *
+     * @param clienteId ID del cliente comprador.
+     * @param nombreCliente nombre del cliente comprador.
+     * @param total valor total del lote.
+     * @param ventas ventas registradas.
+     */
+    public VentaLoteResponseDto(Long clienteId, String nombreCliente,
+                                BigDecimal total, List<VentaResponseDto> ventas) {
+        this.clienteId = clienteId;
+        this.nombreCliente = nombreCliente;
+        this.cantidad = ventas.size();
+        this.total = total;
+        this.ventas = ventas;
+    }
+
+    public Long getClienteId() { return clienteId; }
+    public String getNombreCliente() { return nombreCliente; }
+    public int getCantidad() { return cantidad; }
+    public BigDecimal getTotal() { return total; }
+    public List<VentaResponseDto> getVentas() { return ventas; }
+}
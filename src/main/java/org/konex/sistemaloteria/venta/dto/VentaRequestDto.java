@@ -10,6 +10,8 @@ import jakarta.validation.constraints.Positive;
  * y contiene los identificadores necesarios para registrar la venta:
  *  - billeteId: ID del billete que se desea comprar.
  *  - clienteId: ID del cliente que realiza la compra.
+ *  - reservaToken (opcional): token de una reserva previa del billete
+ *    ({@code POST /api/ventas/reservas}).
  *
  * Validaciones:
  *  - @NotNull: ambos campos son obligatorios.
@@ -33,6 +35,9 @@ public class VentaRequestDto {
     @Positive(message = "clienteId debe ser positivo")
     private Long clienteId;
 
+    /** Token de la reserva del billete (opcional). */
+    private String reservaToken;
+
     public VentaRequestDto() { }
 
     public VentaRequestDto(Long billeteId, Long clienteId) {
@@ -40,14 +45,23 @@ public class VentaRequestDto {
         this.clienteId = clienteId;
     }
 
+    public VentaRequestDto(Long billeteId, Long clienteId, String reservaToken) {
+        this(billeteId, clienteId);
+        this.reservaToken = reservaToken;
+    }
+
     public Long getBilleteId() { return billeteId; }
     public void setBilleteId(Long billeteId) { this.billeteId = billeteId; }
 
     public Long getClienteId() { return clienteId; }
     public void setClienteId(Long clienteId) { this.clienteId = clienteId; }
 
+    public String getReservaToken() { return reservaToken; }
+    public void setReservaToken(String reservaToken) { this.reservaToken = reservaToken; }
+
     @Override
     public String toString() {
-        return "VentaRequestDto{billeteId=" + billeteId + ", clienteId=" + clienteId + '}';
+        return "VentaRequestDto{billeteId=" + billeteId + ", clienteId=" + clienteId
+                + (reservaToken != null ? ", con reserva" : "") + '}';
     }
 }
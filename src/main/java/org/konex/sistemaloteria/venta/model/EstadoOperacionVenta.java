@@ -0,0 +1,21 @@
+package org.konex.sistemaloteria.venta.model;
+
+/**
+ * Estados de una venta enviada en modo asíncrono ({@link OperacionVenta}).
+ *
+ * <ul>
+ *   <li><b>PENDIENTE</b>: aceptada y a la espera de ser procesada.</li>
+ *   <li><b>CONFIRMADA</b>: la venta quedó registrada.</li>
+ *   <li><b>RECHAZADA</b>: la venta no pudo registrarse (billete vendido, cliente inexistente, etc.).</li>
+ * </ul>
+ */
+public enum EstadoOperacionVenta {
+    /** Aceptada, pendiente de procesar. */
+    PENDIENTE,
+
+    /** Venta registrada. */
+    CONFIRMADA,
+
+    /** Venta rechazada; el motivo queda en {@code mensaje}. */
+    RECHAZADA
+}
@@ -0,0 +1,70 @@
+package org.konex.sistemaloteria.venta.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad que representa una venta enviada en modo asíncrono.
+ *
+ * <p>
+ * Se guarda al aceptar la solicitud (estado {@code PENDIENTE}) y la actualiza el
+ * trabajador que procesa la venta, en la misma transacción en la que se registra
+ * (o se rechaza) la venta. Así el estado consultado nunca contradice a la tabla
+ * {@code ventas}, y las operaciones que quedaron pendientes se retoman al reiniciar.
+ * </p>
+ *
+ * <p>
+ * Las referencias al billete, al cliente y a la venta se guardan como IDs simples:
+ * la operación debe poder registrarse aunque alguno de ellos no exista (se rechazará después).
+ * </p>
+ */
+@Entity
+@Table(
+        name = "operaciones_venta",
+        indexes = {
+                @Index(name = "ix_operaciones_venta_estado", columnList = "estado, fecha_creacion")
+        }
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OperacionVenta {
+
+    /** Identificador de la operación (UUID) que se entrega al cliente. */
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    /** Billete que se quiere comprar. */
+    @Column(name = "billete_id", nullable = false)
+    private Long billeteId;
+
+    /** Cliente comprador. */
+    @Column(name = "cliente_id", nullable = false)
+    private Long clienteId;
+
+    /** Estado actual de la operación. */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    @Builder.Default
+    private EstadoOperacionVenta estado = EstadoOperacionVenta.PENDIENTE;
+
+    /** Venta registrada, cuando la operación está {@code CONFIRMADA}. */
+    @Column(name = "venta_id")
+    private Long ventaId;
+
+    /** Motivo del rechazo, cuando la operación está {@code RECHAZADA}. */
+    @Column(length = 255)
+    private String mensaje;
+
+    /** Fecha y hora en la que se aceptó la solicitud. */
+    @Column(name = "fecha_creacion", nullable = false)
+    private LocalDateTime fechaCreacion;
+
+    /** Fecha y hora del último cambio de estado. */
+    @Column(name = "fecha_actualizacion", nullable = false)
+    private LocalDateTime fechaActualizacion;
+}
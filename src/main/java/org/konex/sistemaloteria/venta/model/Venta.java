@@ -41,9 +41,18 @@ import java.time.LocalDateTime;
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Venta {
 
-    /** Identificador único de la venta. */
+    /**
+     * Identificador único de la venta.
+     *
+     * <p>
+     * Se genera con una secuencia (en bloques de 50) en lugar de {@code IDENTITY}
+     * para que Hibernate pueda agrupar varias inserciones en un mismo lote JDBC,
+     * como ocurre en la venta por lote.
+     * </p>
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ventas_seq")
+    @SequenceGenerator(name = "ventas_seq", sequenceName = "ventas_seq", allocationSize = 50)
     private Long id;
 
     /**
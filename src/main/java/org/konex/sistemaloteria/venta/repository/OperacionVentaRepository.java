@@ -0,0 +1,27 @@
+package org.konex.sistemaloteria.venta.repository;
+
+import org.konex.sistemaloteria.venta.model.EstadoOperacionVenta;
+import org.konex.sistemaloteria.venta.model.OperacionVenta;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+/**
+ * Repositorio JPA para las ventas enviadas en modo asíncrono ({@link OperacionVenta}).
+ */
+public interface OperacionVentaRepository extends JpaRepository<OperacionVenta, String> {
+
+    /**
+     * Obtiene los IDs de las operaciones en un estado dado, de la más antigua a la más reciente.
+     *
+     * <p>
+     * Se usa al iniciar la aplicación para volver a encolar las operaciones pendientes.
+     * </p>
+     *
+     * @param estado estado buscado.
+     * @return IDs de las operaciones en orden de llegada.
+     */
+    @Query("SELECT o.id FROM OperacionVenta o WHERE o.estado = :estado ORDER BY o.fechaCreacion")
+    List<String> findIdsByEstado(EstadoOperacionVenta estado);
+}
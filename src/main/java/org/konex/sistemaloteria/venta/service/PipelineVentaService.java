@@ -0,0 +1,285 @@
+package org.konex.sistemaloteria.venta.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.konex.sistemaloteria.billete.service.DisponibilidadBilletes;
+import org.konex.sistemaloteria.venta.dto.ReservaRequestDto;
+import org.konex.sistemaloteria.venta.dto.ReservaResponseDto;
+import org.konex.sistemaloteria.venta.dto.ReservaSorteoRequestDto;
+import org.konex.sistemaloteria.venta.dto.VentaLoteRequestDto;
+import org.konex.sistemaloteria.venta.dto.VentaLoteResponseDto;
+import org.konex.sistemaloteria.venta.dto.VentaRequestDto;
+import org.konex.sistemaloteria.venta.dto.VentaResponseDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Pipeline opcional de ventas con <b>commit agrupado</b> (group commit).
+ *
+ * <p>
+ * Cuando está habilitado ({@code loteria.ventas.pipeline.habilitado=true}) reemplaza a
+ * {@link VentaServiceImpl} como {@link VentaService} principal. Cada venta individual se
+ * encola en un buffer circular acotado y un único hilo escritor las confirma en
+ * micro-lotes: una transacción por lote en lugar de una por venta. Un lote se cierra
+ * al alcanzar {@code lote-maximo} ventas o al pasar {@code espera-maxima-ms} desde la
+ * primera venta del lote.
+ * </p>
+ *
+ * <p>
+ * Cada solicitante sigue recibiendo su propio {@link VentaResponseDto} o su propio error:
+ * los rechazos de negocio (billete vendido, cliente inexistente) se resuelven por
+ * solicitud sin afectar al resto del lote. Si la transacción del lote falla por otra
+ * causa, sus ventas se reintentan una a una por el camino normal. Ningún solicitante
+ * espera más de {@code espera-resultado-ms}: si el escritor no responde a tiempo (o se
+ * detuvo), la venta se rechaza con {@link RejectedExecutionException} (503).
+ * </p>
+ *
+ * <p>
+ * La venta por lote ({@link #venderLote}) no pasa por el pipeline porque ya usa una
+ * única transacción; tampoco las reservas ni las ventas con token de reserva, que no
+ * compiten con otras ventas.
+ * </p>
+ */
+@Slf4j
+@Service
+@Primary
+@ConditionalOnProperty(name = "loteria.ventas.pipeline.habilitado", havingValue = "true")
+public class PipelineVentaService implements VentaService {
+
+    private final VentaServiceImpl ventaService;
+    private final DisponibilidadBilletes disponibilidad;
+    private final TransactionTemplate transactionTemplate;
+
+    /** Buffer circular acotado de ventas pendientes. */
+    private final BlockingQueue<VentaPendiente> cola;
+
+    /** Cantidad máxima de ventas confirmadas en una misma transacción. */
+    private final int loteMaximo;
+
+    /** Tiempo máximo que una venta espera a que se complete su lote. */
+    private final long esperaMaximaNanos;
+
+    /** Tiempo máximo que un solicitante espera el resultado de su venta. */
+    private final long esperaResultadoMs;
+
+    private volatile boolean activo;
+    private Thread escritor;
+
+    public PipelineVentaService(VentaServiceImpl ventaService,
+                                DisponibilidadBilletes disponibilidad,
+                                TransactionTemplate transactionTemplate,
+                                @Value("${loteria.ventas.pipeline.capacidad:4096}") int capacidad,
+                                @Value("${loteria.ventas.pipeline.lote-maximo:64}") int loteMaximo,
+                                @Value("${loteria.ventas.pipeline.espera-maxima-ms:5}") long esperaMaximaMs,
+                                @Value("${loteria.ventas.pipeline.espera-resultado-ms:30000}") long esperaResultadoMs) {
+        this.ventaService = ventaService;
+        this.disponibilidad = disponibilidad;
+        this.transactionTemplate = transactionTemplate;
+        this.cola = new ArrayBlockingQueue<>(capacidad);
+        this.loteMaximo = loteMaximo;
+        this.esperaMaximaNanos = TimeUnit.MILLISECONDS.toNanos(esperaMaximaMs);
+        this.esperaResultadoMs = esperaResultadoMs;
+    }
+
+    /** Arranca el hilo escritor. */
+    @PostConstruct
+    public void iniciar() {
+        activo = true;
+        escritor = new Thread(this::ejecutarEscritor, "pipeline-ventas");
+        escritor.setDaemon(true);
+        escritor.start();
+    }
+
+    /**
+     * Detiene el hilo escritor después de confirmar las ventas ya encoladas. Las que sigan en
+     * la cola (el escritor no terminó a tiempo o cayó por un error) se rechazan para que
+     * ningún solicitante quede esperando.
+     */
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        activo = false;
+        if (escritor != null) {
+            escritor.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        VentaPendiente pendiente;
+        while ((pendiente = cola.poll()) != null) {
+            pendiente.resultado.completeExceptionally(
+                    new RejectedExecutionException("El pipeline de ventas se detuvo, intente nuevamente"));
+        }
+    }
+
+    /**
+     * Encola la venta y espera a que su lote se confirme.
+     *
+     * @param request datos de la venta.
+     * @return resumen de la venta confirmada.
+     * @throws IllegalStateException si el billete ya fue vendido.
+     * @throws IllegalArgumentException si el billete o el cliente no existen.
+     * @throws RejectedExecutionException si el buffer está lleno, el pipeline se detuvo o
+     *                                    la venta no se confirmó dentro de {@code espera-resultado-ms}.
+     */
+    @Override
+    public VentaResponseDto vender(VentaRequestDto request) {
+        if (request.getReservaToken() != null) {
+            return ventaService.vender(request);
+        }
+
+        disponibilidad.verificarDisponible(request.getBilleteId());
+
+        VentaPendiente pendiente = new VentaPendiente(request);
+        if (!activo || !cola.offer(pendiente)) {
+            throw new RejectedExecutionException("La cola de ventas está llena, intente nuevamente");
+        }
+        // Si el pipeline se detuvo entre la comprobación y el encolado, nadie atendería la venta
+        if (!activo && cola.remove(pendiente)) {
+            throw new RejectedExecutionException("El pipeline de ventas se detuvo, intente nuevamente");
+        }
+
+        try {
+            return pendiente.resultado.get(esperaResultadoMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new CompletionException(e.getCause());
+        } catch (TimeoutException e) {
+            // Si sigue en la cola nunca se procesó; si no, su lote puede confirmarse todavía
+            if (cola.remove(pendiente)) {
+                throw new RejectedExecutionException("La venta no llegó a procesarse a tiempo, intente nuevamente");
+            }
+            throw new RejectedExecutionException(
+                    "La venta no se confirmó a tiempo; verifique el billete antes de reintentar");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Se interrumpió la espera de la venta", e);
+        }
+    }
+
+    @Override
+    public ReservaResponseDto reservar(ReservaRequestDto request) {
+        return ventaService.reservar(request);
+    }
+
+    @Override
+    public ReservaResponseDto reservarAleatorio(Long sorteoId, ReservaSorteoRequestDto request) {
+        return ventaService.reservarAleatorio(sorteoId, request);
+    }
+
+    @Override
+    public ReservaResponseDto reservarSiguiente(Long sorteoId, ReservaSorteoRequestDto request) {
+        return ventaService.reservarSiguiente(sorteoId, request);
+    }
+
+    @Override
+    public ReservaResponseDto reservarNumero(Long sorteoId, String numero, ReservaSorteoRequestDto request) {
+        return ventaService.reservarNumero(sorteoId, numero, request);
+    }
+
+    @Override
+    public VentaLoteResponseDto venderLote(VentaLoteRequestDto request) {
+        return ventaService.venderLote(request);
+    }
+
+    /** Bucle del hilo escritor: arma micro-lotes y los confirma. */
+    private void ejecutarEscritor() {
+        List<VentaPendiente> lote = new ArrayList<>(loteMaximo);
+        while (activo || !cola.isEmpty()) {
+            try {
+                VentaPendiente primera = cola.poll(100, TimeUnit.MILLISECONDS);
+                if (primera == null) {
+                    continue;
+                }
+                lote.add(primera);
+
+                long limite = System.nanoTime() + esperaMaximaNanos;
+                while (lote.size() < loteMaximo) {
+                    if (cola.drainTo(lote, loteMaximo - lote.size()) > 0) {
+                        continue;
+                    }
+                    long restante = limite - System.nanoTime();
+                    VentaPendiente siguiente = restante > 0 ? cola.poll(restante, TimeUnit.NANOSECONDS) : null;
+                    if (siguiente == null) {
+                        break;
+                    }
+                    lote.add(siguiente);
+                }
+
+                confirmar(lote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                activo = false;
+            } catch (RuntimeException e) {
+                log.error("Error inesperado en el pipeline de ventas", e);
+                lote.forEach(p -> p.resultado.completeExceptionally(e));
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    /**
+     * Confirma un lote de ventas en una única transacción.
+     *
+     * @param lote ventas pendientes del lote.
+     */
+    private void confirmar(List<VentaPendiente> lote) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (VentaPendiente p : lote) {
+                    try {
+                        p.respuesta = ventaService.registrar(p.solicitud);
+                    } catch (IllegalArgumentException | IllegalStateException e) {
+                        p.error = e;
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            // Nada del lote se confirmó: se reintenta cada venta por separado
+            log.warn("Falló la transacción de un lote de {} ventas; se procesan individualmente", lote.size(), e);
+            for (VentaPendiente p : lote) {
+                try {
+                    p.resultado.complete(ventaService.vender(p.solicitud));
+                } catch (RuntimeException individual) {
+                    p.resultado.completeExceptionally(individual);
+                }
+            }
+            return;
+        }
+
+        for (VentaPendiente p : lote) {
+            if (p.error != null) {
+                p.resultado.completeExceptionally(p.error);
+            } else {
+                disponibilidad.marcarVendido(p.respuesta.getBilleteId());
+                p.resultado.complete(p.respuesta);
+            }
+        }
+    }
+
+    /** Venta encolada a la espera de su lote. */
+    private static final class VentaPendiente {
+        private final VentaRequestDto solicitud;
+        private final CompletableFuture<VentaResponseDto> resultado = new CompletableFuture<>();
+        private VentaResponseDto respuesta;
+        private RuntimeException error;
+
+        private VentaPendiente(VentaRequestDto solicitud) {
+            this.solicitud = solicitud;
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package org.konex.sistemaloteria.venta.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.konex.sistemaloteria.billete.repository.BilleteRepository;
+import org.konex.sistemaloteria.billete.service.BilletesLibres;
+import org.konex.sistemaloteria.billete.service.NumerosVirtuales;
+import org.konex.sistemaloteria.compartido.EstadoBillete;
+import org.konex.sistemaloteria.compartido.RuedaTemporizadora;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registro en memoria de las reservas activas de billetes y de su vencimiento.
+ *
+ * <p>
+ * Cada reserva se identifica con un token aleatorio y vence mediante una
+ * {@link RuedaTemporizadora}: al vencer, el billete vuelve de {@code RESERVADO} a
+ * {@code DISPONIBLE} con un {@code UPDATE} condicional, sin recorrer la tabla
+ * {@code billetes} para buscar reservas vencidas.
+ * </p>
+ *
+ * <p>
+ * El hilo de la rueda solo decide qué venció y encola el billete: la base de datos la toca
+ * un hilo liberador aparte, que junta los billetes que esperan (hasta
+ * {@code loteria.reservas.lote-liberacion}) en un único {@code UPDATE ... WHERE id IN}.
+ * Así un pico de vencimientos o una base de datos lenta no retrasan los ticks siguientes.
+ * Si la liberación falla, el lote se vuelve a encolar con una espera que se duplica en cada
+ * intento (desde {@code loteria.reservas.reintento-ms} hasta un minuto); el billete no queda
+ * {@code RESERVADO} hasta el próximo reinicio.
+ * </p>
+ *
+ * <p>
+ * Quitar el token del mapa de reservas activas es el punto de decisión: quien lo
+ * quita primero (la venta con {@link #consumir} o el vencimiento) es el único que
+ * modifica el billete, por lo que una reserva nunca se vende y se libera a la vez.
+ * </p>
+ *
+ * <h4>Ciclo de vida:</h4>
+ * <ul>
+ *   <li>Al iniciar la aplicación se liberan los billetes que quedaron {@code RESERVADO}:
+ *       sus tokens se perdieron con el reinicio (también los que esperaban al liberador).</li>
+ *   <li>Cada reserva confirmada se registra con {@link #registrar}.</li>
+ *   <li>La venta con token consume la reserva; si falla, la restaura con {@link #restaurar}.</li>
+ *   <li>El billete de una reserva vencida vuelve a {@link BilletesLibres} o, en un sorteo
+ *       virtual, a {@link NumerosVirtuales}.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class ReservasBilletes {
+
+    private final BilleteRepository billeteRepo;
+    private final TransactionTemplate transactionTemplate;
+    private final BilletesLibres libres;
+    private final NumerosVirtuales numeros;
+
+    /** Duración usada cuando la solicitud no indica una. */
+    private final Duration duracionPorDefecto;
+
+    private final RuedaTemporizadora rueda;
+
+    /** Billetes por liberar como máximo en un mismo {@code UPDATE}. */
+    private final int loteLiberacion;
+
+    /** Espera antes del primer reintento de una liberación fallida. */
+    private final Duration reintento;
+
+    /** Espera máxima entre reintentos. */
+    private static final Duration REINTENTO_MAXIMO = Duration.ofMinutes(1);
+
+    /** Reservas activas indexadas por token. */
+    private final Map<String, Reserva> activas = new ConcurrentHashMap<>();
+
+    /** Billetes de reservas vencidas que esperan al hilo liberador. */
+    private final BlockingQueue<Liberacion> porLiberar = new LinkedBlockingQueue<>();
+
+    private volatile boolean activo;
+    private Thread liberador;
+
+    public ReservasBilletes(BilleteRepository billeteRepo,
+                            TransactionTemplate transactionTemplate,
+                            BilletesLibres libres,
+                            NumerosVirtuales numeros,
+                            @Value("${loteria.reservas.duracion-segundos:300}") long duracionSegundos,
+                            @Value("${loteria.reservas.tick-ms:100}") long tickMs,
+                            @Value("${loteria.reservas.ranuras:512}") int ranuras,
+                            @Value("${loteria.reservas.lote-liberacion:500}") int loteLiberacion,
+                            @Value("${loteria.reservas.reintento-ms:1000}") long reintentoMs) {
+        this.billeteRepo = billeteRepo;
+        this.transactionTemplate = transactionTemplate;
+        this.libres = libres;
+        this.numeros = numeros;
+        this.duracionPorDefecto = Duration.ofSeconds(duracionSegundos);
+        this.rueda = new RuedaTemporizadora(Duration.ofMillis(tickMs), ranuras);
+        this.loteLiberacion = loteLiberacion;
+        this.reintento = Duration.ofMillis(reintentoMs);
+    }
+
+    /** Arranca el hilo de la rueda temporizadora y el hilo liberador. */
+    @PostConstruct
+    public void iniciar() {
+        rueda.iniciar("reservas-billetes");
+        activo = true;
+        liberador = new Thread(this::ejecutarLiberador, "reservas-liberacion");
+        liberador.setDaemon(true);
+        liberador.start();
+    }
+
+    /**
+     * Detiene ambos hilos. Los billetes que todavía esperaban al liberador quedan
+     * {@code RESERVADO} y se liberan al próximo inicio ({@link #liberarHuerfanas}).
+     */
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        rueda.detener();
+        activo = false;
+        if (liberador != null) {
+            liberador.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    /**
+     * Libera los billetes que quedaron reservados de una ejecución anterior.
+     *
+     * @return cantidad de billetes liberados.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public int liberarHuerfanas() {
+        List<Long> reservados = billeteRepo.findIdsByEstado(EstadoBillete.RESERVADO);
+        if (reservados.isEmpty()) {
+            return 0;
+        }
+        Integer liberados = transactionTemplate.execute(status -> billeteRepo.cambiarEstadoSi(
+                reservados, EstadoBillete.RESERVADO, EstadoBillete.DISPONIBLE, null));
+        log.info("Reservas sin token al iniciar: {} billetes liberados", liberados);
+        return liberados;
+    }
+
+    /**
+     * Registra una reserva ya confirmada en base de datos y programa su vencimiento.
+     *
+     * @param billeteId billete reservado.
+     * @param clienteId cliente que lo reservó.
+     * @param segundos duración de la reserva; {@code null} para usar la duración por defecto.
+     * @return la reserva registrada, con su token y su fecha de vencimiento.
+     */
+    public Reserva registrar(Long billeteId, Long clienteId, Integer segundos) {
+        Duration duracion = segundos != null ? Duration.ofSeconds(segundos) : duracionPorDefecto;
+        Reserva reserva = new Reserva(UUID.randomUUID().toString(), billeteId, clienteId,
+                LocalDateTime.now().plus(duracion));
+        programar(reserva, duracion);
+        return reserva;
+    }
+
+    /**
+     * Consume la reserva para venderla: a partir de aquí ya no puede vencer.
+     *
+     * @param token token de la reserva.
+     * @param billeteId billete que se quiere comprar.
+     * @param clienteId cliente comprador.
+     * @return la reserva consumida.
+     * @throws IllegalStateException si la reserva no existe o ya venció.
+     * @throws IllegalArgumentException si la reserva es de otro billete u otro cliente.
+     */
+    public Reserva consumir(String token, Long billeteId, Long clienteId) {
+        Reserva reserva = activas.get(token);
+        if (reserva == null) {
+            throw new IllegalStateException("La reserva no existe o ya expiró");
+        }
+        if (!reserva.getBilleteId().equals(billeteId) || !reserva.getClienteId().equals(clienteId)) {
+            throw new IllegalArgumentException("La reserva no corresponde al billete y cliente indicados");
+        }
+        if (!activas.remove(token, reserva)) {
+            throw new IllegalStateException("La reserva no existe o ya expiró");
+        }
+        // Si el vencimiento llegara a ejecutarse, ya no encontrará el token
+        RuedaTemporizadora.Temporizador temporizador = reserva.temporizador;
+        if (temporizador != null) {
+            temporizador.cancelar();
+        }
+        return reserva;
+    }
+
+    /**
+     * Vuelve a activar una reserva consumida cuya venta no se completó.
+     * Si ya pasó su vencimiento, el billete se encola para liberarlo de inmediato.
+     *
+     * @param reserva reserva devuelta por {@link #consumir}.
+     */
+    public void restaurar(Reserva reserva) {
+        Duration restante = Duration.between(LocalDateTime.now(), reserva.getExpiraEn());
+        if (restante.isNegative() || restante.isZero()) {
+            porLiberar.add(new Liberacion(List.of(reserva.getBilleteId()), 0));
+        } else {
+            programar(reserva, restante);
+        }
+    }
+
+    /**
+     * Vence la reserva indicada, si sigue activa, y encola su billete para liberarlo.
+     * Se ejecuta en el hilo de la rueda, así que no toca la base de datos.
+     *
+     * @param token token de la reserva.
+     */
+    void expirar(String token) {
+        Reserva reserva = activas.remove(token);
+        if (reserva != null) {
+            porLiberar.add(new Liberacion(List.of(reserva.getBilleteId()), 0));
+        }
+    }
+
+    /**
+     * Libera la siguiente liberación encolada junto con las que ya esperan, si hay alguna.
+     *
+     * @return {@code true} si había algo por liberar.
+     */
+    boolean liberarPendientes() {
+        Liberacion primera = porLiberar.poll();
+        if (primera == null) {
+            return false;
+        }
+        liberar(primera);
+        return true;
+    }
+
+    /** Cantidad de reservas activas. */
+    public int activas() {
+        return activas.size();
+    }
+
+    private void programar(Reserva reserva, Duration duracion) {
+        activas.put(reserva.getToken(), reserva);
+        reserva.temporizador = rueda.programar(duracion, () -> expirar(reserva.getToken()));
+    }
+
+    private void ejecutarLiberador() {
+        while (activo) {
+            try {
+                Liberacion primera = porLiberar.poll(100, TimeUnit.MILLISECONDS);
+                if (primera != null) {
+                    liberar(primera);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Error inesperado en el liberador de reservas", e);
+            }
+        }
+    }
+
+    /**
+     * Libera con un solo {@code UPDATE} los billetes de {@code primera} y los de las
+     * liberaciones que ya esperan, hasta {@link #loteLiberacion}; si falla, reprograma el lote.
+     */
+    private void liberar(Liberacion primera) {
+        List<Long> ids = new ArrayList<>(primera.billeteIds);
+        int intento = primera.intento;
+        Liberacion siguiente;
+        while (ids.size() < loteLiberacion && (siguiente = porLiberar.poll()) != null) {
+            ids.addAll(siguiente.billeteIds);
+            intento = Math.max(intento, siguiente.intento);
+        }
+        try {
+            // Quitar el token ya decidió el vencimiento: nadie más cambia estos billetes RESERVADO
+            transactionTemplate.execute(status -> billeteRepo.cambiarEstadoSi(
+                    ids, EstadoBillete.RESERVADO, EstadoBillete.DISPONIBLE, null));
+        } catch (RuntimeException e) {
+            Duration espera = espera(intento);
+            log.warn("No se pudieron liberar {} reservas vencidas (intento {}); se reintenta en {} ms",
+                    ids.size(), intento + 1, espera.toMillis(), e);
+            Liberacion pendiente = new Liberacion(ids, intento + 1);
+            rueda.programar(espera, () -> porLiberar.add(pendiente));
+            return;
+        }
+        for (Long billeteId : ids) {
+            if (!libres.devolver(billeteId)) {
+                numeros.devolver(billeteId);
+            }
+        }
+    }
+
+    /** Espera antes del reintento siguiente al intento indicado (desde 0): se duplica hasta un minuto. */
+    private Duration espera(int intento) {
+        Duration duplicada = reintento.multipliedBy(1L << Math.min(intento, 16));
+        return duplicada.compareTo(REINTENTO_MAXIMO) > 0 ? REINTENTO_MAXIMO : duplicada;
+    }
+
+    /** Billetes por liberar y cuántas veces falló ya su liberación. */
+    private static final class Liberacion {
+        private final List<Long> billeteIds;
+        private final int intento;
+
+        private Liberacion(List<Long> billeteIds, int intento) {
+            this.billeteIds = billeteIds;
+            this.intento = intento;
+        }
+    }
+
+    /** Reserva activa de un billete. */
+    public static final class Reserva {
+        private final String token;
+        private final Long billeteId;
+        private final Long clienteId;
+        private final LocalDateTime expiraEn;
+        private volatile RuedaTemporizadora.Temporizador temporizador;
+
+        Reserva(String token, Long billeteId, Long clienteId, LocalDateTime expiraEn) {
+            this.token = Objects.requireNonNull(token);
+            this.billeteId = billeteId;
+            this.clienteId = clienteId;
+            this.expiraEn = expiraEn;
+        }
+
+        public String getToken() { return token; }
+        public Long getBilleteId() { return billeteId; }
+        public Long getClienteId() { return clienteId; }
+        public LocalDateTime getExpiraEn() { return expiraEn; }
+    }
+}
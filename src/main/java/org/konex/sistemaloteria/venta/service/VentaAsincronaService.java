@@ -0,0 +1,35 @@
+package org.konex.sistemaloteria.venta.service;
+
+import org.konex.sistemaloteria.venta.dto.OperacionVentaDto;
+import org.konex.sistemaloteria.venta.dto.VentaRequestDto;
+
+/**
+ * Contrato del modo asíncrono de ventas.
+ *
+ * <p>
+ * Separa la aceptación de la solicitud (rápida, con respuesta 202) del registro de
+ * la venta, que hacen trabajadores en segundo plano al ritmo que soporta la base de datos.
+ * El cliente consulta el resultado con el ID de la operación.
+ * </p>
+ *
+ * Ejemplo de implementación: {@link VentaAsincronaServiceImpl}
+ */
+public interface VentaAsincronaService {
+
+    /**
+     * Acepta una venta para procesarla en segundo plano.
+     *
+     * @param request billete y cliente de la venta.
+     * @return la operación creada, en estado {@code PENDIENTE}.
+     */
+    OperacionVentaDto encolar(VentaRequestDto request);
+
+    /**
+     * Consulta el estado de una operación.
+     *
+     * @param id identificador de la operación.
+     * @return estado actual de la operación.
+     * @throws java.util.NoSuchElementException si la operación no existe.
+     */
+    OperacionVentaDto consultar(String id);
+}
@@ -0,0 +1,327 @@
+package org.konex.sistemaloteria.venta.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.konex.sistemaloteria.billete.service.DisponibilidadBilletes;
+import org.konex.sistemaloteria.compartido.RuedaTemporizadora;
+import org.konex.sistemaloteria.venta.dto.OperacionVentaDto;
+import org.konex.sistemaloteria.venta.dto.VentaRequestDto;
+import org.konex.sistemaloteria.venta.dto.VentaResponseDto;
+import org.konex.sistemaloteria.venta.model.EstadoOperacionVenta;
+import org.konex.sistemaloteria.venta.model.OperacionVenta;
+import org.konex.sistemaloteria.venta.repository.OperacionVentaRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Modo asíncrono de ventas: acepta la solicitud, la guarda como operación
+ * {@code PENDIENTE} y responde de inmediato; un número fijo de trabajadores
+ * registra las ventas en segundo plano.
+ *
+ * <p>
+ * Estrategia:
+ * 1️⃣ Al aceptar se rechazan al instante los billetes que ya se sabe vendidos y se guarda
+ *     la operación (una inserción pequeña); su ID entra en una cola acotada en memoria.<br>
+ * 2️⃣ Cada trabajador toma un ID y, en una sola transacción, registra la venta y marca la
+ *     operación como {@code CONFIRMADA}, o la marca {@code RECHAZADA} con el motivo.<br>
+ * 3️⃣ La cantidad de trabajadores ({@code loteria.ventas.asincrono.trabajadores}) limita
+ *     cuántas ventas se escriben a la vez, independientemente de cuántas se acepten.
+ * </p>
+ *
+ * <p>
+ * Un error inesperado (p. ej. la base de datos no responde) no es un rechazo de negocio:
+ * la operación sigue {@code PENDIENTE} y vuelve a la cola tras una espera que se duplica en
+ * cada fallo. Después de {@code loteria.ventas.asincrono.intentos-maximos} fallos se marca
+ * {@code RECHAZADA} con el último error, así que ninguna queda pendiente indefinidamente.
+ * </p>
+ *
+ * <p>
+ * La cola en memoria solo guarda IDs: lo durable es la tabla {@code operaciones_venta}.
+ * Si la cola está llena la solicitud se rechaza (503); al reiniciar la aplicación se
+ * vuelven a encolar las operaciones que quedaron {@code PENDIENTE}.
+ * </p>
+ */
+@Slf4j
+@Service
+public class VentaAsincronaServiceImpl implements VentaAsincronaService {
+
+    private final VentaServiceImpl ventaService;
+    private final OperacionVentaRepository operacionRepo;
+    private final DisponibilidadBilletes disponibilidad;
+    private final TransactionTemplate transactionTemplate;
+
+    /** IDs de operaciones pendientes de procesar. */
+    private final BlockingQueue<String> cola;
+
+    private final int cantidadTrabajadores;
+    private final List<Thread> trabajadores = new ArrayList<>();
+    private volatile boolean activo;
+
+    /** Fallos inesperados seguidos antes de rechazar la operación. */
+    private final int intentosMaximos;
+
+    /** Espera antes del primer reintento de una operación que falló. */
+    private final Duration reintento;
+
+    /** Espera máxima entre reintentos. */
+    private static final Duration REINTENTO_MAXIMO = Duration.ofMinutes(1);
+
+    /** Programa la vuelta a la cola de las operaciones que fallaron. */
+    private final RuedaTemporizadora rueda = new RuedaTemporizadora(Duration.ofMillis(100), 512);
+
+    /** Operaciones que fallaron por un error inesperado, indexadas por ID. */
+    private final Map<String, Fallo> fallos = new ConcurrentHashMap<>();
+
+    public VentaAsincronaServiceImpl(VentaServiceImpl ventaService,
+                                     OperacionVentaRepository operacionRepo,
+                                     DisponibilidadBilletes disponibilidad,
+                                     TransactionTemplate transactionTemplate,
+                                     @Value("${loteria.ventas.asincrono.capacidad:10000}") int capacidad,
+                                     @Value("${loteria.ventas.asincrono.trabajadores:2}") int trabajadores,
+                                     @Value("${loteria.ventas.asincrono.intentos-maximos:5}") int intentosMaximos,
+                                     @Value("${loteria.ventas.asincrono.reintento-ms:1000}") long reintentoMs) {
+        this.ventaService = ventaService;
+        this.operacionRepo = operacionRepo;
+        this.disponibilidad = disponibilidad;
+        this.transactionTemplate = transactionTemplate;
+        this.cola = new ArrayBlockingQueue<>(capacidad);
+        this.cantidadTrabajadores = trabajadores;
+        this.intentosMaximos = intentosMaximos;
+        this.reintento = Duration.ofMillis(reintentoMs);
+    }
+
+    /** Arranca los trabajadores y la rueda que programa los reintentos. */
+    @PostConstruct
+    public void iniciar() {
+        rueda.iniciar("ventas-asincronas-reintentos");
+        activo = true;
+        for (int i = 0; i < cantidadTrabajadores; i++) {
+            Thread t = new Thread(this::ejecutarTrabajador, "ventas-asincronas-" + i);
+            t.setDaemon(true);
+            t.start();
+            trabajadores.add(t);
+        }
+    }
+
+    /** Detiene los trabajadores; las operaciones sin procesar quedan PENDIENTE para el próximo arranque. */
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        rueda.detener();
+        activo = false;
+        for (Thread t : trabajadores) {
+            t.interrupt();
+        }
+        for (Thread t : trabajadores) {
+            t.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    /**
+     * Vuelve a encolar las operaciones que quedaron pendientes de una ejecución anterior.
+     *
+     * <p>
+     * Se hace en un hilo aparte porque puede haber más pendientes que capacidad en la cola:
+     * cada ID espera su lugar a medida que los trabajadores avanzan.
+     * </p>
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void retomarPendientes() {
+        List<String> pendientes = operacionRepo.findIdsByEstado(EstadoOperacionVenta.PENDIENTE);
+        if (pendientes.isEmpty()) {
+            return;
+        }
+        log.info("Retomando {} ventas asíncronas pendientes", pendientes.size());
+        Thread t = new Thread(() -> {
+            try {
+                for (String id : pendientes) {
+                    cola.put(id);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "ventas-asincronas-retomar");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /**
+     * Acepta la venta: la guarda como {@code PENDIENTE} y la encola.
+     *
+     * @param req billete y cliente de la venta.
+     * @return la operación creada.
+     * @throws IllegalStateException si el billete ya fue vendido.
+     * @throws IllegalArgumentException si la solicitud trae token de reserva.
+     * @throws RejectedExecutionException si la cola está llena.
+     */
+    @Override
+    public OperacionVentaDto encolar(VentaRequestDto req) {
+        if (req.getReservaToken() != null) {
+            throw new IllegalArgumentException("Las ventas con reserva se registran con POST /api/ventas");
+        }
+        // --- 1️⃣ Rechazo inmediato de billetes que ya se sabe vendidos ---
+        disponibilidad.verificarDisponible(req.getBilleteId());
+
+        LocalDateTime ahora = LocalDateTime.now();
+        OperacionVenta operacion = operacionRepo.save(OperacionVenta.builder()
+                .id(UUID.randomUUID().toString())
+                .billeteId(req.getBilleteId())
+                .clienteId(req.getClienteId())
+                .estado(EstadoOperacionVenta.PENDIENTE)
+                .fechaCreacion(ahora)
+                .fechaActualizacion(ahora)
+                .build());
+
+        if (!activo || !cola.offer(operacion.getId())) {
+            operacion.setEstado(EstadoOperacionVenta.RECHAZADA);
+            operacion.setMensaje("Servicio saturado");
+            operacion.setFechaActualizacion(LocalDateTime.now());
+            operacionRepo.save(operacion);
+            throw new RejectedExecutionException("La cola de ventas asíncronas está llena, intente nuevamente");
+        }
+        return OperacionVentaDto.de(operacion);
+    }
+
+    @Override
+    public OperacionVentaDto consultar(String id) {
+        return operacionRepo.findById(id)
+                .map(OperacionVentaDto::de)
+                .orElseThrow(() -> new NoSuchElementException("Operación no encontrada: " + id));
+    }
+
+    /** Bucle de cada trabajador. */
+    private void ejecutarTrabajador() {
+        while (activo) {
+            try {
+                atender(cola.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Procesa una operación tomada de la cola; si falla por un error inesperado la reprograma,
+     * y si ya agotó los intentos la rechaza con el último error.
+     *
+     * @param id identificador de la operación.
+     */
+    void atender(String id) {
+        Fallo previo = fallos.get(id);
+        boolean agotada = previo != null && previo.intentos >= intentosMaximos;
+        try {
+            if (agotada) {
+                rechazar(id, previo.mensaje);
+            } else {
+                procesar(id);
+            }
+            fallos.remove(id);
+        } catch (RuntimeException e) {
+            // La operación sigue PENDIENTE: vuelve a la cola después de una espera
+            Fallo fallo = new Fallo(previo != null ? previo.intentos + 1 : 1,
+                    agotada ? previo.mensaje : motivo(e));
+            fallos.put(id, fallo);
+            Duration espera = espera(fallo.intentos - 1);
+            log.warn("Error inesperado procesando la venta asíncrona {} (intento {}); se reintenta en {} ms",
+                    id, fallo.intentos, espera.toMillis(), e);
+            rueda.programar(espera, () -> reencolar(id, espera));
+        }
+    }
+
+    /** Devuelve la operación a la cola; si está llena, lo vuelve a intentar tras la misma espera. */
+    private void reencolar(String id, Duration espera) {
+        if (activo && !cola.offer(id)) {
+            rueda.programar(espera, () -> reencolar(id, espera));
+        }
+    }
+
+    /** Marca como {@code RECHAZADA} una operación que sigue {@code PENDIENTE}. */
+    private void rechazar(String id, String mensaje) {
+        transactionTemplate.executeWithoutResult(status -> operacionRepo.findById(id)
+                .filter(operacion -> operacion.getEstado() == EstadoOperacionVenta.PENDIENTE)
+                .ifPresent(operacion -> {
+                    operacion.setEstado(EstadoOperacionVenta.RECHAZADA);
+                    operacion.setMensaje(mensaje);
+                    operacion.setFechaActualizacion(LocalDateTime.now());
+                    operacionRepo.save(operacion);
+                    log.error("Venta asíncrona {} rechazada tras {} intentos fallidos: {}", id, intentosMaximos, mensaje);
+                }));
+    }
+
+    /** Motivo de rechazo a partir de un error inesperado, recortado al largo de la columna. */
+    private static String motivo(RuntimeException e) {
+        String mensaje = "Error inesperado: " + Objects.toString(e.getMessage(), e.getClass().getSimpleName());
+        return mensaje.length() > 255 ? mensaje.substring(0, 255) : mensaje;
+    }
+
+    /** Espera antes del reintento siguiente al intento indicado (desde 0): se duplica hasta un minuto. */
+    private Duration espera(int intento) {
+        Duration duplicada = reintento.multipliedBy(1L << Math.min(intento, 16));
+        return duplicada.compareTo(REINTENTO_MAXIMO) > 0 ? REINTENTO_MAXIMO : duplicada;
+    }
+
+    /**
+     * Procesa una operación: registra la venta y actualiza la operación en la misma transacción.
+     *
+     * @param id identificador de la operación.
+     * @return estado final de la operación.
+     */
+    EstadoOperacionVenta procesar(String id) {
+        VentaResponseDto[] confirmada = new VentaResponseDto[1];
+
+        EstadoOperacionVenta estado = transactionTemplate.execute(status -> {
+            OperacionVenta operacion = operacionRepo.findById(id).orElse(null);
+            if (operacion == null || operacion.getEstado() != EstadoOperacionVenta.PENDIENTE) {
+                return operacion != null ? operacion.getEstado() : null;
+            }
+
+            // --- 2️⃣ Registrar la venta (los rechazos se lanzan antes de escribir) ---
+            try {
+                confirmada[0] = ventaService.registrar(
+                        new VentaRequestDto(operacion.getBilleteId(), operacion.getClienteId()));
+                operacion.setEstado(EstadoOperacionVenta.CONFIRMADA);
+                operacion.setVentaId(confirmada[0].getVentaId());
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                operacion.setEstado(EstadoOperacionVenta.RECHAZADA);
+                operacion.setMensaje(e.getMessage());
+            }
+            operacion.setFechaActualizacion(LocalDateTime.now());
+            operacionRepo.save(operacion);
+            return operacion.getEstado();
+        });
+
+        if (confirmada[0] != null) {
+            disponibilidad.marcarVendido(confirmada[0].getBilleteId());
+        }
+        return estado;
+    }
+
+    /** Fallos inesperados seguidos de una operación y el último error. */
+    private static final class Fallo {
+        private final int intentos;
+        private final String mensaje;
+
+        private Fallo(int intentos, String mensaje) {
+            this.intentos = intentos;
+            this.mensaje = mensaje;
+        }
+    }
+}
@@ -1,5 +1,10 @@
 package org.konex.sistemaloteria.venta.service;
 
+import org.konex.sistemaloteria.venta.dto.ReservaRequestDto;
+import org.konex.sistemaloteria.venta.dto.ReservaResponseDto;
+import org.konex.sistemaloteria.venta.dto.ReservaSorteoRequestDto;
+import org.konex.sistemaloteria.venta.dto.VentaLoteRequestDto;
+import org.konex.sistemaloteria.venta.dto.VentaLoteResponseDto;
 import org.konex.sistemaloteria.venta.dto.VentaRequestDto;
 import org.konex.sistemaloteria.venta.dto.VentaResponseDto;
 
@@ -24,8 +29,58 @@ public interface VentaService {
     /**
      * Registra una venta de billete asociada a un cliente.
      *
+     * <p>
+     * Si la solicitud incluye el token de una reserva vigente, se vende el billete
+     * reservado sin competir con otras ventas.
+     * </p>
+     *
      * @param request datos de entrada que incluyen los identificadores del billete y del cliente.
      * @return un objeto {@link VentaResponseDto} con el resumen de la venta.
      */
     VentaResponseDto vender(VentaRequestDto request);
+
+    /**
+     * Reserva temporalmente un billete disponible a nombre de un cliente.
+     *
+     * @param request billete, cliente y duración opcional de la reserva.
+     * @return un {@link ReservaResponseDto} con el token y el vencimiento de la reserva.
+     */
+    ReservaResponseDto reservar(ReservaRequestDto request);
+
+    /**
+     * Reserva un billete disponible elegido al azar dentro de un sorteo.
+     *
+     * @param sorteoId sorteo del que se toma el billete.
+     * @param request cliente y duración opcional de la reserva.
+     * @return un {@link ReservaResponseDto} con el billete elegido, el token y el vencimiento.
+     */
+    ReservaResponseDto reservarAleatorio(Long sorteoId, ReservaSorteoRequestDto request);
+
+    /**
+     * Reserva el billete disponible de menor número dentro de un sorteo.
+     *
+     * @param sorteoId sorteo del que se toma el billete.
+     * @param request cliente y duración opcional de la reserva.
+     * @return un {@link ReservaResponseDto} con el billete elegido, el token y el vencimiento.
+     */
+    ReservaResponseDto reservarSiguiente(Long sorteoId, ReservaSorteoRequestDto request);
+
+    /**
+     * Reserva un número concreto de un sorteo. En los sorteos virtuales es el momento en que
+     * se crea el billete.
+     *
+     * @param sorteoId sorteo del billete.
+     * @param numero número del billete, con o sin ceros a la izquierda.
+     * @param request cliente y duración opcional de la reserva.
+     * @return un {@link ReservaResponseDto} con el billete, el token y el vencimiento.
+     */
+    ReservaResponseDto reservarNumero(Long sorteoId, String numero, ReservaSorteoRequestDto request);
+
+    /**
+     * Vende varios billetes a un mismo cliente en una única transacción (todo o nada).
+     *
+     * @param request cliente comprador e identificadores de los billetes.
+     * @return un {@link VentaLoteResponseDto} con el total y el detalle de cada venta.
+     */
+    VentaLoteResponseDto venderLote(VentaLoteRequestDto request);
 }
@@ -2,62 +2,216 @@ package org.konex.sistemaloteria.venta.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import org.konex.sistemaloteria.billete.model.Billete;
 import org.konex.sistemaloteria.billete.repository.BilleteRepository;
+import org.konex.sistemaloteria.billete.service.BilletesLibres;
+import org.konex.sistemaloteria.billete.service.DisponibilidadBilletes;
+import org.konex.sistemaloteria.billete.service.NumerosVirtuales;
 import org.konex.sistemaloteria.cliente.model.Cliente;
 import org.konex.sistemaloteria.cliente.repository.ClienteRepository;
+import org.konex.sistemaloteria.cliente.service.ResumenComprasClientes;
 import org.konex.sistemaloteria.compartido.EstadoBillete;
+import org.konex.sistemaloteria.compartido.NumeroBillete;
+import org.konex.sistemaloteria.excepciones.BilleteNoDisponibleException;
+import org.konex.sistemaloteria.sorteo.service.ContadoresSorteo;
+import org.konex.sistemaloteria.sorteo.service.DatosVentaSorteos;
+import org.konex.sistemaloteria.venta.dto.ReservaRequestDto;
+import org.konex.sistemaloteria.venta.dto.ReservaResponseDto;
+import org.konex.sistemaloteria.venta.dto.ReservaSorteoRequestDto;
+import org.konex.sistemaloteria.venta.dto.VentaLoteRequestDto;
+import org.konex.sistemaloteria.venta.dto.VentaLoteResponseDto;
 import org.konex.sistemaloteria.venta.dto.VentaRequestDto;
 import org.konex.sistemaloteria.venta.dto.VentaResponseDto;
 import org.konex.sistemaloteria.venta.model.Venta;
 import org.konex.sistemaloteria.venta.repository.VentaRepository;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Servicio encargado de gestionar el proceso de venta de billetes.
  *
  * <p>
  * Estrategia implementada:
+ * 0️⃣ Si el mapa en memoria {@link DisponibilidadBilletes} ya sabe que el billete
+ *     fue vendido, se rechaza la venta sin consultar la base de datos ni abrir transacción.<br>
  * 1️⃣ Se validan y cargan las entidades (billete y cliente).<br>
- * 2️⃣ Se crea la venta y se guarda en la base de datos.<br>
- * 3️⃣ Si la venta se guarda correctamente, se marca el billete como VENDIDO
- *     y se le asigna el cliente correspondiente.<br>
- * 4️⃣ Se retorna una respuesta detallada con toda la información de la venta.
+ * 2️⃣ Se reclama el billete con una transición condicional en base de datos
+ *     (DISPONIBLE → VENDIDO). Si otra venta lo reclamó primero, o el sorteo ya se ejecutó
+ *     o se archivó, se informa el conflicto de inmediato sin registrar nada.<br>
+ * 3️⃣ Se crea la venta y se guarda en la base de datos.<br>
+ * 4️⃣ Se retorna una respuesta detallada con toda la información de la venta
+ *     y, una vez confirmada la transacción, se marca el billete como vendido en memoria.
+ * </p>
+ *
+ * <p>
+ * La validación previa del estado en memoria es solo un atajo para rechazar
+ * billetes ya vendidos sin más consultas; la garantía de que un billete no se
+ * venda dos veces, ni después de ejecutado o archivado su sorteo, la da el {@code UPDATE} condicional de
+ * {@link BilleteRepository#reclamarSi}.
+ * </p>
+ *
+ * <p>
+ * Las reservas ({@link #reservar}) pasan el billete a {@code RESERVADO} con la misma
+ * transición condicional; la venta con token consume la reserva en memoria
+ * ({@link ReservasBilletes}) y reclama el billete {@code RESERVADO → VENDIDO}, sin competir
+ * con otras ventas.
+ * </p>
+ *
+ * <p>
+ * {@link #reservarAleatorio} y {@link #reservarSiguiente} toman el billete de
+ * {@link BilletesLibres} (en O(1) y sin repetirlo entre solicitudes concurrentes) y lo
+ * reservan por el mismo camino que {@link #reservar}. En los sorteos virtuales el billete
+ * libre lo busca y lo crea {@link NumerosVirtuales}, que también permite reservar un número
+ * concreto ({@link #reservarNumero}).
+ * </p>
+ *
+ * <p>
+ * Cada venta registrada suma al resumen de su sorteo en {@link ContadoresSorteo};
+ * el incremento se aplica después del commit, por lo que también cubre el pipeline
+ * y las ventas asíncronas, que reutilizan {@link #registrar}. El resumen de compras del
+ * cliente ({@link ResumenComprasClientes}) se suma en cambio dentro de la transacción de la
+ * venta, para que nunca cuente una venta que no se confirmó.
+ * </p>
+ *
+ * <p>
+ * El número del billete se arma con las cifras de su sorteo guardadas en
+ * {@link DatosVentaSorteos}: la venta no carga la entidad {@code Sorteo}.
+ * </p>
+ *
+ * <p>
+ * La transacción se abre con {@link TransactionTemplate} (y no con {@code @Transactional})
+ * para que el rechazo rápido del paso 0 ocurra antes de tomar una conexión.
  * </p>
  */
 @Service
 @RequiredArgsConstructor
 public class VentaServiceImpl implements VentaService {
 
+    /** Billetes que se descartan como máximo antes de dar el sorteo por agotado. */
+    static final int INTENTOS_RESERVA_SORTEO = 32;
+
     private final BilleteRepository billeteRepo;
     private final ClienteRepository clienteRepo;
     private final VentaRepository ventaRepo;
+    private final DisponibilidadBilletes disponibilidad;
+    private final ReservasBilletes reservas;
+    private final TransactionTemplate transactionTemplate;
+    private final ContadoresSorteo contadores;
+    private final BilletesLibres libres;
+    private final NumerosVirtuales numeros;
+    private final ResumenComprasClientes compras;
+    private final DatosVentaSorteos sorteos;
 
     /**
      * Registra una nueva venta de billete.
      *
-     * @param req datos de la venta (sorteoId, billeteId, clienteId)
+     * @param req datos de la venta (billeteId, clienteId)
      * @return DTO con los datos resultantes de la operación
+     * @throws IllegalArgumentException si el billete o el cliente no existen.
+     * @throws IllegalStateException si el billete ya fue vendido o no está disponible.
      */
     @Override
-    @Transactional
     public VentaResponseDto vender(VentaRequestDto req) {
+        if (req.getReservaToken() != null) {
+            return venderReservado(req);
+        }
+
+        // --- 0️⃣ Rechazo inmediato de billetes que ya se sabe vendidos ---
+        disponibilidad.verificarDisponible(req.getBilleteId());
+
+        VentaResponseDto respuesta = transactionTemplate.execute(status -> registrar(req));
+
+        // Solo se marca en memoria cuando la venta ya está confirmada
+        disponibilidad.marcarVendido(respuesta.getBilleteId());
+        return respuesta;
+    }
+
+    /**
+     * Vende un billete reservado usando el token de su reserva.
+     *
+     * <p>
+     * Al consumir la reserva el billete queda en manos de esta venta: ya no puede vencer
+     * ni venderse a otro cliente. Si la venta no se completa, la reserva se restaura.
+     * </p>
+     *
+     * @param req datos de la venta, con el token de la reserva.
+     * @return DTO con los datos de la venta registrada.
+     * @throws IllegalStateException si la reserva no existe o ya venció.
+     * @throws IllegalArgumentException si la reserva es de otro billete u otro cliente.
+     */
+    private VentaResponseDto venderReservado(VentaRequestDto req) {
+        ReservasBilletes.Reserva reserva = reservas.consumir(
+                req.getReservaToken(), req.getBilleteId(), req.getClienteId());
+
+        VentaResponseDto respuesta;
+        try {
+            respuesta = transactionTemplate.execute(status -> registrar(req, EstadoBillete.RESERVADO));
+        } catch (RuntimeException e) {
+            reservas.restaurar(reserva);
+            throw e;
+        }
+
+        disponibilidad.marcarVendido(respuesta.getBilleteId());
+        return respuesta;
+    }
+
+    /**
+     * Registra la venta de un billete {@code DISPONIBLE} dentro de la transacción en curso.
+     *
+     * <p>
+     * Los rechazos de negocio ({@link IllegalArgumentException} e {@link IllegalStateException})
+     * se lanzan antes de cualquier escritura, por lo que quien agrupa varias ventas en una misma
+     * transacción ({@link PipelineVentaService}) puede descartar una solicitud y seguir con las demás.
+     * </p>
+     *
+     * @param req datos de la venta.
+     * @return DTO con los datos de la venta registrada.
+     */
+    VentaResponseDto registrar(VentaRequestDto req) {
+        return registrar(req, EstadoBillete.DISPONIBLE);
+    }
+
+    /**
+     * Registra la venta de un billete que debe estar en el estado indicado.
+     *
+     * @param req datos de la venta.
+     * @param esperado estado que debe tener el billete ({@code DISPONIBLE} o {@code RESERVADO}).
+     * @return DTO con los datos de la venta registrada.
+     */
+    private VentaResponseDto registrar(VentaRequestDto req, EstadoBillete esperado) {
 
         // --- 1️⃣ Validar y obtener entidades ---
         Billete billete = billeteRepo.findById(req.getBilleteId())
                 .orElseThrow(() -> new IllegalArgumentException("Billete no existe con ID: " + req.getBilleteId()));
 
-        if (billete.getEstado() != EstadoBillete.DISPONIBLE) {
-            throw new IllegalStateException("El billete ya fue vendido o no está disponible");
+        if (billete.getEstado() != esperado) {
+            throw new BilleteNoDisponibleException();
         }
+        // El ID del sorteo sale de la clave foránea: no se carga la entidad
+        Long sorteoId = billete.getSorteo().getId();
+        verificarAbierto(sorteoId);
+        String numero = sorteos.formatear(sorteoId, billete.getNumero());
 
         Cliente cliente = clienteRepo.findById(req.getClienteId())
                 .orElseThrow(() -> new IllegalArgumentException("Cliente no existe con ID: " + req.getClienteId()));
 
-        // --- 2️⃣ Crear la venta y guardarla ---
+        // --- 2️⃣ Reclamar el billete de forma atómica (DISPONIBLE/RESERVADO → VENDIDO) ---
+        int reclamados = billeteRepo.reclamarSi(
+                billete.getId(), esperado, EstadoBillete.VENDIDO, cliente);
+        if (reclamados == 0) {
+            throw new BilleteNoDisponibleException();
+        }
+
+        // --- 3️⃣ Crear la venta y guardarla ---
         Venta venta = new Venta();
         venta.setBillete(billete);
         venta.setCliente(cliente);
@@ -65,21 +219,251 @@ public class VentaServiceImpl implements VentaService {
         venta.setPrecio(billete.getPrecio());
 
         Venta guardada = ventaRepo.save(venta);
+        contadores.registrarVenta(sorteoId, guardada.getPrecio());
+        compras.sumar(cliente.getId(), 1, guardada.getPrecio(), guardada.getFechaVenta());
 
-        // --- 3️⃣ Marcar billete como vendido y asignar cliente ---
+        // Reflejar en memoria el estado ya persistido por el UPDATE condicional
         billete.setCliente(cliente);
         billete.setEstado(EstadoBillete.VENDIDO);
-        billeteRepo.save(billete);
 
         // --- 4️⃣ Mapear respuesta ---
         return new VentaResponseDto(
                 guardada.getId(),
                 billete.getId(),
-                billete.getNumero(),
+                numero,
                 cliente.getId(),
                 cliente.getNombre(),
                 guardada.getFechaVenta(),
                 guardada.getPrecio()
         );
     }
+
+    /**
+     * Reserva un billete disponible para un cliente durante un tiempo limitado.
+     *
+     * <p>
+     * El billete pasa de {@code DISPONIBLE} a {@code RESERVADO} con una transición condicional;
+     * una vez confirmada, la reserva se registra en memoria y vence sola si no se usa.
+     * </p>
+     *
+     * @param req billete, cliente y duración opcional de la reserva.
+     * @return token y vencimiento de la reserva.
+     * @throws IllegalArgumentException si el billete o el cliente no existen.
+     * @throws IllegalStateException si el billete no está disponible.
+     */
+    @Override
+    public ReservaResponseDto reservar(ReservaRequestDto req) {
+        disponibilidad.verificarDisponible(req.getBilleteId());
+
+        Billete billete = transactionTemplate.execute(status -> {
+            Billete b = billeteRepo.findById(req.getBilleteId())
+                    .orElseThrow(() -> new IllegalArgumentException("Billete no existe con ID: " + req.getBilleteId()));
+            if (b.getEstado() != EstadoBillete.DISPONIBLE) {
+                throw new BilleteNoDisponibleException();
+            }
+            Cliente cliente = clienteRepo.findById(req.getClienteId())
+                    .orElseThrow(() -> new IllegalArgumentException("Cliente no existe con ID: " + req.getClienteId()));
+            verificarAbierto(b.getSorteo().getId());
+
+            if (billeteRepo.reclamarSi(b.getId(), EstadoBillete.DISPONIBLE, EstadoBillete.RESERVADO, cliente) == 0) {
+                throw new BilleteNoDisponibleException();
+            }
+            return b;
+        });
+
+        // Solo se programa el vencimiento cuando la reserva ya está confirmada
+        ReservasBilletes.Reserva reserva = reservas.registrar(
+                billete.getId(), req.getClienteId(), req.getSegundos());
+
+        return new ReservaResponseDto(reserva.getToken(), billete.getId(),
+                sorteos.formatear(billete.getSorteo().getId(), billete.getNumero()),
+                reserva.getClienteId(), reserva.getExpiraEn());
+    }
+
+    /**
+     * Reserva un billete libre del sorteo elegido al azar.
+     *
+     * @throws IllegalStateException si el sorteo no tiene billetes disponibles.
+     * @throws IllegalArgumentException si el cliente no existe.
+     */
+    @Override
+    public ReservaResponseDto reservarAleatorio(Long sorteoId, ReservaSorteoRequestDto req) {
+        return numeros.esVirtual(sorteoId)
+                ? reservarDeSorteo(sorteoId, req, numeros::tomarAleatorio, numeros::devolver)
+                : reservarDeSorteo(sorteoId, req, libres::tomarAleatorio, libres::devolver);
+    }
+
+    /**
+     * Reserva el billete libre de menor número del sorteo.
+     *
+     * @throws IllegalStateException si el sorteo no tiene billetes disponibles.
+     * @throws IllegalArgumentException si el cliente no existe.
+     */
+    @Override
+    public ReservaResponseDto reservarSiguiente(Long sorteoId, ReservaSorteoRequestDto req) {
+        return numeros.esVirtual(sorteoId)
+                ? reservarDeSorteo(sorteoId, req, numeros::tomarSiguiente, numeros::devolver)
+                : reservarDeSorteo(sorteoId, req, libres::tomarSiguiente, libres::devolver);
+    }
+
+    /**
+     * Reserva un número concreto del sorteo; en un sorteo virtual crea antes la fila del billete.
+     *
+     * @throws IllegalArgumentException si el número no es válido o el cliente no existe.
+     * @throws java.util.NoSuchElementException si el sorteo no tiene ese número.
+     * @throws IllegalStateException si el billete no está disponible.
+     */
+    @Override
+    public ReservaResponseDto reservarNumero(Long sorteoId, String numero, ReservaSorteoRequestDto req) {
+        Long billeteId = numeros.billeteId(sorteoId, NumeroBillete.leer(numero));
+        return reservar(new ReservaRequestDto(billeteId, req.getClienteId(), req.getSegundos()));
+    }
+
+    /**
+     * Toma billetes de {@link BilletesLibres} (o de {@link NumerosVirtuales}) hasta reservar uno.
+     *
+     * <p>
+     * Un sorteo ejecutado o archivado se rechaza antes de tomar ningún billete. Un billete
+     * tomado ya no se entrega a otra solicitud. Si la reserva lo rechaza porque dejó de estar
+     * disponible ({@link BilleteNoDisponibleException}, p. ej. se vendió por ID), se descarta y
+     * se toma otro; ante cualquier otro error (cliente inexistente, sorteo cerrado entretanto,
+     * base de datos) se devuelve con {@code devolver}, que debe ser el de la misma fuente que
+     * {@code tomar}.
+     * </p>
+     */
+    private ReservaResponseDto reservarDeSorteo(Long sorteoId, ReservaSorteoRequestDto req,
+                                                Function<Long, Long> tomar, Consumer<Long> devolver) {
+        verificarAbierto(sorteoId);
+        for (int intento = 0; intento < INTENTOS_RESERVA_SORTEO; intento++) {
+            Long billeteId = tomar.apply(sorteoId);
+            if (billeteId == null) {
+                break;
+            }
+            try {
+                return reservar(new ReservaRequestDto(billeteId, req.getClienteId(), req.getSegundos()));
+            } catch (BilleteNoDisponibleException e) {
+                // Ya no estaba disponible: se descarta
+            } catch (RuntimeException e) {
+                devolver.accept(billeteId);
+                throw e;
+            }
+        }
+        throw new IllegalStateException("No hay billetes disponibles en el sorteo " + sorteoId);
+    }
+
+    /**
+     * Vende varios billetes a un mismo cliente en una sola transacción (todo o nada).
+     *
+     * <p>
+     * Estrategia por conjunto:
+     * 1️⃣ Se descartan de inmediato los billetes que el mapa en memoria ya sabe vendidos.<br>
+     * 2️⃣ Se bloquean todos los billetes con una única consulta, siempre en orden de ID
+     *     para que dos lotes que se solapan no puedan bloquearse mutuamente.<br>
+     * 3️⃣ Se marcan todos como VENDIDO con un único {@code UPDATE} por conjunto.<br>
+     * 4️⃣ Se insertan las ventas en lote JDBC ({@code saveAll}).
+     * </p>
+     *
+     * @param req cliente comprador e IDs de los billetes.
+     * @return resumen del lote con el detalle de cada venta.
+     * @throws IllegalArgumentException si hay IDs repetidos o algún billete/cliente no existe.
+     * @throws IllegalStateException si algún billete no está disponible (no se vende ninguno).
+     */
+    @Override
+    public VentaLoteResponseDto venderLote(VentaLoteRequestDto req) {
+        // Orden canónico de bloqueo: IDs ascendentes y sin repetir
+        List<Long> ids = req.getBilleteIds().stream().distinct().sorted().toList();
+        if (ids.size() != req.getBilleteIds().size()) {
+            throw new IllegalArgumentException("El lote contiene billetes repetidos");
+        }
+
+        // --- 1️⃣ Rechazo inmediato de billetes que ya se sabe vendidos ---
+        ids.forEach(disponibilidad::verificarDisponible);
+
+        VentaLoteResponseDto respuesta = transactionTemplate.execute(
+                status -> registrarLote(ids, req.getClienteId()));
+
+        ids.forEach(disponibilidad::marcarVendido);
+        return respuesta;
+    }
+
+    /**
+     * Registra la venta por lote dentro de la transacción en curso.
+     *
+     * @param ids IDs de los billetes, ordenados y sin repetir.
+     * @param clienteId ID del cliente comprador.
+     * @return resumen del lote.
+     */
+    private VentaLoteResponseDto registrarLote(List<Long> ids, Long clienteId) {
+        Cliente cliente = clienteRepo.findById(clienteId)
+                .orElseThrow(() -> new IllegalArgumentException("Cliente no existe con ID: " + clienteId));
+
+        // --- 2️⃣ Bloquear y validar todos los billetes con una sola consulta ---
+        List<Billete> billetes = billeteRepo.bloquearPorIds(ids);
+        if (billetes.size() != ids.size()) {
+            Set<Long> encontrados = billetes.stream().map(Billete::getId).collect(Collectors.toSet());
+            List<Long> faltantes = ids.stream().filter(id -> !encontrados.contains(id)).toList();
+            throw new IllegalArgumentException("Billetes no existen con ID: " + faltantes);
+        }
+        List<Long> noDisponibles = billetes.stream()
+                .filter(b -> b.getEstado() != EstadoBillete.DISPONIBLE)
+                .map(Billete::getId)
+                .toList();
+        if (!noDisponibles.isEmpty()) {
+            throw new IllegalStateException("Billetes ya vendidos o no disponibles: " + noDisponibles);
+        }
+        billetes.forEach(b -> verificarAbierto(b.getSorteo().getId()));
+
+        // --- 3️⃣ Marcar todos como vendidos con una sola sentencia ---
+        int reclamados = billeteRepo.reclamarSi(ids, EstadoBillete.DISPONIBLE, EstadoBillete.VENDIDO, cliente);
+        if (reclamados != ids.size()) {
+            throw new IllegalStateException("Algunos billetes del lote ya no están disponibles");
+        }
+
+        // --- 4️⃣ Insertar las ventas en lote ---
+        LocalDateTime ahora = LocalDateTime.now();
+        List<Venta> ventas = new ArrayList<>(billetes.size());
+        for (Billete billete : billetes) {
+            Venta venta = new Venta();
+            venta.setBillete(billete);
+            venta.setCliente(cliente);
+            venta.setFechaVenta(ahora);
+            venta.setPrecio(billete.getPrecio());
+            ventas.add(venta);
+        }
+        List<Venta> guardadas = ventaRepo.saveAll(ventas);
+        guardadas.forEach(v -> contadores.registrarVenta(v.getBillete().getSorteo().getId(), v.getPrecio()));
+
+        List<VentaResponseDto> detalle = new ArrayList<>(guardadas.size());
+        BigDecimal total = BigDecimal.ZERO;
+        for (Venta v : guardadas) {
+            Billete billete = v.getBillete();
+            billete.setCliente(cliente);
+            billete.setEstado(EstadoBillete.VENDIDO);
+            total = total.add(v.getPrecio());
+            detalle.add(new VentaResponseDto(
+                    v.getId(),
+                    billete.getId(),
+                    sorteos.formatear(billete.getSorteo().getId(), billete.getNumero()),
+                    cliente.getId(),
+                    cliente.getNombre(),
+                    v.getFechaVenta(),
+                    v.getPrecio()
+            ));
+        }
+
+        // Una sola suma al resumen del cliente por todo el lote
+        compras.sumar(cliente.getId(), guardadas.size(), total, ahora);
+
+        return new VentaLoteResponseDto(cliente.getId(), cliente.getNombre(), total, detalle);
+    }
+
+    /**
+     * Rechaza de inmediato la venta o reserva de un billete cuyo sorteo ya se ejecutó o se archivó.
+     * Es solo un atajo: la garantía la da {@link BilleteRepository#reclamarSi}.
+     */
+    private void verificarAbierto(Long sorteoId) {
+        if (sorteos.cerrado(sorteoId)) {
+            throw new IllegalStateException("El sorteo ya fue ejecutado o archivado: no admite ventas ni reservas");
+        }
+    }
 }
@@ -33,177 +33,177 @@ INSERT INTO clientes (id, nombre, correo) VALUES
 -- EstadoBillete: DISPONIBLE / VENDIDO
 INSERT INTO billetes (id, numero, precio, estado, cliente_id, sorteo_id) VALUES
 -- Sorteo 1: Año Nuevo (15 billetes, $10.000)
-(1 , '0001', 10000, 'VENDIDO'    , 1 , 1),
-(2 , '0002', 10000, 'VENDIDO'    , 2 , 1),
-(3 , '0003', 10000, 'VENDIDO'    , 3 , 1),
-(4 , '0004', 10000, 'DISPONIBLE' , NULL, 1),
-(5 , '0005', 10000, 'VENDIDO'    , 5 , 1),
-(6 , '0006', 10000, 'DISPONIBLE' , NULL, 1),
-(7 , '0007', 10000, 'DISPONIBLE' , NULL, 1),
-(8 , '0008', 10000, 'VENDIDO'    , 2 , 1),
-(9 , '0009', 10000, 'VENDIDO'    , 9 , 1),
-(10, '0010', 10000, 'DISPONIBLE' , NULL, 1),
-(11, '0011', 10000, 'VENDIDO'    , 1 , 1),
-(12, '0012', 10000, 'DISPONIBLE' , NULL, 1),
-(13, '0013', 10000, 'DISPONIBLE' , NULL, 1),
-(14, '0014', 10000, 'VENDIDO'    , 7 , 1),
-(15, '0015', 10000, 'VENDIDO'    , 10, 1),
+(1 ,    1, 10000, 'VENDIDO'    , 1 , 1),
+(2 ,    2, 10000, 'VENDIDO'    , 2 , 1),
+(3 ,    3, 10000, 'VENDIDO'    , 3 , 1),
+(4 ,    4, 10000, 'DISPONIBLE' , NULL, 1),
+(5 ,    5, 10000, 'VENDIDO'    , 5 , 1),
+(6 ,    6, 10000, 'DISPONIBLE' , NULL, 1),
+(7 ,    7, 10000, 'DISPONIBLE' , NULL, 1),
+(8 ,    8, 10000, 'VENDIDO'    , 2 , 1),
+(9 ,    9, 10000, 'VENDIDO'    , 9 , 1),
+(10,   10, 10000, 'DISPONIBLE' , NULL, 1),
+(11,   11, 10000, 'VENDIDO'    , 1 , 1),
+(12,   12, 10000, 'DISPONIBLE' , NULL, 1),
+(13,   13, 10000, 'DISPONIBLE' , NULL, 1),
+(14,   14, 10000, 'VENDIDO'    , 7 , 1),
+(15,   15, 10000, 'VENDIDO'    , 10, 1),
 
 
 -- Sorteo 2: San Valentín (12 billetes, $12.000)
-    (16,'0001',12000,'VENDIDO',1,2),
-    (17,'0002',12000,'DISPONIBLE',NULL,2),
-    (18,'0003',12000,'VENDIDO',3,2),
-    (19,'0004',12000,'DISPONIBLE',NULL,2),
-    (20,'0005',12000,'VENDIDO',5,2),
-    (21,'0006',12000,'DISPONIBLE',NULL,2),
-    (22,'0007',12000,'VENDIDO',2,2),
-    (23,'0008',12000,'DISPONIBLE',NULL,2),
-    (24,'0009',12000,'VENDIDO',9,2),
-    (25,'0010',12000,'DISPONIBLE',NULL,2),
-    (26,'0011',12000,'VENDIDO',1,2),
-    (27,'0012',12000,'VENDIDO',7,2),
+    (16,1,12000,'VENDIDO',1,2),
+    (17,2,12000,'DISPONIBLE',NULL,2),
+    (18,3,12000,'VENDIDO',3,2),
+    (19,4,12000,'DISPONIBLE',NULL,2),
+    (20,5,12000,'VENDIDO',5,2),
+    (21,6,12000,'DISPONIBLE',NULL,2),
+    (22,7,12000,'VENDIDO',2,2),
+    (23,8,12000,'DISPONIBLE',NULL,2),
+    (24,9,12000,'VENDIDO',9,2),
+    (25,10,12000,'DISPONIBLE',NULL,2),
+    (26,11,12000,'VENDIDO',1,2),
+    (27,12,12000,'VENDIDO',7,2),
 
 -- Sorteo 3: Semana Santa (10 billetes, $8.000)
-    (28,'0001',8000,'DISPONIBLE',NULL,3),
-    (29,'0002',8000,'VENDIDO',4,3),
-    (30,'0003',8000,'DISPONIBLE',NULL,3),
-    (31,'0004',8000,'VENDIDO',2,3),
-    (32,'0005',8000,'DISPONIBLE',NULL,3),
-    (33,'0006',8000,'VENDIDO',8,3),
-    (34,'0007',8000,'DISPONIBLE',NULL,3),
-    (35,'0008',8000,'VENDIDO',6,3),
-    (36,'0009',8000,'DISPONIBLE',NULL,3),
-    (37,'0010',8000,'VENDIDO',3,3),
+    (28,1,8000,'DISPONIBLE',NULL,3),
+    (29,2,8000,'VENDIDO',4,3),
+    (30,3,8000,'DISPONIBLE',NULL,3),
+    (31,4,8000,'VENDIDO',2,3),
+    (32,5,8000,'DISPONIBLE',NULL,3),
+    (33,6,8000,'VENDIDO',8,3),
+    (34,7,8000,'DISPONIBLE',NULL,3),
+    (35,8,8000,'VENDIDO',6,3),
+    (36,9,8000,'DISPONIBLE',NULL,3),
+    (37,10,8000,'VENDIDO',3,3),
 
 -- Sorteo 4: Día de la Madre (20 billetes, $15.000)
-    (38,'0001',15000,'VENDIDO',5,4),
-    (39,'0002',15000,'DISPONIBLE',NULL,4),
-    (40,'0003',15000,'VENDIDO',2,4),
-    (41,'0004',15000,'DISPONIBLE',NULL,4),
-    (42,'0005',15000,'VENDIDO',9,4),
-    (43,'0006',15000,'DISPONIBLE',NULL,4),
-    (44,'0007',15000,'VENDIDO',1,4),
-    (45,'0008',15000,'DISPONIBLE',NULL,4),
-    (46,'0009',15000,'VENDIDO',7,4),
-    (47,'0010',15000,'DISPONIBLE',NULL,4),
-    (48,'0011',15000,'VENDIDO',3,4),
-    (49,'0012',15000,'DISPONIBLE',NULL,4),
-    (50,'0013',15000,'VENDIDO',10,4),
-    (51,'0014',15000,'DISPONIBLE',NULL,4),
-    (52,'0015',15000,'VENDIDO',4,4),
-    (53,'0016',15000,'DISPONIBLE',NULL,4),
-    (54,'0017',15000,'VENDIDO',6,4),
-    (55,'0018',15000,'DISPONIBLE',NULL,4),
-    (56,'0019',15000,'VENDIDO',8,4),
-    (57,'0020',15000,'DISPONIBLE',NULL,4),
+    (38,1,15000,'VENDIDO',5,4),
+    (39,2,15000,'DISPONIBLE',NULL,4),
+    (40,3,15000,'VENDIDO',2,4),
+    (41,4,15000,'DISPONIBLE',NULL,4),
+    (42,5,15000,'VENDIDO',9,4),
+    (43,6,15000,'DISPONIBLE',NULL,4),
+    (44,7,15000,'VENDIDO',1,4),
+    (45,8,15000,'DISPONIBLE',NULL,4),
+    (46,9,15000,'VENDIDO',7,4),
+    (47,10,15000,'DISPONIBLE',NULL,4),
+    (48,11,15000,'VENDIDO',3,4),
+    (49,12,15000,'DISPONIBLE',NULL,4),
+    (50,13,15000,'VENDIDO',10,4),
+    (51,14,15000,'DISPONIBLE',NULL,4),
+    (52,15,15000,'VENDIDO',4,4),
+    (53,16,15000,'DISPONIBLE',NULL,4),
+    (54,17,15000,'VENDIDO',6,4),
+    (55,18,15000,'DISPONIBLE',NULL,4),
+    (56,19,15000,'VENDIDO',8,4),
+    (57,20,15000,'DISPONIBLE',NULL,4),
 
 -- Sorteo 5: Independencia (18 billetes, $13.000)
-    (58,'0001',13000,'DISPONIBLE',NULL,5),
-    (59,'0002',13000,'VENDIDO',2,5),
-    (60,'0003',13000,'DISPONIBLE',NULL,5),
-    (61,'0004',13000,'VENDIDO',5,5),
-    (62,'0005',13000,'DISPONIBLE',NULL,5),
-    (63,'0006',13000,'VENDIDO',1,5),
-    (64,'0007',13000,'DISPONIBLE',NULL,5),
-    (65,'0008',13000,'VENDIDO',7,5),
-    (66,'0009',13000,'DISPONIBLE',NULL,5),
-    (67,'0010',13000,'VENDIDO',9,5),
-    (68,'0011',13000,'DISPONIBLE',NULL,5),
-    (69,'0012',13000,'VENDIDO',3,5),
-    (70,'0013',13000,'DISPONIBLE',NULL,5),
-    (71,'0014',13000,'VENDIDO',10,5),
-    (72,'0015',13000,'DISPONIBLE',NULL,5),
-    (73,'0016',13000,'VENDIDO',4,5),
-    (74,'0017',13000,'DISPONIBLE',NULL,5),
-    (75,'0018',13000,'VENDIDO',8,5),
+    (58,1,13000,'DISPONIBLE',NULL,5),
+    (59,2,13000,'VENDIDO',2,5),
+    (60,3,13000,'DISPONIBLE',NULL,5),
+    (61,4,13000,'VENDIDO',5,5),
+    (62,5,13000,'DISPONIBLE',NULL,5),
+    (63,6,13000,'VENDIDO',1,5),
+    (64,7,13000,'DISPONIBLE',NULL,5),
+    (65,8,13000,'VENDIDO',7,5),
+    (66,9,13000,'DISPONIBLE',NULL,5),
+    (67,10,13000,'VENDIDO',9,5),
+    (68,11,13000,'DISPONIBLE',NULL,5),
+    (69,12,13000,'VENDIDO',3,5),
+    (70,13,13000,'DISPONIBLE',NULL,5),
+    (71,14,13000,'VENDIDO',10,5),
+    (72,15,13000,'DISPONIBLE',NULL,5),
+    (73,16,13000,'VENDIDO',4,5),
+    (74,17,13000,'DISPONIBLE',NULL,5),
+    (75,18,13000,'VENDIDO',8,5),
 
 -- Sorteo 6: Verano Millonario (11 billetes, $20.000)
-    (76,'0001',20000,'VENDIDO',6,6),
-    (77,'0002',20000,'DISPONIBLE',NULL,6),
-    (78,'0003',20000,'VENDIDO',2,6),
-    (79,'0004',20000,'DISPONIBLE',NULL,6),
-    (80,'0005',20000,'VENDIDO',9,6),
-    (81,'0006',20000,'DISPONIBLE',NULL,6),
-    (82,'0007',20000,'VENDIDO',1,6),
-    (83,'0008',20000,'DISPONIBLE',NULL,6),
-    (84,'0009',20000,'VENDIDO',7,6),
-    (85,'0010',20000,'DISPONIBLE',NULL,6),
-    (86,'0011',20000,'VENDIDO',3,6),
+    (76,1,20000,'VENDIDO',6,6),
+    (77,2,20000,'DISPONIBLE',NULL,6),
+    (78,3,20000,'VENDIDO',2,6),
+    (79,4,20000,'DISPONIBLE',NULL,6),
+    (80,5,20000,'VENDIDO',9,6),
+    (81,6,20000,'DISPONIBLE',NULL,6),
+    (82,7,20000,'VENDIDO',1,6),
+    (83,8,20000,'DISPONIBLE',NULL,6),
+    (84,9,20000,'VENDIDO',7,6),
+    (85,10,20000,'DISPONIBLE',NULL,6),
+    (86,11,20000,'VENDIDO',3,6),
 
 -- Sorteo 7: Amor y Amistad (14 billetes, $9.000)
-    (87,'0001',9000,'DISPONIBLE',NULL,7),
-    (88,'0002',9000,'VENDIDO',4,7),
-    (89,'0003',9000,'DISPONIBLE',NULL,7),
-    (90,'0004',9000,'VENDIDO',2,7),
-    (91,'0005',9000,'DISPONIBLE',NULL,7),
-    (92,'0006',9000,'VENDIDO',8,7),
-    (93,'0007',9000,'DISPONIBLE',NULL,7),
-    (94,'0008',9000,'VENDIDO',6,7),
-    (95,'0009',9000,'DISPONIBLE',NULL,7),
-    (96,'0010',9000,'VENDIDO',3,7),
-    (97,'0011',9000,'DISPONIBLE',NULL,7),
-    (98,'0012',9000,'VENDIDO',1,7),
-    (99,'0013',9000,'DISPONIBLE',NULL,7),
-    (100,'0014',9000,'VENDIDO',7,7),
+    (87,1,9000,'DISPONIBLE',NULL,7),
+    (88,2,9000,'VENDIDO',4,7),
+    (89,3,9000,'DISPONIBLE',NULL,7),
+    (90,4,9000,'VENDIDO',2,7),
+    (91,5,9000,'DISPONIBLE',NULL,7),
+    (92,6,9000,'VENDIDO',8,7),
+    (93,7,9000,'DISPONIBLE',NULL,7),
+    (94,8,9000,'VENDIDO',6,7),
+    (95,9,9000,'DISPONIBLE',NULL,7),
+    (96,10,9000,'VENDIDO',3,7),
+    (97,11,9000,'DISPONIBLE',NULL,7),
+    (98,12,9000,'VENDIDO',1,7),
+    (99,13,9000,'DISPONIBLE',NULL,7),
+    (100,14,9000,'VENDIDO',7,7),
 
 -- Sorteo 8: Halloween (17 billetes, $16.000)
-    (101,'0001',16000,'VENDIDO',5,8),
-    (102,'0002',16000,'DISPONIBLE',NULL,8),
-    (103,'0003',16000,'VENDIDO',2,8),
-    (104,'0004',16000,'DISPONIBLE',NULL,8),
-    (105,'0005',16000,'VENDIDO',9,8),
-    (106,'0006',16000,'DISPONIBLE',NULL,8),
-    (107,'0007',16000,'VENDIDO',1,8),
-    (108,'0008',16000,'DISPONIBLE',NULL,8),
-    (109,'0009',16000,'VENDIDO',7,8),
-    (110,'0010',16000,'DISPONIBLE',NULL,8),
-    (111,'0011',16000,'VENDIDO',3,8),
-    (112,'0012',16000,'DISPONIBLE',NULL,8),
-    (113,'0013',16000,'VENDIDO',10,8),
-    (114,'0014',16000,'DISPONIBLE',NULL,8),
-    (115,'0015',16000,'VENDIDO',4,8),
-    (116,'0016',16000,'DISPONIBLE',NULL,8),
-    (117,'0017',16000,'VENDIDO',8,8),
+    (101,1,16000,'VENDIDO',5,8),
+    (102,2,16000,'DISPONIBLE',NULL,8),
+    (103,3,16000,'VENDIDO',2,8),
+    (104,4,16000,'DISPONIBLE',NULL,8),
+    (105,5,16000,'VENDIDO',9,8),
+    (106,6,16000,'DISPONIBLE',NULL,8),
+    (107,7,16000,'VENDIDO',1,8),
+    (108,8,16000,'DISPONIBLE',NULL,8),
+    (109,9,16000,'VENDIDO',7,8),
+    (110,10,16000,'DISPONIBLE',NULL,8),
+    (111,11,16000,'VENDIDO',3,8),
+    (112,12,16000,'DISPONIBLE',NULL,8),
+    (113,13,16000,'VENDIDO',10,8),
+    (114,14,16000,'DISPONIBLE',NULL,8),
+    (115,15,16000,'VENDIDO',4,8),
+    (116,16,16000,'DISPONIBLE',NULL,8),
+    (117,17,16000,'VENDIDO',8,8),
 
 -- Sorteo 9: Navidad (20 billetes, $25.000)
-    (118,'0001',25000,'DISPONIBLE',NULL,9),
-    (119,'0002',25000,'VENDIDO',2,9),
-    (120,'0003',25000,'DISPONIBLE',NULL,9),
-    (121,'0004',25000,'VENDIDO',5,9),
-    (122,'0005',25000,'DISPONIBLE',NULL,9),
-    (123,'0006',25000,'VENDIDO',1,9),
-    (124,'0007',25000,'DISPONIBLE',NULL,9),
-    (125,'0008',25000,'VENDIDO',7,9),
-    (126,'0009',25000,'DISPONIBLE',NULL,9),
-    (127,'0010',25000,'VENDIDO',9,9),
-    (128,'0011',25000,'DISPONIBLE',NULL,9),
-    (129,'0012',25000,'VENDIDO',3,9),
-    (130,'0013',25000,'DISPONIBLE',NULL,9),
-    (131,'0014',25000,'VENDIDO',10,9),
-    (132,'0015',25000,'DISPONIBLE',NULL,9),
-    (133,'0016',25000,'VENDIDO',4,9),
-    (134,'0017',25000,'DISPONIBLE',NULL,9),
-    (135,'0018',25000,'VENDIDO',8,9),
-    (136,'0019',25000,'DISPONIBLE',NULL,9),
-    (137,'0020',25000,'VENDIDO',6,9),
+    (118,1,25000,'DISPONIBLE',NULL,9),
+    (119,2,25000,'VENDIDO',2,9),
+    (120,3,25000,'DISPONIBLE',NULL,9),
+    (121,4,25000,'VENDIDO',5,9),
+    (122,5,25000,'DISPONIBLE',NULL,9),
+    (123,6,25000,'VENDIDO',1,9),
+    (124,7,25000,'DISPONIBLE',NULL,9),
+    (125,8,25000,'VENDIDO',7,9),
+    (126,9,25000,'DISPONIBLE',NULL,9),
+    (127,10,25000,'VENDIDO',9,9),
+    (128,11,25000,'DISPONIBLE',NULL,9),
+    (129,12,25000,'VENDIDO',3,9),
+    (130,13,25000,'DISPONIBLE',NULL,9),
+    (131,14,25000,'VENDIDO',10,9),
+    (132,15,25000,'DISPONIBLE',NULL,9),
+    (133,16,25000,'VENDIDO',4,9),
+    (134,17,25000,'DISPONIBLE',NULL,9),
+    (135,18,25000,'VENDIDO',8,9),
+    (136,19,25000,'DISPONIBLE',NULL,9),
+    (137,20,25000,'VENDIDO',6,9),
 
 -- Sorteo 10: Fin de Año (18 billetes, $30.000)
-    (138,'0001',30000,'VENDIDO',6,10),
-    (139,'0002',30000,'DISPONIBLE',NULL,10),
-    (140,'0003',30000,'VENDIDO',2,10),
-    (141,'0004',30000,'DISPONIBLE',NULL,10),
-    (142,'0005',30000,'VENDIDO',9,10),
-    (143,'0006',30000,'DISPONIBLE',NULL,10),
-    (144,'0007',30000,'VENDIDO',1,10),
-    (145,'0008',30000,'DISPONIBLE',NULL,10),
-    (146,'0009',30000,'VENDIDO',7,10),
-    (147,'0010',30000,'DISPONIBLE',NULL,10),
-    (148,'0011',30000,'VENDIDO',3,10),
-    (149,'0012',30000,'DISPONIBLE',NULL,10),
-    (150,'0013',30000,'VENDIDO',10,10),
-    (151,'0014',30000,'DISPONIBLE',NULL,10),
-    (152,'0015',30000,'VENDIDO',4,10),
-    (153,'0016',30000,'DISPONIBLE',NULL,10),
-    (154,'0017',30000,'VENDIDO',8,10),
-    (155,'0018',30000,'DISPONIBLE',NULL,10);
+    (138,1,30000,'VENDIDO',6,10),
+    (139,2,30000,'DISPONIBLE',NULL,10),
+    (140,3,30000,'VENDIDO',2,10),
+    (141,4,30000,'DISPONIBLE',NULL,10),
+    (142,5,30000,'VENDIDO',9,10),
+    (143,6,30000,'DISPONIBLE',NULL,10),
+    (144,7,30000,'VENDIDO',1,10),
+    (145,8,30000,'DISPONIBLE',NULL,10),
+    (146,9,30000,'VENDIDO',7,10),
+    (147,10,30000,'DISPONIBLE',NULL,10),
+    (148,11,30000,'VENDIDO',3,10),
+    (149,12,30000,'DISPONIBLE',NULL,10),
+    (150,13,30000,'VENDIDO',10,10),
+    (151,14,30000,'DISPONIBLE',NULL,10),
+    (152,15,30000,'VENDIDO',4,10),
+    (153,16,30000,'DISPONIBLE',NULL,10),
+    (154,17,30000,'VENDIDO',8,10),
+    (155,18,30000,'DISPONIBLE',NULL,10);
@@ -3,6 +3,7 @@ package org.konex.sistemaloteria.billete.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.konex.sistemaloteria.billete.dto.BilleteDto;
+import org.konex.sistemaloteria.billete.dto.PaginaBilletesDto;
 import org.konex.sistemaloteria.billete.service.BilleteService;
 import org.konex.sistemaloteria.compartido.EstadoBillete;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -72,13 +73,35 @@ class BilleteControllerTest {
                 .id(2L).numero("000002").precio(new BigDecimal("10000"))
                 .estado(EstadoBillete.VENDIDO).sorteoId(9L).build();
 
-        when(service.listarPorSorteo(9L)).thenReturn(List.of(b1, b2));
+        when(service.listarPorSorteo(9L, null, null, null, null, 100))
+                .thenReturn(new PaginaBilletesDto(List.of(b1, b2), null));
 
         mvc.perform(get("/api/billetes/sorteo/{sorteoId}", 9L))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.length()").value(2))
                 .andExpect(jsonPath("$[0].numero").value("000001"))
-                .andExpect(jsonPath("$[1].estado").value("VENDIDO"));
+                .andExpect(jsonPath("$[1].estado").value("VENDIDO"))
+                .andExpect(header().doesNotExist("X-Cursor-Siguiente"));
+    }
+
+    @Test
+    void get_listarPorSorteo_conFiltrosYCursor_devuelveCabeceraSiguiente() throws Exception {
+        BilleteDto b = BilleteDto.builder()
+                .id(51L).numero("000051").precio(new BigDecimal("10000"))
+                .estado(EstadoBillete.DISPONIBLE).sorteoId(9L).build();
+
+        when(service.listarPorSorteo(9L, EstadoBillete.DISPONIBLE, "000010", "000099", "000050", 1))
+                .thenReturn(new PaginaBilletesDto(List.of(b), "000051"));
+
+        mvc.perform(get("/api/billetes/sorteo/{sorteoId}", 9L)
+                        .param("estado", "DISPONIBLE")
+                        .param("desde", "000010")
+                        .param("hasta", "000099")
+                        .param("despues", "000050")
+                        .param("limite", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(header().string("X-Cursor-Siguiente", "000051"));
     }
 
     // ---------- Validación de entrada (400) ----------
@@ -4,10 +4,14 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.konex.sistemaloteria.billete.dto.BilleteDto;
 import org.konex.sistemaloteria.billete.model.Billete;
+import org.konex.sistemaloteria.billete.repository.BilleteArchivadoRepository;
 import org.konex.sistemaloteria.billete.repository.BilleteRepository;
 import org.konex.sistemaloteria.compartido.EstadoBillete;
 import org.konex.sistemaloteria.sorteo.model.Sorteo;
 import org.konex.sistemaloteria.sorteo.repository.SorteoRepository;
+import org.konex.sistemaloteria.sorteo.service.ContadoresSorteo;
+import org.konex.sistemaloteria.sorteo.service.GeneradorBilletes;
+import org.springframework.data.domain.Limit;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -21,13 +25,20 @@ class BilleteServiceImplTest {
 
     private BilleteRepository billeteRepo;
     private SorteoRepository sorteoRepo;
+    private ContadoresSorteo contadores;
+    private BilleteArchivadoRepository archivoRepo;
+    private GeneradorBilletes generador;
     private BilleteServiceImpl service;
 
     @BeforeEach
     void setUp() {
         billeteRepo = mock(BilleteRepository.class);
         sorteoRepo = mock(SorteoRepository.class);
-        service = new BilleteServiceImpl(billeteRepo, sorteoRepo);
+        contadores = mock(ContadoresSorteo.class);
+        archivoRepo = mock(BilleteArchivadoRepository.class);
+        generador = mock(GeneradorBilletes.class);
+        service = new BilleteServiceImpl(billeteRepo, sorteoRepo, contadores, mock(BilletesLibres.class), archivoRepo,
+                generador);
     }
 
     @Test
@@ -47,7 +58,7 @@ class BilleteServiceImplTest {
 
         Billete guardado = Billete.builder()
                 .id(123L)
-                .numero("0007")
+                .numero(7)
                 .precio(new BigDecimal("12000"))
                 .estado(EstadoBillete.DISPONIBLE)
                 .sorteo(sorteo)
@@ -73,6 +84,25 @@ class BilleteServiceImplTest {
         assertEquals(123L, resp.getId());
         assertEquals(EstadoBillete.DISPONIBLE, resp.getEstado());
         assertEquals(sorteoId, resp.getSorteoId());
+        verify(contadores).registrarBilletes(sorteoId, 1);
+        verify(contadores, never()).registrarVenta(any(), any());
+    }
+
+    @Test
+    void crearBillete_numeroMasAncho_ampliaLasCifrasConUpdateCondicional() {
+        Sorteo sorteo = new Sorteo();
+        sorteo.setId(10L);
+        when(sorteoRepo.findById(10L)).thenReturn(Optional.of(sorteo));
+        when(billeteRepo.save(any(Billete.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        BilleteDto req = new BilleteDto();
+        req.setNumero("000123");
+        req.setPrecio(new BigDecimal("12000"));
+        req.setSorteoId(10L);
+        service.crearBillete(req);
+
+        verify(generador).ampliarCifras(10L, 6);
+        verify(sorteoRepo, never()).save(any());
     }
 
     @Test
@@ -91,7 +121,7 @@ class BilleteServiceImplTest {
 
         Billete guardado = Billete.builder()
                 .id(200L)
-                .numero("0010")
+                .numero(10)
                 .precio(new BigDecimal("8000"))
                 .estado(EstadoBillete.VENDIDO)
                 .sorteo(sorteo)
@@ -102,6 +132,8 @@ class BilleteServiceImplTest {
 
         assertEquals(200L, resp.getId());
         assertEquals(EstadoBillete.VENDIDO, resp.getEstado());
+        verify(contadores).registrarBilletes(sorteoId, 1);
+        verify(contadores).registrarVenta(sorteoId, new BigDecimal("8000"));
     }
 
     @Test
@@ -120,26 +152,94 @@ class BilleteServiceImplTest {
     }
 
     @Test
-    void listarPorSorteo_ok_mapeaAListaDeDtos() {
+    void listarPorSorteo_ultimaPagina_sinCursor() {
         Long sorteoId = 42L;
-        Sorteo s = new Sorteo();
-        s.setId(sorteoId);
+        BilleteDto b1 = new BilleteDto(1L, "0001", new BigDecimal("10000"), EstadoBillete.DISPONIBLE, sorteoId);
+        BilleteDto b2 = new BilleteDto(2L, "0002", new BigDecimal("10000"), EstadoBillete.VENDIDO, sorteoId);
 
-        Billete b1 = Billete.builder().id(1L).numero("0001").precio(new BigDecimal("10000"))
-                .estado(EstadoBillete.DISPONIBLE).sorteo(s).build();
-        Billete b2 = Billete.builder().id(2L).numero("0002").precio(new BigDecimal("10000"))
-                .estado(EstadoBillete.VENDIDO).sorteo(s).build();
+        when(billeteRepo.buscarPagina(sorteoId, -1, 0, null, null, Limit.of(3))).thenReturn(List.of(b1, b2));
 
-        when(billeteRepo.findBySorteoId(sorteoId)).thenReturn(List.of(b1, b2));
+        var pagina = service.listarPorSorteo(sorteoId, null, null, null, null, 2);
 
-        var lista = service.listarPorSorteo(sorteoId);
+        assertEquals(2, pagina.getBilletes().size());
+        assertEquals("0001", pagina.getBilletes().get(0).getNumero());
+        assertEquals(EstadoBillete.VENDIDO, pagina.getBilletes().get(1).getEstado());
+        assertNull(pagina.getSiguiente());
+    }
 
-        assertEquals(2, lista.size());
-        assertEquals("0001", lista.get(0).getNumero());
-        assertEquals(EstadoBillete.DISPONIBLE, lista.get(0).getEstado());
-        assertEquals(sorteoId, lista.get(0).getSorteoId());
+    @Test
+    void listarPorSorteo_hayMas_devuelveLimiteYCursorDelUltimo() {
+        Long sorteoId = 42L;
+        List<BilleteDto> filas = List.of(
+                new BilleteDto(11L, "0011", new BigDecimal("10000"), EstadoBillete.DISPONIBLE, sorteoId),
+                new BilleteDto(12L, "0012", new BigDecimal("10000"), EstadoBillete.DISPONIBLE, sorteoId),
+                new BilleteDto(13L, "0013", new BigDecimal("10000"), EstadoBillete.DISPONIBLE, sorteoId));
+
+        // Cursor y filtros llegan como enteros a la consulta; se pide un billete de más
+        when(billeteRepo.buscarPagina(sorteoId, 10, 5, 500, EstadoBillete.DISPONIBLE, Limit.of(3)))
+                .thenReturn(filas);
+
+        var pagina = service.listarPorSorteo(sorteoId, EstadoBillete.DISPONIBLE, "0005", "0500", "0010", 2);
 
-        assertEquals("0002", lista.get(1).getNumero());
-        assertEquals(EstadoBillete.VENDIDO, lista.get(1).getEstado());
+        assertEquals(List.of("0011", "0012"), pagina.getBilletes().stream().map(BilleteDto::getNumero).toList());
+        assertEquals("0012", pagina.getSiguiente());
+    }
+
+    @Test
+    void listarPorSorteo_sorteoArchivado_consultaElArchivo() {
+        Sorteo sorteo = new Sorteo();
+        sorteo.setId(7L);
+        sorteo.setFechaArchivo(java.time.LocalDateTime.now());
+        when(sorteoRepo.findById(7L)).thenReturn(Optional.of(sorteo));
+        when(archivoRepo.buscarPagina(7L, -1, 0, null, EstadoBillete.VENDIDO, Limit.of(11))).thenReturn(List.of(
+                new BilleteDto(5L, "0005", new BigDecimal("10000"), EstadoBillete.VENDIDO, 7L)));
+
+        var pagina = service.listarPorSorteo(7L, EstadoBillete.VENDIDO, null, null, null, 10);
+
+        assertEquals(List.of(5L), pagina.getBilletes().stream().map(BilleteDto::getId).toList());
+        verify(billeteRepo, never()).buscarPagina(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void listarPorSorteo_sorteoVirtual_completaLosNumerosSinFila() {
+        Sorteo sorteo = Sorteo.builder().id(9L).numerosVirtuales(10).precioVirtual(new BigDecimal("5000")).build();
+        when(sorteoRepo.findById(9L)).thenReturn(Optional.of(sorteo));
+        // Primera ventana (números 1 a 4): solo el 2 tiene fila, y está vendido
+        when(billeteRepo.buscarPagina(9L, 0, 1, 4, null, Limit.of(4))).thenReturn(List.of(
+                new BilleteDto(20L, "0002", new BigDecimal("5000"), EstadoBillete.VENDIDO, 9L)));
+
+        var pagina = service.listarPorSorteo(9L, EstadoBillete.DISPONIBLE, null, null, null, 3);
+
+        assertEquals(List.of("0001", "0003", "0004"),
+                pagina.getBilletes().stream().map(BilleteDto::getNumero).toList());
+        assertNull(pagina.getBilletes().get(0).getId());
+        assertEquals(new BigDecimal("5000"), pagina.getBilletes().get(0).getPrecio());
+        assertEquals("0004", pagina.getSiguiente());
+        // La página se completó con la segunda ventana (números 5 a 8)
+        verify(billeteRepo).buscarPagina(9L, 4, 5, 8, null, Limit.of(4));
+    }
+
+    @Test
+    void crearBillete_sorteoVirtual_lanzaIllegalState() {
+        Sorteo sorteo = Sorteo.builder().id(9L).numerosVirtuales(10).build();
+        when(sorteoRepo.findById(9L)).thenReturn(Optional.of(sorteo));
+        BilleteDto req = new BilleteDto(null, "0007", new BigDecimal("5000"), null, 9L);
+
+        assertThrows(IllegalStateException.class, () -> service.crearBillete(req));
+        verify(billeteRepo, never()).save(any());
+    }
+
+    @Test
+    void listarPorSorteo_limiteFueraDeRango_lanzaIllegalArgument() {
+        assertThrows(IllegalArgumentException.class, () -> service.listarPorSorteo(1L, null, null, null, null, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.listarPorSorteo(1L, null, null, null, null, BilleteServiceImpl.LIMITE_MAXIMO + 1));
+        verifyNoInteractions(billeteRepo);
+    }
+
+    @Test
+    void listarPorSorteo_cursorNoNumerico_lanzaIllegalArgument() {
+        assertThrows(IllegalArgumentException.class, () -> service.listarPorSorteo(1L, null, null, null, "00a1", 10));
+        verifyNoInteractions(billeteRepo);
     }
 }
@@ -0,0 +1,114 @@
+package org.konex.sistemaloteria.billete.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias de los conjuntos en memoria de billetes libres.
+ */
+class BilletesLibresTest {
+
+    private JdbcTemplate jdbc;
+    private BilletesLibres libres;
+
+    @BeforeEach
+    void setUp() {
+        jdbc = mock(JdbcTemplate.class);
+        // Sin recargas automáticas durante la prueba
+        libres = new BilletesLibres(jdbc, 60_000);
+    }
+
+    /** Simula la consulta de billetes no vendidos del sorteo: {@code filas} son pares (id, estado). */
+    private void billetes(Long sorteoId, Object... filas) throws Exception {
+        int[] fila = {0};
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong(1)).thenAnswer(inv -> filas[fila[0]]);
+        when(rs.getString(2)).thenAnswer(inv -> filas[fila[0] + 1]);
+        doAnswer(inv -> {
+            RowCallbackHandler handler = inv.getArgument(1);
+            for (fila[0] = 0; fila[0] < filas.length; fila[0] += 2) {
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbc).query(anyString(), any(RowCallbackHandler.class), eq(sorteoId), eq("VENDIDO"));
+    }
+
+    @Test
+    void tomarSiguiente_enOrdenDeNumero_yDevolverLoRecupera() throws Exception {
+        // Orden de número: 30, 10 (reservado), 20
+        billetes(1L, 30L, "DISPONIBLE", 10L, "RESERVADO", 20L, "DISPONIBLE");
+
+        assertThat(libres.tomarSiguiente(1L)).isEqualTo(30L);
+        assertThat(libres.tomarSiguiente(1L)).isEqualTo(20L);
+        assertThat(libres.tomarSiguiente(1L)).isNull();
+
+        // Vence la reserva del billete 10
+        libres.devolver(10L);
+        assertThat(libres.tomarSiguiente(1L)).isEqualTo(10L);
+        verify(jdbc, times(1)).query(anyString(), any(RowCallbackHandler.class), eq(1L), eq("VENDIDO"));
+    }
+
+    @Test
+    void tomarAleatorio_concurrente_nuncaRepiteUnBillete() throws Exception {
+        List<Object> filas = new ArrayList<>();
+        for (long id = 1; id <= 2000; id++) {
+            filas.add(id);
+            filas.add("DISPONIBLE");
+        }
+        billetes(1L, filas.toArray());
+
+        ConcurrentLinkedQueue<Long> tomados = new ConcurrentLinkedQueue<>();
+        ExecutorService hilos = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int h = 0; h < 8; h++) {
+                tareas.add(hilos.submit(() -> {
+                    Long id;
+                    while ((id = libres.tomarAleatorio(1L)) != null) {
+                        tomados.add(id);
+                    }
+                }));
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+        } finally {
+            hilos.shutdownNow();
+        }
+
+        Set<Long> distintos = new HashSet<>(tomados);
+        assertThat(tomados).hasSize(2000);
+        assertThat(distintos).hasSize(2000);
+    }
+
+    @Test
+    void invalidar_recargaEnElSiguienteUso() throws Exception {
+        billetes(1L, 10L, "DISPONIBLE");
+        assertThat(libres.tomarSiguiente(1L)).isEqualTo(10L);
+
+        billetes(1L, 10L, "RESERVADO", 11L, "DISPONIBLE");
+        libres.invalidar(1L);
+
+        assertThat(libres.tomarSiguiente(1L)).isEqualTo(11L);
+        // Los billetes de otros sorteos no pertenecen al conjunto
+        libres.devolver(99L);
+        assertThat(libres.tomarSiguiente(1L)).isNull();
+    }
+}
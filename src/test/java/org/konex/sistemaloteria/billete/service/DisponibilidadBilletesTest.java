@@ -0,0 +1,70 @@
+package org.konex.sistemaloteria.billete.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.konex.sistemaloteria.billete.repository.BilleteRepository;
+import org.konex.sistemaloteria.compartido.EstadoBillete;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias del mapa en memoria de billetes vendidos.
+ */
+class DisponibilidadBilletesTest {
+
+    private BilleteRepository billeteRepo;
+    private DisponibilidadBilletes disponibilidad;
+
+    @BeforeEach
+    void setUp() {
+        billeteRepo = mock(BilleteRepository.class);
+        disponibilidad = new DisponibilidadBilletes(billeteRepo);
+    }
+
+    @Test
+    void billeteDesconocido_noFiguraVendido() {
+        assertThat(disponibilidad.estaVendido(1L)).isFalse();
+        assertThat(disponibilidad.estaVendido(null)).isFalse();
+        assertDoesNotThrow(() -> disponibilidad.verificarDisponible(1L));
+    }
+
+    @Test
+    void marcarVendido_afectaSoloAlBilleteIndicado() {
+        long enOtraPagina = DisponibilidadBilletes.BITS_POR_PAGINA * 3L + 64;
+
+        disponibilidad.marcarVendido(63L);
+        disponibilidad.marcarVendido(enOtraPagina);
+
+        assertThat(disponibilidad.estaVendido(63L)).isTrue();
+        assertThat(disponibilidad.estaVendido(enOtraPagina)).isTrue();
+        assertThat(disponibilidad.estaVendido(62L)).isFalse();
+        assertThat(disponibilidad.estaVendido(64L)).isFalse();
+        assertThat(disponibilidad.estaVendido(enOtraPagina - 1)).isFalse();
+        assertThrows(IllegalStateException.class, () -> disponibilidad.verificarDisponible(63L));
+    }
+
+    @Test
+    void reconciliar_cargaVendidosYCuentaDiferencias() {
+        when(billeteRepo.findIdsByEstado(EstadoBillete.VENDIDO)).thenReturn(List.of(1L, 2L, 3L));
+
+        assertThat(disponibilidad.reconciliar()).isEqualTo(3);
+        assertThat(disponibilidad.estaVendido(2L)).isTrue();
+
+        // En memoria figura vendido el 9, pero en BD no; y falta el 4
+        disponibilidad.marcarVendido(9L);
+        when(billeteRepo.findIdsByEstado(EstadoBillete.VENDIDO)).thenReturn(List.of(1L, 2L, 3L, 4L));
+
+        assertThat(disponibilidad.reconciliar()).isEqualTo(2);
+        assertThat(disponibilidad.estaVendido(9L)).isFalse();
+        assertThat(disponibilidad.estaVendido(4L)).isTrue();
+
+        // Sin cambios: no hay diferencias
+        assertThat(disponibilidad.reconciliar()).isZero();
+        verify(billeteRepo, times(3)).findIdsByEstado(EstadoBillete.VENDIDO);
+    }
+}
@@ -0,0 +1,229 @@
+package org.konex.sistemaloteria.billete.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.konex.sistemaloteria.sorteo.service.DatosVentaSorteos;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias de los billetes de sorteos virtuales: se crean al pedirlos.
+ */
+class NumerosVirtualesTest {
+
+    private JdbcTemplate jdbc;
+    private DatosVentaSorteos datos;
+    private NumerosVirtuales numeros;
+
+    @BeforeEach
+    void setUp() {
+        jdbc = mock(JdbcTemplate.class);
+        datos = mock(DatosVentaSorteos.class);
+        // Sin recargas automáticas durante la prueba
+        numeros = new NumerosVirtuales(jdbc, datos, 60_000);
+    }
+
+    /** El sorteo 1 es virtual con los números 1..10 a 5000. */
+    @SuppressWarnings("unchecked")
+    private void sorteoVirtual() throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getInt(1)).thenReturn(10);
+        when(rs.getBigDecimal(2)).thenReturn(new BigDecimal("5000"));
+        when(jdbc.query(anyString(), any(RowMapper.class), eq(1L))).thenAnswer(inv ->
+                List.of(inv.<RowMapper<Object>>getArgument(1).mapRow(rs, 0)));
+    }
+
+    /** Números reservados o vendidos del sorteo 1 que devuelve la carga del rango. */
+    private void ocupados(Integer... ocupados) throws Exception {
+        int[] actual = new int[1];
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getInt(1)).thenAnswer(inv -> actual[0]);
+        doAnswer(inv -> {
+            RowCallbackHandler handler = inv.getArgument(1);
+            for (int numero : ocupados) {
+                actual[0] = numero;
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbc).query(anyString(), any(RowCallbackHandler.class), eq(1L), eq("DISPONIBLE"));
+    }
+
+    /** Cada número materializado del sorteo 1 tiene el ID {@code numero * 10}. */
+    private void idsPorNumero() {
+        when(jdbc.queryForList(anyString(), eq(Long.class), eq(1L), anyInt()))
+                .thenAnswer(inv -> List.of(inv.<Integer>getArgument(3) * 10L));
+    }
+
+    @Test
+    void billeteId_sorteoVirtual_creaLaFilaYDevuelveSuId() throws Exception {
+        sorteoVirtual();
+        when(jdbc.queryForList(anyString(), eq(Long.class), eq(1L), eq(7))).thenReturn(List.of(70L));
+
+        assertThat(numeros.billeteId(1L, 7)).isEqualTo(70L);
+        verify(jdbc).update(anyString(), eq(7), eq(new BigDecimal("5000")), eq("DISPONIBLE"), eq(1L));
+    }
+
+    @Test
+    void billeteId_fueraDeRango_rechazaSinEscribir() throws Exception {
+        sorteoVirtual();
+
+        assertThrows(IllegalArgumentException.class, () -> numeros.billeteId(1L, 11));
+        verify(jdbc, never()).update(anyString(), any(), any(), any(), any());
+    }
+
+    @Test
+    void billeteId_sorteoCerrado_rechazaSinCrearLaFila() throws Exception {
+        sorteoVirtual();
+        when(datos.cerrado(1L)).thenReturn(true);
+
+        assertThrows(IllegalStateException.class, () -> numeros.billeteId(1L, 7));
+        verify(jdbc, never()).update(anyString(), any(), any(), any(), any());
+    }
+
+    @Test
+    void billeteId_sorteoNoVirtualSinElNumero_noExiste() {
+        assertThrows(NoSuchElementException.class, () -> numeros.billeteId(2L, 7));
+        verify(jdbc, never()).update(anyString(), any(), any(), any(), any());
+    }
+
+    @Test
+    void tomarSiguiente_saltaLosNumerosOcupados() throws Exception {
+        sorteoVirtual();
+        ocupados(1, 2, 4);
+        when(jdbc.queryForList(anyString(), eq(Long.class), eq(1L), eq(3))).thenReturn(List.of(30L));
+
+        assertThat(numeros.tomarSiguiente(1L)).isEqualTo(30L);
+    }
+
+    @Test
+    void tomarSiguiente_rangoCompleto_devuelveNull() throws Exception {
+        sorteoVirtual();
+        ocupados(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+
+        assertThat(numeros.tomarSiguiente(1L)).isNull();
+        verify(jdbc, never()).update(anyString(), any(), any(), any(), any());
+    }
+
+    @Test
+    void tomar_noEntregaDosVecesElMismoNumero_yLaCargaEsUnica() throws Exception {
+        sorteoVirtual();
+        ocupados(3);
+        idsPorNumero();
+
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 9; i++) {
+            ids.add(i % 2 == 0 ? numeros.tomarSiguiente(1L) : numeros.tomarAleatorio(1L));
+        }
+
+        assertThat(ids).hasSize(9).doesNotContain(30L);
+        assertThat(numeros.tomarAleatorio(1L)).isNull();
+        verify(jdbc, times(1)).query(anyString(), any(RowCallbackHandler.class), eq(1L), eq("DISPONIBLE"));
+    }
+
+    @Test
+    void tomar_concurrente_numerosDistintos() throws Exception {
+        sorteoVirtual();
+        ocupados();
+        idsPorNumero();
+        CountDownLatch salida = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Long>> tomados = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                tomados.add(pool.submit(() -> {
+                    salida.await();
+                    return numeros.tomarAleatorio(1L);
+                }));
+            }
+            salida.countDown();
+            Set<Long> ids = new HashSet<>();
+            for (Future<Long> f : tomados) {
+                ids.add(f.get());
+            }
+            assertThat(ids).hasSize(10);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void devolver_vuelveAOfrecerElNumero() throws Exception {
+        sorteoVirtual();
+        ocupados(1);
+        idsPorNumero();
+        assertThat(numeros.tomarSiguiente(1L)).isEqualTo(20L);
+
+        // El billete 20 es el número 2 del sorteo 1
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong(1)).thenReturn(1L);
+        when(rs.getInt(2)).thenReturn(2);
+        doAnswer(inv -> {
+            inv.<RowCallbackHandler>getArgument(1).processRow(rs);
+            return null;
+        }).when(jdbc).query(anyString(), any(RowCallbackHandler.class), eq(20L));
+        numeros.devolver(20L);
+
+        assertThat(numeros.tomarSiguiente(1L)).isEqualTo(20L);
+    }
+
+    @Test
+    void invalidar_descartaLaDefinicionYElRango() throws Exception {
+        sorteoVirtual();
+        ocupados();
+        idsPorNumero();
+        assertThat(numeros.tomarSiguiente(1L)).isEqualTo(10L);
+
+        numeros.invalidar(1L);
+
+        // El rango se vuelve a cargar desde la base de datos (donde el 1 sigue libre)
+        assertThat(numeros.tomarSiguiente(1L)).isEqualTo(10L);
+        verify(jdbc, times(2)).query(anyString(), any(RowMapper.class), eq(1L));
+        verify(jdbc, times(2)).query(anyString(), any(RowCallbackHandler.class), eq(1L), eq("DISPONIBLE"));
+    }
+
+    @Test
+    void tomar_siFallaLaMaterializacion_elNumeroVuelve() throws Exception {
+        sorteoVirtual();
+        ocupados();
+        AtomicLong intentos = new AtomicLong();
+        when(jdbc.update(anyString(), eq(1), any(), any(), eq(1L))).thenAnswer(inv -> {
+            if (intentos.incrementAndGet() == 1) {
+                throw new IllegalStateException("sin conexión");
+            }
+            return 1;
+        });
+        idsPorNumero();
+
+        assertThrows(IllegalStateException.class, () -> numeros.tomarSiguiente(1L));
+        assertThat(numeros.tomarSiguiente(1L)).isEqualTo(10L);
+    }
+
+    @Test
+    void esVirtual_laDefinicionSeConsultaUnaVez() throws Exception {
+        sorteoVirtual();
+
+        assertThat(numeros.esVirtual(1L)).isTrue();
+        assertThat(numeros.esVirtual(1L)).isTrue();
+        assertThat(numeros.esVirtual(2L)).isFalse();
+        verify(jdbc, times(1)).query(anyString(), any(RowMapper.class), eq(1L));
+    }
+}
@@ -6,7 +6,12 @@ import org.konex.sistemaloteria.billete.dto.BilleteDto;
 import org.konex.sistemaloteria.billete.repository.BilleteRepository;
 import org.konex.sistemaloteria.cliente.dto.ClienteDto;
 import org.konex.sistemaloteria.cliente.dto.HistorialClienteDto;
+import org.konex.sistemaloteria.cliente.dto.PaginaClientesDto;
+import org.konex.sistemaloteria.cliente.dto.ReconstruccionComprasDto;
+import org.konex.sistemaloteria.cliente.dto.ResumenComprasDto;
+import org.konex.sistemaloteria.cliente.dto.ResumenImportacionDto;
 import org.konex.sistemaloteria.cliente.service.ClienteService;
+import org.konex.sistemaloteria.cliente.service.ImportadorClientes;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -15,6 +20,7 @@ import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
@@ -33,6 +39,80 @@ class ClienteControllerTest {
 
     @MockitoBean private ClienteService service;          // <-- mock del service
     @MockitoBean private BilleteRepository billeteRepo;   // <-- mock del repo usado por el controller
+    @MockitoBean private org.konex.sistemaloteria.billete.repository.BilleteArchivadoRepository archivoRepo;
+
+    /* ===================== LISTADO ===================== */
+
+    @Test
+    void get_listar_devuelvePaginaYCursorSiguiente() throws Exception {
+        when(service.listar(100L, 2)).thenReturn(new PaginaClientesDto(List.of(
+                new ClienteDto(101L, "Ana Gómez", "ana@example.com"),
+                new ClienteDto(102L, "Luis Pérez", "luis@example.com")), 102L));
+
+        mvc.perform(get("/api/clientes").param("despues", "100").param("limite", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].correo").value("luis@example.com"))
+                .andExpect(header().string("X-Cursor-Siguiente", "102"));
+    }
+
+    @Test
+    void get_listar_ultimaPagina_sinCabecera() throws Exception {
+        when(service.listar(null, 100)).thenReturn(new PaginaClientesDto(List.of(
+                new ClienteDto(1L, "Ana Gómez", "ana@example.com")), null));
+
+        mvc.perform(get("/api/clientes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(header().doesNotExist("X-Cursor-Siguiente"));
+    }
+
+    /* ===================== IMPORTACIÓN ===================== */
+
+    @Test
+    void post_importarCsv_devuelveResumen() throws Exception {
+        when(service.importar(any(), eq(ImportadorClientes.Formato.CSV))).thenReturn(new ResumenImportacionDto(
+                3, 1, 1, 1, List.of(new ResumenImportacionDto.ErrorLinea(4, "El correo no tiene un formato válido")), 12));
+
+        mvc.perform(post("/api/clientes/import")
+                        .contentType("text/csv")
+                        .content("nombre,correo\nAna,ana@example.com\nLuis,luis@example.com\nX,no-es-email\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.creados").value(1))
+                .andExpect(jsonPath("$.rechazados").value(1))
+                .andExpect(jsonPath("$.errores[0].linea").value(4));
+    }
+
+    @Test
+    void post_importar_tipoNoSoportado_415() throws Exception {
+        mvc.perform(post("/api/clientes/import")
+                        .contentType(MediaType.APPLICATION_XML)
+                        .content("<clientes/>"))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+
+    /* ===================== RESUMEN DE COMPRAS ===================== */
+
+    @Test
+    void get_compras_devuelveResumen() throws Exception {
+        when(service.resumenCompras(7L)).thenReturn(new ResumenComprasDto(
+                7L, 3, new BigDecimal("30000"), LocalDateTime.of(2025, 11, 9, 10, 0)));
+
+        mvc.perform(get("/api/clientes/7/compras"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.billetes").value(3))
+                .andExpect(jsonPath("$.totalGastado").value(30000))
+                .andExpect(jsonPath("$.ultimaCompra").value("2025-11-09T10:00:00"));
+    }
+
+    @Test
+    void post_reconstruirCompras_devuelveClientes() throws Exception {
+        when(service.reconstruirResumenCompras()).thenReturn(new ReconstruccionComprasDto(42, 15));
+
+        mvc.perform(post("/api/clientes/compras/reconstruccion"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.clientes").value(42));
+    }
 
     /* ===================== CREATE ===================== */
 
@@ -2,12 +2,17 @@ package org.konex.sistemaloteria.cliente.service;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.konex.sistemaloteria.billete.model.Billete;
+import org.konex.sistemaloteria.billete.repository.BilleteArchivadoRepository;
+import org.konex.sistemaloteria.billete.repository.BilleteRepository;
 import org.konex.sistemaloteria.cliente.dto.ClienteDto;
 import org.konex.sistemaloteria.cliente.dto.HistorialClienteDto;
+import org.konex.sistemaloteria.cliente.dto.PaginaClientesDto;
+import org.konex.sistemaloteria.cliente.dto.ResumenComprasDto;
 import org.konex.sistemaloteria.cliente.model.Cliente;
 import org.konex.sistemaloteria.cliente.repository.ClienteRepository;
 import org.konex.sistemaloteria.compartido.EstadoBillete;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -30,15 +35,57 @@ import static org.mockito.Mockito.*;
 class ClienteServiceTest {
 
     private ClienteRepository repo;
+    private BilleteArchivadoRepository archivoRepo;
+    private BilleteRepository billeteRepo;
+    private IndiceCorreos correos;
+    private ResumenComprasClientes compras;
     private ClienteServiceImpl service;
 
     @BeforeEach
     void init() {
         repo = mock(ClienteRepository.class);
-        // Si tu ClienteServiceImpl tiene solo ClienteRepository en el constructor:
-        service = new ClienteServiceImpl(repo);
-        // Si tu implementación requiere también VentaRepository, usa:
-        // service = new ClienteServiceImpl(repo, ventaRepoMock);
+        archivoRepo = mock(BilleteArchivadoRepository.class);
+        billeteRepo = mock(BilleteRepository.class);
+        // Índice sin cargar: el filtro no descarta ningún correo hasta que se llame a cargar()
+        correos = new IndiceCorreos(mock(JdbcTemplate.class), 1000, 100);
+        compras = mock(ResumenComprasClientes.class);
+        service = new ClienteServiceImpl(repo, archivoRepo, billeteRepo, mock(ExportadorClientes.class), correos,
+                mock(ImportadorClientes.class), compras);
+    }
+
+    /* =====================================================
+       LISTADO POR PÁGINAS
+    ===================================================== */
+
+    @Test
+    void listar_hayMas_devuelveLimiteYCursorDelUltimo() {
+        when(repo.buscarPagina(10L, Limit.of(3))).thenReturn(List.of(
+                new ClienteDto(11L, "A", "a@example.com"),
+                new ClienteDto(12L, "B", "b@example.com"),
+                new ClienteDto(13L, "C", "c@example.com")));
+
+        PaginaClientesDto pagina = service.listar(10L, 2);
+
+        assertThat(pagina.getClientes()).extracting(ClienteDto::getId).containsExactly(11L, 12L);
+        assertThat(pagina.getSiguiente()).isEqualTo(12L);
+    }
+
+    @Test
+    void listar_primeraYUltimaPagina_sinCursor() {
+        when(repo.buscarPagina(0L, Limit.of(101))).thenReturn(List.of(new ClienteDto(1L, "A", "a@example.com")));
+
+        PaginaClientesDto pagina = service.listar(null, 100);
+
+        assertThat(pagina.getClientes()).hasSize(1);
+        assertThat(pagina.getSiguiente()).isNull();
+    }
+
+    @Test
+    void listar_limiteFueraDeRango_lanzaIllegalArgument() {
+        assertThrows(IllegalArgumentException.class, () -> service.listar(null, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.listar(null, ClienteServiceImpl.LIMITE_MAXIMO + 1));
+        verifyNoInteractions(repo);
     }
 
     /* =====================================================
@@ -81,6 +128,52 @@ class ClienteServiceTest {
         assertThrows(IllegalArgumentException.class, () -> service.crearCliente(dto));
     }
 
+    @Test
+    void crearCliente_normalizaCorreoYNoConsultaSiElFiltroLoDescarta() {
+        correos.cargar();
+        Cliente guardado = Cliente.builder().id(5L).nombre("Luis").correo("luis@example.com").build();
+        when(repo.save(any(Cliente.class))).thenReturn(guardado);
+
+        ClienteDto dto = new ClienteDto();
+        dto.setNombre("Luis");
+        dto.setCorreo("  Luis@Example.COM ");
+        service.crearCliente(dto);
+
+        verify(repo).save(argThat(c -> c.getCorreo().equals("luis@example.com")));
+        verify(repo, never()).findByCorreo(any());
+        assertThat(correos.id("luis@example.com")).isEqualTo(5L);
+    }
+
+    /* =====================================================
+       RESUMEN DE COMPRAS
+    ===================================================== */
+
+    @Test
+    void obtenerPorId_incluyeResumenDeCompras() {
+        Cliente cliente = Cliente.builder().id(10L).nombre("Ana").correo("ana@example.com").build();
+        ResumenComprasDto resumen = new ResumenComprasDto(10L, 2, new BigDecimal("20000"), null);
+        when(repo.findById(10L)).thenReturn(Optional.of(cliente));
+        when(compras.obtener(10L)).thenReturn(resumen);
+
+        assertThat(service.obtenerPorId(10L).getCompras()).isSameAs(resumen);
+    }
+
+    @Test
+    void resumenCompras_sinComprasYClienteInexistente_lanzaIllegalArgument() {
+        when(compras.obtener(10L)).thenReturn(new ResumenComprasDto(10L, 0, BigDecimal.ZERO, null));
+        when(repo.existsById(10L)).thenReturn(false);
+
+        assertThrows(IllegalArgumentException.class, () -> service.resumenCompras(10L));
+    }
+
+    @Test
+    void resumenCompras_conCompras_noConsultaElCliente() {
+        when(compras.obtener(10L)).thenReturn(new ResumenComprasDto(10L, 1, new BigDecimal("10000"), null));
+
+        assertThat(service.resumenCompras(10L).getBilletes()).isEqualTo(1);
+        verifyNoInteractions(repo);
+    }
+
     /* =====================================================
        HISTORIAL POR CORREO
     ===================================================== */
@@ -92,21 +185,13 @@ class ClienteServiceTest {
         cliente.setNombre("Ana Gómez");
         cliente.setCorreo("ana@example.com");
 
-        Billete b1 = new Billete();
-        b1.setId(1L);
-        b1.setNumero("0001");
-        b1.setPrecio(new BigDecimal("10000"));
-        b1.setEstado(EstadoBillete.VENDIDO);
-
-        Billete b2 = new Billete();
-        b2.setId(2L);
-        b2.setNumero("0002");
-        b2.setPrecio(new BigDecimal("12000"));
-        b2.setEstado(EstadoBillete.DISPONIBLE);
-
-        cliente.setBilletes(List.of(b1, b2));
-
         when(repo.findByCorreo("ana@example.com")).thenReturn(Optional.of(cliente));
+        // Los billetes llegan ya proyectados, con el nombre del sorteo, en una sola consulta
+        when(billeteRepo.resumirPorCliente(10L)).thenReturn(List.of(
+                new HistorialClienteDto.BilleteResumen(
+                        1L, 1, 4, new BigDecimal("10000"), EstadoBillete.VENDIDO, 3L, "Sorteo de Navidad"),
+                new HistorialClienteDto.BilleteResumen(
+                        2L, 2, 4, new BigDecimal("12000"), EstadoBillete.RESERVADO, 3L, "Sorteo de Navidad")));
 
         HistorialClienteDto result = service.historialPorCorreo("ana@example.com");
 
@@ -118,7 +203,66 @@ class ClienteServiceTest {
         // 👇 Billetes: 'estado' es String, no enum
         assertThat(result.getBilletes()).hasSize(2);
         assertThat(result.getBilletes().get(0).getNumero()).isEqualTo("0001");
-        assertThat(result.getBilletes().get(1).getEstado()).isEqualTo("DISPONIBLE");
+        assertThat(result.getBilletes().get(1).getEstado()).isEqualTo("RESERVADO");
+        assertThat(result.getBilletes().get(1).getSorteoNombre()).isEqualTo("Sorteo de Navidad");
+        verify(billeteRepo, times(1)).resumirPorCliente(10L);
+    }
+
+    @Test
+    void historialPorCorreo_incluyeBilletesDeSorteosArchivados() {
+        Cliente cliente = new Cliente();
+        cliente.setId(10L);
+        cliente.setNombre("Ana Gómez");
+        cliente.setCorreo("ana@example.com");
+
+        when(repo.findByCorreo("ana@example.com")).thenReturn(Optional.of(cliente));
+        when(archivoRepo.resumirPorCliente(10L)).thenReturn(List.of(new HistorialClienteDto.BilleteResumen(
+                7L, 7, 4, new BigDecimal("10000"), EstadoBillete.VENDIDO, 1L, "Sorteo de Año Nuevo")));
+
+        HistorialClienteDto result = service.historialPorCorreo("ana@example.com");
+
+        assertThat(result.getBilletes()).hasSize(1);
+        assertThat(result.getBilletes().get(0).getNumero()).isEqualTo("0007");
+        assertThat(result.getBilletes().get(0).getEstado()).isEqualTo("VENDIDO");
+        assertThat(result.getBilletes().get(0).getSorteoNombre()).isEqualTo("Sorteo de Año Nuevo");
+    }
+
+    @Test
+    void historialPorCorreo_correoDescartadoPorElFiltro_noConsulta() {
+        correos.cargar();
+
+        assertThrows(IllegalArgumentException.class, () ->
+                service.historialPorCorreo("bot." + System.nanoTime() + "@example.com"));
+        verifyNoInteractions(repo, billeteRepo, archivoRepo);
+    }
+
+    @Test
+    void historialPorCorreo_correoEnCache_buscaPorId() {
+        Cliente cliente = Cliente.builder().id(10L).nombre("Ana Gómez").correo("ana@example.com").build();
+        correos.cargar();
+        correos.registrar("ana@example.com", 10L);
+        when(repo.findById(10L)).thenReturn(Optional.of(cliente));
+
+        HistorialClienteDto result = service.historialPorCorreo("ANA@example.com");
+
+        assertThat(result.getId()).isEqualTo(10L);
+        verify(repo, never()).findByCorreo(any());
+    }
+
+    @Test
+    void actualizar_cambioDeCorreo_actualizaLaCache() {
+        Cliente cliente = Cliente.builder().id(10L).nombre("Ana").correo("ana@example.com").build();
+        correos.registrar("ana@example.com", 10L);
+        when(repo.findById(10L)).thenReturn(Optional.of(cliente));
+        when(repo.findByCorreo("ana.g@example.com")).thenReturn(Optional.empty());
+
+        ClienteDto dto = new ClienteDto();
+        dto.setNombre("Ana");
+        dto.setCorreo("Ana.G@example.com");
+        service.actualizar(10L, dto);
+
+        assertThat(correos.id("ana@example.com")).isNull();
+        assertThat(correos.id("ana.g@example.com")).isEqualTo(10L);
     }
 
     @Test
@@ -0,0 +1,81 @@
+package org.konex.sistemaloteria.cliente.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias de la exportación NDJSON de clientes.
+ */
+class ExportadorClientesTest {
+
+    private JdbcTemplate jdbc;
+    private ExportadorClientes exportador;
+
+    /** Sentencia creada por el exportador, para revisar el fetch size. */
+    private PreparedStatement sentencia;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        jdbc = mock(JdbcTemplate.class);
+        exportador = new ExportadorClientes(jdbc, new ObjectMapper(), 2);
+
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong("id")).thenReturn(1L, 2L);
+        when(rs.getString("nombre")).thenReturn("Ana Gómez", "Luis Pérez");
+        when(rs.getString("correo")).thenReturn("ana@example.com", "luis@example.com");
+
+        doAnswer(inv -> {
+            Connection con = mock(Connection.class);
+            sentencia = mock(PreparedStatement.class);
+            when(con.prepareStatement(anyString(), anyInt(), anyInt())).thenReturn(sentencia);
+            inv.<PreparedStatementCreator>getArgument(0).createPreparedStatement(con);
+
+            RowCallbackHandler filas = inv.getArgument(1);
+            filas.processRow(rs);
+            filas.processRow(rs);
+            return null;
+        }).when(jdbc).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    @Test
+    void escribir_unClientePorLinea() throws Exception {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        long escritos = exportador.escribir(salida);
+
+        assertThat(escritos).isEqualTo(2);
+        assertThat(salida.toString(StandardCharsets.UTF_8)).isEqualTo("""
+                {"id":1,"nombre":"Ana Gómez","correo":"ana@example.com"}
+                {"id":2,"nombre":"Luis Pérez","correo":"luis@example.com"}
+                """);
+        verify(sentencia).setFetchSize(2);
+    }
+
+    @Test
+    void escribir_clienteDesconectado_propagaIOException() throws Exception {
+        OutputStream salida = mock(OutputStream.class);
+        doThrow(new IOException("Broken pipe")).when(salida).write(any(byte[].class), anyInt(), anyInt());
+
+        IOException e = assertThrows(IOException.class, () -> exportador.escribir(salida));
+        assertThat(e).hasMessage("Broken pipe");
+        verify(salida, never()).close();
+    }
+}
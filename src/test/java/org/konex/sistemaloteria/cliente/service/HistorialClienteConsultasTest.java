@@ -0,0 +1,98 @@
+package org.konex.sistemaloteria.cliente.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.konex.sistemaloteria.billete.model.Billete;
+import org.konex.sistemaloteria.billete.repository.BilleteRepository;
+import org.konex.sistemaloteria.cliente.dto.HistorialClienteDto;
+import org.konex.sistemaloteria.cliente.model.Cliente;
+import org.konex.sistemaloteria.cliente.repository.ClienteRepository;
+import org.konex.sistemaloteria.compartido.EstadoBillete;
+import org.konex.sistemaloteria.sorteo.model.Sorteo;
+import org.konex.sistemaloteria.sorteo.repository.SorteoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cantidad de sentencias SQL del historial de un cliente contra H2 en memoria.
+ *
+ * <p>
+ * Se comparan un cliente con un billete y otro con muchos billetes repartidos en varios
+ * sorteos: el historial debe ejecutar las mismas sentencias en ambos casos (sin una
+ * consulta por billete ni por sorteo).
+ * </p>
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.orm.jdbc.bind=WARN"
+})
+class HistorialClienteConsultasTest {
+
+    @Autowired private ClienteService clienteService;
+    @Autowired private ClienteRepository clienteRepo;
+    @Autowired private SorteoRepository sorteoRepo;
+    @Autowired private BilleteRepository billeteRepo;
+    @Autowired private EntityManagerFactory emf;
+
+    @Test
+    void historialPorCorreo_sentenciasNoDependenDeLaCantidadDeBilletes() {
+        Cliente pocos = clienteConBilletes(1, 1);
+        Cliente muchos = clienteConBilletes(3, 40);
+
+        long sentenciasPocos = sentenciasDelHistorial(pocos.getCorreo(), 1);
+        long sentenciasMuchos = sentenciasDelHistorial(muchos.getCorreo(), 120);
+
+        assertThat(sentenciasMuchos).isEqualTo(sentenciasPocos);
+    }
+
+    /** Consulta el historial y devuelve cuántas sentencias preparó Hibernate. */
+    private long sentenciasDelHistorial(String correo, int billetesEsperados) {
+        Statistics estadisticas = emf.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+
+        HistorialClienteDto historial = clienteService.historialPorCorreo(correo);
+
+        assertThat(historial.getBilletes()).hasSize(billetesEsperados);
+        assertThat(historial.getBilletes()).allSatisfy(b -> assertThat(b.getSorteoNombre()).isNotBlank());
+        return estadisticas.getPrepareStatementCount();
+    }
+
+    /** Crea un cliente con {@code porSorteo} billetes vendidos en cada uno de {@code sorteos} sorteos. */
+    private Cliente clienteConBilletes(int sorteos, int porSorteo) {
+        long marca = System.nanoTime();
+        Cliente cliente = clienteRepo.save(Cliente.builder()
+                .nombre("Cliente " + marca)
+                .correo("historial." + marca + "@example.com")
+                .build());
+
+        List<Billete> billetes = new ArrayList<>();
+        for (int s = 1; s <= sorteos; s++) {
+            Sorteo sorteo = sorteoRepo.save(Sorteo.builder()
+                    .nombre("Sorteo de historial " + marca + "-" + s)
+                    .fechaSorteo(LocalDate.now().plusDays(30))
+                    .build());
+            for (int n = 1; n <= porSorteo; n++) {
+                billetes.add(Billete.builder()
+                        .numero(n)
+                        .precio(new BigDecimal("10000"))
+                        .estado(EstadoBillete.VENDIDO)
+                        .sorteo(sorteo)
+                        .cliente(cliente)
+                        .build());
+            }
+        }
+        billeteRepo.saveAll(billetes);
+        return cliente;
+    }
+}
@@ -0,0 +1,156 @@
+package org.konex.sistemaloteria.cliente.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.konex.sistemaloteria.cliente.dto.ResumenImportacionDto;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias de la importación masiva de clientes (CSV y NDJSON) por lotes JDBC.
+ */
+class ImportadorClientesTest {
+
+    private static final Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private JdbcTemplate jdbc;
+    private PlatformTransactionManager txManager;
+
+    /** Filas enviadas a cada lote de inserción y de actualización, como "nombre|correo". */
+    private final List<List<String>> inserciones = new ArrayList<>();
+    private final List<List<String>> actualizaciones = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        jdbc = mock(JdbcTemplate.class);
+        txManager = mock(PlatformTransactionManager.class);
+        when(jdbc.batchUpdate(startsWith("INSERT"), anyList())).thenAnswer(inv -> {
+            List<Object[]> filas = inv.getArgument(1);
+            inserciones.add(filas.stream().map(f -> f[0] + "|" + f[1]).toList());
+            int[] resultado = new int[filas.size()];
+            Arrays.fill(resultado, 1);
+            return resultado;
+        });
+        when(jdbc.batchUpdate(startsWith("UPDATE"), anyList())).thenAnswer(inv -> {
+            List<Object[]> filas = inv.getArgument(1);
+            actualizaciones.add(filas.stream().map(f -> f[0] + "|" + f[1]).toList());
+            return new int[filas.size()];
+        });
+    }
+
+    private ImportadorClientes importador(int tamanoLote) {
+        return new ImportadorClientes(jdbc, new TransactionTemplate(txManager), new ObjectMapper(), VALIDATOR,
+                new IndiceCorreos(mock(JdbcTemplate.class), 1000, 100), tamanoLote, 10);
+    }
+
+    private static ByteArrayInputStream cuerpo(String texto) {
+        return new ByteArrayInputStream(texto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void csv_creaNuevos_actualizaExistentes_yDetallaRechazos() throws Exception {
+        when(jdbc.queryForList(anyString(), eq(String.class), any(Object[].class)))
+                .thenReturn(List.of("luis@example.com"));
+
+        ResumenImportacionDto r = importador(1000).importar(cuerpo("""
+                correo,id,nombre
+                Ana@Example.com,,Ana Gómez
+                luis@example.com,,"Pérez, Luis"
+                no-es-email,,Sin correo
+
+                ana@example.com,,Ana repetida
+                """), ImportadorClientes.Formato.CSV);
+
+        assertThat(r.getLineas()).isEqualTo(4);
+        assertThat(r.getCreados()).isEqualTo(1);
+        assertThat(r.getActualizados()).isEqualTo(1);
+        assertThat(r.getRechazados()).isEqualTo(2);
+        assertThat(r.getErrores()).extracting(ResumenImportacionDto.ErrorLinea::getLinea).containsExactly(4L, 6L);
+        assertThat(r.getErrores().get(0).getMensaje()).isEqualTo("El correo no tiene un formato válido");
+        assertThat(r.getErrores().get(1).getMensaje()).isEqualTo("Correo repetido (línea 2)");
+
+        // Correo normalizado; una sola consulta de existentes y un lote de cada tipo
+        assertThat(inserciones).containsExactly(List.of("Ana Gómez|ana@example.com"));
+        assertThat(actualizaciones).containsExactly(List.of("Pérez, Luis|luis@example.com"));
+        verify(jdbc, times(1)).queryForList(anyString(), eq(String.class), any(Object[].class));
+        verify(txManager, times(1)).commit(any());
+    }
+
+    @Test
+    void ndjson_guardaPorLotes_yRechazaLineasInvalidas() throws Exception {
+        when(jdbc.queryForList(anyString(), eq(String.class), any(Object[].class))).thenReturn(List.of());
+
+        ResumenImportacionDto r = importador(2).importar(cuerpo("""
+                {"nombre":"A","correo":"a@example.com"}
+                {"nombre":"B","correo":"b@example.com"}
+                {"nombre":"C",
+                {"nombre":"","correo":"d@example.com"}
+                {"nombre":"E","correo":"e@example.com"}
+                """), ImportadorClientes.Formato.NDJSON);
+
+        assertThat(r.getCreados()).isEqualTo(3);
+        assertThat(r.getRechazados()).isEqualTo(2);
+        assertThat(r.getErrores()).extracting(ResumenImportacionDto.ErrorLinea::getMensaje)
+                .containsExactly("JSON inválido", "El nombre es obligatorio");
+        // Lotes de 2: [a, b] y [e], cada uno en su transacción
+        assertThat(inserciones).hasSize(2);
+        assertThat(inserciones.get(1)).containsExactly("E|e@example.com");
+        verify(txManager, times(2)).commit(any());
+    }
+
+    @Test
+    void insercionIgnorada_porCorreoCreadoEnParalelo_pasaAActualizacion() throws Exception {
+        when(jdbc.queryForList(anyString(), eq(String.class), any(Object[].class))).thenReturn(List.of());
+        when(jdbc.batchUpdate(startsWith("INSERT"), anyList())).thenReturn(new int[]{1, 0});
+
+        ResumenImportacionDto r = importador(1000).importar(cuerpo("""
+                nombre,correo
+                A,a@example.com
+                B,b@example.com
+                """), ImportadorClientes.Formato.CSV);
+
+        assertThat(r.getCreados()).isEqualTo(1);
+        assertThat(r.getActualizados()).isEqualTo(1);
+        assertThat(actualizaciones).containsExactly(List.of("B|b@example.com"));
+    }
+
+    @Test
+    void csvSinColumnasNombreYCorreo_lanzaIllegalArgument() {
+        assertThrows(IllegalArgumentException.class, () -> importador(1000).importar(
+                cuerpo("name,email\nAna,ana@example.com\n"), ImportadorClientes.Formato.CSV));
+        verifyNoInteractions(jdbc);
+    }
+
+    @Test
+    void campos_admiteComillasYComillasEscapadas() {
+        assertThat(ImportadorClientes.campos("a,\"b, c\",\"d \"\"e\"\"\",")).containsExactly("a", "b, c", "d \"e\"", "");
+        assertThrows(IllegalArgumentException.class, () -> ImportadorClientes.campos("a,\"b"));
+    }
+
+    @Test
+    void formato_segunTipoDeContenido() {
+        assertThat(ImportadorClientes.Formato.de(MediaType.parseMediaType("text/csv; charset=UTF-8")))
+                .isEqualTo(ImportadorClientes.Formato.CSV);
+        assertThat(ImportadorClientes.Formato.de(MediaType.parseMediaType("application/x-ndjson")))
+                .isEqualTo(ImportadorClientes.Formato.NDJSON);
+        assertThrows(IllegalArgumentException.class,
+                () -> ImportadorClientes.Formato.de(MediaType.APPLICATION_JSON));
+    }
+}
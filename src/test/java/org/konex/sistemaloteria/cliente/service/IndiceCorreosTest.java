@@ -0,0 +1,131 @@
+package org.konex.sistemaloteria.cliente.service;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias del índice de correos: filtro de Bloom y caché acotada correo → ID.
+ */
+class IndiceCorreosTest {
+
+    /** Índice cargado con los correos dados, como si vinieran de la tabla {@code clientes}. */
+    private static IndiceCorreos cargado(int esperados, int cacheMaxima, List<String> existentes) {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        doAnswer(inv -> {
+            RowCallbackHandler handler = inv.getArgument(1);
+            ResultSet rs = mock(ResultSet.class);
+            for (String correo : existentes) {
+                when(rs.getString(1)).thenReturn(correo);
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbc).query(anyString(), any(RowCallbackHandler.class));
+
+        IndiceCorreos indice = new IndiceCorreos(jdbc, esperados, cacheMaxima);
+        assertThat(indice.cargar()).isEqualTo(existentes.size());
+        return indice;
+    }
+
+    @Test
+    void normalizar_quitaEspaciosYPasaAMinusculas() {
+        assertThat(IndiceCorreos.normalizar("  Ana.Gomez@Example.COM ")).isEqualTo("ana.gomez@example.com");
+        assertThat(IndiceCorreos.normalizar(null)).isNull();
+    }
+
+    @Test
+    void sinCargar_ningunCorreoSeDescarta() {
+        IndiceCorreos indice = new IndiceCorreos(mock(JdbcTemplate.class), 1000, 100);
+
+        assertThat(indice.puedeExistir("cualquiera@example.com")).isTrue();
+    }
+
+    @Test
+    void cargados_nuncaSeDescartan_yLosDemasCasiSiempre() {
+        List<String> existentes = IntStream.range(0, 1000)
+                .mapToObj(i -> "cliente" + i + "@example.com").toList();
+        IndiceCorreos indice = cargado(1000, 100, existentes);
+
+        assertThat(existentes).allMatch(indice::puedeExistir);
+
+        long falsosPositivos = IntStream.range(0, 10_000)
+                .filter(i -> indice.puedeExistir("bot" + i + "@example.com"))
+                .count();
+        // ~1 % esperado; margen amplio para que la prueba no dependa de los hashes concretos
+        assertThat(falsosPositivos).isLessThan(300);
+    }
+
+    @Test
+    void anticipar_yRegistrar_agreganAlFiltro() {
+        IndiceCorreos indice = cargado(1000, 100, List.of());
+
+        assertThat(indice.puedeExistir("nuevo@example.com")).isFalse();
+        indice.anticipar("nuevo@example.com");
+        assertThat(indice.puedeExistir("nuevo@example.com")).isTrue();
+
+        indice.registrar("otro@example.com", 7L);
+        assertThat(indice.puedeExistir("otro@example.com")).isTrue();
+        assertThat(indice.id("otro@example.com")).isEqualTo(7L);
+    }
+
+    @Test
+    void cache_acotada_yOlvidar() {
+        IndiceCorreos indice = cargado(1000, 2, List.of());
+
+        indice.registrar("a@example.com", 1L);
+        indice.registrar("b@example.com", 2L);
+        indice.registrar("c@example.com", 3L);
+
+        long enCache = Stream.of("a@example.com", "b@example.com", "c@example.com")
+                .filter(c -> indice.id(c) != null)
+                .count();
+        assertThat(enCache).isEqualTo(2);
+        assertThat(indice.id("c@example.com")).isEqualTo(3L);
+
+        indice.olvidar("c@example.com");
+        assertThat(indice.id("c@example.com")).isNull();
+        // El filtro no olvida: el correo sigue dando "puede estar" y se resuelve con una consulta
+        assertThat(indice.puedeExistir("c@example.com")).isTrue();
+    }
+
+    @Test
+    void cargar_normalizaLosCorreosGuardadosAntesDeLeerlos() {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        IndiceCorreos indice = new IndiceCorreos(jdbc, 1000, 100);
+
+        indice.cargar();
+
+        InOrder orden = inOrder(jdbc);
+        orden.verify(jdbc).queryForList(contains("HAVING COUNT(*) > 1"), eq(String.class));
+        orden.verify(jdbc).update(startsWith("UPDATE clientes SET correo = LOWER(TRIM(correo))"));
+        orden.verify(jdbc).query(eq("SELECT correo FROM clientes"), any(RowCallbackHandler.class));
+    }
+
+    @Test
+    void cargar_correosQueColisionanAlNormalizar_fallaSinModificarNada() {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        when(jdbc.queryForList(anyString(), eq(String.class))).thenReturn(List.of("ana@example.com"));
+        IndiceCorreos indice = new IndiceCorreos(jdbc, 1000, 100);
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, indice::cargar);
+
+        assertThat(ex.getMessage()).contains("ana@example.com");
+        verify(jdbc, never()).update(anyString());
+        assertThat(indice.puedeExistir("luis@example.com")).isTrue();
+    }
+}
@@ -0,0 +1,100 @@
+package org.konex.sistemaloteria.cliente.service;
+
+import org.junit.jupiter.api.Test;
+import org.konex.sistemaloteria.billete.model.Billete;
+import org.konex.sistemaloteria.billete.repository.BilleteRepository;
+import org.konex.sistemaloteria.cliente.dto.ResumenComprasDto;
+import org.konex.sistemaloteria.cliente.model.Cliente;
+import org.konex.sistemaloteria.cliente.repository.ClienteRepository;
+import org.konex.sistemaloteria.compartido.EstadoBillete;
+import org.konex.sistemaloteria.sorteo.model.Sorteo;
+import org.konex.sistemaloteria.sorteo.repository.SorteoRepository;
+import org.konex.sistemaloteria.venta.model.Venta;
+import org.konex.sistemaloteria.venta.repository.VentaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Resumen de compras por cliente contra H2 en memoria: la suma incremental
+ * ({@code ON DUPLICATE KEY UPDATE}) y la reconstrucción desde las ventas.
+ */
+@SpringBootTest
+class ResumenComprasClientesTest {
+
+    @Autowired private ResumenComprasClientes compras;
+    @Autowired private TransactionTemplate transactionTemplate;
+    @Autowired private ClienteRepository clienteRepo;
+    @Autowired private SorteoRepository sorteoRepo;
+    @Autowired private BilleteRepository billeteRepo;
+    @Autowired private VentaRepository ventaRepo;
+
+    private static final LocalDateTime AYER = LocalDateTime.now().minusDays(1).truncatedTo(ChronoUnit.SECONDS);
+    private static final LocalDateTime HOY = AYER.plusDays(1);
+
+    @Test
+    void sumar_creaLaFilaYLuegoAcumula() {
+        Long clienteId = cliente().getId();
+        assertThat(compras.obtener(clienteId).getBilletes()).isZero();
+
+        transactionTemplate.executeWithoutResult(s -> compras.sumar(clienteId, 1, new BigDecimal("10000"), HOY));
+        // Una compra con fecha anterior no retrocede la última compra
+        transactionTemplate.executeWithoutResult(s -> compras.sumar(clienteId, 2, new BigDecimal("5000"), AYER));
+
+        ResumenComprasDto r = compras.obtener(clienteId);
+        assertThat(r.getBilletes()).isEqualTo(3);
+        assertThat(r.getTotalGastado()).isEqualByComparingTo("15000");
+        assertThat(r.getUltimaCompra()).isEqualTo(HOY);
+    }
+
+    @Test
+    void reconstruir_recalculaDesdeLasVentas() {
+        Cliente cliente = cliente();
+        Sorteo sorteo = sorteoRepo.save(Sorteo.builder()
+                .nombre("Sorteo de resumen " + System.nanoTime())
+                .fechaSorteo(LocalDate.now().plusDays(30))
+                .build());
+        vender(cliente, sorteo, 1, "10000", AYER);
+        vender(cliente, sorteo, 2, "12000", HOY);
+        // Un resumen desviado se corrige al reconstruir
+        transactionTemplate.executeWithoutResult(s -> compras.sumar(cliente.getId(), 99, new BigDecimal("1"), AYER));
+
+        assertThat(compras.reconstruir().getClientes()).isPositive();
+
+        ResumenComprasDto r = compras.obtener(cliente.getId());
+        assertThat(r.getBilletes()).isEqualTo(2);
+        assertThat(r.getTotalGastado()).isEqualByComparingTo("22000");
+        assertThat(r.getUltimaCompra()).isEqualTo(HOY);
+    }
+
+    private Cliente cliente() {
+        long marca = System.nanoTime();
+        return clienteRepo.save(Cliente.builder()
+                .nombre("Cliente " + marca)
+                .correo("resumen." + marca + "@example.com")
+                .build());
+    }
+
+    private void vender(Cliente cliente, Sorteo sorteo, int numero, String precio, LocalDateTime fecha) {
+        Billete billete = billeteRepo.save(Billete.builder()
+                .numero(numero)
+                .precio(new BigDecimal(precio))
+                .estado(EstadoBillete.VENDIDO)
+                .sorteo(sorteo)
+                .cliente(cliente)
+                .build());
+        ventaRepo.save(Venta.builder()
+                .billete(billete)
+                .cliente(cliente)
+                .fechaVenta(fecha)
+                .precio(new BigDecimal(precio))
+                .build());
+    }
+}
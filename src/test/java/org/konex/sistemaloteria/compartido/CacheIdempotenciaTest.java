@@ -0,0 +1,99 @@
+package org.konex.sistemaloteria.compartido;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Pruebas unitarias de la caché de idempotencia, con un reloj controlado.
+ */
+class CacheIdempotenciaTest {
+
+    private static final String AMBITO = "POST /api/ventas";
+
+    private final AtomicLong reloj = new AtomicLong();
+    private final CacheIdempotencia cache = new CacheIdempotencia(3, 1_000, reloj::get);
+    private final AtomicInteger ejecuciones = new AtomicInteger();
+
+    private String operar() {
+        return "venta-" + ejecuciones.incrementAndGet();
+    }
+
+    @Test
+    void reintento_devuelveElPrimerResultadoSinEjecutar() {
+        assertThat(cache.ejecutar(AMBITO, "k1", "h", this::operar)).isEqualTo("venta-1");
+        assertThat(cache.ejecutar(AMBITO, "k1", "h", this::operar)).isEqualTo("venta-1");
+        assertThat(ejecuciones.get()).isEqualTo(1);
+    }
+
+    @Test
+    void rechazoDeNegocio_seRepite_errorTransitorio_no() {
+        assertThrows(IllegalStateException.class, () -> cache.ejecutar(AMBITO, "k1", "h", () -> {
+            ejecuciones.incrementAndGet();
+            throw new IllegalStateException("vendido");
+        }));
+        assertThrows(IllegalStateException.class, () -> cache.ejecutar(AMBITO, "k1", "h", this::operar));
+
+        assertThrows(RejectedExecutionException.class, () -> cache.ejecutar(AMBITO, "k2", "h", () -> {
+            throw new RejectedExecutionException("saturado");
+        }));
+        assertThat(cache.ejecutar(AMBITO, "k2", "h", this::operar)).isEqualTo("venta-2");
+    }
+
+    @Test
+    void mismaClaveConOtraSolicitud_rechaza() {
+        cache.ejecutar(AMBITO, "k1", "billete-10", this::operar);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> cache.ejecutar(AMBITO, "k1", "billete-11", this::operar));
+        assertThrows(IllegalArgumentException.class, () -> cache.ejecutar(AMBITO, " ", "h", this::operar));
+        // Otro ámbito no comparte claves
+        assertThat(cache.ejecutar("POST /api/ventas/lote", "k1", "otro", this::operar)).isEqualTo("venta-2");
+    }
+
+    @Test
+    void entradas_vencenYRespetanElTamanoMaximo() {
+        cache.ejecutar(AMBITO, "k1", "h", this::operar);
+        reloj.set(1_000);
+        assertThat(cache.ejecutar(AMBITO, "k1", "h", this::operar)).isEqualTo("venta-2");
+
+        cache.ejecutar(AMBITO, "k2", "h", this::operar);
+        cache.ejecutar(AMBITO, "k3", "h", this::operar);
+        cache.ejecutar(AMBITO, "k4", "h", this::operar);
+        assertThat(cache.tamano()).isEqualTo(3);
+    }
+
+    @Test
+    void duplicadosConcurrentes_seEjecutanUnaSolaVez() throws Exception {
+        CountDownLatch enCurso = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        CompletableFuture<String> primera = CompletableFuture.supplyAsync(() ->
+                cache.ejecutar(AMBITO, "k1", "h", () -> {
+                    enCurso.countDown();
+                    try {
+                        liberar.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return operar();
+                }));
+        assertThat(enCurso.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<String> duplicada = CompletableFuture.supplyAsync(() ->
+                cache.ejecutar(AMBITO, "k1", "h", this::operar));
+        liberar.countDown();
+
+        assertThat(primera.get(5, TimeUnit.SECONDS)).isEqualTo("venta-1");
+        assertThat(duplicada.get(5, TimeUnit.SECONDS)).isEqualTo("venta-1");
+        assertThat(ejecuciones.get()).isEqualTo(1);
+    }
+}
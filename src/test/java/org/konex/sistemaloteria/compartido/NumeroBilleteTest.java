@@ -0,0 +1,34 @@
+package org.konex.sistemaloteria.compartido;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Pruebas unitarias de la conversión entre el número guardado y el número mostrado.
+ */
+class NumeroBilleteTest {
+
+    @Test
+    void formatear_completaConCerosHastaLasCifras() {
+        assertThat(NumeroBillete.formatear(7, 4)).isEqualTo("0007");
+        assertThat(NumeroBillete.formatear(7, 6)).isEqualTo("000007");
+        assertThat(NumeroBillete.formatear(123456, 4)).isEqualTo("123456");
+    }
+
+    @Test
+    void cifras_creceConElMaximoDesdeElMinimo() {
+        assertThat(NumeroBillete.cifras(10)).isEqualTo(NumeroBillete.CIFRAS_MINIMAS);
+        assertThat(NumeroBillete.cifras(100_000)).isEqualTo(6);
+    }
+
+    @Test
+    void leer_aceptaCerosALaIzquierdaYRechazaTextoNoNumerico() {
+        assertThat(NumeroBillete.leer("0007")).isEqualTo(7);
+        assertThat(NumeroBillete.leer("7")).isEqualTo(7);
+        assertThrows(IllegalArgumentException.class, () -> NumeroBillete.leer(""));
+        assertThrows(IllegalArgumentException.class, () -> NumeroBillete.leer("12a4"));
+        assertThrows(IllegalArgumentException.class, () -> NumeroBillete.leer("1234567890"));
+    }
+}
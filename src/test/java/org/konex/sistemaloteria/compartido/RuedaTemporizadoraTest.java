@@ -0,0 +1,71 @@
+package org.konex.sistemaloteria.compartido;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pruebas unitarias de la rueda temporizadora, avanzándola tick a tick sin hilo propio.
+ */
+class RuedaTemporizadoraTest {
+
+    private final RuedaTemporizadora rueda = new RuedaTemporizadora(Duration.ofMillis(100), 4);
+
+    @Test
+    void tareaVenceEnSuTick() {
+        List<String> ejecutadas = new ArrayList<>();
+        rueda.programar(Duration.ofMillis(250), () -> ejecutadas.add("a"));   // 3 ticks
+
+        assertThat(rueda.avanzar()).isZero();
+        assertThat(rueda.avanzar()).isZero();
+        assertThat(rueda.avanzar()).isZero();
+        assertThat(rueda.avanzar()).isEqualTo(1);
+        assertThat(ejecutadas).containsExactly("a");
+    }
+
+    @Test
+    void tareaDeVueltasPosterioresEsperaSuTurno() {
+        List<String> ejecutadas = new ArrayList<>();
+        // 4 ranuras: 1 tick y 5 ticks caen en la misma ranura
+        rueda.programar(Duration.ofMillis(100), () -> ejecutadas.add("corta"));
+        rueda.programar(Duration.ofMillis(500), () -> ejecutadas.add("larga"));
+
+        for (int i = 0; i < 2; i++) {
+            rueda.avanzar();
+        }
+        assertThat(ejecutadas).containsExactly("corta");
+
+        for (int i = 0; i < 4; i++) {
+            rueda.avanzar();
+        }
+        assertThat(ejecutadas).containsExactly("corta", "larga");
+    }
+
+    @Test
+    void tareaCanceladaNoSeEjecuta() {
+        List<String> ejecutadas = new ArrayList<>();
+        RuedaTemporizadora.Temporizador t = rueda.programar(Duration.ofMillis(100), () -> ejecutadas.add("x"));
+
+        assertThat(t.cancelar()).isTrue();
+        assertThat(t.cancelar()).isFalse();
+        for (int i = 0; i < 3; i++) {
+            rueda.avanzar();
+        }
+        assertThat(ejecutadas).isEmpty();
+    }
+
+    @Test
+    void errorEnUnaTareaNoDetieneLasDemas() {
+        List<String> ejecutadas = new ArrayList<>();
+        rueda.programar(Duration.ofMillis(100), () -> { throw new IllegalStateException("falla"); });
+        rueda.programar(Duration.ofMillis(100), () -> ejecutadas.add("ok"));
+
+        rueda.avanzar();
+        assertThat(rueda.avanzar()).isEqualTo(2);
+        assertThat(ejecutadas).containsExactly("ok");
+    }
+}
@@ -0,0 +1,211 @@
+package org.konex.sistemaloteria.configuracion;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.konex.sistemaloteria.billete.model.Billete;
+import org.konex.sistemaloteria.billete.repository.BilleteRepository;
+import org.konex.sistemaloteria.cliente.model.Cliente;
+import org.konex.sistemaloteria.cliente.repository.ClienteRepository;
+import org.konex.sistemaloteria.compartido.EstadoBillete;
+import org.konex.sistemaloteria.sorteo.model.Sorteo;
+import org.konex.sistemaloteria.sorteo.repository.SorteoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Carga HTTP concurrente contra la aplicación levantada en un puerto aleatorio.
+ *
+ * <p>
+ * {@value #CLIENTES} clientes simultáneos alternan {@code POST /api/ventas} (billete y cliente
+ * al azar, por lo que muchas ventas terminan en 409) y {@code GET /api/sorteos/{id}/billetes}.
+ * Al final se imprime el rendimiento y la latencia p50/p99 de cada endpoint, para comparar el
+ * modo de hilos de plataforma ({@link HilosPlataformaBenchmarkTest}) con el de hilos virtuales
+ * ({@link HilosVirtualesBenchmarkTest}).
+ * </p>
+ *
+ * <p>
+ * Se ejecuta con {@code ./gradlew benchmark}; la tarea {@code test} excluye la etiqueta {@code benchmark}.
+ * </p>
+ */
+@Tag("benchmark")
+abstract class CargaHttpBenchmark {
+
+    static final int CLIENTES = 1_000;
+    static final int PETICIONES_POR_CLIENTE = 6;
+    static final int BILLETES = 500;
+    static final int COMPRADORES = 50;
+
+    @LocalServerPort private int puerto;
+
+    @Autowired private SorteoRepository sorteoRepo;
+    @Autowired private BilleteRepository billeteRepo;
+    @Autowired private ClienteRepository clienteRepo;
+
+    private Long sorteoId;
+    private List<Long> billeteIds;
+    private List<Long> clienteIds;
+
+    @BeforeEach
+    void prepararDatos() {
+        Sorteo sorteo = sorteoRepo.save(Sorteo.builder()
+                .nombre("Sorteo de carga " + System.nanoTime())
+                .fechaSorteo(LocalDate.now().plusDays(30))
+                .build());
+        sorteoId = sorteo.getId();
+
+        List<Billete> billetes = new ArrayList<>();
+        for (int i = 1; i <= BILLETES; i++) {
+            billetes.add(Billete.builder()
+                    .numero(i)
+                    .precio(new BigDecimal("10000"))
+                    .estado(EstadoBillete.DISPONIBLE)
+                    .sorteo(sorteo)
+                    .build());
+        }
+        billeteIds = billeteRepo.saveAll(billetes).stream().map(Billete::getId).toList();
+
+        List<Cliente> clientes = new ArrayList<>();
+        for (int i = 0; i < COMPRADORES; i++) {
+            clientes.add(Cliente.builder()
+                    .nombre("Cliente carga " + i)
+                    .correo("carga." + sorteoId + "." + i + "@example.com")
+                    .build());
+        }
+        clienteIds = clienteRepo.saveAll(clientes).stream().map(Cliente::getId).toList();
+    }
+
+    /**
+     * Ejecuta la carga y devuelve sus métricas. Falla si alguna respuesta no es la esperada.
+     *
+     * @param modo nombre del modo de ejecución (para el reporte).
+     */
+    Resultado ejecutarCarga(String modo) throws InterruptedException {
+        Resultado r = new Resultado();
+        String base = "http://localhost:" + puerto;
+
+        try (ExecutorService clientes = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient http = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .executor(clientes)
+                    .build();
+            CountDownLatch inicio = new CountDownLatch(1);
+            CountDownLatch fin = new CountDownLatch(CLIENTES);
+
+            for (int c = 0; c < CLIENTES; c++) {
+                clientes.submit(() -> {
+                    try {
+                        inicio.await();
+                        for (int i = 0; i < PETICIONES_POR_CLIENTE; i++) {
+                            if (i % 2 == 0) {
+                                vender(http, base, r);
+                            } else {
+                                consultar(http, base, r);
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        fin.countDown();
+                    }
+                });
+            }
+
+            long t0 = System.nanoTime();
+            inicio.countDown();
+            assertThat(fin.await(10, TimeUnit.MINUTES)).isTrue();
+            r.nanos = System.nanoTime() - t0;
+        }
+
+        r.imprimir(modo);
+        assertThat(r.errores.get()).isZero();
+        return r;
+    }
+
+    private void vender(HttpClient http, String base, Resultado r) throws InterruptedException {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        String cuerpo = "{\"billeteId\":" + billeteIds.get(rnd.nextInt(billeteIds.size()))
+                + ",\"clienteId\":" + clienteIds.get(rnd.nextInt(clienteIds.size())) + "}";
+        HttpRequest req = HttpRequest.newBuilder(URI.create(base + "/api/ventas"))
+                .timeout(Duration.ofSeconds(120))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(cuerpo))
+                .build();
+        enviar(http, req, r.latenciasVenta, r, 201, 409);
+    }
+
+    private void consultar(HttpClient http, String base, Resultado r) throws InterruptedException {
+        HttpRequest req = HttpRequest.newBuilder(URI.create(base + "/api/sorteos/" + sorteoId + "/billetes"))
+                .timeout(Duration.ofSeconds(120))
+                .GET()
+                .build();
+        enviar(http, req, r.latenciasConsulta, r, 200);
+    }
+
+    private static void enviar(HttpClient http, HttpRequest req, Queue<Long> latencias,
+                               Resultado r, int... esperados) throws InterruptedException {
+        long t = System.nanoTime();
+        try {
+            int status = http.send(req, HttpResponse.BodyHandlers.discarding()).statusCode();
+            boolean esperado = false;
+            for (int e : esperados) {
+                esperado |= status == e;
+            }
+            if (!esperado) {
+                r.errores.incrementAndGet();
+            }
+        } catch (java.io.IOException e) {
+            r.errores.incrementAndGet();
+        } finally {
+            latencias.add(System.nanoTime() - t);
+        }
+    }
+
+    /** Métricas de una ejecución de carga. */
+    static final class Resultado {
+        final Queue<Long> latenciasVenta = new ConcurrentLinkedQueue<>();
+        final Queue<Long> latenciasConsulta = new ConcurrentLinkedQueue<>();
+        final AtomicInteger errores = new AtomicInteger();
+        long nanos;
+
+        void imprimir(String modo) {
+            double segundos = nanos / 1_000_000_000.0;
+            int total = latenciasVenta.size() + latenciasConsulta.size();
+            System.out.printf(
+                    "[carga HTTP | %s] clientes=%d peticiones=%d errores=%d tiempo=%.3fs -> %.1f peticiones/s%n"
+                            + "    POST /api/ventas                 p50=%.2fms p99=%.2fms%n"
+                            + "    GET  /api/sorteos/{id}/billetes  p50=%.2fms p99=%.2fms%n",
+                    modo, CLIENTES, total, errores.get(), segundos, total / segundos,
+                    percentil(latenciasVenta, 0.50), percentil(latenciasVenta, 0.99),
+                    percentil(latenciasConsulta, 0.50), percentil(latenciasConsulta, 0.99));
+        }
+
+        private static double percentil(Queue<Long> latencias, double p) {
+            long[] ordenadas = latencias.stream().mapToLong(Long::longValue).sorted().toArray();
+            if (ordenadas.length == 0) {
+                return 0;
+            }
+            return ordenadas[Math.min(ordenadas.length - 1, (int) Math.ceil(p * ordenadas.length) - 1)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package org.konex.sistemaloteria.configuracion;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Carga HTTP con el modo por defecto: peticiones atendidas por el pool de hilos de plataforma de Tomcat.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.threads.virtual.enabled=false",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.orm.jdbc.bind=WARN"
+})
+class HilosPlataformaBenchmarkTest extends CargaHttpBenchmark {
+
+    @Test
+    void cargaConcurrente_hilosDePlataforma() throws Exception {
+        ejecutarCarga("hilos de plataforma");
+    }
+}
@@ -0,0 +1,89 @@
+package org.konex.sistemaloteria.configuracion;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.lang.reflect.Modifier;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Carga HTTP con {@code spring.threads.virtual.enabled=true}: cada petición se atiende en un hilo virtual.
+ *
+ * <p>
+ * Durante la carga se registran con JFR los eventos {@code jdk.VirtualThreadPinned}
+ * (un hilo virtual que bloquea dentro de un monitor {@code synchronized} y no libera su
+ * hilo portador). Se imprime dónde ocurren, junto con el primer marco del proyecto que
+ * llevó hasta allí. La prueba falla si el monitor pertenece a un método {@code synchronized}
+ * del proyecto; los que provienen de librerías (driver JDBC, pool) solo se informan.
+ * </p>
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.threads.virtual.enabled=true",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.orm.jdbc.bind=WARN"
+})
+class HilosVirtualesBenchmarkTest extends CargaHttpBenchmark {
+
+    private static final String PAQUETE_PROPIO = "org.konex.sistemaloteria.";
+
+    @Test
+    void cargaConcurrente_hilosVirtuales_sinPinningEnCodigoPropio() throws Exception {
+        Map<String, LongAdder> pinningPorOrigen = new ConcurrentHashMap<>();
+        Map<String, LongAdder> pinningPropio = new ConcurrentHashMap<>();
+
+        try (RecordingStream jfr = new RecordingStream()) {
+            jfr.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ofMillis(1)).withStackTrace();
+            jfr.onEvent("jdk.VirtualThreadPinned", e -> registrar(e, pinningPorOrigen, pinningPropio));
+            jfr.startAsync();
+
+            ejecutarCarga("hilos virtuales");
+
+            jfr.stop();
+        }
+
+        System.out.println("[carga HTTP | hilos virtuales] eventos de pinning por origen: "
+                + (pinningPorOrigen.isEmpty() ? "ninguno" : pinningPorOrigen));
+        assertThat(pinningPropio).as("pinning originado en código del proyecto").isEmpty();
+    }
+
+    /**
+     * Clasifica el evento por el marco donde ocurrió el bloqueo (y el primer marco propio que lo
+     * invocó) y detecta si algún método {@code synchronized} del proyecto está en la pila.
+     */
+    private static void registrar(RecordedEvent evento, Map<String, LongAdder> porOrigen, Map<String, LongAdder> propios) {
+        if (evento.getStackTrace() == null) {
+            porOrigen.computeIfAbsent("(sin pila)", k -> new LongAdder()).increment();
+            return;
+        }
+        List<RecordedFrame> marcos = evento.getStackTrace().getFrames();
+        String origen = marcos.isEmpty() ? "(sin pila)" : nombre(marcos.get(0));
+        String llamador = "";
+        for (RecordedFrame marco : marcos) {
+            String nombre = nombre(marco);
+            if (!nombre.startsWith(PAQUETE_PROPIO)) {
+                continue;
+            }
+            if (llamador.isEmpty()) {
+                llamador = " <- " + nombre;
+            }
+            if (Modifier.isSynchronized(marco.getMethod().getModifiers())) {
+                propios.computeIfAbsent(nombre, k -> new LongAdder()).increment();
+            }
+        }
+        porOrigen.computeIfAbsent(origen + llamador, k -> new LongAdder()).increment();
+    }
+
+    private static String nombre(RecordedFrame marco) {
+        return marco.getMethod().getType().getName() + "." + marco.getMethod().getName();
+    }
+}
@@ -4,8 +4,20 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.konex.sistemaloteria.excepciones.GlobalExceptionHandler;
+import org.konex.sistemaloteria.sorteo.dto.ArchivoSorteoDto;
+import org.konex.sistemaloteria.sorteo.dto.ResultadoSorteoDto;
+import org.konex.sistemaloteria.sorteo.dto.ResumenSorteoDto;
 import org.konex.sistemaloteria.sorteo.dto.SorteoDto;
+import org.konex.sistemaloteria.sorteo.dto.TrabajoGeneracionDto;
+import org.konex.sistemaloteria.sorteo.dto.VerificacionPremioDto;
+import org.konex.sistemaloteria.sorteo.model.CategoriaPremio;
+import org.konex.sistemaloteria.sorteo.model.EstadoTrabajoGeneracion;
+import org.konex.sistemaloteria.sorteo.model.Premio;
 import org.konex.sistemaloteria.sorteo.service.SorteoService;
+import org.konex.sistemaloteria.sorteo.service.TrabajosGeneracionService;
+import org.konex.sistemaloteria.venta.dto.ReservaResponseDto;
+import org.konex.sistemaloteria.venta.dto.ReservaSorteoRequestDto;
+import org.konex.sistemaloteria.venta.service.VentaService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -14,13 +26,24 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -37,7 +60,13 @@ class SorteoControllerTest {
     @Autowired private ObjectMapper om;
 
     @MockitoBean
-    private SorteoService service; // único colaborador real del controller
+    private SorteoService service;
+
+    @MockitoBean
+    private TrabajosGeneracionService generaciones;
+
+    @MockitoBean
+    private VentaService ventas;
 
     // mocks defensivos SOLO si tu controller inyecta estos beans (si no, bórralos):
     @MockitoBean
@@ -107,4 +136,192 @@ class SorteoControllerTest {
                         .content(om.writeValueAsString(req)))
                 .andExpect(status().isBadRequest());
     }
+
+    private TrabajoGeneracionDto trabajo(EstadoTrabajoGeneracion estado, int generados) {
+        LocalDateTime ahora = LocalDateTime.now();
+        return new TrabajoGeneracionDto("t-1", 1L, estado, 1000, generados, 0, new BigDecimal("10000"),
+                null, ahora, null, ahora);
+    }
+
+    @Test
+    @DisplayName("POST /api/sorteos/{id}/generaciones -> 202 Accepted con ID y Location")
+    void post_generacion_202() throws Exception {
+        when(generaciones.iniciar(1L, 1000, 10000.0)).thenReturn(trabajo(EstadoTrabajoGeneracion.PENDIENTE, 0));
+
+        mvc.perform(post("/api/sorteos/1/generaciones").param("cantidad", "1000").param("precio", "10000"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/sorteos/1/generaciones/t-1"))
+                .andExpect(jsonPath("$.id", is("t-1")))
+                .andExpect(jsonPath("$.estado", is("PENDIENTE")));
+    }
+
+    @Test
+    @DisplayName("POST /api/sorteos/{id}/generaciones con el ejecutor lleno -> 503")
+    void post_generacion_saturado_503() throws Exception {
+        when(generaciones.iniciar(1L, 1000, 10000.0)).thenThrow(new RejectedExecutionException("lleno"));
+
+        mvc.perform(post("/api/sorteos/1/generaciones").param("cantidad", "1000").param("precio", "10000"))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    @DisplayName("GET /api/sorteos/{id}/generaciones/{trabajoId} -> avance del trabajo")
+    void get_generacion_200() throws Exception {
+        when(generaciones.consultar(1L, "t-1")).thenReturn(trabajo(EstadoTrabajoGeneracion.EN_CURSO, 250));
+
+        mvc.perform(get("/api/sorteos/1/generaciones/t-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.generados", is(250)))
+                .andExpect(jsonPath("$.porcentaje", is(25.0)));
+    }
+
+    @Test
+    @DisplayName("DELETE /api/sorteos/{id}/generaciones/{trabajoId} -> 200; 409 si ya terminó")
+    void delete_generacion() throws Exception {
+        when(generaciones.cancelar(1L, "t-1")).thenReturn(trabajo(EstadoTrabajoGeneracion.CANCELADA, 0));
+        when(generaciones.cancelar(1L, "t-2")).thenThrow(new IllegalStateException("La generación ya terminó"));
+
+        mvc.perform(delete("/api/sorteos/1/generaciones/t-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.estado", is("CANCELADA")));
+        mvc.perform(delete("/api/sorteos/1/generaciones/t-2"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @DisplayName("GET /api/sorteos/{id}/resumen devuelve vendidos, disponibles e ingresos")
+    void get_resumen_200() throws Exception {
+        when(service.resumen(1L)).thenReturn(new ResumenSorteoDto(1L, 20, 5, new BigDecimal("50000.00")));
+
+        mvc.perform(get("/api/sorteos/1/resumen"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.billetes", is(20)))
+                .andExpect(jsonPath("$.vendidos", is(5)))
+                .andExpect(jsonPath("$.disponibles", is(15)))
+                .andExpect(jsonPath("$.ingresos", is(50000.00)));
+    }
+
+    @Test
+    @DisplayName("GET /api/sorteos/{id}/resumen de un sorteo inexistente devuelve 404")
+    void get_resumen_inexistente_404() throws Exception {
+        when(service.resumen(99L)).thenThrow(new NoSuchElementException("Sorteo no encontrado con ID: 99"));
+
+        mvc.perform(get("/api/sorteos/99/resumen"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("GET /api/sorteos/{id}/billetes con Accept NDJSON -> un billete por línea en streaming")
+    void get_billetes_ndjson() throws Exception {
+        doAnswer(inv -> {
+            OutputStream salida = inv.getArgument(1);
+            salida.write("{\"id\":1}\n{\"id\":2}\n".getBytes(StandardCharsets.UTF_8));
+            return 2L;
+        }).when(service).exportarBilletesPorSorteo(eq(1L), any(OutputStream.class));
+
+        var resultado = mvc.perform(get("/api/sorteos/1/billetes").accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string("{\"id\":1}\n{\"id\":2}\n"));
+    }
+
+    @Test
+    @DisplayName("POST /api/sorteos/{id}/ejecucion -> 200 con el ganador; 409 si ya se ejecutó")
+    void post_ejecucion() throws Exception {
+        when(service.ejecutar(1L, "004217")).thenReturn(new ResultadoSorteoDto(1L, "004217", 1000,
+                Map.of(CategoriaPremio.EXACTO, 1, CategoriaPremio.ULTIMAS_3, 0, CategoriaPremio.ULTIMAS_2, 9), 12));
+        when(service.ejecutar(2L, null)).thenThrow(new IllegalStateException("El sorteo ya fue ejecutado"));
+
+        mvc.perform(post("/api/sorteos/1/ejecucion").param("numero", "004217"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.numeroGanador", is("004217")))
+                .andExpect(jsonPath("$.ganadores.EXACTO", is(1)))
+                .andExpect(jsonPath("$.ganadores.ULTIMAS_2", is(9)));
+        mvc.perform(post("/api/sorteos/2/ejecucion"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @DisplayName("GET /api/sorteos/{id}/premios devuelve los premios registrados")
+    void get_premios_200() throws Exception {
+        when(service.listarPremios(1L)).thenReturn(List.of(
+                Premio.builder().id(1L).sorteoId(1L).billeteId(40L).numero("004217").clienteId(5L)
+                        .categoria(CategoriaPremio.EXACTO).build()));
+
+        mvc.perform(get("/api/sorteos/1/premios"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].numero", is("004217")))
+                .andExpect(jsonPath("$[0].categoria", is("EXACTO")));
+    }
+
+    @Test
+    @DisplayName("GET /api/sorteos/{id}/verificar/{numero} -> categoría del premio; 409 si no se ha ejecutado")
+    void get_verificar() throws Exception {
+        when(service.verificar(1L, "001217")).thenReturn(
+                new VerificacionPremioDto(1L, "001217", "004217", CategoriaPremio.ULTIMAS_3, 1217L, 42L));
+        when(service.verificar(2L, "001217")).thenThrow(new IllegalStateException("El sorteo aún no se ha ejecutado"));
+
+        mvc.perform(get("/api/sorteos/1/verificar/001217"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.premiado", is(true)))
+                .andExpect(jsonPath("$.categoria", is("ULTIMAS_3")))
+                .andExpect(jsonPath("$.billeteId", is(1217)));
+        mvc.perform(get("/api/sorteos/2/verificar/001217"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @DisplayName("POST /api/sorteos/{id}/billetes/aleatorio -> 201 con la reserva; 409 si no quedan billetes")
+    void post_reservarAleatorio() throws Exception {
+        when(ventas.reservarAleatorio(eq(1L), any(ReservaSorteoRequestDto.class))).thenReturn(new ReservaResponseDto(
+                "tok-7", 7L, "0007", 5L, LocalDateTime.of(2025, 11, 9, 10, 5)));
+        when(ventas.reservarAleatorio(eq(2L), any(ReservaSorteoRequestDto.class)))
+                .thenThrow(new IllegalStateException("No hay billetes disponibles en el sorteo 2"));
+        String body = om.writeValueAsString(new ReservaSorteoRequestDto(5L, 120));
+
+        mvc.perform(post("/api/sorteos/1/billetes/aleatorio")
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.token", is("tok-7")))
+                .andExpect(jsonPath("$.billeteId", is(7)));
+        mvc.perform(post("/api/sorteos/2/billetes/aleatorio")
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @DisplayName("POST /api/sorteos/{id}/billetes/siguiente -> 201; 400 sin cliente")
+    void post_reservarSiguiente() throws Exception {
+        when(ventas.reservarSiguiente(eq(1L), any(ReservaSorteoRequestDto.class))).thenReturn(new ReservaResponseDto(
+                "tok-1", 1L, "0001", 5L, LocalDateTime.of(2025, 11, 9, 10, 5)));
+
+        mvc.perform(post("/api/sorteos/1/billetes/siguiente")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(new ReservaSorteoRequestDto(5L, null))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.numeroBillete", is("0001")));
+        mvc.perform(post("/api/sorteos/1/billetes/siguiente")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(new ReservaSorteoRequestDto(null, null))))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("POST /api/sorteos/{id}/archivo -> 200 con lo archivado; 409 si ya estaba archivado")
+    void post_archivar() throws Exception {
+        when(service.archivar(1L)).thenReturn(new ArchivoSorteoDto(1L, 15, 8, 12));
+        when(service.archivar(2L)).thenThrow(new IllegalStateException("El sorteo ya está archivado"));
+
+        mvc.perform(post("/api/sorteos/1/archivo"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.billetes", is(15)))
+                .andExpect(jsonPath("$.ventas", is(8)));
+        mvc.perform(post("/api/sorteos/2/archivo"))
+                .andExpect(status().isConflict());
+    }
 }
@@ -0,0 +1,131 @@
+package org.konex.sistemaloteria.sorteo.service;
+
+import org.junit.jupiter.api.Test;
+import org.konex.sistemaloteria.billete.model.Billete;
+import org.konex.sistemaloteria.billete.repository.BilleteRepository;
+import org.konex.sistemaloteria.cliente.model.Cliente;
+import org.konex.sistemaloteria.cliente.repository.ClienteRepository;
+import org.konex.sistemaloteria.compartido.EstadoBillete;
+import org.konex.sistemaloteria.sorteo.model.Sorteo;
+import org.konex.sistemaloteria.sorteo.repository.SorteoRepository;
+import org.konex.sistemaloteria.venta.dto.VentaRequestDto;
+import org.konex.sistemaloteria.venta.service.VentaService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Archivo de un sorteo mientras se venden sus billetes, contra H2 en memoria: ninguna venta
+ * confirmada se pierde, queda archivada como {@code VENDIDO} junto con su venta.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.orm.jdbc.bind=WARN"
+})
+class ArchivadorSorteosConcurrenciaTest {
+
+    private static final int BILLETES = 60;
+    private static final int HILOS = 6;
+
+    @Autowired private ArchivadorSorteos archivador;
+    @Autowired private VentaService ventaService;
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private SorteoRepository sorteoRepo;
+    @Autowired private BilleteRepository billeteRepo;
+    @Autowired private ClienteRepository clienteRepo;
+
+    @Test
+    void archivarMientrasSeVende_noPierdeVentasConfirmadas() throws Exception {
+        Sorteo sorteo = sorteoRepo.save(Sorteo.builder()
+                .nombre("Sorteo archivado en venta " + System.nanoTime())
+                .fechaSorteo(LocalDate.now().minusDays(1))
+                .build());
+        List<Billete> billetes = new ArrayList<>();
+        for (int i = 1; i <= BILLETES; i++) {
+            billetes.add(Billete.builder()
+                    .numero(i)
+                    .precio(new BigDecimal("10000"))
+                    .estado(EstadoBillete.DISPONIBLE)
+                    .sorteo(sorteo)
+                    .build());
+        }
+        Queue<Long> porVender = billeteRepo.saveAll(billetes).stream()
+                .map(Billete::getId)
+                .collect(Collectors.toCollection(ConcurrentLinkedQueue::new));
+        Long clienteId = clienteRepo.save(Cliente.builder()
+                .nombre("Cliente archivo")
+                .correo("archivo." + sorteo.getId() + "@example.com")
+                .build()).getId();
+
+        Set<Long> vendidos = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(HILOS + 1);
+        CountDownLatch inicio = new CountDownLatch(1);
+        for (int h = 0; h < HILOS; h++) {
+            pool.submit(() -> {
+                inicio.await();
+                Long billeteId;
+                while ((billeteId = porVender.poll()) != null) {
+                    try {
+                        ventaService.vender(new VentaRequestDto(billeteId, clienteId));
+                        vendidos.add(billeteId);
+                    } catch (RuntimeException e) {
+                        // Sorteo ya archivado o bloqueo en espera: la venta no se confirmó
+                    }
+                }
+                return null;
+            });
+        }
+        pool.submit(() -> {
+            inicio.await();
+            // Un intento puede fallar mientras espera el bloqueo de una venta en curso
+            for (int intento = 0; intento < 20 && !archivado(sorteo.getId()); intento++) {
+                try {
+                    archivador.archivar(sorteo.getId());
+                } catch (RuntimeException e) {
+                    Thread.sleep(10);
+                }
+            }
+            return null;
+        });
+
+        inicio.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(2, TimeUnit.MINUTES)).isTrue();
+
+        assertThat(archivado(sorteo.getId())).isTrue();
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM billetes WHERE sorteo_id = ?",
+                Integer.class, sorteo.getId())).isZero();
+
+        // Cada venta confirmada está en el archivo, con su billete VENDIDO y su venta
+        Map<Long, String> archivados = new ConcurrentHashMap<>();
+        jdbc.query("SELECT id, estado FROM billetes_archivados WHERE sorteo_id = ? AND venta_id IS NOT NULL",
+                (RowCallbackHandler) rs -> archivados.put(rs.getLong(1), rs.getString(2)), sorteo.getId());
+        assertThat(archivados.keySet()).isEqualTo(vendidos);
+        assertThat(archivados.values()).allMatch(EstadoBillete.VENDIDO.name()::equals);
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM billetes_archivados WHERE sorteo_id = ?",
+                Integer.class, sorteo.getId())).isEqualTo(BILLETES);
+    }
+
+    private boolean archivado(Long sorteoId) {
+        return sorteoRepo.findById(sorteoId).orElseThrow().isArchivado();
+    }
+}
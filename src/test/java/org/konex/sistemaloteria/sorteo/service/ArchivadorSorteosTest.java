@@ -0,0 +1,125 @@
+package org.konex.sistemaloteria.sorteo.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.konex.sistemaloteria.billete.service.BilletesLibres;
+import org.konex.sistemaloteria.billete.service.NumerosVirtuales;
+import org.konex.sistemaloteria.sorteo.dto.ArchivoSorteoDto;
+import org.konex.sistemaloteria.sorteo.model.Sorteo;
+import org.konex.sistemaloteria.sorteo.repository.SorteoRepository;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias del archivo de sorteos pasados.
+ */
+class ArchivadorSorteosTest {
+
+    private JdbcTemplate jdbc;
+    private PlatformTransactionManager txManager;
+    private SorteoRepository sorteoRepo;
+    private BilletesLibres libres;
+    private NumerosVirtuales numeros;
+    private DatosVentaSorteos datos;
+    private ArchivadorSorteos archivador;
+
+    @BeforeEach
+    void setUp() {
+        jdbc = mock(JdbcTemplate.class);
+        txManager = mock(PlatformTransactionManager.class);
+        sorteoRepo = mock(SorteoRepository.class);
+        libres = mock(BilletesLibres.class);
+        numeros = mock(NumerosVirtuales.class);
+        datos = mock(DatosVentaSorteos.class);
+        archivador = new ArchivadorSorteos(jdbc, new TransactionTemplate(txManager), sorteoRepo,
+                libres, numeros, datos, 30);
+    }
+
+    private Sorteo sorteo(Long id, LocalDate fecha) {
+        Sorteo s = Sorteo.builder().id(id).nombre("Sorteo " + id).fechaSorteo(fecha).build();
+        when(sorteoRepo.findById(id)).thenReturn(Optional.of(s));
+        return s;
+    }
+
+    @Test
+    void archivar_copiaYBorraEnUnaTransaccion() {
+        sorteo(1L, LocalDate.now().minusDays(1));
+        when(sorteoRepo.marcarArchivado(eq(1L), any(), any())).thenReturn(1);
+        when(jdbc.update(ArchivadorSorteos.COPIAR, 1L)).thenReturn(15);
+        when(jdbc.update(ArchivadorSorteos.BORRAR_VENTAS, 1L)).thenReturn(8);
+
+        ArchivoSorteoDto r = archivador.archivar(1L);
+
+        assertThat(r.getBilletes()).isEqualTo(15);
+        assertThat(r.getVentas()).isEqualTo(8);
+        // Los billetes se bloquean antes de copiarlos y las ventas se borran antes que sus billetes
+        InOrder orden = inOrder(jdbc);
+        orden.verify(jdbc).query(eq(ArchivadorSorteos.BLOQUEAR), any(RowCallbackHandler.class), eq(1L));
+        orden.verify(jdbc).update(ArchivadorSorteos.COPIAR, 1L);
+        orden.verify(jdbc).update(ArchivadorSorteos.BORRAR_VENTAS, 1L);
+        orden.verify(jdbc).update(ArchivadorSorteos.BORRAR_BILLETES, 1L);
+        verify(libres).invalidar(1L);
+        verify(numeros).invalidar(1L);
+        verify(datos).invalidar(1L);
+        verify(txManager).commit(any());
+    }
+
+    @Test
+    void archivar_conReservas_revierteSinCopiar() {
+        sorteo(1L, LocalDate.now().minusDays(1));
+        when(sorteoRepo.marcarArchivado(eq(1L), any(), any())).thenReturn(1);
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getString(1)).thenReturn("RESERVADO", "VENDIDO", "RESERVADO");
+        doAnswer(inv -> {
+            RowCallbackHandler filas = inv.getArgument(1);
+            for (int i = 0; i < 3; i++) {
+                filas.processRow(rs);
+            }
+            return null;
+        }).when(jdbc).query(eq(ArchivadorSorteos.BLOQUEAR), any(RowCallbackHandler.class), eq(1L));
+
+        assertThat(assertThrows(IllegalStateException.class, () -> archivador.archivar(1L)).getMessage())
+                .contains("2 billetes reservados");
+        verify(jdbc, never()).update(ArchivadorSorteos.COPIAR, 1L);
+        verify(txManager).rollback(any());
+    }
+
+    @Test
+    void archivar_validaciones() {
+        sorteo(2L, LocalDate.now());
+        sorteo(3L, LocalDate.now().minusDays(5)).setFechaArchivo(LocalDateTime.now());
+
+        assertThrows(NoSuchElementException.class, () -> archivador.archivar(99L));
+        assertThrows(IllegalStateException.class, () -> archivador.archivar(2L));
+        assertThrows(IllegalStateException.class, () -> archivador.archivar(3L));
+        verifyNoInteractions(jdbc, txManager);
+    }
+
+    @Test
+    void archivarVencidos_sigueConElSiguienteSiUnoFalla() {
+        when(sorteoRepo.findIdsParaArchivar(LocalDate.now().minusDays(30))).thenReturn(List.of(4L, 5L));
+        sorteo(4L, LocalDate.now().minusDays(40));
+        sorteo(5L, LocalDate.now().minusDays(35));
+        when(sorteoRepo.marcarArchivado(eq(4L), any(), any())).thenReturn(0);
+        when(sorteoRepo.marcarArchivado(eq(5L), any(), any())).thenReturn(1);
+
+        assertThat(archivador.archivarVencidos()).isEqualTo(1);
+        verify(jdbc).update(ArchivadorSorteos.COPIAR, 5L);
+        verify(jdbc, never()).update(ArchivadorSorteos.COPIAR, 4L);
+    }
+}
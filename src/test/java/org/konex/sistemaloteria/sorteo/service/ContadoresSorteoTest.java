@@ -0,0 +1,143 @@
+package org.konex.sistemaloteria.sorteo.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.konex.sistemaloteria.compartido.EstadoBillete;
+import org.konex.sistemaloteria.sorteo.dto.ResumenSorteoDto;
+import org.konex.sistemaloteria.sorteo.repository.ResumenSorteoProyeccion;
+import org.konex.sistemaloteria.sorteo.repository.SorteoRepository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias de los contadores en memoria por sorteo.
+ */
+class ContadoresSorteoTest {
+
+    private SorteoRepository sorteoRepo;
+    private ContadoresSorteo contadores;
+
+    @BeforeEach
+    void setUp() {
+        sorteoRepo = mock(SorteoRepository.class);
+        contadores = new ContadoresSorteo(sorteoRepo);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private ResumenSorteoProyeccion proyeccion(Long sorteoId, long billetes, long vendidos, String ingresos) {
+        ResumenSorteoProyeccion p = mock(ResumenSorteoProyeccion.class);
+        when(p.getSorteoId()).thenReturn(sorteoId);
+        when(p.getBilletes()).thenReturn(billetes);
+        when(p.getVendidos()).thenReturn(vendidos);
+        when(p.getIngresos()).thenReturn(new BigDecimal(ingresos));
+        return p;
+    }
+
+    @Test
+    void cargar_usaConsultasAgregadasDeBilletesYArchivo() {
+        when(sorteoRepo.resumirTodos(EstadoBillete.VENDIDO)).thenReturn(List.of(
+                proyeccion(1L, 20, 5, "50000.00"),
+                proyeccion(2L, 0, 0, "0"),
+                proyeccion(4L, 0, 0, "0")));
+        when(sorteoRepo.resumirArchivados(EstadoBillete.VENDIDO)).thenReturn(List.of(
+                proyeccion(4L, 10, 4, "40000.00")));
+
+        assertThat(contadores.cargar()).isEqualTo(3);
+
+        ResumenSorteoDto r = contadores.resumen(1L).orElseThrow();
+        assertThat(r.getBilletes()).isEqualTo(20);
+        assertThat(r.getVendidos()).isEqualTo(5);
+        assertThat(r.getDisponibles()).isEqualTo(15);
+        assertThat(r.getIngresos()).isEqualByComparingTo("50000");
+        assertThat(contadores.resumen(2L)).isPresent();
+        assertThat(contadores.resumen(3L)).isEmpty();
+        // Sorteo archivado: sin billetes activos, con los del archivo
+        assertThat(contadores.resumen(4L).orElseThrow().getVendidos()).isEqualTo(4);
+
+        verify(sorteoRepo, times(1)).resumirTodos(EstadoBillete.VENDIDO);
+        verify(sorteoRepo, times(1)).resumirArchivados(EstadoBillete.VENDIDO);
+        verifyNoMoreInteractions(sorteoRepo);
+    }
+
+    @Test
+    void registrarVenta_sinTransaccion_seAplicaDeInmediato() {
+        contadores.registrarSorteo(1L);
+        contadores.registrarBilletes(1L, 2);
+        contadores.registrarVenta(1L, new BigDecimal("10000.50"));
+
+        ResumenSorteoDto r = contadores.resumen(1L).orElseThrow();
+        assertThat(r.getVendidos()).isEqualTo(1);
+        assertThat(r.getDisponibles()).isEqualTo(1);
+        assertThat(r.getIngresos()).isEqualByComparingTo("10000.50");
+        verifyNoInteractions(sorteoRepo);
+    }
+
+    @Test
+    void registrarVenta_enTransaccion_seAplicaSoloTrasElCommit() {
+        contadores.registrarBilletes(1L, 1);
+
+        // --- Transacción revertida: la venta no se cuenta ---
+        TransactionSynchronizationManager.initSynchronization();
+        contadores.registrarVenta(1L, new BigDecimal("10000"));
+        List<TransactionSynchronization> revertida = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        revertida.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        assertThat(contadores.resumen(1L).orElseThrow().getVendidos()).isZero();
+
+        // --- Transacción confirmada: la venta se cuenta al hacer commit ---
+        TransactionSynchronizationManager.initSynchronization();
+        contadores.registrarVenta(1L, new BigDecimal("10000"));
+        assertThat(contadores.resumen(1L).orElseThrow().getVendidos()).isZero();
+        List<TransactionSynchronization> confirmada = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        confirmada.forEach(TransactionSynchronization::afterCommit);
+
+        ResumenSorteoDto r = contadores.resumen(1L).orElseThrow();
+        assertThat(r.getVendidos()).isEqualTo(1);
+        assertThat(r.getIngresos()).isEqualByComparingTo("10000");
+    }
+
+    @Test
+    void registrarVenta_concurrente_noPierdeIncrementos() throws InterruptedException {
+        int hilos = 8;
+        int ventasPorHilo = 10_000;
+        contadores.registrarBilletes(1L, (long) hilos * ventasPorHilo);
+
+        ExecutorService pool = Executors.newFixedThreadPool(hilos);
+        CountDownLatch inicio = new CountDownLatch(1);
+        for (int h = 0; h < hilos; h++) {
+            pool.submit(() -> {
+                inicio.await();
+                for (int i = 0; i < ventasPorHilo; i++) {
+                    contadores.registrarVenta(1L, new BigDecimal("0.01"));
+                }
+                return null;
+            });
+        }
+        inicio.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        ResumenSorteoDto r = contadores.resumen(1L).orElseThrow();
+        assertThat(r.getVendidos()).isEqualTo((long) hilos * ventasPorHilo);
+        assertThat(r.getDisponibles()).isZero();
+        assertThat(r.getIngresos()).isEqualByComparingTo("800.00");
+    }
+}
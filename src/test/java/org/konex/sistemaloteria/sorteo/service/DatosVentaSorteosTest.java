@@ -0,0 +1,66 @@
+package org.konex.sistemaloteria.sorteo.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias de las cifras y el cierre de los sorteos en memoria.
+ */
+class DatosVentaSorteosTest {
+
+    private JdbcTemplate jdbc;
+    private DatosVentaSorteos datos;
+
+    @BeforeEach
+    void setUp() {
+        jdbc = mock(JdbcTemplate.class);
+        datos = new DatosVentaSorteos(jdbc);
+    }
+
+    /** El sorteo 1 tiene las cifras y el cierre indicados en cada consulta sucesiva. */
+    @SuppressWarnings("unchecked")
+    private void sorteo(int cifras, boolean cerrado, int cifrasDespues, boolean cerradoDespues) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getInt(1)).thenReturn(cifras, cifrasDespues);
+        when(rs.getInt(2)).thenReturn(cerrado ? 1 : 0, cerradoDespues ? 1 : 0);
+        when(jdbc.query(anyString(), any(RowMapper.class), eq(1L))).thenAnswer(inv ->
+                List.of(inv.<RowMapper<Object>>getArgument(1).mapRow(rs, 0)));
+    }
+
+    @Test
+    void formatear_usaLasCifrasDelSorteo_yLasConsultaUnaVez() throws Exception {
+        sorteo(6, false, 6, false);
+
+        assertThat(datos.formatear(1L, 42)).isEqualTo("000042");
+        assertThat(datos.formatear(1L, 7)).isEqualTo("000007");
+        assertThat(datos.cerrado(1L)).isFalse();
+        verify(jdbc, times(1)).query(anyString(), any(RowMapper.class), eq(1L));
+    }
+
+    @Test
+    void invalidar_releeElSorteo() throws Exception {
+        sorteo(4, false, 5, true);
+        assertThat(datos.formatear(1L, 42)).isEqualTo("0042");
+
+        datos.invalidar(1L);
+
+        assertThat(datos.formatear(1L, 42)).isEqualTo("00042");
+        assertThat(datos.cerrado(1L)).isTrue();
+    }
+
+    @Test
+    void sorteoInexistente_cifrasMinimas_sinGuardarlo() {
+        assertThat(datos.formatear(9L, 3)).isEqualTo("0003");
+        assertThat(datos.cerrado(9L)).isFalse();
+        verify(jdbc, times(2)).query(anyString(), any(RowMapper.class), eq(9L));
+    }
+}
@@ -0,0 +1,136 @@
+package org.konex.sistemaloteria.sorteo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias de la exportación NDJSON de billetes.
+ */
+class ExportadorBilletesTest {
+
+    private JdbcTemplate jdbc;
+    private ExportadorBilletes exportador;
+
+    /** Sentencia creada por el exportador, para revisar el fetch size. */
+    private PreparedStatement sentencia;
+
+    /** SQL de la sentencia creada por el exportador. */
+    private String consulta;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        jdbc = mock(JdbcTemplate.class);
+        exportador = new ExportadorBilletes(jdbc, new ObjectMapper(), 2);
+
+        // Dos filas: un billete vendido (con cliente) y uno disponible (sin cliente)
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong("id")).thenReturn(1L, 2L);
+        when(rs.getLong("numero")).thenReturn(1L, 2L);
+        when(rs.getBigDecimal("precio")).thenReturn(new BigDecimal("10000.00"));
+        when(rs.getString("estado")).thenReturn("VENDIDO", "DISPONIBLE");
+        when(rs.getLong("cliente_id")).thenReturn(5L, 0L);
+        when(rs.wasNull()).thenReturn(false, true);
+        when(rs.getString("nombre")).thenReturn("Ana");
+        when(rs.getString("correo")).thenReturn("ana@example.com");
+
+        doAnswer(inv -> {
+            Connection con = mock(Connection.class);
+            sentencia = mock(PreparedStatement.class);
+            when(con.prepareStatement(anyString(), anyInt(), anyInt())).thenAnswer(i -> {
+                consulta = i.getArgument(0);
+                return sentencia;
+            });
+            inv.<PreparedStatementCreator>getArgument(0).createPreparedStatement(con);
+
+            RowCallbackHandler filas = inv.getArgument(1);
+            filas.processRow(rs);
+            filas.processRow(rs);
+            return null;
+        }).when(jdbc).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    @Test
+    void escribir_unBilletePorLineaConSuCliente() throws Exception {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        long escritos = exportador.escribir(7L, salida);
+
+        assertThat(escritos).isEqualTo(2);
+        assertThat(salida.toString(StandardCharsets.UTF_8)).isEqualTo("""
+                {"id":1,"numero":"0001","precio":10000.00,"estado":"VENDIDO","cliente":{"id":5,"nombre":"Ana","correo":"ana@example.com"}}
+                {"id":2,"numero":"0002","precio":10000.00,"estado":"DISPONIBLE","cliente":null}
+                """);
+        verify(sentencia).setFetchSize(2);
+        verify(sentencia).setLong(1, 7L);
+        assertThat(consulta).contains("FROM billetes b").endsWith("ORDER BY b.id");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void escribir_sorteoVirtual_completaLosNumerosSinFilaEnOrden() throws Exception {
+        // Sorteo virtual de 4 números a 5000: las filas 1 y 2 existen, el 3 y el 4 no
+        ResultSet definicion = mock(ResultSet.class);
+        when(definicion.getInt(1)).thenReturn(4);
+        when(definicion.getInt(2)).thenReturn(4);
+        when(definicion.getBigDecimal(3)).thenReturn(new BigDecimal("5000"));
+        when(jdbc.query(anyString(), any(RowMapper.class), eq(7L))).thenAnswer(inv ->
+                List.of(inv.<RowMapper<Object>>getArgument(1).mapRow(definicion, 0)));
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        long escritos = exportador.escribir(7L, salida);
+
+        assertThat(escritos).isEqualTo(4);
+        assertThat(salida.toString(StandardCharsets.UTF_8)).endsWith("""
+                {"id":2,"numero":"0002","precio":10000.00,"estado":"DISPONIBLE","cliente":null}
+                {"id":null,"numero":"0003","precio":5000,"estado":"DISPONIBLE","cliente":null}
+                {"id":null,"numero":"0004","precio":5000,"estado":"DISPONIBLE","cliente":null}
+                """);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void escribir_sorteoArchivado_leeSoloElArchivoEnOrdenDeIndice() throws Exception {
+        ResultSet definicion = mock(ResultSet.class);
+        when(definicion.getInt(1)).thenReturn(4);
+        when(definicion.wasNull()).thenReturn(true);
+        when(definicion.getInt(4)).thenReturn(1);
+        when(jdbc.query(anyString(), any(RowMapper.class), eq(7L))).thenAnswer(inv ->
+                List.of(inv.<RowMapper<Object>>getArgument(1).mapRow(definicion, 0)));
+
+        assertThat(exportador.escribir(7L, new ByteArrayOutputStream())).isEqualTo(2);
+
+        assertThat(consulta).contains("FROM billetes_archivados a").doesNotContain("FROM billetes b")
+                .endsWith("ORDER BY a.numero\n");
+    }
+
+    @Test
+    void escribir_clienteDesconectado_propagaIOException() throws Exception {
+        OutputStream salida = mock(OutputStream.class);
+        doThrow(new IOException("Broken pipe")).when(salida).write(any(byte[].class), anyInt(), anyInt());
+
+        IOException e = assertThrows(IOException.class, () -> exportador.escribir(7L, salida));
+        assertThat(e).hasMessage("Broken pipe");
+        verify(salida, never()).close();
+    }
+}
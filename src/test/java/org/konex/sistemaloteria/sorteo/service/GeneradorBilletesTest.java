@@ -0,0 +1,100 @@
+package org.konex.sistemaloteria.sorteo.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.konex.sistemaloteria.billete.service.BilletesLibres;
+import org.konex.sistemaloteria.sorteo.dto.GeneracionBilletesDto;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias del generador masivo de billetes por lotes JDBC.
+ */
+class GeneradorBilletesTest {
+
+    private JdbcTemplate jdbc;
+    private PlatformTransactionManager txManager;
+    private ContadoresSorteo contadores;
+    private GeneradorBilletes generador;
+
+    @BeforeEach
+    void setUp() {
+        jdbc = mock(JdbcTemplate.class);
+        txManager = mock(PlatformTransactionManager.class);
+        contadores = mock(ContadoresSorteo.class);
+        generador = new GeneradorBilletes(jdbc, new TransactionTemplate(txManager), contadores, mock(BilletesLibres.class),
+                mock(DatosVentaSorteos.class), 4);
+    }
+
+    @Test
+    void generar_insertaEnLotesYDevuelveResumen() throws Exception {
+        GeneracionBilletesDto r = generador.generar(5L, 10, new BigDecimal("2000"));
+
+        // 10 billetes en lotes de 4: 4 + 4 + 2, todo en una transacción
+        ArgumentCaptor<BatchPreparedStatementSetter> lotes = ArgumentCaptor.forClass(BatchPreparedStatementSetter.class);
+        verify(jdbc, times(3)).batchUpdate(anyString(), lotes.capture());
+        assertThat(lotes.getAllValues()).extracting(BatchPreparedStatementSetter::getBatchSize)
+                .isEqualTo(List.of(4, 4, 2));
+        verify(txManager, times(1)).commit(any());
+
+        // El segundo lote empieza en el billete 0005
+        PreparedStatement ps = mock(PreparedStatement.class);
+        lotes.getAllValues().get(1).setValues(ps, 0);
+        verify(ps).setInt(1, 5);
+        verify(ps).setLong(4, 5L);
+
+        assertThat(r.getCantidad()).isEqualTo(10);
+        assertThat(r.getNumeroInicial()).isEqualTo("0001");
+        assertThat(r.getNumeroFinal()).isEqualTo("0010");
+        verify(contadores).registrarBilletes(5L, 10);
+        // El sorteo pasa a mostrarse con el ancho de la generación si tenía menos cifras
+        verify(jdbc).update(anyString(), eq(4), eq(5L), eq(4));
+    }
+
+    @Test
+    void generar_anchoCreceConLaCantidad() {
+        GeneracionBilletesDto r = generador.generar(5L, 100_000, new BigDecimal("2000"));
+
+        assertThat(r.getNumeroInicial()).isEqualTo("000001");
+        assertThat(r.getNumeroFinal()).isEqualTo("100000");
+        verify(jdbc, times(25_000)).batchUpdate(anyString(), any(BatchPreparedStatementSetter.class));
+    }
+
+    @Test
+    void declararVirtuales_unaSentenciaSinInsertarBilletes() {
+        when(jdbc.update(anyString(), eq(1_000_000), any(), eq(7), eq(5L), eq(5L))).thenReturn(1);
+
+        GeneracionBilletesDto r = generador.declararVirtuales(5L, 1_000_000, new BigDecimal("2000"));
+
+        assertThat(r.getNumeroInicial()).isEqualTo("0000001");
+        assertThat(r.getNumeroFinal()).isEqualTo("1000000");
+        verify(jdbc, never()).batchUpdate(anyString(), any(BatchPreparedStatementSetter.class));
+        verify(contadores).registrarBilletes(5L, 1_000_000);
+    }
+
+    @Test
+    void declararVirtuales_sorteoConBilletes_rechaza() {
+        assertThrows(IllegalStateException.class,
+                () -> generador.declararVirtuales(5L, 10, new BigDecimal("2000")));
+        verifyNoInteractions(contadores);
+        verify(txManager).rollback(any());
+    }
+
+    @Test
+    void generar_cantidadNoPositiva_rechaza() {
+        assertThrows(IllegalArgumentException.class, () -> generador.generar(5L, 0, BigDecimal.ONE));
+        verifyNoInteractions(jdbc, txManager, contadores);
+    }
+}
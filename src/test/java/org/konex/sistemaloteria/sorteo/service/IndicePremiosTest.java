@@ -0,0 +1,84 @@
+package org.konex.sistemaloteria.sorteo.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.konex.sistemaloteria.sorteo.dto.VerificacionPremioDto;
+import org.konex.sistemaloteria.sorteo.model.CategoriaPremio;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias del índice en memoria de premios.
+ */
+class IndicePremiosTest {
+
+    private JdbcTemplate jdbc;
+    private IndicePremios indice;
+
+    @BeforeEach
+    void setUp() {
+        jdbc = mock(JdbcTemplate.class);
+        indice = new IndicePremios(jdbc);
+    }
+
+    @Test
+    void verificar_cargaUnaSolaVezDesdeLaBaseDeDatos() throws Exception {
+        when(jdbc.queryForList(anyString(), eq(String.class), eq(5L))).thenReturn(List.of("004217"));
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong(1)).thenReturn(40L);
+        when(rs.getString(2)).thenReturn("004217");
+        when(rs.getLong(3)).thenReturn(9L);
+        when(rs.getString(4)).thenReturn("EXACTO");
+        doAnswer(inv -> {
+            inv.<RowCallbackHandler>getArgument(1).processRow(rs);
+            return null;
+        }).when(jdbc).query(anyString(), any(RowCallbackHandler.class), eq(5L));
+
+        VerificacionPremioDto premiado = indice.verificar(5L, "004217");
+        VerificacionPremioDto sinPremio = indice.verificar(5L, "000001");
+
+        assertThat(premiado.isPremiado()).isTrue();
+        assertThat(premiado.getCategoria()).isEqualTo(CategoriaPremio.EXACTO);
+        assertThat(premiado.getBilleteId()).isEqualTo(40L);
+        assertThat(premiado.getClienteId()).isEqualTo(9L);
+        assertThat(sinPremio.isPremiado()).isFalse();
+        assertThat(sinPremio.getNumeroGanador()).isEqualTo("004217");
+        verify(jdbc, times(1)).queryForList(anyString(), eq(String.class), eq(5L));
+    }
+
+    @Test
+    void verificar_sorteoInexistenteOSinEjecutar() {
+        when(jdbc.queryForList(anyString(), eq(String.class), eq(99L))).thenReturn(List.of());
+        when(jdbc.queryForList(anyString(), eq(String.class), eq(6L))).thenReturn(Collections.singletonList(null));
+
+        assertThrows(NoSuchElementException.class, () -> indice.verificar(99L, "1"));
+        assertThrows(IllegalStateException.class, () -> indice.verificar(6L, "1"));
+        assertThrows(IllegalArgumentException.class, () -> indice.verificar(6L, "12-4"));
+        assertThrows(IllegalArgumentException.class, () -> indice.verificar(6L, "1234567890"));
+    }
+
+    @Test
+    void tabla_encuentraTodasLasClavesConColisiones() {
+        // Números con las mismas últimas cifras, como los premios de una categoría
+        IndicePremios.Tabla tabla = new IndicePremios.Tabla("004217", 1000);
+        for (long n = 0; n < 1000; n++) {
+            tabla.agregar(n * 1000 + 217, n + 1, 0, CategoriaPremio.ULTIMAS_3);
+        }
+
+        for (long n = 0; n < 1000; n++) {
+            assertThat(tabla.buscar(n * 1000 + 217)).isNotNegative();
+        }
+        assertThat(tabla.buscar(218)).isEqualTo(-1);
+    }
+}
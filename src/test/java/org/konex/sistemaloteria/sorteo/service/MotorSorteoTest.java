@@ -0,0 +1,135 @@
+package org.konex.sistemaloteria.sorteo.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.konex.sistemaloteria.sorteo.dto.ResultadoSorteoDto;
+import org.konex.sistemaloteria.sorteo.model.CategoriaPremio;
+import org.konex.sistemaloteria.sorteo.model.Sorteo;
+import org.konex.sistemaloteria.sorteo.repository.SorteoRepository;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias del motor de ejecución de sorteos.
+ */
+class MotorSorteoTest {
+
+    private JdbcTemplate jdbc;
+    private SorteoRepository sorteoRepo;
+    private IndicePremios indice;
+    private MotorSorteo motor;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        jdbc = mock(JdbcTemplate.class);
+        sorteoRepo = mock(SorteoRepository.class);
+        indice = new IndicePremios(jdbc);
+        motor = new MotorSorteo(jdbc, new TransactionTemplate(mock(PlatformTransactionManager.class)), sorteoRepo,
+                indice, mock(DatosVentaSorteos.class));
+
+        when(sorteoRepo.findById(5L)).thenReturn(Optional.of(Sorteo.builder().id(5L).cifras(6).build()));
+        when(sorteoRepo.registrarEjecucion(eq(5L), anyString(), any())).thenReturn(1);
+
+        // Billetes vendidos: (id, numero, cliente); cliente 0 = sin cliente
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong(1)).thenReturn(1L, 2L, 3L, 4L);
+        when(rs.getLong(2)).thenReturn(4218L, 17L, 1217L, 4217L);
+        when(rs.getLong(3)).thenReturn(7L, 0L, 6L, 5L);
+        doAnswer(inv -> {
+            RowCallbackHandler filas = inv.getArgument(1);
+            for (int i = 0; i < 4; i++) {
+                filas.processRow(rs);
+            }
+            return null;
+        }).when(jdbc).query(eq(MotorSorteo.VENDIDOS), any(RowCallbackHandler.class), eq(5L), eq("VENDIDO"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void ejecutar_registraGanadorYPremiosPorCategoriaEnUnLote() {
+        ResultadoSorteoDto r = motor.ejecutar(5L, "004217");
+
+        assertThat(r.getNumeroGanador()).isEqualTo("004217");
+        assertThat(r.getVendidos()).isEqualTo(4);
+        assertThat(r.getGanadores()).containsEntry(CategoriaPremio.EXACTO, 1)
+                .containsEntry(CategoriaPremio.ULTIMAS_3, 1)
+                .containsEntry(CategoriaPremio.ULTIMAS_2, 1);
+        verify(sorteoRepo).registrarEjecucion(eq(5L), eq("004217"), any());
+
+        // Un único lote, de la categoría mayor a la menor y con las cifras del sorteo
+        ArgumentCaptor<List<Object[]>> lote = ArgumentCaptor.forClass(List.class);
+        verify(jdbc, times(1)).batchUpdate(eq(MotorSorteo.INSERTAR_PREMIO), lote.capture());
+        assertThat(lote.getValue()).containsExactly(
+                new Object[]{5L, 4L, "004217", 5L, "EXACTO"},
+                new Object[]{5L, 3L, "001217", 6L, "ULTIMAS_3"},
+                new Object[]{5L, 2L, "000017", null, "ULTIMAS_2"});
+
+        // Los premios quedan publicados para verificar sin consultar la base de datos
+        assertThat(indice.verificar(5L, "001217").getCategoria()).isEqualTo(CategoriaPremio.ULTIMAS_3);
+        assertThat(indice.verificar(5L, "004218").isPremiado()).isFalse();
+        verify(jdbc, never()).queryForList(anyString(), eq(String.class), any());
+    }
+
+    @Test
+    void ejecutar_yaEjecutado_lanzaIllegalStateSinCalcular() {
+        when(sorteoRepo.findById(5L))
+                .thenReturn(Optional.of(Sorteo.builder().id(5L).numeroGanador("000001").build()));
+
+        assertThrows(IllegalStateException.class, () -> motor.ejecutar(5L, "004217"));
+        verifyNoInteractions(jdbc);
+    }
+
+    @Test
+    void ejecutar_otraEjecucionGanoLaCarrera_noGuardaPremios() {
+        when(sorteoRepo.registrarEjecucion(eq(5L), anyString(), any())).thenReturn(0);
+
+        assertThrows(IllegalStateException.class, () -> motor.ejecutar(5L, "004217"));
+        verify(jdbc, never()).batchUpdate(anyString(), anyList());
+        verify(jdbc, never()).query(anyString(), any(RowCallbackHandler.class), any(), any());
+    }
+
+    @Test
+    void ejecutar_leeLosVendidosDespuesDeCerrarLasVentas() {
+        motor.ejecutar(5L, "004217");
+
+        var orden = inOrder(sorteoRepo, jdbc);
+        orden.verify(sorteoRepo).registrarEjecucion(eq(5L), eq("004217"), any());
+        orden.verify(jdbc).query(eq(MotorSorteo.VENDIDOS), any(RowCallbackHandler.class), eq(5L), eq("VENDIDO"));
+    }
+
+    @Test
+    void ejecutar_validaSorteoYNumero() {
+        assertThrows(NoSuchElementException.class, () -> motor.ejecutar(99L, "1"));
+        assertThrows(IllegalArgumentException.class, () -> motor.ejecutar(5L, "12a4"));
+        // Más cifras de las que caben en la columna: ningún billete podría ganar
+        assertThrows(IllegalArgumentException.class, () -> motor.ejecutar(5L, "1234567890"));
+        verify(sorteoRepo, never()).registrarEjecucion(any(), any(), any());
+    }
+
+    @Test
+    void clasificar_asignaLaMejorCategoria() {
+        long[] numeros = {4217, 1217, 17, 4218, 0};
+
+        byte[] categorias = MotorSorteo.clasificar(numeros, 4, 4217);
+
+        assertThat(categorias).containsExactly(
+                (byte) CategoriaPremio.EXACTO.ordinal(),
+                (byte) CategoriaPremio.ULTIMAS_3.ordinal(),
+                (byte) CategoriaPremio.ULTIMAS_2.ordinal(),
+                MotorSorteo.SIN_PREMIO);
+    }
+}
@@ -3,16 +3,26 @@ package org.konex.sistemaloteria.sorteo.service;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.konex.sistemaloteria.billete.repository.BilleteArchivadoRepository;
 import org.konex.sistemaloteria.billete.repository.BilleteRepository;
+import org.konex.sistemaloteria.billete.service.BilletesLibres;
 import org.konex.sistemaloteria.sorteo.dto.SorteoDto;
 import org.konex.sistemaloteria.sorteo.model.Sorteo;
+import org.konex.sistemaloteria.sorteo.repository.PremioRepository;
 import org.konex.sistemaloteria.sorteo.repository.SorteoRepository;
 import org.modelmapper.ModelMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
 /**
@@ -23,6 +33,7 @@ class SorteoServiceImplTest {
     private SorteoRepository sorteoRepo;
     private BilleteRepository billeteRepo;
     private ModelMapper mapper;
+    private JdbcTemplate jdbc;
     private SorteoService service;
 
     @BeforeEach
@@ -30,8 +41,15 @@ class SorteoServiceImplTest {
         sorteoRepo = mock(SorteoRepository.class);
         billeteRepo = mock(BilleteRepository.class);
         mapper = new ModelMapper();
-        // ✅ constructor actualizado: (SorteoRepository, BilleteRepository, ModelMapper)
-        service = new SorteoServiceImpl(sorteoRepo, billeteRepo, mapper);
+        jdbc = mock(JdbcTemplate.class);
+        var contadores = new ContadoresSorteo(sorteoRepo);
+        var generador = new GeneradorBilletes(jdbc,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), contadores, mock(BilletesLibres.class),
+                mock(DatosVentaSorteos.class), 1000);
+        // ✅ constructor actualizado: (SorteoRepository, BilleteRepository, ModelMapper, ContadoresSorteo, GeneradorBilletes)
+        service = new SorteoServiceImpl(sorteoRepo, billeteRepo, mapper, contadores, generador,
+                mock(ExportadorBilletes.class), mock(MotorSorteo.class), mock(PremioRepository.class),
+                mock(IndicePremios.class), mock(BilleteArchivadoRepository.class), mock(ArchivadorSorteos.class));
     }
 
     private Sorteo entity(Long id, String nombre, LocalDate fecha) {
@@ -85,4 +103,55 @@ class SorteoServiceImplTest {
         verifyNoInteractions(billeteRepo);
     }
 
+    @Test
+    @DisplayName("resumen(): refleja el sorteo creado y sus billetes generados sin consultar la BD")
+    void resumen_reflejaCreacionYGeneracion() {
+        var saved = entity(7L, "Halloween", LocalDate.of(2025, 10, 31));
+        when(sorteoRepo.save(any(Sorteo.class))).thenReturn(saved);
+        when(sorteoRepo.existsById(7L)).thenReturn(true);
+
+        service.crear(dto(null, "Halloween", LocalDate.of(2025, 10, 31)));
+        assertThat(service.resumen(7L).getBilletes()).isZero();
+
+        var generacion = service.generarBilletes(7L, 3, 5000);
+        assertThat(generacion.getNumeroFinal()).isEqualTo("0003");
+        clearInvocations(sorteoRepo, billeteRepo, jdbc);
+
+        var resumen = service.resumen(7L);
+
+        assertThat(resumen.getBilletes()).isEqualTo(3);
+        assertThat(resumen.getVendidos()).isZero();
+        assertThat(resumen.getDisponibles()).isEqualTo(3);
+        assertThat(resumen.getIngresos()).isEqualByComparingTo(BigDecimal.ZERO);
+        verifyNoInteractions(sorteoRepo, billeteRepo, jdbc);
+    }
+
+    @Test
+    @DisplayName("generarBilletes(): sorteo inexistente -> no inserta billetes")
+    void generarBilletes_sorteoInexistente() {
+        when(sorteoRepo.existsById(99L)).thenReturn(false);
+
+        assertThrows(RuntimeException.class, () -> service.generarBilletes(99L, 10, 1000));
+        verifyNoInteractions(jdbc);
+    }
+
+    @Test
+    @DisplayName("resumen(): sorteo desconocido -> NoSuchElementException")
+    void resumen_sorteoDesconocido() {
+        assertThrows(NoSuchElementException.class, () -> service.resumen(404L));
+    }
+
+    @Test
+    @DisplayName("listarBilletesPorSorteo(): sorteo virtual -> IllegalStateException sin armar el rango")
+    void listarBilletesPorSorteo_virtual_rechaza() {
+        var virtual = entity(8L, "Virtual", LocalDate.now().plusDays(10));
+        virtual.setNumerosVirtuales(1_000_000);
+        virtual.setPrecioVirtual(new BigDecimal("5000"));
+        when(sorteoRepo.findById(8L)).thenReturn(Optional.of(virtual));
+
+        var ex = assertThrows(IllegalStateException.class, () -> service.listarBilletesPorSorteo(8L));
+        assertThat(ex.getMessage()).contains("/api/billetes/sorteo/8");
+        verifyNoInteractions(billeteRepo);
+    }
+
 }
@@ -0,0 +1,174 @@
+package org.konex.sistemaloteria.sorteo.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.konex.sistemaloteria.sorteo.dto.TrabajoGeneracionDto;
+import org.konex.sistemaloteria.sorteo.model.EstadoTrabajoGeneracion;
+import org.konex.sistemaloteria.sorteo.model.TrabajoGeneracion;
+import org.konex.sistemaloteria.sorteo.repository.SorteoRepository;
+import org.konex.sistemaloteria.sorteo.repository.TrabajoGeneracionRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios de la generación de billetes en segundo plano.
+ *
+ * <p>
+ * El ejecutor corre cada trabajo en el mismo hilo de la prueba, de modo que
+ * {@code iniciar} deja el trabajo terminado al volver.
+ * </p>
+ */
+class TrabajosGeneracionServiceImplTest {
+
+    private static final BigDecimal PRECIO = BigDecimal.valueOf(5000.0);
+
+    private TrabajoGeneracionRepository trabajoRepo;
+    private SorteoRepository sorteoRepo;
+    private GeneradorBilletes generador;
+    private PlatformTransactionManager txManager;
+
+    /** Último trabajo guardado con {@code save}. */
+    private TrabajoGeneracion guardado;
+
+    @BeforeEach
+    void setUp() {
+        trabajoRepo = mock(TrabajoGeneracionRepository.class);
+        sorteoRepo = mock(SorteoRepository.class);
+        generador = mock(GeneradorBilletes.class);
+        txManager = mock(PlatformTransactionManager.class);
+
+        when(sorteoRepo.existsById(1L)).thenReturn(true);
+        when(trabajoRepo.save(any(TrabajoGeneracion.class))).thenAnswer(inv -> {
+            guardado = inv.getArgument(0);
+            return guardado;
+        });
+        when(trabajoRepo.findById(anyString())).thenAnswer(inv -> Optional.ofNullable(guardado));
+        when(trabajoRepo.iniciar(anyString(), any())).thenReturn(1);
+    }
+
+    /** Servicio con tramos de 10 billetes por transacción. */
+    private TrabajosGeneracionServiceImpl servicio(Executor ejecutor) {
+        return new TrabajosGeneracionServiceImpl(trabajoRepo, sorteoRepo, generador,
+                new TransactionTemplate(txManager), 10, ejecutor);
+    }
+
+    private TrabajoGeneracion trabajo(EstadoTrabajoGeneracion estado, int cantidad, int generados) {
+        LocalDateTime ahora = LocalDateTime.now();
+        return TrabajoGeneracion.builder()
+                .id("t-1").sorteoId(1L).cantidad(cantidad).generados(generados).precio(PRECIO)
+                .estado(estado).fechaCreacion(ahora).fechaActualizacion(ahora)
+                .build();
+    }
+
+    @Test
+    @DisplayName("iniciar(): genera por tramos, confirma cada tramo con su avance y termina COMPLETADA")
+    void iniciar_generaPorTramos() {
+        TrabajoGeneracionDto dto = servicio(Runnable::run).iniciar(1L, 25, 5000);
+
+        assertThat(dto.getEstado()).isEqualTo(EstadoTrabajoGeneracion.PENDIENTE);
+        verify(generador).generarTramo(1L, 1, 10, 4, PRECIO);
+        verify(generador).generarTramo(1L, 11, 20, 4, PRECIO);
+        verify(generador).generarTramo(1L, 21, 25, 4, PRECIO);
+        verify(trabajoRepo).registrarAvance(eq(dto.getId()), eq(10), any());
+        verify(trabajoRepo).registrarAvance(eq(dto.getId()), eq(20), any());
+        verify(trabajoRepo).registrarAvance(eq(dto.getId()), eq(25), any());
+        verify(trabajoRepo).cambiarEstadoSi(eq(dto.getId()), eq(EstadoTrabajoGeneracion.EN_CURSO),
+                eq(EstadoTrabajoGeneracion.COMPLETADA), isNull(), any());
+        // Inicio + 3 tramos + cierre, cada uno en su propia transacción
+        verify(txManager, times(5)).commit(any());
+    }
+
+    @Test
+    @DisplayName("ejecutar(): retoma un trabajo EN_CURSO desde el siguiente número sin generar")
+    void ejecutar_retomaDesdeElAvance() {
+        guardado = trabajo(EstadoTrabajoGeneracion.EN_CURSO, 25, 20);
+
+        EstadoTrabajoGeneracion estado = servicio(Runnable::run).ejecutar("t-1");
+
+        assertThat(estado).isEqualTo(EstadoTrabajoGeneracion.COMPLETADA);
+        verify(trabajoRepo, never()).iniciar(anyString(), any());
+        verify(generador, times(1)).generarTramo(anyLong(), anyInt(), anyInt(), anyInt(), any());
+        verify(generador).generarTramo(1L, 21, 25, 4, PRECIO);
+    }
+
+    @Test
+    @DisplayName("ejecutar(): cancelación pedida a mitad -> se detiene antes del siguiente tramo")
+    void ejecutar_cancelacionEnCurso() {
+        guardado = trabajo(EstadoTrabajoGeneracion.PENDIENTE, 30, 0);
+        when(trabajoRepo.isCancelacionSolicitada("t-1")).thenReturn(false, true);
+
+        EstadoTrabajoGeneracion estado = servicio(Runnable::run).ejecutar("t-1");
+
+        assertThat(estado).isEqualTo(EstadoTrabajoGeneracion.CANCELADA);
+        verify(generador, times(1)).generarTramo(anyLong(), anyInt(), anyInt(), anyInt(), any());
+        verify(trabajoRepo).cambiarEstadoSi(eq("t-1"), eq(EstadoTrabajoGeneracion.EN_CURSO),
+                eq(EstadoTrabajoGeneracion.CANCELADA), isNull(), any());
+    }
+
+    @Test
+    @DisplayName("ejecutar(): error al insertar -> FALLIDA con el motivo, conservando los tramos previos")
+    void ejecutar_errorMarcaFallida() {
+        guardado = trabajo(EstadoTrabajoGeneracion.PENDIENTE, 30, 0);
+        when(generador.generarTramo(1L, 11, 20, 4, PRECIO))
+                .thenThrow(new DataIntegrityViolationException("ux_billetes_sorteo_numero"));
+
+        EstadoTrabajoGeneracion estado = servicio(Runnable::run).ejecutar("t-1");
+
+        assertThat(estado).isEqualTo(EstadoTrabajoGeneracion.FALLIDA);
+        verify(trabajoRepo).registrarAvance(eq("t-1"), eq(10), any());
+        verify(trabajoRepo, never()).registrarAvance(eq("t-1"), eq(20), any());
+        verify(trabajoRepo).cambiarEstadoSi(eq("t-1"), eq(EstadoTrabajoGeneracion.EN_CURSO),
+                eq(EstadoTrabajoGeneracion.FALLIDA), eq("ux_billetes_sorteo_numero"), any());
+    }
+
+    @Test
+    @DisplayName("iniciar(): ejecutor lleno -> RejectedExecutionException y el trabajo queda FALLIDA")
+    void iniciar_colaLlena() {
+        TrabajosGeneracionServiceImpl servicio = servicio(r -> {
+            throw new RejectedExecutionException("lleno");
+        });
+
+        assertThrows(RejectedExecutionException.class, () -> servicio.iniciar(1L, 10, 5000));
+        verify(trabajoRepo).cambiarEstadoSi(eq(guardado.getId()), eq(EstadoTrabajoGeneracion.PENDIENTE),
+                eq(EstadoTrabajoGeneracion.FALLIDA), eq("Servicio saturado"), any());
+        verifyNoInteractions(generador);
+    }
+
+    @Test
+    @DisplayName("iniciar(): sorteo inexistente o cantidad inválida -> no se crea el trabajo")
+    void iniciar_validaciones() {
+        TrabajosGeneracionServiceImpl servicio = servicio(Runnable::run);
+
+        assertThrows(NoSuchElementException.class, () -> servicio.iniciar(99L, 10, 5000));
+        assertThrows(IllegalArgumentException.class, () -> servicio.iniciar(1L, 0, 5000));
+        verify(trabajoRepo, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("cancelar(): trabajo ya terminado -> IllegalStateException; de otro sorteo -> 404")
+    void cancelar_terminadoODeOtroSorteo() {
+        guardado = trabajo(EstadoTrabajoGeneracion.COMPLETADA, 10, 10);
+        when(trabajoRepo.solicitarCancelacion(eq("t-1"), any())).thenReturn(0);
+        TrabajosGeneracionServiceImpl servicio = servicio(Runnable::run);
+
+        assertThrows(IllegalStateException.class, () -> servicio.cancelar(1L, "t-1"));
+        assertThrows(NoSuchElementException.class, () -> servicio.cancelar(2L, "t-1"));
+    }
+}
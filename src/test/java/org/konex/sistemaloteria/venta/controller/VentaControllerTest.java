@@ -3,9 +3,17 @@ package org.konex.sistemaloteria.venta.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.konex.sistemaloteria.compartido.CacheIdempotencia;
 import org.konex.sistemaloteria.excepciones.GlobalExceptionHandler;
+import org.konex.sistemaloteria.venta.dto.OperacionVentaDto;
+import org.konex.sistemaloteria.venta.dto.ReservaRequestDto;
+import org.konex.sistemaloteria.venta.dto.ReservaResponseDto;
+import org.konex.sistemaloteria.venta.dto.VentaLoteRequestDto;
+import org.konex.sistemaloteria.venta.dto.VentaLoteResponseDto;
 import org.konex.sistemaloteria.venta.dto.VentaRequestDto;
 import org.konex.sistemaloteria.venta.dto.VentaResponseDto;
+import org.konex.sistemaloteria.venta.model.EstadoOperacionVenta;
+import org.konex.sistemaloteria.venta.service.VentaAsincronaService;
 import org.konex.sistemaloteria.venta.service.VentaService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -19,17 +27,21 @@ import org.springframework.test.context.bean.override.mockito.MockitoBean;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.NoSuchElementException;
 
 import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(controllers = VentaController.class)
 @AutoConfigureMockMvc(addFilters = false)
-@Import(GlobalExceptionHandler.class)
+@Import({GlobalExceptionHandler.class, CacheIdempotencia.class})
 class VentaControllerTest {
 
     @Autowired private MockMvc mvc;
@@ -39,6 +51,9 @@ class VentaControllerTest {
     @MockitoBean
     private VentaService ventaService;
 
+    @MockitoBean
+    private VentaAsincronaService ventaAsincronaService;
+
     private VentaResponseDto sampleResponse() {
         return new VentaResponseDto(
                 999L, 10L, "0001", 100L, "Cliente Prueba",
@@ -123,4 +138,151 @@ class VentaControllerTest {
                 .andExpect(jsonPath("$.status").value(409))
                 .andExpect(jsonPath("$.message", containsString("ya fue vendido")));
     }
+
+    @Test
+    @DisplayName("POST /api/ventas/lote -> 201 Created con total y detalle")
+    void post_venderLote_201() throws Exception {
+        var respuesta = new VentaLoteResponseDto(100L, "Cliente Prueba",
+                new BigDecimal("20000"), List.of(sampleResponse(), sampleResponse()));
+        when(ventaService.venderLote(any(VentaLoteRequestDto.class))).thenReturn(respuesta);
+
+        var body = new VentaLoteRequestDto(100L, List.of(10L, 11L));
+
+        mvc.perform(post("/api/ventas/lote")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(body)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.cantidad").value(2))
+                .andExpect(jsonPath("$.total").value(20000))
+                .andExpect(jsonPath("$.ventas.length()").value(2));
+    }
+
+    @Test
+    @DisplayName("POST /api/ventas/lote -> 400 cuando la lista de billetes está vacía")
+    void post_venderLote_listaVacia_400() throws Exception {
+        var body = new VentaLoteRequestDto(100L, List.of());
+
+        mvc.perform(post("/api/ventas/lote")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(body)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors.billeteIds").exists());
+    }
+
+    @Test
+    @DisplayName("POST /api/ventas/reservas -> 201 Created con token y vencimiento")
+    void post_reservar_201() throws Exception {
+        when(ventaService.reservar(any(ReservaRequestDto.class))).thenReturn(new ReservaResponseDto(
+                "tok-10", 10L, "0001", 100L, LocalDateTime.of(2025, 11, 9, 10, 5)));
+
+        var body = new ReservaRequestDto(10L, 100L, 300);
+
+        mvc.perform(post("/api/ventas/reservas")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(body)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.token").value("tok-10"))
+                .andExpect(jsonPath("$.billeteId").value(10));
+    }
+
+    @Test
+    @DisplayName("POST /api/ventas/reservas -> 400 cuando la duración excede el máximo")
+    void post_reservar_duracionExcesiva_400() throws Exception {
+        var body = new ReservaRequestDto(10L, 100L, 7200);
+
+        mvc.perform(post("/api/ventas/reservas")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(body)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors.segundos").exists());
+    }
+
+    @Test
+    @DisplayName("POST /api/ventas con Idempotency-Key repetida -> misma respuesta sin volver a vender")
+    void post_vender_idempotente_reintentoNoRepiteVenta() throws Exception {
+        when(ventaService.vender(any(VentaRequestDto.class))).thenReturn(sampleResponse());
+        var body = om.writeValueAsString(new VentaRequestDto(10L, 100L));
+
+        for (int i = 0; i < 2; i++) {
+            mvc.perform(post("/api/ventas")
+                            .header("Idempotency-Key", "venta-ok-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(body))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.ventaId").value(999));
+        }
+
+        verify(ventaService, times(1)).vender(any(VentaRequestDto.class));
+    }
+
+    @Test
+    @DisplayName("POST /api/ventas con Idempotency-Key: el error de negocio también se repite")
+    void post_vender_idempotente_repiteConflicto() throws Exception {
+        when(ventaService.vender(any(VentaRequestDto.class)))
+                .thenThrow(new IllegalStateException("El billete ya fue vendido"));
+        var body = om.writeValueAsString(new VentaRequestDto(10L, 100L));
+
+        for (int i = 0; i < 2; i++) {
+            mvc.perform(post("/api/ventas")
+                            .header("Idempotency-Key", "venta-409-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(body))
+                    .andExpect(status().isConflict());
+        }
+
+        verify(ventaService, times(1)).vender(any(VentaRequestDto.class));
+    }
+
+    @Test
+    @DisplayName("POST /api/ventas: Idempotency-Key reutilizada con otro cuerpo -> 400")
+    void post_vender_idempotente_otraSolicitud_400() throws Exception {
+        when(ventaService.vender(any(VentaRequestDto.class))).thenReturn(sampleResponse());
+
+        mvc.perform(post("/api/ventas")
+                        .header("Idempotency-Key", "venta-reuso-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(new VentaRequestDto(10L, 100L))))
+                .andExpect(status().isCreated());
+
+        mvc.perform(post("/api/ventas")
+                        .header("Idempotency-Key", "venta-reuso-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(new VentaRequestDto(11L, 100L))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", containsString("Idempotency-Key")));
+    }
+
+    @Test
+    @DisplayName("POST /api/ventas/operaciones -> 202 Accepted con ID y Location")
+    void post_venderAsincrono_202() throws Exception {
+        var ahora = LocalDateTime.now();
+        when(ventaAsincronaService.encolar(any(VentaRequestDto.class))).thenReturn(new OperacionVentaDto(
+                "op-1", EstadoOperacionVenta.PENDIENTE, 10L, 100L, null, null, ahora, ahora));
+
+        mvc.perform(post("/api/ventas/operaciones")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(new VentaRequestDto(10L, 100L))))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/ventas/operaciones/op-1"))
+                .andExpect(jsonPath("$.id").value("op-1"))
+                .andExpect(jsonPath("$.estado").value("PENDIENTE"));
+    }
+
+    @Test
+    @DisplayName("GET /api/ventas/operaciones/{id} -> 200 con el estado; 404 si no existe")
+    void get_consultarOperacion() throws Exception {
+        var ahora = LocalDateTime.now();
+        when(ventaAsincronaService.consultar("op-1")).thenReturn(new OperacionVentaDto(
+                "op-1", EstadoOperacionVenta.CONFIRMADA, 10L, 100L, 999L, null, ahora, ahora));
+        when(ventaAsincronaService.consultar("no-existe"))
+                .thenThrow(new NoSuchElementException("Operación no encontrada: no-existe"));
+
+        mvc.perform(get("/api/ventas/operaciones/op-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.estado").value("CONFIRMADA"))
+                .andExpect(jsonPath("$.ventaId").value(999));
+
+        mvc.perform(get("/api/ventas/operaciones/no-existe"))
+                .andExpect(status().isNotFound());
+    }
 }
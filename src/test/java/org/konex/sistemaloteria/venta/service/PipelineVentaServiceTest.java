@@ -0,0 +1,156 @@
+package org.konex.sistemaloteria.venta.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.konex.sistemaloteria.billete.repository.BilleteRepository;
+import org.konex.sistemaloteria.billete.service.DisponibilidadBilletes;
+import org.konex.sistemaloteria.venta.dto.VentaRequestDto;
+import org.konex.sistemaloteria.venta.dto.VentaResponseDto;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios del pipeline de ventas con commit agrupado.
+ */
+class PipelineVentaServiceTest {
+
+    private VentaServiceImpl ventaService;
+    private PlatformTransactionManager txManager;
+    private DisponibilidadBilletes disponibilidad;
+    private PipelineVentaService pipeline;
+
+    @BeforeEach
+    void setUp() {
+        ventaService = mock(VentaServiceImpl.class);
+        txManager = mock(PlatformTransactionManager.class);
+        disponibilidad = new DisponibilidadBilletes(mock(BilleteRepository.class));
+        // Lote de 2 ventas y espera larga: el lote solo se cierra cuando está completo
+        pipeline = new PipelineVentaService(ventaService, disponibilidad,
+                new TransactionTemplate(txManager), 16, 2, 5_000, 5_000);
+        pipeline.iniciar();
+    }
+
+    /** Reemplaza el pipeline por uno que confirma cada venta sola y espera su resultado {@code esperaResultadoMs}. */
+    private void reiniciarSinAgrupar(long esperaResultadoMs) throws InterruptedException {
+        pipeline.detener();
+        pipeline = new PipelineVentaService(ventaService, disponibilidad,
+                new TransactionTemplate(txManager), 16, 1, 0, esperaResultadoMs);
+        pipeline.iniciar();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        pipeline.detener();
+    }
+
+    private VentaResponseDto respuesta(Long billeteId) {
+        return new VentaResponseDto(100L + billeteId, billeteId, "000" + billeteId,
+                1L, "Ana", LocalDateTime.now(), new BigDecimal("10000"));
+    }
+
+    @Test
+    @DisplayName("Dos ventas concurrentes comparten una transacción y cada una recibe su propio resultado")
+    void vender_loteCompartido_resultadoPorSolicitud() throws Exception {
+        VentaRequestDto ok = new VentaRequestDto(1L, 1L);
+        VentaRequestDto vendido = new VentaRequestDto(2L, 1L);
+        when(ventaService.registrar(ok)).thenReturn(respuesta(1L));
+        when(ventaService.registrar(vendido))
+                .thenThrow(new IllegalStateException("El billete ya fue vendido o no está disponible"));
+
+        CompletableFuture<VentaResponseDto> f1 = CompletableFuture.supplyAsync(() -> pipeline.vender(ok));
+        CompletableFuture<VentaResponseDto> f2 = CompletableFuture.supplyAsync(() -> pipeline.vender(vendido));
+
+        assertThat(f1.get(5, TimeUnit.SECONDS).getVentaId()).isEqualTo(101L);
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> f2.get(5, TimeUnit.SECONDS));
+        assertThat(ex.getCause()).isInstanceOf(IllegalStateException.class);
+
+        // Una sola transacción para ambas ventas; el rechazo no revierte la venta exitosa
+        verify(txManager, times(1)).getTransaction(any());
+        verify(txManager, times(1)).commit(any());
+        verify(txManager, never()).rollback(any());
+        verify(ventaService, never()).vender(any());
+
+        assertThat(disponibilidad.estaVendido(1L)).isTrue();
+        assertThat(disponibilidad.estaVendido(2L)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Billete ya vendido en memoria: se rechaza sin encolar")
+    void vender_rechazoEnMemoria_noEncola() {
+        disponibilidad.marcarVendido(7L);
+
+        assertThrows(IllegalStateException.class, () -> pipeline.vender(new VentaRequestDto(7L, 1L)));
+        verifyNoInteractions(txManager);
+        verify(ventaService, never()).registrar(any());
+    }
+
+    @Test
+    @DisplayName("Pipeline detenido: la venta se rechaza con RejectedExecutionException")
+    void vender_pipelineDetenido_rechaza() throws InterruptedException {
+        pipeline.detener();
+
+        assertThrows(RejectedExecutionException.class, () -> pipeline.vender(new VentaRequestDto(1L, 1L)));
+        verifyNoInteractions(txManager);
+    }
+
+    @Test
+    @DisplayName("Lote que no se confirma a tiempo: la venta se rechaza con RejectedExecutionException")
+    void vender_resultadoVencido_rechaza() throws Exception {
+        reiniciarSinAgrupar(100);
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(ventaService.registrar(any())).thenAnswer(inv -> {
+            liberar.await();
+            return respuesta(1L);
+        });
+
+        try {
+            assertThrows(RejectedExecutionException.class, () -> pipeline.vender(new VentaRequestDto(1L, 1L)));
+        } finally {
+            liberar.countDown();
+        }
+    }
+
+    @Test
+    @DisplayName("Escritor caído: al detener el pipeline se rechazan las ventas que quedaron en la cola")
+    void detener_escritorCaido_rechazaVentasEncoladas() throws Exception {
+        reiniciarSinAgrupar(2_000);
+        CountDownLatch enRegistro = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(ventaService.registrar(any())).thenAnswer(inv -> {
+            enRegistro.countDown();
+            liberar.await();
+            throw new Error("fallo simulado del escritor");
+        });
+
+        CompletableFuture<VentaResponseDto> enCurso =
+                CompletableFuture.supplyAsync(() -> pipeline.vender(new VentaRequestDto(1L, 1L)));
+        assertThat(enRegistro.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<VentaResponseDto> encolada =
+                CompletableFuture.supplyAsync(() -> pipeline.vender(new VentaRequestDto(2L, 1L)));
+        Thread.sleep(100);   // la segunda venta queda en la cola detrás de la primera
+
+        liberar.countDown();
+        pipeline.detener();
+
+        // La encolada se rechaza enseguida, sin esperar su plazo; la que estaba en curso vence
+        ExecutionException encoladaEx = assertThrows(ExecutionException.class, () -> encolada.get(1, TimeUnit.SECONDS));
+        assertThat(encoladaEx.getCause()).isInstanceOf(RejectedExecutionException.class);
+        ExecutionException enCursoEx = assertThrows(ExecutionException.class, () -> enCurso.get(5, TimeUnit.SECONDS));
+        assertThat(enCursoEx.getCause()).isInstanceOf(RejectedExecutionException.class);
+    }
+}
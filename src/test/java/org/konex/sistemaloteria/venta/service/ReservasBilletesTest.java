@@ -0,0 +1,131 @@
+package org.konex.sistemaloteria.venta.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.konex.sistemaloteria.billete.repository.BilleteRepository;
+import org.konex.sistemaloteria.billete.service.BilletesLibres;
+import org.konex.sistemaloteria.billete.service.NumerosVirtuales;
+import org.konex.sistemaloteria.compartido.EstadoBillete;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias del registro de reservas. Salvo la prueba de reintentos, no arrancan
+ * los hilos de la rueda ni del liberador: las liberaciones se procesan con
+ * {@code liberarPendientes}.
+ */
+class ReservasBilletesTest {
+
+    private BilleteRepository billeteRepo;
+    private BilletesLibres libres;
+    private ReservasBilletes reservas;
+
+    @BeforeEach
+    void setUp() {
+        billeteRepo = mock(BilleteRepository.class);
+        libres = mock(BilletesLibres.class);
+        reservas = new ReservasBilletes(billeteRepo,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), libres,
+                mock(NumerosVirtuales.class), 300, 100, 8, 500, 10);
+    }
+
+    @Test
+    void consumir_quitaLaReservaYYaNoVence() {
+        var r = reservas.registrar(10L, 100L, 60);
+        assertThat(r.getExpiraEn()).isAfter(LocalDateTime.now().plusSeconds(50));
+
+        assertThat(reservas.consumir(r.getToken(), 10L, 100L)).isSameAs(r);
+        assertThat(reservas.activas()).isZero();
+
+        reservas.expirar(r.getToken());
+        verify(billeteRepo, never()).cambiarEstadoSi(anyLong(), any(), any(), any());
+        assertThrows(IllegalStateException.class, () -> reservas.consumir(r.getToken(), 10L, 100L));
+    }
+
+    @Test
+    void consumir_deOtroCliente_rechazaSinQuitarla() {
+        var r = reservas.registrar(10L, 100L, null);
+
+        assertThrows(IllegalArgumentException.class, () -> reservas.consumir(r.getToken(), 10L, 999L));
+        assertThat(reservas.activas()).isEqualTo(1);
+    }
+
+    @Test
+    void expirar_encolaElBillete_yElLiberadorLoLibera() {
+        var r = reservas.registrar(10L, 100L, 60);
+        when(billeteRepo.cambiarEstadoSi(List.of(10L), EstadoBillete.RESERVADO, EstadoBillete.DISPONIBLE, null))
+                .thenReturn(1);
+
+        reservas.expirar(r.getToken());
+        // El hilo de la rueda no toca la base de datos
+        verifyNoInteractions(billeteRepo);
+        assertThat(reservas.activas()).isZero();
+        assertThrows(IllegalStateException.class, () -> reservas.consumir(r.getToken(), 10L, 100L));
+
+        assertThat(reservas.liberarPendientes()).isTrue();
+        verify(billeteRepo).cambiarEstadoSi(List.of(10L), EstadoBillete.RESERVADO, EstadoBillete.DISPONIBLE, null);
+        verify(libres).devolver(10L);
+        assertThat(reservas.liberarPendientes()).isFalse();
+    }
+
+    @Test
+    void vencimientosSimultaneos_seLiberanEnUnSoloUpdate() {
+        var a = reservas.registrar(10L, 100L, 60);
+        var b = reservas.registrar(11L, 101L, 60);
+        reservas.expirar(a.getToken());
+        reservas.expirar(b.getToken());
+
+        reservas.liberarPendientes();
+
+        verify(billeteRepo).cambiarEstadoSi(List.of(10L, 11L), EstadoBillete.RESERVADO, EstadoBillete.DISPONIBLE, null);
+        verify(billeteRepo, never()).cambiarEstadoSi(anyLong(), any(), any(), any());
+    }
+
+    @Test
+    void liberacionFallida_seReprogramaHastaQueFunciona() throws Exception {
+        when(billeteRepo.cambiarEstadoSi(List.of(10L), EstadoBillete.RESERVADO, EstadoBillete.DISPONIBLE, null))
+                .thenThrow(new DataAccessResourceFailureException("sin conexión"))
+                .thenReturn(1);
+        reservas.iniciar();
+        try {
+            var r = reservas.registrar(10L, 100L, 60);
+            reservas.expirar(r.getToken());
+
+            verify(billeteRepo, timeout(5_000).times(2))
+                    .cambiarEstadoSi(List.of(10L), EstadoBillete.RESERVADO, EstadoBillete.DISPONIBLE, null);
+            verify(libres, timeout(5_000)).devolver(10L);
+        } finally {
+            reservas.detener();
+        }
+    }
+
+    @Test
+    void restaurar_vencida_encolaLaLiberacion() {
+        var vencida = new ReservasBilletes.Reserva("tok", 10L, 100L, LocalDateTime.now().minusSeconds(1));
+
+        reservas.restaurar(vencida);
+        reservas.liberarPendientes();
+
+        verify(billeteRepo).cambiarEstadoSi(List.of(10L), EstadoBillete.RESERVADO, EstadoBillete.DISPONIBLE, null);
+        assertThat(reservas.activas()).isZero();
+    }
+
+    @Test
+    void liberarHuerfanas_devuelveReservadosADisponible() {
+        when(billeteRepo.findIdsByEstado(EstadoBillete.RESERVADO)).thenReturn(List.of(3L, 4L));
+        when(billeteRepo.cambiarEstadoSi(List.of(3L, 4L), EstadoBillete.RESERVADO, EstadoBillete.DISPONIBLE, null))
+                .thenReturn(2);
+
+        assertThat(reservas.liberarHuerfanas()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,192 @@
+package org.konex.sistemaloteria.venta.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.konex.sistemaloteria.billete.repository.BilleteRepository;
+import org.konex.sistemaloteria.billete.service.DisponibilidadBilletes;
+import org.konex.sistemaloteria.venta.dto.VentaRequestDto;
+import org.konex.sistemaloteria.venta.dto.VentaResponseDto;
+import org.konex.sistemaloteria.venta.model.EstadoOperacionVenta;
+import org.konex.sistemaloteria.venta.model.OperacionVenta;
+import org.konex.sistemaloteria.venta.repository.OperacionVentaRepository;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios del modo asíncrono de ventas (sin arrancar los trabajadores:
+ * las operaciones se procesan invocando {@code procesar} directamente).
+ */
+@ExtendWith(MockitoExtension.class)
+class VentaAsincronaServiceImplTest {
+
+    @Mock private VentaServiceImpl ventaService;
+    @Mock private OperacionVentaRepository operacionRepo;
+    @Mock private PlatformTransactionManager txManager;
+
+    private DisponibilidadBilletes disponibilidad;
+    private VentaAsincronaServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        disponibilidad = new DisponibilidadBilletes(mock(BilleteRepository.class));
+        service = new VentaAsincronaServiceImpl(ventaService, operacionRepo, disponibilidad,
+                new TransactionTemplate(txManager), 1, 1, 2, 10);
+    }
+
+    private OperacionVenta pendiente(String id, Long billeteId) {
+        return OperacionVenta.builder()
+                .id(id)
+                .billeteId(billeteId)
+                .clienteId(100L)
+                .estado(EstadoOperacionVenta.PENDIENTE)
+                .fechaCreacion(LocalDateTime.now())
+                .fechaActualizacion(LocalDateTime.now())
+                .build();
+    }
+
+    @Test
+    @DisplayName("encolar(): guarda la operación PENDIENTE; con la cola llena la marca RECHAZADA (503)")
+    void encolar_guardaPendiente_yRechazaSiLaColaEstaLlena() {
+        // Cola de capacidad 1 y sin trabajadores que la vacíen
+        service = new VentaAsincronaServiceImpl(ventaService, operacionRepo, disponibilidad,
+                new TransactionTemplate(txManager), 1, 0, 2, 10);
+        service.iniciar();
+        when(operacionRepo.save(any(OperacionVenta.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        var op = service.encolar(new VentaRequestDto(10L, 100L));
+        assertThat(op.getEstado()).isEqualTo(EstadoOperacionVenta.PENDIENTE);
+        assertThat(op.getId()).isNotBlank();
+
+        assertThrows(RejectedExecutionException.class, () -> service.encolar(new VentaRequestDto(11L, 100L)));
+
+        var cap = ArgumentCaptor.forClass(OperacionVenta.class);
+        verify(operacionRepo, times(3)).save(cap.capture());
+        assertThat(cap.getAllValues().get(2).getEstado()).isEqualTo(EstadoOperacionVenta.RECHAZADA);
+        verifyNoInteractions(ventaService);
+    }
+
+    @Test
+    @DisplayName("encolar(): con token de reserva -> IllegalArgumentException")
+    void encolar_conReserva_rechaza() {
+        assertThrows(IllegalArgumentException.class, () ->
+                service.encolar(new VentaRequestDto(10L, 100L, "tok")));
+        verifyNoInteractions(operacionRepo);
+    }
+
+    @Test
+    @DisplayName("encolar(): billete ya vendido en memoria -> 409 sin guardar operación")
+    void encolar_billeteVendido_rechazoInmediato() {
+        disponibilidad.marcarVendido(10L);
+
+        assertThrows(IllegalStateException.class, () -> service.encolar(new VentaRequestDto(10L, 100L)));
+        verifyNoInteractions(operacionRepo);
+    }
+
+    @Test
+    @DisplayName("procesar(): registra la venta y confirma la operación en la misma transacción")
+    void procesar_confirma() {
+        var op = pendiente("op-1", 10L);
+        when(operacionRepo.findById("op-1")).thenReturn(Optional.of(op));
+        when(ventaService.registrar(any(VentaRequestDto.class))).thenReturn(new VentaResponseDto(
+                999L, 10L, "0001", 100L, "Ana", LocalDateTime.now(), new BigDecimal("10000")));
+
+        assertThat(service.procesar("op-1")).isEqualTo(EstadoOperacionVenta.CONFIRMADA);
+
+        assertThat(op.getVentaId()).isEqualTo(999L);
+        verify(operacionRepo).save(op);
+        verify(txManager).commit(any());
+        assertThat(disponibilidad.estaVendido(10L)).isTrue();
+    }
+
+    @Test
+    @DisplayName("procesar(): rechazo de negocio -> operación RECHAZADA con el motivo")
+    void procesar_rechaza() {
+        var op = pendiente("op-2", 11L);
+        when(operacionRepo.findById("op-2")).thenReturn(Optional.of(op));
+        when(ventaService.registrar(any(VentaRequestDto.class)))
+                .thenThrow(new IllegalStateException("El billete ya fue vendido o no está disponible"));
+
+        assertThat(service.procesar("op-2")).isEqualTo(EstadoOperacionVenta.RECHAZADA);
+
+        assertThat(op.getMensaje()).contains("ya fue vendido");
+        verify(operacionRepo).save(op);
+        assertThat(disponibilidad.estaVendido(11L)).isFalse();
+    }
+
+    @Test
+    @DisplayName("procesar(): operación ya resuelta -> no se vuelve a vender")
+    void procesar_yaResuelta_noRepite() {
+        var op = pendiente("op-3", 12L);
+        op.setEstado(EstadoOperacionVenta.CONFIRMADA);
+        when(operacionRepo.findById("op-3")).thenReturn(Optional.of(op));
+
+        assertThat(service.procesar("op-3")).isEqualTo(EstadoOperacionVenta.CONFIRMADA);
+        verifyNoInteractions(ventaService);
+    }
+
+    @Test
+    @DisplayName("atender(): un error inesperado reencola la operación y el reintento la confirma")
+    void atender_errorInesperado_reintentaYConfirma() throws InterruptedException {
+        service.iniciar();
+        var op = pendiente("op-4", 13L);
+        when(operacionRepo.save(any(OperacionVenta.class))).thenReturn(op);
+        when(operacionRepo.findById("op-4"))
+                .thenThrow(new DataAccessResourceFailureException("Base de datos caída"))
+                .thenReturn(Optional.of(op));
+        when(ventaService.registrar(any(VentaRequestDto.class))).thenReturn(new VentaResponseDto(
+                998L, 13L, "0001", 100L, "Ana", LocalDateTime.now(), new BigDecimal("10000")));
+
+        service.encolar(new VentaRequestDto(13L, 100L));
+
+        verify(ventaService, timeout(5000)).registrar(any(VentaRequestDto.class));
+        verify(operacionRepo, times(2)).findById("op-4");
+        service.detener();
+        assertThat(op.getEstado()).isEqualTo(EstadoOperacionVenta.CONFIRMADA);
+    }
+
+    @Test
+    @DisplayName("atender(): agotados los intentos -> operación RECHAZADA con el último error")
+    void atender_intentosAgotados_rechaza() {
+        var op = pendiente("op-5", 14L);
+        when(operacionRepo.findById("op-5"))
+                .thenThrow(new DataAccessResourceFailureException("Base de datos caída"))
+                .thenThrow(new DataAccessResourceFailureException("Base de datos caída"))
+                .thenReturn(Optional.of(op));
+
+        service.atender("op-5");
+        service.atender("op-5");
+        assertThat(op.getEstado()).isEqualTo(EstadoOperacionVenta.PENDIENTE);
+
+        service.atender("op-5");
+
+        assertThat(op.getEstado()).isEqualTo(EstadoOperacionVenta.RECHAZADA);
+        assertThat(op.getMensaje()).contains("Base de datos caída");
+        verify(operacionRepo).save(op);
+        verifyNoInteractions(ventaService);
+    }
+
+    @Test
+    @DisplayName("consultar(): operación inexistente -> NoSuchElementException (404)")
+    void consultar_noExiste() {
+        when(operacionRepo.findById("x")).thenReturn(Optional.empty());
+
+        assertThrows(NoSuchElementException.class, () -> service.consultar("x"));
+    }
+}
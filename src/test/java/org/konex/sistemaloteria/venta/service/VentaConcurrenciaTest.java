@@ -0,0 +1,254 @@
+package org.konex.sistemaloteria.venta.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.konex.sistemaloteria.billete.model.Billete;
+import org.konex.sistemaloteria.billete.repository.BilleteRepository;
+import org.konex.sistemaloteria.billete.service.DisponibilidadBilletes;
+import org.konex.sistemaloteria.cliente.model.Cliente;
+import org.konex.sistemaloteria.cliente.repository.ClienteRepository;
+import org.konex.sistemaloteria.compartido.EstadoBillete;
+import org.konex.sistemaloteria.sorteo.model.Sorteo;
+import org.konex.sistemaloteria.sorteo.repository.SorteoRepository;
+import org.konex.sistemaloteria.venta.dto.VentaRequestDto;
+import org.konex.sistemaloteria.venta.model.Venta;
+import org.konex.sistemaloteria.venta.repository.VentaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Prueba de estrés de {@link VentaServiceImpl#vender} contra H2 en memoria.
+ *
+ * <p>
+ * Varios hilos intentan comprar al mismo tiempo billetes elegidos al azar
+ * de un conjunto pequeño, para forzar colisiones. Se verifica que:
+ * <ul>
+ *   <li>Ningún billete se vende más de una vez (sin sobreventa).</li>
+ *   <li>Cada venta exitosa tiene exactamente un registro en {@code ventas}
+ *       y su billete queda VENDIDO al mismo cliente.</li>
+ *   <li>Las ventas perdidas se informan como conflicto ({@link IllegalStateException}).</li>
+ * </ul>
+ * Se ejecuta la misma carga con una transacción por venta ({@link VentaServiceImpl})
+ * y con el pipeline de commit agrupado ({@link PipelineVentaService}); para cada modo
+ * se registra el rendimiento (ventas/seg) y la latencia p50/p99.
+ * </p>
+ *
+ * <p>
+ * Por su duración queda fuera de {@code ./gradlew test}; se ejecuta con {@code ./gradlew benchmark}.
+ * </p>
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.orm.jdbc.bind=WARN"
+})
+class VentaConcurrenciaTest {
+
+    private static final Logger log = LoggerFactory.getLogger(VentaConcurrenciaTest.class);
+
+    private static final int BILLETES = 200;
+    private static final int CLIENTES = 16;
+    private static final int HILOS = 16;
+    private static final int INTENTOS_POR_HILO = 100;
+
+    @Autowired private VentaService ventaService;
+    @Autowired private VentaServiceImpl ventaServiceImpl;
+    @Autowired private DisponibilidadBilletes disponibilidad;
+    @Autowired private TransactionTemplate transactionTemplate;
+    @Autowired private SorteoRepository sorteoRepo;
+    @Autowired private BilleteRepository billeteRepo;
+    @Autowired private ClienteRepository clienteRepo;
+    @Autowired private VentaRepository ventaRepo;
+
+    private List<Long> billeteIds;
+    private List<Long> clienteIds;
+
+    @BeforeEach
+    void prepararDatos() {
+        Sorteo sorteo = sorteoRepo.save(Sorteo.builder()
+                .nombre("Sorteo de estrés " + System.nanoTime())
+                .fechaSorteo(LocalDate.now().plusDays(30))
+                .build());
+
+        List<Billete> billetes = new ArrayList<>();
+        for (int i = 1; i <= BILLETES; i++) {
+            billetes.add(Billete.builder()
+                    .numero(i)
+                    .precio(new BigDecimal("10000"))
+                    .estado(EstadoBillete.DISPONIBLE)
+                    .sorteo(sorteo)
+                    .build());
+        }
+        billeteIds = billeteRepo.saveAll(billetes).stream().map(Billete::getId).toList();
+
+        List<Cliente> clientes = new ArrayList<>();
+        for (int i = 0; i < CLIENTES; i++) {
+            clientes.add(Cliente.builder()
+                    .nombre("Cliente estrés " + i)
+                    .correo("estres." + sorteo.getId() + "." + i + "@example.com")
+                    .build());
+        }
+        clienteIds = clienteRepo.saveAll(clientes).stream().map(Cliente::getId).toList();
+    }
+
+    @Test
+    @DisplayName("vender() concurrente: sin sobreventa y cada venta queda consistente con su billete")
+    void venderConcurrente_sinSobreventa() throws Exception {
+        Resultado r = ejecutarCarga(ventaService);
+        r.imprimir("una transacción por venta");
+        verificarConsistencia(r);
+    }
+
+    @Test
+    @DisplayName("pipeline con commit agrupado: sin sobreventa; compara latencia y rendimiento")
+    void pipelineConcurrente_sinSobreventa() throws Exception {
+        PipelineVentaService pipeline = new PipelineVentaService(
+                ventaServiceImpl, disponibilidad, transactionTemplate, 4096, 64, 5, 30_000);
+        pipeline.iniciar();
+        try {
+            Resultado r = ejecutarCarga(pipeline);
+            r.imprimir("commit agrupado");
+            verificarConsistencia(r);
+        } finally {
+            pipeline.detener();
+        }
+    }
+
+    /**
+     * Ejecuta la carga concurrente sobre el servicio indicado.
+     */
+    private Resultado ejecutarCarga(VentaService servicio) throws InterruptedException {
+        Resultado r = new Resultado();
+
+        ExecutorService pool = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch inicio = new CountDownLatch(1);
+        CountDownLatch fin = new CountDownLatch(HILOS);
+
+        for (int h = 0; h < HILOS; h++) {
+            pool.submit(() -> {
+                try {
+                    inicio.await();
+                    ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                    for (int i = 0; i < INTENTOS_POR_HILO; i++) {
+                        Long billeteId = billeteIds.get(rnd.nextInt(billeteIds.size()));
+                        Long clienteId = clienteIds.get(rnd.nextInt(clienteIds.size()));
+                        long t = System.nanoTime();
+                        try {
+                            servicio.vender(new VentaRequestDto(billeteId, clienteId));
+                            if (r.vendidos.putIfAbsent(billeteId, clienteId) != null) {
+                                r.duplicados.incrementAndGet();
+                            }
+                        } catch (IllegalStateException e) {
+                            r.conflictos.incrementAndGet();
+                        } catch (RuntimeException e) {
+                            r.otrosErrores.incrementAndGet();
+                        } finally {
+                            r.latenciasNanos.add(System.nanoTime() - t);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    fin.countDown();
+                }
+            });
+        }
+
+        long t0 = System.nanoTime();
+        inicio.countDown();
+        assertThat(fin.await(2, TimeUnit.MINUTES)).isTrue();
+        r.nanos = System.nanoTime() - t0;
+        pool.shutdown();
+        return r;
+    }
+
+    /**
+     * Verifica que no hubo sobreventa y que ventas y billetes quedaron consistentes.
+     */
+    private void verificarConsistencia(Resultado r) {
+        int intentos = HILOS * INTENTOS_POR_HILO;
+
+        // --- Sin sobreventa ni errores inesperados ---
+        assertThat(r.duplicados.get()).isZero();
+        assertThat(r.otrosErrores.get()).isZero();
+        assertThat(r.vendidos.size() + r.conflictos.get()).isEqualTo(intentos);
+
+        // --- Cada venta registrada corresponde a una venta exitosa y a un único billete ---
+        Set<Long> ids = new HashSet<>(billeteIds);
+        Map<Long, Long> ventasPorBillete = new HashMap<>();
+        for (Venta v : ventaRepo.findAll()) {
+            Long billeteId = v.getBillete().getId();
+            if (ids.contains(billeteId)) {
+                assertThat(ventasPorBillete.put(billeteId, v.getCliente().getId())).isNull();
+            }
+        }
+        assertThat(ventasPorBillete).isEqualTo(r.vendidos);
+
+        // --- El estado de cada billete coincide con las ventas ---
+        for (Billete b : billeteRepo.findAllById(billeteIds)) {
+            Long comprador = r.vendidos.get(b.getId());
+            if (comprador == null) {
+                assertThat(b.getEstado()).isEqualTo(EstadoBillete.DISPONIBLE);
+                assertThat(b.getCliente()).isNull();
+            } else {
+                assertThat(b.getEstado()).isEqualTo(EstadoBillete.VENDIDO);
+                assertThat(b.getCliente().getId()).isEqualTo(comprador);
+            }
+        }
+    }
+
+    /** Métricas de una ejecución de carga. */
+    private static final class Resultado {
+        final Map<Long, Long> vendidos = new ConcurrentHashMap<>();   // billeteId -> clienteId
+        final AtomicInteger duplicados = new AtomicInteger();
+        final AtomicInteger conflictos = new AtomicInteger();
+        final AtomicInteger otrosErrores = new AtomicInteger();
+        final Queue<Long> latenciasNanos = new ConcurrentLinkedQueue<>();
+        long nanos;
+
+        void imprimir(String modo) {
+            int intentos = HILOS * INTENTOS_POR_HILO;
+            double segundos = nanos / 1_000_000_000.0;
+            long[] lat = latenciasNanos.stream().mapToLong(Long::longValue).sorted().toArray();
+            log.info(String.format(
+                    "[estrés ventas | %s] hilos=%d intentos=%d vendidos=%d conflictos=%d tiempo=%.3fs"
+                            + " -> %.1f intentos/s, %.1f ventas/s, latencia p50=%.2fms p99=%.2fms",
+                    modo, HILOS, intentos, vendidos.size(), conflictos.get(), segundos,
+                    intentos / segundos, vendidos.size() / segundos,
+                    percentil(lat, 0.50) / 1e6, percentil(lat, 0.99) / 1e6));
+        }
+
+        private static long percentil(long[] ordenados, double p) {
+            if (ordenados.length == 0) {
+                return 0;
+            }
+            return ordenados[Math.min(ordenados.length - 1, (int) Math.ceil(p * ordenados.length) - 1)];
+        }
+    }
+}
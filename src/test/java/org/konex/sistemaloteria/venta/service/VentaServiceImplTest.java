@@ -6,9 +6,20 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.konex.sistemaloteria.billete.model.Billete;
 import org.konex.sistemaloteria.billete.repository.BilleteRepository;
+import org.konex.sistemaloteria.billete.service.BilletesLibres;
+import org.konex.sistemaloteria.billete.service.DisponibilidadBilletes;
+import org.konex.sistemaloteria.billete.service.NumerosVirtuales;
 import org.konex.sistemaloteria.cliente.model.Cliente;
 import org.konex.sistemaloteria.cliente.repository.ClienteRepository;
+import org.konex.sistemaloteria.cliente.service.ResumenComprasClientes;
 import org.konex.sistemaloteria.compartido.EstadoBillete;
+import org.konex.sistemaloteria.sorteo.model.Sorteo;
+import org.konex.sistemaloteria.compartido.NumeroBillete;
+import org.konex.sistemaloteria.sorteo.service.ContadoresSorteo;
+import org.konex.sistemaloteria.sorteo.service.DatosVentaSorteos;
+import org.konex.sistemaloteria.venta.dto.ReservaRequestDto;
+import org.konex.sistemaloteria.venta.dto.ReservaSorteoRequestDto;
+import org.konex.sistemaloteria.venta.dto.VentaLoteRequestDto;
 import org.konex.sistemaloteria.venta.dto.VentaRequestDto;
 import org.konex.sistemaloteria.venta.dto.VentaResponseDto;
 import org.konex.sistemaloteria.venta.model.Venta;
@@ -16,13 +27,19 @@ import org.konex.sistemaloteria.venta.repository.VentaRepository;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 /**
@@ -35,13 +52,29 @@ class VentaServiceImplTest {
     @Mock private VentaRepository ventaRepo;
     @Mock private BilleteRepository billeteRepo;
     @Mock private ClienteRepository clienteRepo;
+    @Mock private ReservasBilletes reservas;
+    @Mock private ContadoresSorteo contadores;
+    @Mock private BilletesLibres libres;
+    @Mock private NumerosVirtuales numeros;
+    @Mock private ResumenComprasClientes compras;
+    @Mock private DatosVentaSorteos sorteos;
+    @Mock private PlatformTransactionManager txManager;
 
+    private DisponibilidadBilletes disponibilidad;
     private VentaServiceImpl service;
 
     @BeforeEach
     void setUp() {
-        // Orden del constructor: BilleteRepository, ClienteRepository, VentaRepository
-        service = new VentaServiceImpl(billeteRepo, clienteRepo, ventaRepo);
+        disponibilidad = new DisponibilidadBilletes(billeteRepo);
+        // Orden del constructor: BilleteRepository, ClienteRepository, VentaRepository,
+        // DisponibilidadBilletes, ReservasBilletes, TransactionTemplate, ContadoresSorteo, BilletesLibres,
+        // NumerosVirtuales, ResumenComprasClientes, DatosVentaSorteos
+        service = new VentaServiceImpl(billeteRepo, clienteRepo, ventaRepo,
+                disponibilidad, reservas, new TransactionTemplate(txManager), contadores, libres, numeros, compras,
+                sorteos);
+        // Sorteos de 4 cifras sin ejecutar, salvo que la prueba diga otra cosa
+        lenient().when(sorteos.formatear(anyLong(), anyInt()))
+                .thenAnswer(inv -> NumeroBillete.formatear(inv.<Integer>getArgument(1), 4));
     }
 
     private Cliente cliente(Long id, String nombre) {
@@ -55,9 +88,10 @@ class VentaServiceImplTest {
     private Billete billete(Long id, String numero, BigDecimal precio, EstadoBillete estado) {
         var b = new Billete();
         b.setId(id);
-        b.setNumero(numero);
+        b.setNumero(Integer.valueOf(numero));
         b.setPrecio(precio);
         b.setEstado(estado);
+        b.setSorteo(Sorteo.builder().id(1L).build());
         return b;
     }
 
@@ -73,6 +107,7 @@ class VentaServiceImplTest {
 
         when(billeteRepo.findById(10L)).thenReturn(Optional.of(b));
         when(clienteRepo.findById(100L)).thenReturn(Optional.of(c));
+        when(billeteRepo.reclamarSi(10L, EstadoBillete.DISPONIBLE, EstadoBillete.VENDIDO, c)).thenReturn(1);
         when(ventaRepo.save(any(Venta.class))).thenAnswer(inv -> {
             var v = inv.getArgument(0, Venta.class);
             v.setId(999L);
@@ -93,6 +128,57 @@ class VentaServiceImplTest {
 
         verify(billeteRepo).findById(10L);
         verify(clienteRepo).findById(100L);
+        verify(billeteRepo).reclamarSi(10L, EstadoBillete.DISPONIBLE, EstadoBillete.VENDIDO, c);
+        verify(txManager).commit(any());
+        verify(contadores).registrarVenta(1L, new BigDecimal("10000"));
+        // El resumen del cliente se suma dentro de la transacción de la venta
+        verify(compras).sumar(eq(100L), eq(1), eq(new BigDecimal("10000")), eq(guardada.getFechaVenta()));
+        assertThat(disponibilidad.estaVendido(10L)).isTrue();
+    }
+
+    @Test
+    @DisplayName("vender(): billete ya marcado como vendido en memoria -> 409 sin tocar la BD ni abrir transacción")
+    void vender_rechazoEnMemoria_sinBaseDeDatos() {
+        when(billeteRepo.findIdsByEstado(EstadoBillete.VENDIDO)).thenReturn(List.of(30L));
+        disponibilidad.reconciliar();
+
+        assertThrows(IllegalStateException.class, () -> service.vender(req(30L, 100L)));
+
+        verify(billeteRepo, never()).findById(any());
+        verifyNoInteractions(clienteRepo, ventaRepo, txManager);
+    }
+
+    @Test
+    @DisplayName("vender(): otra venta reclamó el billete primero -> IllegalStateException sin guardar la venta")
+    void vender_carreraPerdida_noGuardaVenta() {
+        var b = billete(13L, "0004", new BigDecimal("10000"), EstadoBillete.DISPONIBLE);
+        var c = cliente(100L, "Cliente Prueba");
+
+        when(billeteRepo.findById(13L)).thenReturn(Optional.of(b));
+        when(clienteRepo.findById(100L)).thenReturn(Optional.of(c));
+        when(billeteRepo.reclamarSi(13L, EstadoBillete.DISPONIBLE, EstadoBillete.VENDIDO, c)).thenReturn(0);
+
+        assertThrows(IllegalStateException.class, () -> service.vender(req(13L, 100L)));
+
+        verifyNoInteractions(ventaRepo);
+        assertThat(b.getEstado()).isEqualTo(EstadoBillete.DISPONIBLE);
+    }
+
+    @Test
+    @DisplayName("vender()/reservar(): sorteo ya ejecutado -> IllegalStateException sin reclamar el billete")
+    void venderYReservar_sorteoEjecutado_rechaza() {
+        var b = billete(14L, "0005", new BigDecimal("10000"), EstadoBillete.DISPONIBLE);
+        when(sorteos.cerrado(1L)).thenReturn(true);
+        when(billeteRepo.findById(14L)).thenReturn(Optional.of(b));
+        when(clienteRepo.findById(100L)).thenReturn(Optional.of(cliente(100L, "Cliente Prueba")));
+
+        var venta = assertThrows(IllegalStateException.class, () -> service.vender(req(14L, 100L)));
+        assertThat(venta.getMessage()).contains("ya fue ejecutado");
+        assertThrows(IllegalStateException.class,
+                () -> service.reservar(new ReservaRequestDto(14L, 100L, null)));
+
+        verify(billeteRepo, never()).reclamarSi(anyLong(), any(), any(), any());
+        verifyNoInteractions(ventaRepo, reservas);
     }
 
     @Test
@@ -132,6 +218,7 @@ class VentaServiceImplTest {
 
         assertThat(b.getEstado()).isEqualTo(EstadoBillete.DISPONIBLE);
         verify(ventaRepo, never()).save(any());
+        verify(billeteRepo, never()).reclamarSi(anyLong(), any(), any(), any());
     }
 
     @Test
@@ -142,10 +229,317 @@ class VentaServiceImplTest {
 
         when(billeteRepo.findById(20L)).thenReturn(Optional.of(b));
         when(clienteRepo.findById(200L)).thenReturn(Optional.of(c));
+        when(billeteRepo.reclamarSi(20L, EstadoBillete.DISPONIBLE, EstadoBillete.VENDIDO, c)).thenReturn(1);
         when(ventaRepo.save(any(Venta.class))).thenThrow(new RuntimeException("Fallo DB"));
 
         assertThrows(RuntimeException.class, () -> service.vender(req(20L, 200L)));
         assertThat(b.getEstado()).isEqualTo(EstadoBillete.DISPONIBLE);
         verify(ventaRepo).save(any(Venta.class));
+        verify(txManager).rollback(any());
+        assertThat(disponibilidad.estaVendido(20L)).isFalse();
+    }
+
+    /* =====================================================
+       RESERVAS
+    ===================================================== */
+
+    @Test
+    @DisplayName("reservar(): billete DISPONIBLE -> pasa a RESERVADO y registra la reserva tras confirmar")
+    void reservar_ok() {
+        var b = billete(50L, "0050", new BigDecimal("10000"), EstadoBillete.DISPONIBLE);
+        var c = cliente(100L, "Cliente Prueba");
+        var expira = LocalDateTime.now().plusSeconds(60);
+
+        when(billeteRepo.findById(50L)).thenReturn(Optional.of(b));
+        when(clienteRepo.findById(100L)).thenReturn(Optional.of(c));
+        when(billeteRepo.reclamarSi(50L, EstadoBillete.DISPONIBLE, EstadoBillete.RESERVADO, c)).thenReturn(1);
+        when(reservas.registrar(50L, 100L, 60))
+                .thenReturn(new ReservasBilletes.Reserva("tok-50", 50L, 100L, expira));
+
+        var out = service.reservar(new ReservaRequestDto(50L, 100L, 60));
+
+        assertThat(out.getToken()).isEqualTo("tok-50");
+        assertThat(out.getNumeroBillete()).isEqualTo("0050");
+        assertThat(out.getExpiraEn()).isEqualTo(expira);
+        verify(txManager).commit(any());
+        verifyNoInteractions(ventaRepo);
+    }
+
+    @Test
+    @DisplayName("reservar(): billete ya RESERVADO -> IllegalStateException sin registrar reserva")
+    void reservar_billeteNoDisponible() {
+        var b = billete(51L, "0051", new BigDecimal("10000"), EstadoBillete.RESERVADO);
+        when(billeteRepo.findById(51L)).thenReturn(Optional.of(b));
+
+        assertThrows(IllegalStateException.class, () ->
+                service.reservar(new ReservaRequestDto(51L, 100L, null)));
+
+        verify(reservas, never()).registrar(any(), any(), any());
+        verify(txManager).rollback(any());
+    }
+
+    @Test
+    @DisplayName("reservarAleatorio(): descarta el billete que ya no estaba disponible y reserva el siguiente tomado")
+    void reservarAleatorio_descartaNoDisponible() {
+        var vendido = billete(51L, "0051", new BigDecimal("10000"), EstadoBillete.VENDIDO);
+        var libre = billete(52L, "0052", new BigDecimal("10000"), EstadoBillete.DISPONIBLE);
+        var c = cliente(100L, "Cliente Prueba");
+
+        when(libres.tomarAleatorio(1L)).thenReturn(51L, 52L);
+        when(billeteRepo.findById(51L)).thenReturn(Optional.of(vendido));
+        when(billeteRepo.findById(52L)).thenReturn(Optional.of(libre));
+        when(clienteRepo.findById(100L)).thenReturn(Optional.of(c));
+        when(billeteRepo.reclamarSi(52L, EstadoBillete.DISPONIBLE, EstadoBillete.RESERVADO, c)).thenReturn(1);
+        when(reservas.registrar(52L, 100L, null)).thenReturn(
+                new ReservasBilletes.Reserva("tok-52", 52L, 100L, LocalDateTime.now().plusSeconds(300)));
+
+        var out = service.reservarAleatorio(1L, new ReservaSorteoRequestDto(100L, null));
+
+        assertThat(out.getBilleteId()).isEqualTo(52L);
+        assertThat(out.getToken()).isEqualTo("tok-52");
+        verify(libres, never()).devolver(anyLong());
+    }
+
+    @Test
+    @DisplayName("reservarAleatorio(): sorteo ejecutado -> se rechaza sin tomar billetes")
+    void reservarAleatorio_sorteoCerrado_noTomaBilletes() {
+        when(sorteos.cerrado(1L)).thenReturn(true);
+
+        var e = assertThrows(IllegalStateException.class, () ->
+                service.reservarAleatorio(1L, new ReservaSorteoRequestDto(100L, null)));
+
+        assertThat(e.getMessage()).contains("ejecutado o archivado");
+        verify(libres, never()).tomarAleatorio(anyLong());
+        verifyNoInteractions(billeteRepo, reservas);
+    }
+
+    @Test
+    @DisplayName("reservarSiguiente(): el sorteo se cierra durante la reserva -> el billete vuelve y no se toman más")
+    void reservarSiguiente_sorteoCerradoEntretanto_devuelveBillete() {
+        var b = billete(53L, "0053", new BigDecimal("10000"), EstadoBillete.DISPONIBLE);
+        when(sorteos.cerrado(1L)).thenReturn(false, true);
+        when(libres.tomarSiguiente(1L)).thenReturn(53L);
+        when(billeteRepo.findById(53L)).thenReturn(Optional.of(b));
+        when(clienteRepo.findById(100L)).thenReturn(Optional.of(cliente(100L, "Cliente Prueba")));
+
+        var e = assertThrows(IllegalStateException.class, () ->
+                service.reservarSiguiente(1L, new ReservaSorteoRequestDto(100L, null)));
+
+        assertThat(e.getMessage()).contains("ejecutado o archivado");
+        verify(libres, times(1)).tomarSiguiente(1L);
+        verify(libres).devolver(53L);
+    }
+
+    @Test
+    @DisplayName("reservarSiguiente(): sorteo sin billetes libres -> IllegalStateException")
+    void reservarSiguiente_agotado() {
+        when(libres.tomarSiguiente(1L)).thenReturn(null);
+
+        assertThrows(IllegalStateException.class, () ->
+                service.reservarSiguiente(1L, new ReservaSorteoRequestDto(100L, null)));
+        verifyNoInteractions(billeteRepo, reservas);
+    }
+
+    @Test
+    @DisplayName("reservarSiguiente(): cliente inexistente -> el billete vuelve a los libres")
+    void reservarSiguiente_clienteInexistente_devuelveBillete() {
+        var b = billete(50L, "0050", new BigDecimal("10000"), EstadoBillete.DISPONIBLE);
+        when(libres.tomarSiguiente(1L)).thenReturn(50L);
+        when(billeteRepo.findById(50L)).thenReturn(Optional.of(b));
+        when(clienteRepo.findById(999L)).thenReturn(Optional.empty());
+
+        assertThrows(IllegalArgumentException.class, () ->
+                service.reservarSiguiente(1L, new ReservaSorteoRequestDto(999L, null)));
+        verify(libres).devolver(50L);
+    }
+
+    @Test
+    @DisplayName("reservarSiguiente(): sorteo virtual -> el billete lo crea NumerosVirtuales, no BilletesLibres")
+    void reservarSiguiente_sorteoVirtual() {
+        var b = billete(60L, "0001", new BigDecimal("10000"), EstadoBillete.DISPONIBLE);
+        var c = cliente(100L, "Cliente Prueba");
+
+        when(numeros.esVirtual(1L)).thenReturn(true);
+        when(numeros.tomarSiguiente(1L)).thenReturn(60L);
+        when(billeteRepo.findById(60L)).thenReturn(Optional.of(b));
+        when(clienteRepo.findById(100L)).thenReturn(Optional.of(c));
+        when(billeteRepo.reclamarSi(60L, EstadoBillete.DISPONIBLE, EstadoBillete.RESERVADO, c)).thenReturn(1);
+        when(reservas.registrar(60L, 100L, null)).thenReturn(
+                new ReservasBilletes.Reserva("tok-60", 60L, 100L, LocalDateTime.now().plusSeconds(300)));
+
+        var out = service.reservarSiguiente(1L, new ReservaSorteoRequestDto(100L, null));
+
+        assertThat(out.getBilleteId()).isEqualTo(60L);
+        verifyNoInteractions(libres);
+    }
+
+    @Test
+    @DisplayName("reservarAleatorio(): sorteo virtual y cliente inexistente -> el número vuelve a NumerosVirtuales")
+    void reservarAleatorio_sorteoVirtual_clienteInexistente_devuelveNumero() {
+        var b = billete(62L, "0002", new BigDecimal("10000"), EstadoBillete.DISPONIBLE);
+        when(numeros.esVirtual(1L)).thenReturn(true);
+        when(numeros.tomarAleatorio(1L)).thenReturn(62L);
+        when(billeteRepo.findById(62L)).thenReturn(Optional.of(b));
+        when(clienteRepo.findById(999L)).thenReturn(Optional.empty());
+
+        assertThrows(IllegalArgumentException.class, () ->
+                service.reservarAleatorio(1L, new ReservaSorteoRequestDto(999L, null)));
+        verify(numeros).devolver(62L);
+        verifyNoInteractions(libres);
+    }
+
+    @Test
+    @DisplayName("reservarNumero(): crea el billete del número y lo reserva")
+    void reservarNumero_ok() {
+        var b = billete(61L, "0007", new BigDecimal("10000"), EstadoBillete.DISPONIBLE);
+        var c = cliente(100L, "Cliente Prueba");
+
+        when(numeros.billeteId(1L, 7)).thenReturn(61L);
+        when(billeteRepo.findById(61L)).thenReturn(Optional.of(b));
+        when(clienteRepo.findById(100L)).thenReturn(Optional.of(c));
+        when(billeteRepo.reclamarSi(61L, EstadoBillete.DISPONIBLE, EstadoBillete.RESERVADO, c)).thenReturn(1);
+        when(reservas.registrar(61L, 100L, 60)).thenReturn(
+                new ReservasBilletes.Reserva("tok-61", 61L, 100L, LocalDateTime.now().plusSeconds(60)));
+
+        var out = service.reservarNumero(1L, "0007", new ReservaSorteoRequestDto(100L, 60));
+
+        assertThat(out.getBilleteId()).isEqualTo(61L);
+        assertThat(out.getNumeroBillete()).isEqualTo("0007");
+    }
+
+    @Test
+    @DisplayName("vender() con token: consume la reserva y reclama RESERVADO -> VENDIDO")
+    void vender_conReserva_ok() {
+        var b = billete(50L, "0050", new BigDecimal("10000"), EstadoBillete.RESERVADO);
+        var c = cliente(100L, "Cliente Prueba");
+
+        when(reservas.consumir("tok-50", 50L, 100L)).thenReturn(
+                new ReservasBilletes.Reserva("tok-50", 50L, 100L, LocalDateTime.now().plusSeconds(60)));
+        when(billeteRepo.findById(50L)).thenReturn(Optional.of(b));
+        when(clienteRepo.findById(100L)).thenReturn(Optional.of(c));
+        when(billeteRepo.reclamarSi(50L, EstadoBillete.RESERVADO, EstadoBillete.VENDIDO, c)).thenReturn(1);
+        when(ventaRepo.save(any(Venta.class))).thenAnswer(inv -> inv.getArgument(0, Venta.class));
+
+        var out = service.vender(new VentaRequestDto(50L, 100L, "tok-50"));
+
+        assertThat(out.getBilleteId()).isEqualTo(50L);
+        assertThat(b.getEstado()).isEqualTo(EstadoBillete.VENDIDO);
+        assertThat(disponibilidad.estaVendido(50L)).isTrue();
+        verify(reservas, never()).restaurar(any());
+    }
+
+    @Test
+    @DisplayName("vender() con token vencido -> IllegalStateException sin abrir transacción")
+    void vender_conReservaVencida() {
+        when(reservas.consumir("viejo", 50L, 100L))
+                .thenThrow(new IllegalStateException("La reserva no existe o ya expiró"));
+
+        assertThrows(IllegalStateException.class, () ->
+                service.vender(new VentaRequestDto(50L, 100L, "viejo")));
+
+        verifyNoInteractions(billeteRepo, clienteRepo, ventaRepo, txManager);
+    }
+
+    @Test
+    @DisplayName("vender() con token: si falla la venta, la reserva se restaura")
+    void vender_conReserva_fallaPersistencia_restauraReserva() {
+        var b = billete(50L, "0050", new BigDecimal("10000"), EstadoBillete.RESERVADO);
+        var c = cliente(100L, "Cliente Prueba");
+        var reserva = new ReservasBilletes.Reserva("tok-50", 50L, 100L, LocalDateTime.now().plusSeconds(60));
+
+        when(reservas.consumir("tok-50", 50L, 100L)).thenReturn(reserva);
+        when(billeteRepo.findById(50L)).thenReturn(Optional.of(b));
+        when(clienteRepo.findById(100L)).thenReturn(Optional.of(c));
+        when(billeteRepo.reclamarSi(50L, EstadoBillete.RESERVADO, EstadoBillete.VENDIDO, c)).thenReturn(1);
+        when(ventaRepo.save(any(Venta.class))).thenThrow(new RuntimeException("Fallo DB"));
+
+        assertThrows(RuntimeException.class, () -> service.vender(new VentaRequestDto(50L, 100L, "tok-50")));
+
+        verify(reservas).restaurar(reserva);
+        verify(txManager).rollback(any());
+        assertThat(disponibilidad.estaVendido(50L)).isFalse();
+    }
+
+    /* =====================================================
+       VENTA POR LOTE
+    ===================================================== */
+
+    @Test
+    @DisplayName("venderLote(): bloquea en orden de ID, actualiza por conjunto e inserta todas las ventas")
+    void venderLote_ok() {
+        var b1 = billete(40L, "0040", new BigDecimal("10000"), EstadoBillete.DISPONIBLE);
+        var b2 = billete(41L, "0041", new BigDecimal("15000"), EstadoBillete.DISPONIBLE);
+        var c = cliente(100L, "Cliente Prueba");
+
+        when(clienteRepo.findById(100L)).thenReturn(Optional.of(c));
+        when(billeteRepo.bloquearPorIds(List.of(40L, 41L))).thenReturn(List.of(b1, b2));
+        when(billeteRepo.reclamarSi(List.of(40L, 41L), EstadoBillete.DISPONIBLE, EstadoBillete.VENDIDO, c))
+                .thenReturn(2);
+        when(ventaRepo.saveAll(anyList())).thenAnswer(inv -> {
+            List<Venta> ventas = inv.getArgument(0);
+            long id = 500L;
+            for (Venta v : ventas) v.setId(id++);
+            return ventas;
+        });
+
+        // Se envían desordenados: el servicio debe ordenarlos antes de bloquear
+        var out = service.venderLote(new VentaLoteRequestDto(100L, List.of(41L, 40L)));
+
+        assertThat(out.getCantidad()).isEqualTo(2);
+        assertThat(out.getTotal()).isEqualByComparingTo("25000");
+        assertThat(out.getVentas()).extracting("billeteId").containsExactly(40L, 41L);
+        assertThat(b1.getEstado()).isEqualTo(EstadoBillete.VENDIDO);
+        assertThat(disponibilidad.estaVendido(40L)).isTrue();
+        assertThat(disponibilidad.estaVendido(41L)).isTrue();
+        verify(ventaRepo, never()).save(any());
+        verify(txManager).commit(any());
+        // Una sola suma al resumen del cliente por todo el lote
+        verify(compras).sumar(eq(100L), eq(2), argThat(t -> t.compareTo(new BigDecimal("25000")) == 0),
+                any(LocalDateTime.class));
+    }
+
+    @Test
+    @DisplayName("venderLote(): un billete no disponible -> 409 y no se vende ninguno")
+    void venderLote_unoNoDisponible_noVendeNinguno() {
+        var b1 = billete(40L, "0040", new BigDecimal("10000"), EstadoBillete.DISPONIBLE);
+        var b2 = billete(41L, "0041", new BigDecimal("10000"), EstadoBillete.VENDIDO);
+        var c = cliente(100L, "Cliente Prueba");
+
+        when(clienteRepo.findById(100L)).thenReturn(Optional.of(c));
+        when(billeteRepo.bloquearPorIds(List.of(40L, 41L))).thenReturn(List.of(b1, b2));
+
+        var ex = assertThrows(IllegalStateException.class, () ->
+                service.venderLote(new VentaLoteRequestDto(100L, List.of(40L, 41L))));
+
+        assertThat(ex.getMessage()).contains("41");
+        verify(billeteRepo, never()).reclamarSi(anyList(), any(), any(), any());
+        verifyNoInteractions(ventaRepo, compras);
+        verify(txManager).rollback(any());
+        assertThat(disponibilidad.estaVendido(40L)).isFalse();
+    }
+
+    @Test
+    @DisplayName("venderLote(): billete inexistente -> IllegalArgumentException")
+    void venderLote_billeteNoExiste() {
+        var b1 = billete(40L, "0040", new BigDecimal("10000"), EstadoBillete.DISPONIBLE);
+        var c = cliente(100L, "Cliente Prueba");
+
+        when(clienteRepo.findById(100L)).thenReturn(Optional.of(c));
+        when(billeteRepo.bloquearPorIds(List.of(40L, 99L))).thenReturn(List.of(b1));
+
+        var ex = assertThrows(IllegalArgumentException.class, () ->
+                service.venderLote(new VentaLoteRequestDto(100L, List.of(40L, 99L))));
+
+        assertThat(ex.getMessage()).contains("99");
+        verifyNoInteractions(ventaRepo);
+    }
+
+    @Test
+    @DisplayName("venderLote(): IDs repetidos -> IllegalArgumentException sin abrir transacción")
+    void venderLote_idsRepetidos() {
+        assertThrows(IllegalArgumentException.class, () ->
+                service.venderLote(new VentaLoteRequestDto(100L, List.of(40L, 40L))));
+
+        verifyNoInteractions(billeteRepo, clienteRepo, ventaRepo, txManager);
     }
 }